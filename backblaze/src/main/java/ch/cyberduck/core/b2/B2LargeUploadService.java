@@ -15,7 +15,6 @@ package ch.cyberduck.core.b2;
  * GNU General Public License for more details.
  */
 
-import ch.cyberduck.core.BytecountStreamListener;
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.DisabledListProgressListener;
@@ -30,12 +29,9 @@ import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.HostPreferences;
-import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
-import ch.cyberduck.core.transfer.SegmentRetryCallable;
 import ch.cyberduck.core.transfer.TransferStatus;
-import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+import ch.cyberduck.core.upload.MultipartUploadProvider;
+import ch.cyberduck.core.upload.MultipartUploadService;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -43,15 +39,10 @@ import org.apache.logging.log4j.Logger;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 
-import com.google.common.base.Throwables;
-import com.google.common.util.concurrent.Uninterruptibles;
 import synapticloop.b2.exception.B2ApiException;
 import synapticloop.b2.response.B2FileInfoResponse;
 import synapticloop.b2.response.B2FinishLargeFileResponse;
@@ -60,7 +51,8 @@ import synapticloop.b2.response.BaseB2Response;
 
 import static ch.cyberduck.core.b2.B2MetadataFeature.X_BZ_INFO_SRC_LAST_MODIFIED_MILLIS;
 
-public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, MessageDigest> {
+public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, MessageDigest>
+        implements MultipartUploadProvider<BaseB2Response, String, B2UploadPartResponse> {
     private static final Logger log = LogManager.getLogger(B2LargeUploadService.class);
 
     /**
@@ -100,96 +92,82 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
                                  final StreamListener listener,
                                  final TransferStatus status,
                                  final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("largeupload", concurrency);
-        try {
-            // Get the results of the uploads in the order they were submitted
-            // this is important for building the manifest, and is not a problem in terms of performance
-            // because we should only continue when all segments have uploaded successfully
-            final List<B2UploadPartResponse> completed = new ArrayList<>();
-            final Map<String, String> fileinfo = new HashMap<>(status.getMetadata());
-            final Checksum checksum = status.getChecksum();
-            if(Checksum.NONE != checksum) {
-                switch(checksum.algorithm) {
-                    case sha1:
-                        fileinfo.put(X_BZ_INFO_LARGE_FILE_SHA1, status.getChecksum().hash);
-                        break;
-                }
-            }
-            if(null != status.getTimestamp()) {
-                fileinfo.put(X_BZ_INFO_SRC_LAST_MODIFIED_MILLIS, String.valueOf(status.getTimestamp()));
-            }
-            final String fileId;
-            if(status.isAppend()) {
-                // Add already completed parts
-                final B2LargeUploadPartService partService = new B2LargeUploadPartService(session, fileid);
-                final List<B2FileInfoResponse> uploads = partService.find(file);
-                if(uploads.isEmpty()) {
-                    fileId = session.getClient().startLargeFileUpload(fileid.getVersionId(containerService.getContainer(file), new DisabledListProgressListener()),
-                            containerService.getKey(file), status.getMime(), fileinfo).getFileId();
-                }
-                else {
-                    fileId = uploads.iterator().next().getFileId();
-                    completed.addAll(partService.list(fileId));
-                }
-            }
-            else {
-                fileId = session.getClient().startLargeFileUpload(fileid.getVersionId(containerService.getContainer(file), new DisabledListProgressListener()),
-                        containerService.getKey(file), status.getMime(), fileinfo).getFileId();
-            }
-            // Full size of file
-            final long size = status.getLength() + status.getOffset();
-            // Submit file segments for concurrent upload
-            final List<Future<B2UploadPartResponse>> parts = new ArrayList<>();
-            long remaining = status.getLength();
-            long offset = 0;
-            for(int partNumber = 1; remaining > 0; partNumber++) {
-                boolean skip = false;
-                if(status.isAppend()) {
-                    if(log.isInfoEnabled()) {
-                        log.info(String.format("Determine if part number %d can be skipped", partNumber));
-                    }
-                    for(B2UploadPartResponse c : completed) {
-                        if(c.getPartNumber().equals(partNumber)) {
-                            if(log.isInfoEnabled()) {
-                                log.info(String.format("Skip completed part number %d", partNumber));
-                            }
-                            skip = true;
-                            offset += c.getContentLength();
-                            break;
-                        }
-                    }
-                }
-                if(!skip) {
-                    final long length = Math.min(Math.max((size / B2LargeUploadService.MAXIMUM_UPLOAD_PARTS), partSize), remaining);
-                    // Submit to queue
-                    parts.add(this.submit(pool, file, local, throttle, listener, status, fileId, partNumber, offset, length, callback));
-                    if(log.isDebugEnabled()) {
-                        log.debug(String.format("Part %s submitted with size %d and offset %d", partNumber, length, offset));
-                    }
-                    remaining -= length;
-                    offset += length;
-                }
-            }
-            try {
-                for(Future<B2UploadPartResponse> f : parts) {
-                    completed.add(Uninterruptibles.getUninterruptibly(f));
-                }
-            }
-            catch(ExecutionException e) {
-                log.warn(String.format("Part upload failed with execution failure %s", e.getMessage()));
-                Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
-                throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
-            }
-            completed.sort(new Comparator<B2UploadPartResponse>() {
-                @Override
-                public int compare(final B2UploadPartResponse o1, final B2UploadPartResponse o2) {
-                    return o1.getPartNumber().compareTo(o2.getPartNumber());
-                }
-            });
-            final List<String> checksums = new ArrayList<>();
-            for(B2UploadPartResponse part : completed) {
-                checksums.add(part.getContentSha1());
+        return new MultipartUploadService<>(session.getHost(), this, concurrency).upload(file, local, throttle, listener, status, callback);
+    }
+
+    @Override
+    public String find(final Path file, final TransferStatus status) throws BackgroundException {
+        final List<B2FileInfoResponse> uploads = new B2LargeUploadPartService(session, fileid).find(file);
+        if(uploads.isEmpty()) {
+            return null;
+        }
+        return uploads.iterator().next().getFileId();
+    }
+
+    @Override
+    public Map<Integer, B2UploadPartResponse> list(final String fileId) throws BackgroundException {
+        final Map<Integer, B2UploadPartResponse> completed = new HashMap<>();
+        for(B2UploadPartResponse part : new B2LargeUploadPartService(session, fileid).list(fileId)) {
+            completed.put(part.getPartNumber(), part);
+        }
+        return completed;
+    }
+
+    @Override
+    public String start(final Path file, final TransferStatus status) throws BackgroundException {
+        final Map<String, String> fileinfo = new HashMap<>(status.getMetadata());
+        final Checksum checksum = status.getChecksum();
+        if(Checksum.NONE != checksum) {
+            switch(checksum.algorithm) {
+                case sha1:
+                    fileinfo.put(X_BZ_INFO_LARGE_FILE_SHA1, status.getChecksum().hash);
+                    break;
             }
+        }
+        if(null != status.getTimestamp()) {
+            fileinfo.put(X_BZ_INFO_SRC_LAST_MODIFIED_MILLIS, String.valueOf(status.getTimestamp()));
+        }
+        try {
+            return session.getClient().startLargeFileUpload(fileid.getVersionId(containerService.getContainer(file), new DisabledListProgressListener()),
+                    containerService.getKey(file), status.getMime(), fileinfo).getFileId();
+        }
+        catch(B2ApiException e) {
+            throw new B2ExceptionMappingService(fileid).map("Upload {0} failed", e, file);
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+    }
+
+    @Override
+    public long partsize(final String fileId, final long size) {
+        return Math.max((size / B2LargeUploadService.MAXIMUM_UPLOAD_PARTS), partSize);
+    }
+
+    @Override
+    public B2UploadPartResponse put(final String fileId, final Path file, final Local local, final BandwidthThrottle throttle,
+                                    final StreamListener listener, final TransferStatus overall, final TransferStatus status,
+                                    final ConnectionCallback callback) throws BackgroundException {
+        final Map<String, String> requestParameters = new HashMap<>();
+        requestParameters.put("fileId", fileId);
+        status.setParameters(requestParameters);
+        status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+        return (B2UploadPartResponse) super.upload(file, local, throttle, listener, status, overall, status, callback);
+    }
+
+    @Override
+    public long length(final B2UploadPartResponse part) {
+        return part.getContentLength();
+    }
+
+    @Override
+    public BaseB2Response complete(final String fileId, final Path file, final TransferStatus status,
+                                   final List<B2UploadPartResponse> completed) throws BackgroundException {
+        final List<String> checksums = new ArrayList<>();
+        for(B2UploadPartResponse part : completed) {
+            checksums.add(part.getContentSha1());
+        }
+        try {
             final B2FinishLargeFileResponse response = session.getClient().finishLargeFileUpload(fileId, checksums.toArray(new String[checksums.size()]));
             if(log.isInfoEnabled()) {
                 log.info(String.format("Finished large file upload %s with %d parts", file, completed.size()));
@@ -205,37 +183,6 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
         catch(IOException e) {
             throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
         }
-        finally {
-            pool.shutdown(false);
-        }
-    }
-
-    private Future<B2UploadPartResponse> submit(final ThreadPool pool, final Path file, final Local local,
-                                                final BandwidthThrottle throttle, final StreamListener listener,
-                                                final TransferStatus overall,
-                                                final String fileId, final int partNumber,
-                                                final Long offset, final Long length, final ConnectionCallback callback) {
-        if(log.isInfoEnabled()) {
-            log.info(String.format("Submit part %d of %s to queue with offset %d and length %d", partNumber, file, offset, length));
-        }
-        final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<B2UploadPartResponse>() {
-            @Override
-            public B2UploadPartResponse call() throws BackgroundException {
-                overall.validate();
-                final TransferStatus status = new TransferStatus()
-                        .withLength(length)
-                        .withOffset(offset);
-                final Map<String, String> requestParameters = new HashMap<>();
-                requestParameters.put("fileId", fileId);
-                status.setParameters(requestParameters);
-                status.setHeader(overall.getHeader());
-                status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
-                status.setSegment(true);
-                status.setPart(partNumber);
-                return (B2UploadPartResponse) B2LargeUploadService.super.upload(file, local, throttle, counter, status, overall, status, callback);
-            }
-        }, overall, counter));
     }
 
     @Override
@@ -0,0 +1,155 @@
+package ch.cyberduck.core.box;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.box.io.swagger.client.ApiException;
+import ch.cyberduck.core.box.io.swagger.client.JSON;
+import ch.cyberduck.core.box.io.swagger.client.Pair;
+import ch.cyberduck.core.box.io.swagger.client.model.File;
+import ch.cyberduck.core.box.io.swagger.client.model.Folder;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.ChangeFeed;
+import ch.cyberduck.core.preferences.HostPreferences;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.ws.rs.core.GenericType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Changes from the user event stream with <code>stream_type=changes</code>
+ */
+public class BoxChangeFeedFeature implements ChangeFeed {
+    private static final Logger log = LogManager.getLogger(BoxChangeFeedFeature.class);
+
+    private final BoxSession session;
+    private final BoxFileidProvider fileid;
+    private final BoxAttributesFinderFeature attributes;
+
+    public BoxChangeFeedFeature(final BoxSession session, final BoxFileidProvider fileid) {
+        this.session = session;
+        this.fileid = fileid;
+        this.attributes = new BoxAttributesFinderFeature(session, fileid);
+    }
+
+    @Override
+    public String cursor(final Path directory) throws BackgroundException {
+        try {
+            return Objects.toString(this.events("now").get("next_stream_position"));
+        }
+        catch(ApiException e) {
+            throw new BoxExceptionMappingService(fileid).map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    @Override
+    public String poll(final Path directory, final String cursor, final Listener listener) throws BackgroundException {
+        try {
+            String position = cursor;
+            while(true) {
+                final Map<String, Object> events = this.events(position);
+                final Object entries = events.get("entries");
+                if(entries instanceof List) {
+                    for(Object entry : (List) entries) {
+                        if(!(entry instanceof Map)) {
+                            continue;
+                        }
+                        final Path file = this.toPath(((Map) entry).get("source"));
+                        if(null == file) {
+                            continue;
+                        }
+                        if(file.isChild(directory)) {
+                            if(log.isDebugEnabled()) {
+                                log.debug(String.format("Change for file %s", file));
+                            }
+                            listener.changed(file);
+                        }
+                    }
+                }
+                final String next = Objects.toString(events.get("next_stream_position"));
+                if(Objects.equals(next, position) || !(entries instanceof List) || ((List) entries).isEmpty()) {
+                    return next;
+                }
+                position = next;
+            }
+        }
+        catch(ApiException e) {
+            throw new BoxExceptionMappingService(fileid).map("Listing directory {0} failed", e, directory);
+        }
+        catch(JsonProcessingException e) {
+            throw new DefaultIOExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    private Map<String, Object> events(final String position) throws ApiException {
+        final BoxApiClient client = new BoxApiClient(session.getClient());
+        final List<Pair> query = new ArrayList<>();
+        query.addAll(client.parameterToPairs("", "stream_position", position));
+        query.addAll(client.parameterToPairs("", "stream_type", "changes"));
+        query.addAll(client.parameterToPairs("", "limit", new HostPreferences(session.getHost()).getInteger("box.listing.chunksize")));
+        return client.invokeAPI("/events", "GET", query, null, Collections.emptyMap(), Collections.emptyMap(),
+            "application/json", "application/json", new String[]{}, new GenericType<Map<String, Object>>() {
+            });
+    }
+
+    /**
+     * @param source Item from event
+     * @return Null if not a file or folder
+     */
+    private Path toPath(final Object source) throws JsonProcessingException {
+        if(!(source instanceof Map)) {
+            return null;
+        }
+        final Object collection = ((Map) source).get("path_collection");
+        if(!(collection instanceof Map)) {
+            return null;
+        }
+        Path parent = new Path(String.valueOf(Path.DELIMITER), EnumSet.of(Path.Type.volume, Path.Type.directory));
+        final Object path = ((Map) collection).get("entries");
+        if(path instanceof List) {
+            for(Object folder : (List) path) {
+                if(!(folder instanceof Map)) {
+                    continue;
+                }
+                if(BoxFileidProvider.ROOT.equals(((Map) folder).get("id"))) {
+                    continue;
+                }
+                parent = new Path(parent, Objects.toString(((Map) folder).get("name")), EnumSet.of(Path.Type.directory));
+            }
+        }
+        switch(Objects.toString(((Map) source).get("type"))) {
+            case "file":
+                final File file = new JSON().getContext(null).readValue(new JSON().getContext(null)
+                    .writeValueAsString(source), File.class);
+                return new Path(parent, file.getName(), EnumSet.of(Path.Type.file), attributes.toAttributes(file));
+            case "folder":
+                final Folder folder = new JSON().getContext(null).readValue(new JSON().getContext(null)
+                    .writeValueAsString(source), Folder.class);
+                return new Path(parent, folder.getName(), EnumSet.of(Path.Type.directory), attributes.toAttributes(folder));
+        }
+        return null;
+    }
+}
@@ -15,7 +15,6 @@ package ch.cyberduck.core.box;
  * GNU General Public License for more details.
  */
 
-import ch.cyberduck.core.BytecountStreamListener;
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.Path;
@@ -31,29 +30,21 @@ import ch.cyberduck.core.http.HttpUploadFeature;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.HostPreferences;
-import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
-import ch.cyberduck.core.transfer.SegmentRetryCallable;
 import ch.cyberduck.core.transfer.TransferStatus;
-import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+import ch.cyberduck.core.upload.MultipartUploadProvider;
+import ch.cyberduck.core.upload.MultipartUploadService;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.security.MessageDigest;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
-import com.google.common.base.Throwables;
-import com.google.common.util.concurrent.Uninterruptibles;
-
-public class BoxLargeUploadService extends HttpUploadFeature<File, MessageDigest> {
+public class BoxLargeUploadService extends HttpUploadFeature<File, MessageDigest>
+        implements MultipartUploadProvider<File, UploadSession, File> {
     private static final Logger log = LogManager.getLogger(BoxLargeUploadService.class);
 
     public static final String UPLOAD_SESSION_ID = "uploadSessionId";
@@ -81,75 +72,45 @@ public class BoxLargeUploadService extends HttpUploadFeature<File, MessageDigest
     @Override
     public File upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                        final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
-        try {
-            final List<Future<File>> parts = new ArrayList<>();
-            long offset = 0;
-            long remaining = status.getLength();
-            final BoxUploadHelper helper = new BoxUploadHelper(session, fileid);
-            final UploadSession uploadSession = helper.createUploadSession(status, file);
-            for(int partNumber = 1; remaining > 0; partNumber++) {
-                final long length = Math.min(uploadSession.getPartSize(), remaining);
-                parts.add(this.submit(pool, file, local, throttle, listener, status,
-                        uploadSession.getId(), partNumber, offset, length, callback));
-                remaining -= length;
-                offset += length;
-            }
-            // Checksums for uploaded segments
-            final List<File> chunks = new ArrayList<>();
-            for(Future<File> f : parts) {
-                try {
-                    chunks.add(Uninterruptibles.getUninterruptibly(f));
-                }
-                catch(ExecutionException e) {
-                    log.warn(String.format("Part upload failed with execution failure %s", e.getMessage()));
-                    Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
-                    throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
-                }
-            }
-            final Files files = helper.commitUploadSession(file, uploadSession.getId(), status,
-                    chunks.stream().map(f -> new UploadPart().sha1(f.getSha1())).collect(Collectors.toList()));
-            if(files.getEntries().stream().findFirst().isPresent()) {
-                return files.getEntries().stream().findFirst().get();
-            }
-            throw new NotfoundException(file.getAbsolute());
-        }
-        finally {
-            // Cancel future tasks
-            pool.shutdown(false);
-        }
+        return new MultipartUploadService<>(session.getHost(), this, concurrency).upload(file, local, throttle, listener, status, callback);
+    }
+
+    @Override
+    public UploadSession start(final Path file, final TransferStatus status) throws BackgroundException {
+        return new BoxUploadHelper(session, fileid).createUploadSession(status, file);
+    }
+
+    @Override
+    public long partsize(final UploadSession uploadSession, final long size) {
+        return uploadSession.getPartSize();
+    }
+
+    @Override
+    public File put(final UploadSession uploadSession, final Path file, final Local local, final BandwidthThrottle throttle,
+                    final StreamListener listener, final TransferStatus overall, final TransferStatus status,
+                    final ConnectionCallback callback) throws BackgroundException {
+        status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+        final Map<String, String> parameters = new HashMap<>();
+        parameters.put(UPLOAD_SESSION_ID, uploadSession.getId());
+        parameters.put(OVERALL_LENGTH, String.valueOf(overall.getLength()));
+        status.withParameters(parameters);
+        return this.upload(file, local, throttle, listener, status, overall, status, callback);
     }
 
-    private Future<File> submit(final ThreadPool pool, final Path file, final Local local,
-                                final BandwidthThrottle throttle, final StreamListener listener,
-                                final TransferStatus overall, final String uploadSessionId, final int partNumber, final long offset, final long length, final ConnectionCallback callback) {
-        if(log.isInfoEnabled()) {
-            log.info(String.format("Submit %s to queue with offset %d and length %d", file, offset, length));
+    @Override
+    public long length(final File part) {
+        return null == part.getSize() ? 0L : part.getSize();
+    }
+
+    @Override
+    public File complete(final UploadSession uploadSession, final Path file, final TransferStatus status, final List<File> chunks) throws BackgroundException {
+        // Checksums for uploaded segments
+        final Files files = new BoxUploadHelper(session, fileid).commitUploadSession(file, uploadSession.getId(), status,
+                chunks.stream().map(f -> new UploadPart().sha1(f.getSha1())).collect(Collectors.toList()));
+        if(files.getEntries().stream().findFirst().isPresent()) {
+            return files.getEntries().stream().findFirst().get();
         }
-        final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<File>() {
-            @Override
-            public File call() throws BackgroundException {
-                overall.validate();
-                final TransferStatus status = new TransferStatus()
-                        .segment(true)
-                        .withOffset(offset)
-                        .withLength(length);
-                status.setPart(partNumber);
-                status.setHeader(overall.getHeader());
-                status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
-                final Map<String, String> parameters = new HashMap<>();
-                parameters.put(UPLOAD_SESSION_ID, uploadSessionId);
-                parameters.put(OVERALL_LENGTH, String.valueOf(overall.getLength()));
-                status.withParameters(parameters);
-                final File response = BoxLargeUploadService.this.upload(
-                        file, local, throttle, listener, status, overall, status, callback);
-                if(log.isInfoEnabled()) {
-                    log.info(String.format("Received response %s for part %d", response, partNumber));
-                }
-                return response;
-            }
-        }, overall, counter));
+        throw new NotfoundException(file.getAbsolute());
     }
 
     @Override
@@ -25,6 +25,7 @@ import ch.cyberduck.core.box.io.swagger.client.ApiException;
 import ch.cyberduck.core.box.io.swagger.client.api.UsersApi;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.AttributesFinder;
+import ch.cyberduck.core.features.ChangeFeed;
 import ch.cyberduck.core.features.Copy;
 import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.features.Directory;
@@ -139,6 +140,9 @@ public class BoxSession extends HttpSession<CloseableHttpClient> {
         if(type == PromptUrlProvider.class) {
             return (T) new BoxShareFeature(this, fileid);
         }
+        if(type == ChangeFeed.class) {
+            return (T) new BoxChangeFeedFeature(this, fileid);
+        }
         return super._getFeature(type);
     }
 }
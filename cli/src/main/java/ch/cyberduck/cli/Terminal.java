@@ -16,67 +16,53 @@ package ch.cyberduck.cli;
  */
 
 import ch.cyberduck.core.*;
-import ch.cyberduck.core.azure.AzureProtocol;
-import ch.cyberduck.core.b2.B2Protocol;
-import ch.cyberduck.core.box.BoxProtocol;
-import ch.cyberduck.core.brick.BrickProtocol;
 import ch.cyberduck.core.cdn.Distribution;
-import ch.cyberduck.core.ctera.CteraProtocol;
-import ch.cyberduck.core.dav.DAVProtocol;
-import ch.cyberduck.core.dav.DAVSSLProtocol;
-import ch.cyberduck.core.dropbox.DropboxProtocol;
 import ch.cyberduck.core.editor.DefaultEditorListener;
 import ch.cyberduck.core.editor.Editor;
 import ch.cyberduck.core.editor.EditorFactory;
 import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
-import ch.cyberduck.core.ftp.FTPProtocol;
-import ch.cyberduck.core.ftp.FTPTLSProtocol;
-import ch.cyberduck.core.googledrive.DriveProtocol;
-import ch.cyberduck.core.googlestorage.GoogleStorageProtocol;
-import ch.cyberduck.core.hubic.HubicProtocol;
 import ch.cyberduck.core.io.DisabledStreamListener;
-import ch.cyberduck.core.irods.IRODSProtocol;
 import ch.cyberduck.core.local.Application;
 import ch.cyberduck.core.local.ApplicationFinder;
 import ch.cyberduck.core.local.ApplicationFinderFactory;
 import ch.cyberduck.core.local.TemporaryFileServiceFactory;
 import ch.cyberduck.core.logging.LoggerPrintStream;
-import ch.cyberduck.core.manta.MantaProtocol;
-import ch.cyberduck.core.nextcloud.NextcloudProtocol;
-import ch.cyberduck.core.nio.LocalProtocol;
-import ch.cyberduck.core.onedrive.OneDriveProtocol;
-import ch.cyberduck.core.onedrive.SharepointProtocol;
-import ch.cyberduck.core.onedrive.SharepointSiteProtocol;
-import ch.cyberduck.core.openstack.SwiftProtocol;
-import ch.cyberduck.core.owncloud.OwncloudProtocol;
 import ch.cyberduck.core.pool.SessionPool;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
-import ch.cyberduck.core.s3.S3Protocol;
-import ch.cyberduck.core.sds.SDSProtocol;
-import ch.cyberduck.core.sftp.SFTPProtocol;
-import ch.cyberduck.core.spectra.SpectraProtocol;
 import ch.cyberduck.core.ssl.CertificateStoreX509TrustManager;
 import ch.cyberduck.core.ssl.DefaultTrustManagerHostnameCallback;
 import ch.cyberduck.core.ssl.PreferencesX509KeyManager;
-import ch.cyberduck.core.storegate.StoregateProtocol;
+import ch.cyberduck.core.threading.BackgroundAction;
+import ch.cyberduck.core.threading.BackgroundActionListener;
+import ch.cyberduck.core.threading.BackgroundActionState;
 import ch.cyberduck.core.threading.DisabledAlertCallback;
 import ch.cyberduck.core.threading.DisconnectBackgroundAction;
+import ch.cyberduck.core.threading.NamedThreadFactory;
 import ch.cyberduck.core.threading.SessionBackgroundAction;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.CopyTransfer;
+import ch.cyberduck.core.transfer.DisabledTransferErrorCallback;
 import ch.cyberduck.core.transfer.DisabledTransferPrompt;
+import ch.cyberduck.core.transfer.SyncTransfer;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferAction;
+import ch.cyberduck.core.transfer.TransferConnectionLimiter;
+import ch.cyberduck.core.transfer.TransferErrorCallback;
 import ch.cyberduck.core.transfer.TransferItem;
 import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferPrompt;
 import ch.cyberduck.core.transfer.TransferSpeedometer;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.transfer.synchronisation.ContinuousSynchronizer;
 import ch.cyberduck.core.vault.LoadingVaultLookupListener;
 import ch.cyberduck.core.vault.VaultRegistryFactory;
 import ch.cyberduck.core.worker.AttributesWorker;
 import ch.cyberduck.core.worker.CreateDirectoryWorker;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
 import ch.cyberduck.core.worker.DeleteWorker;
 import ch.cyberduck.core.worker.DistributionPurgeWorker;
 import ch.cyberduck.core.worker.HomeFinderWorker;
@@ -89,19 +75,43 @@ import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.commons.text.StringTokenizer;
+import org.apache.commons.text.matcher.StringMatcherFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.gson.JsonObject;
 
 public class Terminal {
     private static final Logger log = LogManager.getLogger(Terminal.class);
@@ -130,43 +140,16 @@ public class Terminal {
     public Terminal(final ProtocolFactory protocols, final TerminalPreferences defaults, final Options options, final CommandLine input) {
         this.protocols = protocols;
         this.preferences = defaults.withDefaults(input);
-        this.protocols.register(
-                new FTPProtocol(),
-                new FTPTLSProtocol(),
-                new SFTPProtocol(),
-                new DAVProtocol(),
-                new DAVSSLProtocol(),
-                new SwiftProtocol(),
-                new S3Protocol(),
-                new GoogleStorageProtocol(),
-                new AzureProtocol(),
-                new IRODSProtocol(),
-                new SpectraProtocol(),
-                new B2Protocol(),
-                new DriveProtocol(),
-                new HubicProtocol(),
-                new DropboxProtocol(),
-                new DropboxProtocol(),
-                new OneDriveProtocol(),
-                new SharepointProtocol(),
-                new SharepointSiteProtocol(),
-                new LocalProtocol(),
-                new SDSProtocol(),
-                new MantaProtocol(),
-                new StoregateProtocol(),
-                new BrickProtocol(),
-                new NextcloudProtocol(),
-                new OwncloudProtocol(),
-                new CteraProtocol(),
-                new BoxProtocol()
-        );
+        // Protocol implementations in modules on classpath
+        this.protocols.discover();
         this.options = options;
         if(log.isInfoEnabled()) {
             log.info(String.format("Parsed options %s from input %s", options, input));
         }
         this.input = input;
         this.cache = new PathCache(preferences.getInteger("browser.cache.size"));
-        this.progress = input.hasOption(TerminalOptionsBuilder.Params.quiet.name())
+        // Only print machine readable output with JSON option
+        this.progress = input.hasOption(TerminalOptionsBuilder.Params.quiet.name()) || input.hasOption(TerminalOptionsBuilder.Params.json.name())
                 ? new DisabledListProgressListener() : new TerminalProgressListener();
         this.transcript = input.hasOption(TerminalOptionsBuilder.Params.verbose.name())
                 ? new TerminalTranscriptListener() : new DisabledTranscriptListener();
@@ -272,6 +255,12 @@ public class Terminal {
             if(null == action) {
                 return Exit.failure;
             }
+            if(TerminalAction.batch == action) {
+                return this.batch(login);
+            }
+            if(TerminalAction.daemon == action) {
+                return this.daemon(login);
+            }
             final String uri = input.getOptionValue(action.name());
             final Host host = new CommandLineUriParser(input, protocols).parse(uri);
             final LoginConnectionService connect = new LoginConnectionService(new TerminalLoginService(input),
@@ -357,9 +346,12 @@ public class Terminal {
                     return this.purge(source, remote);
             }
             switch(action) {
+                case synchronize:
+                    if(input.hasOption(TerminalOptionsBuilder.Params.watch.name())) {
+                        return this.watch(login, host, new SingleTransferItemFinder().find(input, action, remote).iterator().next(), source);
+                    }
                 case download:
                 case upload:
-                case synchronize:
                     return this.transfer(login, new TerminalTransferFactory().create(input, host, remote,
                                     new ArrayList<>(new SingleTransferItemFinder().find(input, action, remote))),
                             source, SessionPool.DISCONNECTED);
@@ -419,6 +411,19 @@ public class Terminal {
     }
 
     protected Exit transfer(final LoginCallback login, final Transfer transfer, final SessionPool source, final SessionPool destination) {
+        try {
+            this.execute(this.action(input, login, transfer, source, destination));
+        }
+        catch(TerminalBackgroundException e) {
+            return Exit.failure;
+        }
+        return Exit.success;
+    }
+
+    /**
+     * @param input Options for transfer
+     */
+    private TerminalTransferBackgroundAction action(final CommandLine input, final LoginCallback login, final Transfer transfer, final SessionPool source, final SessionPool destination) {
         // Transfer
         final TransferSpeedometer meter = new TransferSpeedometer(transfer);
         final TransferPrompt prompt;
@@ -448,24 +453,381 @@ public class Terminal {
         else {
             prompt = new TerminalTransferPrompt(transfer.getType());
         }
-        final TerminalTransferBackgroundAction action = new TerminalTransferBackgroundAction(controller,
+        return new TerminalTransferBackgroundAction(controller,
                 source, destination,
                 transfer.withCache(cache), new TransferOptions().reload(true), prompt, login, new TerminalTransferErrorCallback(reader), meter,
                 input.hasOption(TerminalOptionsBuilder.Params.quiet.name())
                         ? new DisabledStreamListener() : new TerminalStreamListener(meter)
         );
+    }
+
+    /**
+     * Synchronize folder and keep running to synchronize further changes until interrupted
+     */
+    protected Exit watch(final LoginCallback login, final Host host, final TransferItem item, final SessionPool source) throws BackgroundException {
+        final TransferAction action = input.hasOption(TerminalOptionsBuilder.Params.existing.name()) ?
+                TransferAction.forName(input.getOptionValue(TerminalOptionsBuilder.Params.existing.name())) : TransferAction.mirror;
+        final Session<?> session = source.borrow(BackgroundActionState.running);
         try {
-            this.execute(action);
+            final ContinuousSynchronizer synchronizer = new ContinuousSynchronizer(session, item, new ContinuousSynchronizer.Callback() {
+                @Override
+                public Map<TransferItem, TransferStatus> synchronize(final List<TransferItem> items) throws BackgroundException {
+                    final Map<TransferItem, TransferStatus> files = new HashMap<>();
+                    final Transfer transfer = new SyncTransfer(host, items, action) {
+                        @Override
+                        public void post(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> status,
+                                         final TransferErrorCallback error, final ProgressListener listener, final ConnectionCallback callback) throws BackgroundException {
+                            files.putAll(status);
+                            super.post(source, destination, status, error, listener, callback);
+                        }
+                    };
+                    // Remote state may have changed since last run
+                    run(unattended(input, login, transfer.withCache(new PathCache(preferences.getInteger("browser.cache.size"))),
+                            action, source, SessionPool.DISCONNECTED));
+                    return files;
+                }
+            });
+            final CountDownLatch stop = new CountDownLatch(1);
+            Runtime.getRuntime().addShutdownHook(new Thread(stop::countDown));
+            try {
+                synchronizer.start();
+                stop.await();
+            }
+            catch(InterruptedException e) {
+                log.warn(String.format("Interrupted watching %s", item));
+            }
+            finally {
+                synchronizer.close();
+            }
         }
-        catch(TerminalBackgroundException e) {
-            return Exit.failure;
+        finally {
+            // Session used to poll for remote changes until closed
+            source.release(session, null);
         }
         return Exit.success;
     }
 
+    /**
+     * Run commands read line by line from file or standard input in a single process. Connections are shared for
+     * commands with the same host and commands run concurrently up to the number of parallel connections.
+     */
+    protected Exit batch(final LoginCallback login) throws BackgroundException {
+        final String file = input.getOptionValue(TerminalAction.batch.name());
+        final List<String> lines;
+        try {
+            if(StringUtils.equals("-", file)) {
+                lines = IOUtils.readLines(System.in, StandardCharsets.UTF_8);
+            }
+            else {
+                try (InputStream in = LocalFactory.get(file).getInputStream()) {
+                    lines = IOUtils.readLines(in, StandardCharsets.UTF_8);
+                }
+            }
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map(e);
+        }
+        final LoginConnectionService connect = new LoginConnectionService(new TerminalLoginService(input),
+                login, new TerminalHostKeyVerifier(reader), progress);
+        // Session pool for host
+        final Map<String, SessionPool> pools = new ConcurrentHashMap<>();
+        final ThreadPool pool = ThreadPoolFactory.get("batch", this.getConcurrency());
+        final Console console = new Console();
+        final List<Future<Exit>> jobs = new ArrayList<>();
+        try {
+            for(int i = 0; i < lines.size(); i++) {
+                final String line = StringUtils.trim(lines.get(i));
+                if(StringUtils.isBlank(line) || StringUtils.startsWith(line, "#")) {
+                    continue;
+                }
+                final int number = i + 1;
+                jobs.add(pool.execute(() -> {
+                    final JsonObject result = this.job(login, connect, pools, number, line);
+                    console.printf("%s%n", result);
+                    // Skipped job is a duplicate of an identical command still running
+                    return StringUtils.equals(Exit.failure.name(), result.get("status").getAsString()) ? Exit.failure : Exit.success;
+                }));
+            }
+            Exit exit = Exit.success;
+            for(Future<Exit> job : jobs) {
+                try {
+                    if(Exit.failure == Uninterruptibles.getUninterruptibly(job)) {
+                        exit = Exit.failure;
+                    }
+                }
+                catch(ExecutionException e) {
+                    log.error(String.format("Failure running batch job. %s", e.getMessage()));
+                    exit = Exit.failure;
+                }
+            }
+            return exit;
+        }
+        finally {
+            pool.shutdown(true);
+            for(SessionPool session : pools.values()) {
+                this.disconnect(session);
+            }
+        }
+    }
+
+    /**
+     * Keep running to accept commands on a Unix domain socket. Commands are read line by line from connected
+     * clients and a JSON result is written back for every command. Connections are kept between commands.
+     * Each client is served by its own thread while commands of all clients run concurrently up to the number of
+     * parallel connections.
+     */
+    protected Exit daemon(final LoginCallback login) throws BackgroundException {
+        final Local socket = LocalFactory.get(input.getOptionValue(TerminalAction.daemon.name()));
+        final LoginConnectionService connect = new LoginConnectionService(new TerminalLoginService(input),
+                login, new TerminalHostKeyVerifier(reader), progress);
+        // Session pool for host
+        final Map<String, SessionPool> pools = new ConcurrentHashMap<>();
+        // Jobs of all clients
+        final ThreadPool pool = ThreadPoolFactory.get("daemon", this.getConcurrency(), ThreadPool.Priority.norm,
+                new LinkedBlockingQueue<>(Integer.MAX_VALUE));
+        // Connected clients waiting for commands
+        final ExecutorService clients = Executors.newCachedThreadPool(new NamedThreadFactory("daemon-client"));
+        try (ServerSocketChannel server = new UnixDomainSocketFactory().bind(socket)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                }
+                catch(IOException e) {
+                    log.warn(String.format("Failure closing socket %s. %s", socket, e.getMessage()));
+                }
+            }));
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Listening on %s", socket));
+            }
+            while(server.isOpen()) {
+                final SocketChannel client;
+                try {
+                    client = server.accept();
+                }
+                catch(ClosedChannelException e) {
+                    break;
+                }
+                clients.execute(() -> {
+                    try (BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+                         PrintWriter out = new PrintWriter(new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8), true)) {
+                        int number = 0;
+                        String line;
+                        while((line = in.readLine()) != null) {
+                            number++;
+                            line = StringUtils.trim(line);
+                            if(StringUtils.isBlank(line) || StringUtils.startsWith(line, "#")) {
+                                continue;
+                            }
+                            final int job = number;
+                            final String command = line;
+                            out.println(pool.execute(() -> this.job(login, connect, pools, job, command)).get());
+                        }
+                    }
+                    catch(IOException | ExecutionException | CancellationException | InterruptedException e) {
+                        log.warn(String.format("Failure serving client %s. %s", client, e.getMessage()));
+                    }
+                    finally {
+                        try {
+                            client.close();
+                        }
+                        catch(IOException e) {
+                            log.warn(String.format("Failure closing client %s. %s", client, e.getMessage()));
+                        }
+                    }
+                });
+            }
+            return Exit.success;
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map(e);
+        }
+        finally {
+            clients.shutdownNow();
+            pool.shutdown(false);
+            for(SessionPool session : pools.values()) {
+                this.disconnect(session);
+            }
+            try {
+                socket.delete();
+            }
+            catch(AccessDeniedException | NotfoundException e) {
+                log.warn(String.format("Failure deleting socket %s. %s", socket, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * @param number Line number of command
+     * @param line   Command with action and arguments
+     * @return Result with status of success, failure or skipped and error if any
+     */
+    private JsonObject job(final LoginCallback login, final LoginConnectionService connect, final Map<String, SessionPool> pools,
+                           final int number, final String line) {
+        final long start = System.currentTimeMillis();
+        final JsonObject result = new JsonObject();
+        result.addProperty("line", number);
+        result.addProperty("command", line);
+        try {
+            result.addProperty("status", this.job(login, connect, pools, line) ? Exit.success.name() : "skipped");
+        }
+        catch(BackgroundException e) {
+            result.addProperty("status", Exit.failure.name());
+            result.addProperty("error", e.getMessage());
+            result.addProperty("detail", e.getDetail());
+        }
+        result.addProperty("duration", System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * Run command without prompts and without output other than the result. Listings are cached for the command only.
+     *
+     * @param line Command with action and arguments
+     * @return False if skipped as duplicate of identical command still running
+     */
+    private boolean job(final LoginCallback login, final LoginConnectionService connect, final Map<String, SessionPool> pools,
+                        final String line) throws BackgroundException {
+        final CommandLine job;
+        try {
+            job = new DefaultParser().parse(options, new StringTokenizer(line).setQuoteMatcher(StringMatcherFactory.INSTANCE.quoteMatcher()).getTokenArray());
+        }
+        catch(ParseException e) {
+            throw new BackgroundException(LocaleFactory.localizedString("Unknown"), e.getMessage());
+        }
+        final TerminalAction action = TerminalActionFinder.get(job);
+        if(null == action) {
+            throw new BackgroundException(LocaleFactory.localizedString("Unknown"), String.format("Missing action in %s", line));
+        }
+        final String uri = job.getOptionValue(action.name());
+        final Host host = new CommandLineUriParser(job, protocols).parse(uri);
+        final Path remote = new CommandLinePathParser(job, protocols).parse(uri);
+        final SessionPool source = this.pool(login, connect, pools, host);
+        final Cache<Path> cache = new PathCache(preferences.getInteger("browser.cache.size"));
+        switch(action) {
+            case download:
+            case upload:
+                return this.run(this.unattended(job, login, new TerminalTransferFactory().create(job, host, remote,
+                                new ArrayList<>(new SingleTransferItemFinder().find(job, action, remote))).withCache(cache),
+                        source, SessionPool.DISCONNECTED));
+            case copy:
+                final Host target = new CommandLineUriParser(job, protocols).parse(job.getOptionValues(action.name())[1]);
+                return this.run(this.unattended(job, login, new CopyTransfer(host, target,
+                                Collections.singletonMap(remote, new CommandLinePathParser(job, protocols).parse(job.getOptionValues(action.name())[1]))).withCache(cache),
+                        source, this.pool(login, connect, pools, target)));
+            case delete:
+                return this.run(new TerminalBackgroundAction<>(controller, source, this.delete(job, remote),
+                        controller, new DisabledAlertCallback()));
+            case mkdir:
+                return this.run(new TerminalBackgroundAction<>(controller, source, new CreateDirectoryWorker(remote,
+                        job.getOptionValue(TerminalOptionsBuilder.Params.region.name())), controller, new DisabledAlertCallback()));
+            default:
+                throw new BackgroundException(LocaleFactory.localizedString("Unknown"),
+                        String.format("Unsupported action %s in batch", action.name()));
+        }
+    }
+
+    /**
+     * Transfer for command in batch with no prompt for existing files and no progress output
+     *
+     * @param job Options for transfer
+     */
+    private TerminalTransferBackgroundAction unattended(final CommandLine job, final LoginCallback login, final Transfer transfer,
+                                                        final SessionPool source, final SessionPool destination) {
+        return this.unattended(job, login, transfer, job.hasOption(TerminalOptionsBuilder.Params.existing.name()) ?
+                TransferAction.forName(job.getOptionValue(TerminalOptionsBuilder.Params.existing.name())) : TransferAction.comparison,
+                source, destination);
+    }
+
+    /**
+     * @param action Action for existing files
+     */
+    private TerminalTransferBackgroundAction unattended(final CommandLine job, final LoginCallback login, final Transfer transfer,
+                                                        final TransferAction action, final SessionPool source, final SessionPool destination) {
+        final Host host = transfer.getSource();
+        if(job.hasOption(TerminalOptionsBuilder.Params.parallel.name())) {
+            host.setTransfer(Host.TransferType.concurrent);
+        }
+        else {
+            host.setTransfer(Host.TransferType.newconnection);
+        }
+        return new TerminalTransferBackgroundAction(controller, source, destination,
+                transfer, new TransferOptions().reload(true), new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return action;
+            }
+        }, login, new DisabledTransferErrorCallback(), new TransferSpeedometer(transfer), new DisabledStreamListener()) {
+            @Override
+            public boolean alert(final BackgroundException failure) {
+                // Failure is returned in result
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Run action for command in batch or for changes watched
+     *
+     * @return False if skipped as duplicate of identical action still running
+     */
+    private boolean run(final SessionBackgroundAction<?> action) throws BackgroundException {
+        final AtomicBoolean started = new AtomicBoolean();
+        action.addListener(new BackgroundActionListener() {
+            @Override
+            public void start(final BackgroundAction action) {
+                started.set(true);
+            }
+
+            @Override
+            public void cancel(final BackgroundAction action) {
+                //
+            }
+
+            @Override
+            public void stop(final BackgroundAction action) {
+                //
+            }
+        });
+        try {
+            controller.background(action).get();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DefaultExceptionMappingService().map(e);
+        }
+        catch(ExecutionException e) {
+            throw new DefaultExceptionMappingService().map(e.getCause());
+        }
+        if(action.hasFailed()) {
+            throw action.getFailure();
+        }
+        return started.get();
+    }
+
+    /**
+     * @return Number of jobs to run in parallel
+     */
+    private int getConcurrency() {
+        final int limit = preferences.getInteger("queue.connections.limit");
+        if(TransferConnectionLimiter.AUTO == limit) {
+            // No explicit setting with parallel option
+            return preferences.getInteger("queue.connections.limit.default");
+        }
+        return Math.max(1, limit);
+    }
+
+    private SessionPool pool(final LoginCallback login, final LoginConnectionService connect, final Map<String, SessionPool> pools, final Host host) {
+        return pools.computeIfAbsent(new HostUrlProvider().withUsername(true).withPath(false).get(host), key ->
+                SessionPoolFactory.create(connect, transcript, host,
+                        new CertificateStoreX509TrustManager(new DisabledCertificateTrustCallback(), new DefaultTrustManagerHostnameCallback(host), new TerminalCertificateStore(reader)),
+                        new PreferencesX509KeyManager(host, new TerminalCertificateStore(reader)),
+                        VaultRegistryFactory.create(login)));
+    }
+
     protected Exit list(final SessionPool session, final Path remote, final boolean verbose) {
         final SessionListWorker worker = new SessionListWorker(cache, remote,
-                new TerminalListProgressListener(verbose));
+                input.hasOption(TerminalOptionsBuilder.Params.json.name()) ?
+                        new TerminalJsonListProgressListener(verbose) : new TerminalListProgressListener(verbose));
         final SessionBackgroundAction<AttributedList<Path>> action = new TerminalBackgroundAction<>(
                 controller,
                 session, worker);
@@ -479,18 +841,7 @@ public class Terminal {
     }
 
     protected Exit delete(final SessionPool session, final Path remote) {
-        final List<Path> files = new ArrayList<>();
-        for(TransferItem i : new DeletePathFinder().find(input, TerminalAction.delete, remote)) {
-            files.add(i.remote);
-        }
-        final DeleteWorker worker;
-        if(StringUtils.containsAny(remote.getName(), '*')) {
-            worker = new DeleteWorker(new TerminalLoginCallback(reader), files, progress, new DownloadGlobFilter(remote.getName()));
-        }
-        else {
-            worker = new DeleteWorker(new TerminalLoginCallback(reader), files, progress, new NullFilter<>());
-        }
-        final SessionBackgroundAction<List<Path>> action = new TerminalBackgroundAction<>(controller, session, worker);
+        final SessionBackgroundAction<List<Path>> action = new TerminalBackgroundAction<>(controller, session, this.delete(input, remote));
         try {
             this.execute(action);
         }
@@ -500,6 +851,17 @@ public class Terminal {
         return Exit.success;
     }
 
+    private DeleteWorker delete(final CommandLine input, final Path remote) {
+        final List<Path> files = new ArrayList<>();
+        for(TransferItem i : new DeletePathFinder().find(input, TerminalAction.delete, remote)) {
+            files.add(i.remote);
+        }
+        if(StringUtils.containsAny(remote.getName(), '*')) {
+            return new DeleteWorker(new TerminalLoginCallback(reader), files, progress, new DownloadGlobFilter(remote.getName()));
+        }
+        return new DeleteWorker(new TerminalLoginCallback(reader), files, progress, new NullFilter<>());
+    }
+
     protected Exit purge(final SessionPool session, final Path remote) {
         final DistributionPurgeWorker purge = new DistributionPurgeWorker(Collections.singletonList(remote),
                 new TerminalLoginCallback(reader), Distribution.DOWNLOAD, Distribution.WEBSITE_CDN, Distribution.CUSTOM);
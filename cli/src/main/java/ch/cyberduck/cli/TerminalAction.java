@@ -34,5 +34,13 @@ public enum TerminalAction {
     /**
      * Purge files in CDN
      */
-    purge
+    purge,
+    /**
+     * Run commands read from file
+     */
+    batch,
+    /**
+     * Run commands received on socket
+     */
+    daemon
 }
@@ -0,0 +1,130 @@
+package ch.cyberduck.cli;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Filter;
+import ch.cyberduck.core.IndexedListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.date.RFC3339DateFormatter;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.filter.DownloadDuplicateFilter;
+import ch.cyberduck.core.io.Checksum;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.TimeZone;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Print files as newline delimited JSON objects. Output is flushed after each chunk received from the server to allow
+ * processing of large directory listings before the listing is complete.
+ */
+public class TerminalJsonListProgressListener extends IndexedListProgressListener {
+    private static final Logger log = LogManager.getLogger(TerminalJsonListProgressListener.class);
+
+    private final RFC3339DateFormatter formatter = new RFC3339DateFormatter();
+
+    private final Writer writer;
+    private final boolean verbose;
+    private final Filter<Path> filter;
+
+    /**
+     * @param verbose Include all attributes and hidden files
+     */
+    public TerminalJsonListProgressListener(final boolean verbose) {
+        this(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)), verbose, new TerminalFilter());
+    }
+
+    public TerminalJsonListProgressListener(final Writer writer, final boolean verbose, final Filter<Path> filter) {
+        this.writer = writer;
+        this.verbose = verbose;
+        this.filter = filter;
+    }
+
+    @Override
+    public void chunk(final Path folder, final AttributedList<Path> list) throws ConnectionCanceledException {
+        super.chunk(folder, list);
+        try {
+            writer.flush();
+        }
+        catch(IOException e) {
+            throw new ConnectionCanceledException(e);
+        }
+    }
+
+    @Override
+    public void visit(final AttributedList<Path> list, final int index, final Path file) throws ConnectionCanceledException {
+        final boolean visible = filter.accept(file);
+        if(!verbose && !visible) {
+            return;
+        }
+        final JsonObject entry = new JsonObject();
+        entry.addProperty("name", file.getName());
+        entry.addProperty("path", file.getAbsolute());
+        entry.addProperty("type", file.isSymbolicLink() ? "symlink" : file.isDirectory() ? "directory" : "file");
+        final PathAttributes attributes = file.attributes();
+        if(file.isFile()) {
+            entry.addProperty("size", attributes.getSize());
+        }
+        if(attributes.getModificationDate() > 0) {
+            entry.addProperty("modified", formatter.format(attributes.getModificationDate(), TimeZone.getTimeZone("UTC")));
+        }
+        if(verbose) {
+            entry.addProperty("hidden", !visible);
+            entry.addProperty("permission", attributes.getPermission().getSymbol());
+            if(file.isSymbolicLink()) {
+                entry.addProperty("target", file.getSymlinkTarget().getAbsolute());
+            }
+            if(Checksum.NONE != attributes.getChecksum()) {
+                entry.addProperty("checksum", attributes.getChecksum().toString());
+            }
+            if(attributes.getVersionId() != null) {
+                entry.addProperty("version", attributes.getVersionId());
+            }
+        }
+        try {
+            writer.write(entry.toString());
+            writer.write('\n');
+        }
+        catch(IOException e) {
+            // Broken pipe when output is no longer consumed
+            if(log.isWarnEnabled()) {
+                log.warn(String.format("Failure writing %s. %s", file, e.getMessage()));
+            }
+            throw new ConnectionCanceledException(e);
+        }
+    }
+
+    @Override
+    public void message(final String message) {
+        // Keep standard output parseable
+        if(log.isDebugEnabled()) {
+            log.debug(message);
+        }
+    }
+
+    private static final class TerminalFilter extends DownloadDuplicateFilter {
+    }
+}
@@ -78,6 +78,14 @@ public final class TerminalOptionsBuilder {
             .longOpt(TerminalAction.purge.name())
             .desc("Invalidate file in CDN")
             .hasArg().argName("url").build());
+        actionGroup.addOption(Option.builder()
+            .longOpt(TerminalAction.batch.name())
+            .desc("Run upload, download, copy, delete and mkdir commands read line by line from file or standard input with '-'")
+            .hasArg().argName("file").build());
+        actionGroup.addOption(Option.builder()
+            .longOpt(TerminalAction.daemon.name())
+            .desc("Keep running and accept commands line by line on Unix domain socket")
+            .hasArg().argName("socket").build());
         actionGroup.addOption(Option.builder("V")
             .longOpt(TerminalAction.version.name())
             .desc("Show version number and quit.").build());
@@ -151,6 +159,12 @@ public final class TerminalOptionsBuilder {
             .longOpt(Params.vault.name())
             .desc("Unlock vault")
             .hasArg().argName("path").build());
+        options.addOption(Option.builder()
+            .longOpt(Params.watch.name())
+            .desc("Continuously synchronize changes").build());
+        options.addOption(Option.builder()
+            .longOpt(Params.json.name())
+            .desc("Print directory listing as newline delimited JSON while received").build());
 
         final StringBuilder actions = new StringBuilder("Transfer actions for existing files").append(StringUtils.LF);
         actions.append("Downloads and uploads:").append(StringUtils.LF);
@@ -204,6 +218,8 @@ public final class TerminalOptionsBuilder {
         nochecksum,
         nokeychain,
         vault,
+        watch,
+        json,
         existing,
         verbose,
         quiet,
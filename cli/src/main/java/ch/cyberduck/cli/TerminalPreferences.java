@@ -112,6 +112,7 @@ public class TerminalPreferences extends Preferences {
     @Override
     public void setDefault(final String property, final String value) {
         proxy.setDefault(property, value);
+        this.invalidate();
     }
 
     @Override
@@ -130,11 +131,13 @@ public class TerminalPreferences extends Preferences {
     @Override
     public void setProperty(final String property, final String v) {
         proxy.setProperty(property, v);
+        this.invalidate();
     }
 
     @Override
     public void deleteProperty(final String property) {
         proxy.deleteProperty(property);
+        this.invalidate();
     }
 
     @Override
@@ -142,6 +145,12 @@ public class TerminalPreferences extends Preferences {
         return proxy.getDefault(property);
     }
 
+    @Override
+    public long getRevision() {
+        // Include modifications made directly to persistence
+        return super.getRevision() + proxy.getRevision();
+    }
+
     @Override
     public void save() {
         proxy.save();
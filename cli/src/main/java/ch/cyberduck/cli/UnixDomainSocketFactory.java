@@ -0,0 +1,167 @@
+package ch.cyberduck.cli;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * Unix domain socket channels available with Java 16 and later. Looked up reflectively as the build targets Java 8.
+ */
+public final class UnixDomainSocketFactory {
+    private static final Logger log = LogManager.getLogger(UnixDomainSocketFactory.class);
+
+    /**
+     * Bit mask and value for socket file type in mode
+     */
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFSOCK = 0140000;
+
+    /**
+     * Bind to socket file only accessible by owner as any client connected can run commands with the credentials of
+     * the daemon. The socket is created in a temporary directory only accessible by owner and moved to its final
+     * location after restricting permissions.
+     *
+     * @param file Socket file. Replaces a stale socket file from a previous run with no daemon accepting connections
+     * @return Server channel bound to socket file
+     */
+    public ServerSocketChannel bind(final Local file) throws IOException {
+        final Path target = Paths.get(file.getAbsolute());
+        if(Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            if(!this.isSocket(target)) {
+                throw new FileAlreadyExistsException(file.getAbsolute(), null, "File is not a socket");
+            }
+            if(this.isListening(file)) {
+                throw new FileAlreadyExistsException(file.getAbsolute(), null, "Socket in use by running daemon");
+            }
+            if(log.isWarnEnabled()) {
+                log.warn(String.format("Delete stale socket file %s", file));
+            }
+            Files.delete(target);
+        }
+        final ServerSocketChannel channel = (ServerSocketChannel) this.open(ServerSocketChannel.class);
+        try {
+            if(Files.getFileStore(target.getParent()).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                final Path directory = Files.createTempDirectory(target.getParent(), ".duck",
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+                try {
+                    final Path temporary = directory.resolve(target.getFileName());
+                    channel.bind(this.address(temporary));
+                    Files.setPosixFilePermissions(temporary, PosixFilePermissions.fromString("rw-------"));
+                    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+                finally {
+                    Files.deleteIfExists(directory);
+                }
+            }
+            else {
+                log.warn(String.format("Missing support for permissions to restrict access to socket %s", file));
+                channel.bind(this.address(target));
+            }
+        }
+        catch(IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    /**
+     * @param file Socket file
+     * @return Channel connected to socket file
+     */
+    public SocketChannel connect(final Local file) throws IOException {
+        final SocketChannel channel = (SocketChannel) this.open(SocketChannel.class);
+        try {
+            channel.connect(this.address(Paths.get(file.getAbsolute())));
+        }
+        catch(IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    private Object open(final Class<?> type) throws IOException {
+        try {
+            return type.getMethod("open", ProtocolFamily.class).invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+        }
+        catch(InvocationTargetException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        catch(NoSuchMethodException | IllegalAccessException | IllegalArgumentException e) {
+            throw new IOException("Unix domain sockets not supported by runtime", e);
+        }
+    }
+
+    /**
+     * @return True if a daemon accepts connections on socket file
+     */
+    private boolean isListening(final Local file) {
+        try (SocketChannel ignored = this.connect(file)) {
+            return true;
+        }
+        catch(IOException e) {
+            return false;
+        }
+    }
+
+    private boolean isSocket(final Path file) throws IOException {
+        try {
+            final int mode = (Integer) Files.getAttribute(file, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+            return (mode & S_IFMT) == S_IFSOCK;
+        }
+        catch(UnsupportedOperationException | IllegalArgumentException e) {
+            // No file type in attributes
+            return Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther();
+        }
+    }
+
+    private SocketAddress address(final Path file) throws IOException {
+        try {
+            return (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                .getMethod("of", Path.class).invoke(null, file);
+        }
+        catch(InvocationTargetException e) {
+            throw new IOException(e.getCause());
+        }
+        catch(ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            throw new IOException("Unix domain sockets not supported by runtime", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ch.cyberduck.cli;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.filter.DownloadDuplicateFilter;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.EnumSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class TerminalJsonListProgressListenerTest {
+
+    @Test
+    public void testChunk() throws Exception {
+        final StringWriter out = new StringWriter();
+        final TerminalJsonListProgressListener l = new TerminalJsonListProgressListener(out, false, new DownloadDuplicateFilter());
+        final Path folder = new Path("/folder", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> list = new AttributedList<>();
+        list.add(new Path(folder, "f", EnumSet.of(Path.Type.file), new PathAttributes().withSize(3L)));
+        l.chunk(folder, list);
+        assertEquals("{\"name\":\"f\",\"path\":\"/folder/f\",\"type\":\"file\",\"size\":3}\n", out.toString());
+        list.add(new Path(folder, "d", EnumSet.of(Path.Type.directory)));
+        l.chunk(folder, list);
+        assertEquals("{\"name\":\"f\",\"path\":\"/folder/f\",\"type\":\"file\",\"size\":3}\n" +
+            "{\"name\":\"d\",\"path\":\"/folder/d\",\"type\":\"directory\"}\n", out.toString());
+    }
+}
@@ -24,6 +24,8 @@ import ch.cyberduck.core.ftp.FTPProtocol;
 import ch.cyberduck.core.openstack.SwiftProtocol;
 import ch.cyberduck.core.serializer.impl.dd.ProfilePlistReader;
 
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -31,6 +33,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -87,4 +90,11 @@ public class TerminalOptionsInputValidatorTest {
         assertFalse(new TerminalOptionsInputValidator(new ProtocolFactory(list)).validate("rackspace://"));
         assertTrue(new TerminalOptionsInputValidator(new ProtocolFactory(list)).validate("rackspace:///"));
     }
+
+    @Test
+    public void testBatch() throws Exception {
+        final CommandLine input = new DefaultParser().parse(TerminalOptionsBuilder.options(), new String[]{"--batch", "-"});
+        assertEquals(TerminalAction.batch, TerminalActionFinder.get(input));
+        assertTrue(new TerminalOptionsInputValidator(new ProtocolFactory(Collections.singleton(new FTPProtocol()))).validate(input));
+    }
 }
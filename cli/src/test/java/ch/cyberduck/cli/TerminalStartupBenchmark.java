@@ -0,0 +1,69 @@
+package ch.cyberduck.cli;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first result for a local listing in a fresh JVM including loading of preferences and protocols. Run with
+ * and without a class data sharing archive created from a training run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class TerminalStartupBenchmark {
+
+    @Benchmark
+    public String list() throws Exception {
+        final LinuxTerminalPreferences preferences = new LinuxTerminalPreferences();
+        PreferencesFactory.set(preferences);
+        final Options options = TerminalOptionsBuilder.options();
+        final CommandLine input = new DefaultParser().parse(options, new String[]{
+            "--quiet", "--list", String.format("file:%s/", System.getProperty("java.io.tmpdir"))});
+        return new Terminal(preferences, options, input).execute().name();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final String archive = System.getProperty("cds.archive", "target/duck.jsa");
+        // Training run to dump loaded classes to archive
+        new Runner(new OptionsBuilder().include(TerminalStartupBenchmark.class.getSimpleName())
+            .forks(1).jvmArgsAppend(String.format("-XX:ArchiveClassesAtExit=%s", archive)).build()).run();
+        new Runner(new OptionsBuilder().include(TerminalStartupBenchmark.class.getSimpleName()).build()).run();
+        new Runner(new OptionsBuilder().include(TerminalStartupBenchmark.class.getSimpleName())
+            .jvmArgsAppend(String.format("-XX:SharedArchiveFile=%s", archive), "-Xshare:auto").build()).run();
+    }
+}
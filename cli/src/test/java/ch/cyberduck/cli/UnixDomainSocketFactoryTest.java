@@ -0,0 +1,113 @@
+package ch.cyberduck.cli;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeNoException;
+
+public class UnixDomainSocketFactoryTest {
+
+    @Test
+    public void testBindConnect() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), String.format("%s.sock", UUID.randomUUID().toString().substring(0, 8)));
+        final UnixDomainSocketFactory factory = new UnixDomainSocketFactory();
+        final ServerSocketChannel server;
+        try {
+            server = factory.bind(file);
+        }
+        catch(IOException e) {
+            // Runtime prior Java 16
+            assumeNoException(e);
+            return;
+        }
+        try {
+            try (SocketChannel client = factory.connect(file)) {
+                client.write(ByteBuffer.wrap("--list".getBytes(StandardCharsets.UTF_8)));
+                try (SocketChannel accepted = server.accept()) {
+                    final ByteBuffer buffer = ByteBuffer.allocate(6);
+                    while(buffer.hasRemaining()) {
+                        accepted.read(buffer);
+                    }
+                    assertEquals("--list", new String(buffer.array(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        finally {
+            server.close();
+            file.delete();
+        }
+    }
+
+    @Test(expected = FileAlreadyExistsException.class)
+    public void testBindKeepRegularFile() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), String.format("%s.sock", UUID.randomUUID().toString().substring(0, 8)));
+        Files.createFile(Paths.get(file.getAbsolute()));
+        try {
+            new UnixDomainSocketFactory().bind(file);
+        }
+        finally {
+            assertTrue(file.exists());
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testBindReplaceStaleSocket() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), String.format("%s.sock", UUID.randomUUID().toString().substring(0, 8)));
+        final UnixDomainSocketFactory factory = new UnixDomainSocketFactory();
+        try {
+            factory.bind(file).close();
+        }
+        catch(IOException e) {
+            // Runtime prior Java 16
+            assumeNoException(e);
+            return;
+        }
+        try {
+            assertTrue(file.exists());
+            try (ServerSocketChannel server = factory.bind(file)) {
+                assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(Paths.get(file.getAbsolute())));
+                try {
+                    factory.bind(file);
+                    fail();
+                }
+                catch(FileAlreadyExistsException e) {
+                    // Socket in use
+                }
+            }
+        }
+        finally {
+            file.delete();
+        }
+    }
+}
@@ -123,6 +123,7 @@ public class UserDefaultsPreferences extends DefaultPreferences {
             // the same key exists in a domain that precedes the application domain in the search list.
             store.setObjectForKey(NSString.stringWithString(value), property);
             cache.put(property, value);
+            this.invalidate();
         }
         else {
             this.deleteProperty(property);
@@ -141,6 +142,8 @@ public class UserDefaultsPreferences extends DefaultPreferences {
         // Setting a default has no effect on the value returned by the objectForKey method if
         // the same key exists in a domain that precedes the application domain in the search list.
         store.setObjectForKey(NSArray.arrayWithObjects(value.toArray(new String[value.size()])), property);
+        cache.remove(property);
+        this.invalidate();
     }
 
     @Override
@@ -150,6 +153,7 @@ public class UserDefaultsPreferences extends DefaultPreferences {
         }
         store.removeObjectForKey(property);
         cache.remove(property);
+        this.invalidate();
     }
 
     /**
@@ -51,6 +51,7 @@ namespace Ch.Cyberduck.Core.Preferences
         {
             Log.debug("deleteProperty: " + property);
             settings.Remove(property);
+            invalidate();
         }
 
         public override string getProperty(string property)
@@ -95,6 +96,7 @@ namespace Ch.Cyberduck.Core.Preferences
             try
             {
                 settings[property] = value;
+                invalidate();
             }
             catch
             {
@@ -21,6 +21,7 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.LocalAccessDeniedException;
 import ch.cyberduck.core.exception.LoginCanceledException;
 import ch.cyberduck.core.exception.LoginFailureException;
+import ch.cyberduck.core.metrics.Operation;
 import ch.cyberduck.core.proxy.Proxy;
 import ch.cyberduck.core.threading.CancelCallback;
 
@@ -172,7 +173,17 @@ public class KeychainLoginService implements LoginService {
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Attempt authentication for %s", bookmark));
             }
-            session.login(proxy, prompt, cancel);
+            final long start = System.nanoTime();
+            boolean failure = true;
+            try {
+                session.login(proxy, prompt, cancel);
+                failure = false;
+            }
+            finally {
+                session.getMetrics().record(Operation.auth.name(), System.nanoTime() - start, 0L, failure);
+            }
+            // Discard features looked up prior authentication
+            session.invalidate();
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Login successful for session %s", session));
             }
@@ -95,6 +95,23 @@ public class LocalAttributes extends Attributes {
         }
     }
 
+    /**
+     * @return Unique identifier of the file such as device and inode or null if not available
+     */
+    public String getFileKey() {
+        try {
+            final Object key = Files.readAttributes(Paths.get(path), BasicFileAttributes.class).fileKey();
+            if(null == key) {
+                return null;
+            }
+            return key.toString();
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure getting file key of %s. %s", path, e.getMessage()));
+            return null;
+        }
+    }
+
     @Override
     public Permission getPermission() {
         if(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
@@ -20,4 +20,23 @@ public interface Metrics {
     <T> void increment(T key);
 
     <T> long get(T key);
+
+    /**
+     * Record completed operation
+     *
+     * @param operation Operation name
+     * @param nanos     Duration in nanoseconds
+     * @param bytes     Number of bytes sent or received
+     * @param failure   True if operation failed
+     */
+    default void record(String operation, long nanos, long bytes, boolean failure) {
+        //
+    }
+
+    /**
+     * @param operation Operation name attempted again after failure
+     */
+    default void retry(String operation) {
+        //
+    }
 }
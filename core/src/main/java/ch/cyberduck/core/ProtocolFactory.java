@@ -25,23 +25,35 @@ import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
 import ch.cyberduck.core.profiles.LocalProfilesFinder;
 import ch.cyberduck.core.profiles.ProfileDescription;
 import ch.cyberduck.core.profiles.ProfilesFinder;
+import ch.cyberduck.core.serializer.Deserializer;
+import ch.cyberduck.core.serializer.impl.dd.PlistReader;
 import ch.cyberduck.core.serializer.impl.dd.ProfilePlistReader;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import com.dd.plist.NSDictionary;
+
 public final class ProtocolFactory {
     private static final Logger log = LogManager.getLogger(ProtocolFactory.class);
 
@@ -61,6 +73,17 @@ public final class ProtocolFactory {
 
     private final Set<Protocol> registered;
 
+    /**
+     * Service providers registered but not yet instantiated by implementation class name. Lock for any access to
+     * registered protocols.
+     */
+    private final Map<String, Provider> discovered = new LinkedHashMap<>();
+
+    /**
+     * Profiles found but not yet read in order of loading
+     */
+    private final List<PendingProfile> pending = new ArrayList<>();
+
     private final Local bundle;
     private final Local profiles;
 
@@ -95,7 +118,142 @@ public final class ProtocolFactory {
             log.info(String.format("Register protocols %s", Arrays.toString(protocols)));
         }
         // Order determines list in connection dropdown
-        Collections.addAll(registered, protocols);
+        this.add(protocols);
+    }
+
+    private void add(final Protocol... protocols) {
+        synchronized(discovered) {
+            Collections.addAll(registered, protocols);
+        }
+    }
+
+    /**
+     * Register protocol implementations listed in <code>META-INF/services/ch.cyberduck.core.Protocol</code> on the
+     * classpath. Each line names the implementation followed by a comment with the identifier, type and schemes
+     * of the protocol as in <code>ch.cyberduck.core.s3.S3Protocol # s3 https</code>. An implementation is only
+     * instantiated when looked up with one of these keys or when listing all protocols. Implementations listed
+     * without keys are instantiated with the first lookup of any protocol.
+     */
+    public void discover() {
+        this.discover(ProtocolFactory.class.getClassLoader());
+    }
+
+    /**
+     * @param loader Class loader to find service provider configuration files
+     */
+    public void discover(final ClassLoader loader) {
+        try {
+            final Enumeration<URL> resources = loader.getResources(String.format("META-INF/services/%s", Protocol.class.getName()));
+            while(resources.hasMoreElements()) {
+                final URL resource = resources.nextElement();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while((line = reader.readLine()) != null) {
+                        final String name = StringUtils.trim(StringUtils.substringBefore(line, "#"));
+                        if(StringUtils.isBlank(name)) {
+                            continue;
+                        }
+                        final Set<String> keys = new HashSet<>(Arrays.asList(StringUtils.split(StringUtils.substringAfter(line, "#"))));
+                        synchronized(discovered) {
+                            discovered.putIfAbsent(name, new Provider(loader, name, keys));
+                        }
+                    }
+                }
+            }
+        }
+        catch(IOException e) {
+            log.error(String.format("Failure reading service provider configuration. %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * @return Registered protocols including all service providers discovered and profiles loaded
+     */
+    private Set<Protocol> registered() {
+        synchronized(discovered) {
+            for(Provider provider : new ArrayList<>(discovered.values())) {
+                this.instantiate(provider);
+            }
+            for(PendingProfile profile : new ArrayList<>(pending)) {
+                this.read(profile);
+            }
+        }
+        return registered;
+    }
+
+    /**
+     * Instantiate service providers and read profiles that can match lookup by identifier or scheme
+     *
+     * @param key Identifier, type, scheme or vendor
+     * @return Registered protocols
+     */
+    private Set<Protocol> registered(final String key) {
+        final Set<String> keys = new HashSet<>(Arrays.asList(key, this.scheme(key)));
+        synchronized(discovered) {
+            for(Provider provider : new ArrayList<>(discovered.values())) {
+                if(provider.keys.isEmpty() || !Collections.disjoint(provider.keys, keys)) {
+                    this.instantiate(provider);
+                }
+            }
+            for(PendingProfile profile : new ArrayList<>(pending)) {
+                if(null == profile.keys || !Collections.disjoint(profile.keys, keys)
+                        || !Collections.disjoint(this.keys(profile.parent), keys)) {
+                    this.read(profile);
+                }
+            }
+        }
+        return registered;
+    }
+
+    private void instantiate(final Provider provider) {
+        if(null == discovered.remove(provider.name)) {
+            // Instantiated in lookup of parent protocol
+            return;
+        }
+        try {
+            final Protocol protocol = Class.forName(provider.name, true, provider.loader)
+                    .asSubclass(Protocol.class).getDeclaredConstructor().newInstance();
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Register discovered protocol %s", protocol));
+            }
+            registered.add(protocol);
+        }
+        catch(ReflectiveOperationException | ClassCastException | LinkageError e) {
+            log.error(String.format("Failure loading protocol implementation %s. %s", provider.name, e.getMessage()));
+        }
+    }
+
+    private void read(final PendingProfile profile) {
+        if(!pending.remove(profile)) {
+            // Read in lookup of parent protocol
+            return;
+        }
+        profile.description.getProfile().ifPresent(registered::add);
+    }
+
+    /**
+     * @param reference Parent protocol reference in profile
+     * @return Keys of service providers and registered protocols matching reference
+     */
+    private Set<String> keys(final String reference) {
+        final Set<String> keys = new HashSet<>();
+        if(StringUtils.isBlank(reference)) {
+            return keys;
+        }
+        for(Provider provider : discovered.values()) {
+            if(provider.keys.contains(reference)) {
+                keys.addAll(provider.keys);
+            }
+        }
+        for(Protocol protocol : registered) {
+            final Set<String> candidate = new HashSet<>(Arrays.asList(protocol.getSchemes()));
+            candidate.add(protocol.getIdentifier());
+            candidate.add(protocol.getType().name());
+            if(candidate.contains(reference)) {
+                keys.addAll(candidate);
+            }
+        }
+        return keys;
     }
 
     /**
@@ -116,8 +274,11 @@ public final class ProtocolFactory {
     public void load(final ProfilesFinder finder) {
         try {
             for(ProfileDescription description : finder.find()) {
-                final Optional<Profile> profile = description.getProfile();
-                profile.ifPresent(registered::add);
+                // Read profile with parent protocol only when looked up
+                final PendingProfile profile = new PendingProfile(description);
+                synchronized(discovered) {
+                    pending.add(profile);
+                }
             }
         }
         catch(BackgroundException e) {
@@ -141,7 +302,7 @@ public final class ProtocolFactory {
             if(log.isInfoEnabled()) {
                 log.info(String.format("Register profile %s", profile));
             }
-            registered.add(profile);
+            this.add(profile);
             preferences.setProperty(StringUtils.lowerCase(String.format("profiles.%s.%s.enabled", profile.getProtocol(), profile.getProvider())), true);
             if(!profiles.exists()) {
                 new DefaultLocalDirectoryFeature().mkdir(profiles);
@@ -168,7 +329,11 @@ public final class ProtocolFactory {
      * @param profile Connection profile
      */
     public void unregister(final Profile profile) {
-        if(registered.remove(profile)) {
+        final boolean removed;
+        synchronized(discovered) {
+            removed = this.registered().remove(profile);
+        }
+        if(removed) {
             preferences.setProperty(StringUtils.lowerCase(String.format("profiles.%s.%s.enabled", profile.getProtocol(), profile.getProvider())), false);
         }
         else {
@@ -188,7 +353,20 @@ public final class ProtocolFactory {
      * @return List of registered protocols matching search criteria.
      */
     public List<Protocol> find(final Predicate<Protocol> search) {
-        return registered.stream().filter(search).sorted().collect(Collectors.toList());
+        synchronized(discovered) {
+            return this.registered().stream().filter(search).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @param search Search filter for registered protocols
+     * @param key    Identifier, type, scheme or vendor of protocol to look up
+     * @return List of registered protocols matching search criteria without loading protocols not matching key
+     */
+    public List<Protocol> find(final Predicate<Protocol> search, final String key) {
+        synchronized(discovered) {
+            return this.registered(key).stream().filter(search).sorted().collect(Collectors.toList());
+        }
     }
 
     /**
@@ -205,7 +383,12 @@ public final class ProtocolFactory {
      * @return Matching protocol or null if no match
      */
     public Protocol forName(final String identifier, final String provider) {
-        return this.forName(this.find(), identifier, provider);
+        final Protocol match = this.match(this.find(Protocol::isEnabled, identifier), identifier, provider);
+        if(null == match) {
+            // Lookup by hash code or vendor string not known without loading all protocols
+            return this.forName(this.find(), identifier, provider);
+        }
+        return match;
     }
 
     /**
@@ -215,7 +398,18 @@ public final class ProtocolFactory {
      * @return Matching protocol or null if no match
      */
     public Protocol forName(final List<Protocol> enabled, final String identifier, final String provider) {
-        final Protocol match =
+        final Protocol match = this.match(enabled, identifier, provider);
+        if(null == match) {
+            if(enabled.isEmpty()) {
+                log.error(String.format("List of registered protocols in %s is empty", this));
+            }
+            log.warn(String.format("Missing registered protocol for identifier %s", identifier));
+        }
+        return match;
+    }
+
+    private Protocol match(final List<Protocol> enabled, final String identifier, final String provider) {
+        return
                 // Exact match with hash code
                 enabled.stream().sorted(new DeprecatedProtocolComparator()).filter(protocol -> String.valueOf(protocol.hashCode()).equals(identifier)).findFirst().orElse(
                         // Matching vendor string for third party profiles
@@ -233,17 +427,10 @@ public final class ProtocolFactory {
                                 )
                         )
                 );
-        if(null == match) {
-            if(enabled.isEmpty()) {
-                log.error(String.format("List of registered protocols in %s is empty", this));
-            }
-            log.warn(String.format("Missing registered protocol for identifier %s", identifier));
-        }
-        return match;
     }
 
     public Protocol forType(final Protocol.Type type) {
-        final List<Protocol> enabled = this.find();
+        final List<Protocol> enabled = this.find(Protocol::isEnabled, type.name());
         return this.forType(enabled, type);
     }
 
@@ -256,25 +443,85 @@ public final class ProtocolFactory {
     }
 
     public Protocol forScheme(final String scheme, final Protocol fallback) {
-        return this.forScheme(this.find(), scheme, fallback);
+        return this.forScheme(this.find(Protocol::isEnabled, scheme), scheme, fallback);
     }
 
     private Protocol forScheme(final List<Protocol> enabled, final String scheme, final Protocol fallback) {
-        final String filter;
+        final String filter = this.scheme(scheme);
+        return enabled.stream().sorted(new DeprecatedProtocolComparator()).filter(protocol -> Arrays.asList(protocol.getSchemes()).contains(filter)).findFirst().orElse(
+                enabled.stream().sorted(new DeprecatedProtocolComparator()).filter(protocol -> Arrays.asList(protocol.getSchemes()).contains(scheme)).findFirst().orElse(fallback)
+        );
+    }
+
+    /**
+     * @return Scheme of WebDAV protocol preferred for HTTP scheme
+     */
+    private String scheme(final String scheme) {
+        if(null == scheme) {
+            return null;
+        }
         switch(scheme) {
             case "http":
-                filter = Scheme.dav.name();
-                break;
+                return Scheme.dav.name();
             case "https":
-                filter = Scheme.davs.name();
-                break;
+                return Scheme.davs.name();
             default:
-                filter = scheme;
-                break;
+                return scheme;
+        }
+    }
+
+    private static final class Provider {
+        private final ClassLoader loader;
+        private final String name;
+        /**
+         * Identifier, type and schemes of protocol. Empty if not known.
+         */
+        private final Set<String> keys;
+
+        public Provider(final ClassLoader loader, final String name, final Set<String> keys) {
+            this.loader = loader;
+            this.name = name;
+            this.keys = keys;
+        }
+    }
+
+    private static final class PendingProfile {
+        private final ProfileDescription description;
+        /**
+         * Parent protocol reference
+         */
+        private String parent;
+        /**
+         * Vendor and schemes of profile. Null if profile cannot be parsed.
+         */
+        private Set<String> keys;
+
+        public PendingProfile(final ProfileDescription description) {
+            this.description = description;
+            description.getFile().ifPresent(file -> {
+                try {
+                    new PlistReader<Profile>() {
+                        @Override
+                        public Profile deserialize(final NSDictionary dict) {
+                            final Deserializer<NSDictionary> deserializer = new DeserializerFactory<NSDictionary>().create(dict);
+                            parent = deserializer.stringForKey("Protocol");
+                            keys = new HashSet<>();
+                            keys.add(parent);
+                            keys.add(deserializer.stringForKey("Vendor"));
+                            final List<String> schemes = deserializer.listForKey("Schemes");
+                            if(schemes != null) {
+                                keys.addAll(schemes);
+                            }
+                            keys.remove(null);
+                            return null;
+                        }
+                    }.read(file.getInputStream());
+                }
+                catch(AccessDeniedException e) {
+                    log.warn(String.format("Failure %s reading profile %s", e, file));
+                }
+            });
         }
-        return enabled.stream().sorted(new DeprecatedProtocolComparator()).filter(protocol -> Arrays.asList(protocol.getSchemes()).contains(filter)).findFirst().orElse(
-                enabled.stream().sorted(new DeprecatedProtocolComparator()).filter(protocol -> Arrays.asList(protocol.getSchemes()).contains(scheme)).findFirst().orElse(fallback)
-        );
     }
 
     private static final class DeprecatedProtocolComparator implements Comparator<Protocol> {
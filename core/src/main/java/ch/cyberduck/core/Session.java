@@ -22,6 +22,8 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Bulk;
 import ch.cyberduck.core.features.Copy;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.features.Directory;
 import ch.cyberduck.core.features.Download;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.features.Move;
@@ -29,8 +31,14 @@ import ch.cyberduck.core.features.PromptUrlProvider;
 import ch.cyberduck.core.features.Quota;
 import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.features.Search;
+import ch.cyberduck.core.features.Touch;
 import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.metrics.MetricsAttributesFinder;
+import ch.cyberduck.core.metrics.MetricsDelete;
+import ch.cyberduck.core.metrics.MetricsListService;
+import ch.cyberduck.core.metrics.MetricsRegistry;
+import ch.cyberduck.core.metrics.OperationMetrics;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.proxy.Proxy;
@@ -50,7 +58,10 @@ import ch.cyberduck.core.vault.VaultRegistry;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -67,7 +78,10 @@ public abstract class Session<C> implements TranscriptListener {
      */
     protected final Host host;
 
-    private Metrics metrics = new DisabledMetrics();
+    /**
+     * Metrics enabled for this session only or null to use shared metrics for host
+     */
+    private Metrics metrics;
 
     /**
      * Connection
@@ -77,6 +91,23 @@ public abstract class Session<C> implements TranscriptListener {
 
     private final Set<TranscriptListener> listeners = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
+    /**
+     * Features configured by caller after lookup with <code>withWriter</code>, <code>withReader</code>,
+     * <code>withDelete</code> or <code>withTarget</code> and therefore never shared
+     */
+    private static final Set<Class<?>> UNSHARED = new HashSet<>(Arrays.asList(
+        Upload.class, Download.class, Bulk.class, Copy.class, Move.class, Directory.class, Touch.class));
+
+    /**
+     * Placeholder for unsupported feature
+     */
+    private static final Object UNSUPPORTED = new Object();
+
+    /**
+     * Feature implementations including vault registry proxy by type
+     */
+    private final Map<Class<?>, Object> features = new ConcurrentHashMap<>();
+
     /**
      * Connection attempt being made.
      */
@@ -112,9 +143,21 @@ public abstract class Session<C> implements TranscriptListener {
 
     public Session<?> withRegistry(final VaultRegistry registry) {
         this.registry = registry;
+        this.invalidate();
         return this;
     }
 
+    /**
+     * Discard feature implementations previously looked up. Must be called when state captured by features such as
+     * the client or authentication tokens changes.
+     */
+    public void invalidate() {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Invalidate %d cached features", features.size()));
+        }
+        features.clear();
+    }
+
     public enum State {
         opening,
         open,
@@ -134,10 +177,16 @@ public abstract class Session<C> implements TranscriptListener {
     }
 
     public void enableMetrics() {
-        metrics = new CountingMetrics();
+        metrics = new OperationMetrics();
     }
 
+    /**
+     * @return Metrics of this session if enabled or shared metrics for host
+     */
     public Metrics getMetrics() {
+        if(null == metrics) {
+            return MetricsRegistry.get().find(host);
+        }
         return metrics;
     }
 
@@ -155,6 +204,7 @@ public abstract class Session<C> implements TranscriptListener {
         }
         // Update status flag
         state = State.opening;
+        this.invalidate();
         client = this.connect(proxy, key, login, cancel);
         if(log.isDebugEnabled()) {
             log.debug(String.format("Connection did open to %s", host));
@@ -191,6 +241,7 @@ public abstract class Session<C> implements TranscriptListener {
         }
         finally {
             state = State.closed;
+            this.invalidate();
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Connection did close to %s", host));
             }
@@ -207,6 +258,7 @@ public abstract class Session<C> implements TranscriptListener {
         }
         finally {
             state = State.closed;
+            this.invalidate();
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Connection did close to %s", host));
             }
@@ -221,6 +273,7 @@ public abstract class Session<C> implements TranscriptListener {
     protected void disconnect() {
         state = State.closed;
         listeners.clear();
+        this.invalidate();
     }
 
     /**
@@ -275,8 +328,51 @@ public abstract class Session<C> implements TranscriptListener {
      */
     @SuppressWarnings("unchecked")
     public <T> T getFeature(final Class<T> type) {
-        metrics.increment(type);
-        return this.getFeature(type, this._getFeature(type));
+        if(metrics != null) {
+            metrics.increment(type);
+        }
+        if(UNSHARED.contains(type)) {
+            return this.getFeature(type, this._getFeature(type));
+        }
+        final Object cached = features.get(type);
+        if(cached != null) {
+            return UNSUPPORTED == cached ? null : (T) cached;
+        }
+        // Not using computeIfAbsent as lookup of feature may recursively look up other features
+        final T feature = this.measure(type, this.getFeature(type, this._getFeature(type)));
+        final Object previous = features.putIfAbsent(type, null == feature ? UNSUPPORTED : feature);
+        if(null == previous) {
+            return feature;
+        }
+        return UNSUPPORTED == previous ? null : (T) previous;
+    }
+
+    /**
+     * Record duration of operations when metrics are enabled
+     *
+     * @param type    Feature type
+     * @param feature Implementation to wrap
+     * @return Feature implementation or null when not supported
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T measure(final Class<T> type, final T feature) {
+        if(null == feature) {
+            return null;
+        }
+        final Metrics metrics = this.getMetrics();
+        if(!(metrics instanceof OperationMetrics)) {
+            return feature;
+        }
+        if(type == ListService.class) {
+            return (T) new MetricsListService((ListService) feature, metrics);
+        }
+        if(type == AttributesFinder.class) {
+            return (T) new MetricsAttributesFinder((AttributesFinder) feature, metrics);
+        }
+        if(type == Delete.class) {
+            return (T) new MetricsDelete((Delete) feature, metrics);
+        }
+        return feature;
     }
 
     /**
@@ -27,6 +27,7 @@ import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
 import ch.cyberduck.core.serializer.Reader;
 import ch.cyberduck.core.serializer.Writer;
+import ch.cyberduck.core.transfer.SyncTransfer;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferProgress;
 
@@ -94,7 +95,13 @@ public class TransferCollection extends Collection<Transfer> {
     @Override
     public void collectionItemRemoved(final Transfer transfer) {
         try {
-            this.getFile(transfer).delete();
+            writer.delete(this.getFile(transfer));
+            if(transfer instanceof SyncTransfer) {
+                final Local journal = ((SyncTransfer) transfer).getJournal();
+                if(journal.exists()) {
+                    journal.delete();
+                }
+            }
             preferences.deleteProperty(String.format("%s%s", prefix, transfer.getUuid()));
         }
         catch(AccessDeniedException | NotfoundException e) {
@@ -0,0 +1,54 @@
+package ch.cyberduck.core.features;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+
+/**
+ * Incremental change notifications from the server for files below a directory
+ */
+public interface ChangeFeed {
+
+    /**
+     * @param directory Directory to watch for changes
+     * @return Opaque cursor marking the current state
+     */
+    String cursor(Path directory) throws BackgroundException;
+
+    /**
+     * Retrieve changes since the state marked by the cursor. May block until changes are available when supported
+     * by the service.
+     *
+     * @param directory Directory to watch for changes
+     * @param cursor    Cursor from previous call
+     * @param listener  Callback for changed files
+     * @return Cursor to use for next call
+     */
+    String poll(Path directory, String cursor, Listener listener) throws BackgroundException;
+
+    interface Listener {
+        /**
+         * @param file File or folder added, modified or removed below the watched directory
+         */
+        void changed(Path file);
+
+        /**
+         * Changes cannot be determined and the watched directory must be compared in full
+         */
+        void reset();
+    }
+}
@@ -0,0 +1,39 @@
+package ch.cyberduck.core.features;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.transfer.Transfer;
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order transfer of files by availability reported from server
+ */
+public interface Readiness {
+    /**
+     * Poll for files the server is ready to accept or deliver. Files returned are transferred before polling again.
+     *
+     * @param type  Transfer Type
+     * @param files Files pending transfer with status
+     * @return Files ready for transfer in preferred order
+     * @throws ch.cyberduck.core.exception.RetriableAccessDeniedException No file ready yet with delay to poll again
+     */
+    List<TransferItem> ready(Transfer.Type type, Map<TransferItem, TransferStatus> files) throws BackgroundException;
+}
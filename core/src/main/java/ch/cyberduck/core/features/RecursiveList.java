@@ -0,0 +1,47 @@
+package ch.cyberduck.core.features;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+
+import java.util.Map;
+
+/**
+ * List a complete subtree with a single request
+ */
+public interface RecursiveList {
+
+    /**
+     * @param directory Root of subtree
+     * @param listener  Notification listener
+     * @return Folder listing for every directory in subtree including the root itself. Empty directories are
+     * included with an empty list
+     * @throws ch.cyberduck.core.exception.UnsupportedException Server refuses to list subtree. Caller is expected to
+     *                                                          fallback to listing every directory separately.
+     */
+    Map<Path, AttributedList<Path>> list(Path directory, ListProgressListener listener) throws BackgroundException;
+
+    /**
+     * @param directory Root of subtree
+     * @return False if server is known to refuse listing subtree
+     */
+    default boolean isSupported(final Path directory) {
+        return true;
+    }
+}
@@ -24,6 +24,7 @@ import ch.cyberduck.core.PreferencesUseragentProvider;
 import ch.cyberduck.core.ProxyCredentialsStoreFactory;
 import ch.cyberduck.core.Scheme;
 import ch.cyberduck.core.TranscriptListener;
+import ch.cyberduck.core.metrics.MetricsRegistry;
 import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.proxy.Proxy;
 import ch.cyberduck.core.proxy.ProxyFinder;
@@ -164,7 +165,7 @@ public class HttpConnectionPoolBuilder {
         if(!new HostPreferences(host).getBoolean("http.compression.enable")) {
             configuration.disableContentCompression();
         }
-        configuration.setRequestExecutor(new LoggingHttpRequestExecutor(listener));
+        configuration.setRequestExecutor(new LoggingHttpRequestExecutor(listener, MetricsRegistry.get().find(host)));
         // Always register HTTP for possible use with proxy. Contains a number of protocol properties such as the
         // default port and the socket factory to be used to create the java.net.Socket instances for the given protocol
         configuration.setConnectionManager(this.createConnectionManager(this.createRegistry()));
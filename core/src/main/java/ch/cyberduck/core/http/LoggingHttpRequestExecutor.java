@@ -18,6 +18,8 @@ package ch.cyberduck.core.http;
  * feedback@cyberduck.io
  */
 
+import ch.cyberduck.core.DisabledMetrics;
+import ch.cyberduck.core.Metrics;
 import ch.cyberduck.core.PreferencesUseragentProvider;
 import ch.cyberduck.core.TranscriptListener;
 import ch.cyberduck.core.UseragentProvider;
@@ -25,6 +27,7 @@ import ch.cyberduck.core.UseragentProvider;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpException;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpRequest;
@@ -41,9 +44,18 @@ public class LoggingHttpRequestExecutor extends HttpRequestExecutor {
             = new PreferencesUseragentProvider();
 
     private final TranscriptListener listener;
+    private final Metrics metrics;
 
     public LoggingHttpRequestExecutor(final TranscriptListener listener) {
+        this(listener, new DisabledMetrics());
+    }
+
+    /**
+     * @param metrics Record time until response headers are received with request method as operation
+     */
+    public LoggingHttpRequestExecutor(final TranscriptListener listener, final Metrics metrics) {
         this.listener = listener;
+        this.metrics = metrics;
     }
 
     @Override
@@ -52,7 +64,23 @@ public class LoggingHttpRequestExecutor extends HttpRequestExecutor {
         if(!request.containsHeader(HttpHeaders.USER_AGENT)) {
             request.addHeader(new BasicHeader(HttpHeaders.USER_AGENT, useragentProvider.get()));
         }
-        return super.execute(request, conn, context);
+        final long start = System.nanoTime();
+        HttpResponse response = null;
+        try {
+            response = super.execute(request, conn, context);
+            return response;
+        }
+        finally {
+            long bytes = 0L;
+            if(request instanceof HttpEntityEnclosingRequest && null != ((HttpEntityEnclosingRequest) request).getEntity()) {
+                bytes += Math.max(0L, ((HttpEntityEnclosingRequest) request).getEntity().getContentLength());
+            }
+            if(null != response && null != response.getEntity()) {
+                bytes += Math.max(0L, response.getEntity().getContentLength());
+            }
+            metrics.record(String.format("http.%s", request.getRequestLine().getMethod()), System.nanoTime() - start, bytes,
+                    null == response || response.getStatusLine().getStatusCode() >= 400);
+        }
     }
 
     @Override
@@ -0,0 +1,180 @@
+package ch.cyberduck.core.local;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Filter;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.io.watchservice.NIOEventWatchService;
+import ch.cyberduck.core.io.watchservice.RegisterWatchService;
+import ch.cyberduck.core.threading.DefaultThreadPool;
+import ch.cyberduck.core.threading.ThreadPool;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watch folder including all subfolders for changes. Folders created later are registered when the creation
+ * event is received.
+ */
+public final class FileTreeWatcher {
+    private static final Logger log = LogManager.getLogger(FileTreeWatcher.class);
+
+    private final RegisterWatchService monitor;
+    private final ThreadPool pool;
+
+    /**
+     * Registered folder for key
+     */
+    private final Map<WatchKey, Local> folders = new ConcurrentHashMap<>();
+
+    public FileTreeWatcher() {
+        this(new NIOEventWatchService());
+    }
+
+    public FileTreeWatcher(final RegisterWatchService monitor) {
+        this.monitor = monitor;
+        this.pool = new DefaultThreadPool("watcher", 1);
+    }
+
+    /**
+     * @param folder   Root folder
+     * @param filter   Files and folders to include
+     * @param listener Callback for changes
+     * @return Latch released when waiting for events
+     */
+    public CountDownLatch register(final Local folder, final Filter<Local> filter, final FileWatcherListener listener) throws IOException {
+        this.walk(folder, filter);
+        final CountDownLatch lock = new CountDownLatch(1);
+        pool.execute(() -> {
+            while(true) {
+                final WatchKey key;
+                try {
+                    lock.countDown();
+                    key = monitor.take();
+                }
+                catch(ClosedWatchServiceException e) {
+                    // If this watch service is closed
+                    return true;
+                }
+                catch(InterruptedException e) {
+                    return false;
+                }
+                final Local parent = folders.get(key);
+                if(null == parent) {
+                    log.warn(String.format("Ignore events for unknown key %s", key));
+                    key.reset();
+                    continue;
+                }
+                for(WatchEvent<?> event : key.pollEvents()) {
+                    final WatchEvent.Kind<?> kind = event.kind();
+                    if(kind == OVERFLOW) {
+                        log.warn(String.format("Overflow event for %s", parent));
+                        // Events lost for folder
+                        listener.fileWritten(parent);
+                        continue;
+                    }
+                    // The filename is the context of the event
+                    final Local file = LocalFactory.get(parent, event.context().toString());
+                    if(!filter.accept(file)) {
+                        if(log.isDebugEnabled()) {
+                            log.debug(String.format("Ignored file system event %s for %s", kind.name(), file));
+                        }
+                        continue;
+                    }
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Process file system event %s for %s", kind.name(), file));
+                    }
+                    if(ENTRY_CREATE == kind) {
+                        if(file.isDirectory()) {
+                            try {
+                                this.walk(file, filter);
+                            }
+                            catch(IOException e) {
+                                log.warn(String.format("Failure registering folder %s. %s", file, e.getMessage()));
+                            }
+                        }
+                        listener.fileCreated(file);
+                    }
+                    else if(ENTRY_MODIFY == kind) {
+                        listener.fileWritten(file);
+                    }
+                    else if(ENTRY_DELETE == kind) {
+                        listener.fileDeleted(file);
+                    }
+                }
+                // Reset the key -- this step is critical to receive further watch events.
+                if(!key.reset()) {
+                    // Folder no longer accessible
+                    folders.remove(key);
+                    if(folders.isEmpty()) {
+                        return true;
+                    }
+                }
+            }
+        });
+        return lock;
+    }
+
+    /**
+     * Register folder and all its subfolders
+     */
+    private void walk(final Local folder, final Filter<Local> filter) throws IOException {
+        // Make sure to canonicalize the watched folder
+        final Path canonical = new File(folder.getAbsolute()).getCanonicalFile().toPath();
+        final WatchKey key = monitor.register(canonical, new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY});
+        if(!key.isValid()) {
+            throw new IOException(String.format("Failure registering for events in %s", canonical));
+        }
+        folders.put(key, folder);
+        try {
+            for(Local child : folder.list()) {
+                if(child.isDirectory() && !child.isSymbolicLink() && filter.accept(child)) {
+                    this.walk(child, filter);
+                }
+            }
+        }
+        catch(AccessDeniedException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    public void close() {
+        try {
+            monitor.close();
+            pool.shutdown(false);
+        }
+        catch(IOException e) {
+            log.error("Failure closing file watcher monitor", e);
+        }
+        finally {
+            folders.clear();
+        }
+    }
+}
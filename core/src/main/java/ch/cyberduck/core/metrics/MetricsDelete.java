@@ -0,0 +1,70 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Metrics;
+import ch.cyberduck.core.PasswordCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import java.util.Map;
+
+/**
+ * Record duration of deletes
+ */
+public class MetricsDelete implements Delete {
+
+    private final Delete proxy;
+    private final Metrics metrics;
+
+    public MetricsDelete(final Delete proxy, final Metrics metrics) {
+        this.proxy = proxy;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) throws BackgroundException {
+        final long start = System.nanoTime();
+        boolean failure = true;
+        try {
+            proxy.delete(files, prompt, callback);
+            failure = false;
+        }
+        finally {
+            metrics.record(Operation.delete.name(), System.nanoTime() - start, 0L, failure);
+        }
+    }
+
+    @Override
+    public boolean isSupported(final Path file) {
+        return proxy.isSupported(file);
+    }
+
+    @Override
+    public boolean isRecursive() {
+        return proxy.isRecursive();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MetricsDelete{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,128 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledMetrics;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Metrics;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ScheduledThreadPool;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.MBeanServer;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared metrics by host exported using JMX and periodically written to a file in OpenMetrics text format
+ */
+public final class MetricsRegistry {
+    private static final Logger log = LogManager.getLogger(MetricsRegistry.class);
+
+    private static final MetricsRegistry global = new MetricsRegistry(PreferencesFactory.get());
+
+    public static MetricsRegistry get() {
+        return global;
+    }
+
+    private static final Metrics disabled = new DisabledMetrics();
+
+    private final Map<String, OperationMetrics> hosts = new ConcurrentHashMap<>();
+
+    private final Preferences preferences;
+    private final MBeanServer server;
+
+    private ScheduledThreadPool scheduler;
+
+    public MetricsRegistry(final Preferences preferences) {
+        this.preferences = preferences;
+        this.server = preferences.getBoolean("metrics.enable") && preferences.getBoolean("metrics.jmx.enable")
+            ? ManagementFactory.getPlatformMBeanServer() : null;
+    }
+
+    /**
+     * @param bookmark Host
+     * @return Shared metrics for protocol and hostname or no-op implementation when disabled
+     */
+    public Metrics find(final Host bookmark) {
+        if(!preferences.getBoolean("metrics.enable")) {
+            return disabled;
+        }
+        final String key = String.format("%s://%s", bookmark.getProtocol().getScheme(), bookmark.getHostname());
+        final OperationMetrics metrics = hosts.get(key);
+        if(metrics != null) {
+            return metrics;
+        }
+        final OperationMetrics previous = hosts.putIfAbsent(key, new OperationMetrics(key, server));
+        if(null == previous) {
+            this.schedule();
+        }
+        return hosts.get(key);
+    }
+
+    private synchronized void schedule() {
+        if(scheduler != null) {
+            return;
+        }
+        final String file = preferences.getProperty("metrics.openmetrics.file");
+        if(StringUtils.isBlank(file)) {
+            return;
+        }
+        scheduler = new ScheduledThreadPool();
+        scheduler.repeat(() -> this.export(Paths.get(file)),
+            preferences.getLong("metrics.openmetrics.interval.ms"), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write all metrics to temporary file moved to target when complete
+     *
+     * @param target File to write
+     */
+    public void export(final Path target) {
+        try {
+            final Path parent = target.toAbsolutePath().getParent();
+            final Path temporary = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+            try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                new OpenMetricsWriter().write(new ArrayList<>(hosts.values()), out);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure writing metrics to %s. %s", target, e.getMessage()));
+        }
+    }
+
+    public synchronized void shutdown() {
+        if(scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+}
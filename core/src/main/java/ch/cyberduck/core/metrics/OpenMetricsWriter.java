@@ -0,0 +1,112 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Format metrics in OpenMetrics text exposition format
+ *
+ * @see <a href="https://github.com/OpenObservability/OpenMetrics/blob/main/specification/OpenMetrics.md">OpenMetrics</a>
+ */
+public class OpenMetricsWriter {
+
+    private static final String PREFIX = "cyberduck_";
+
+    public void write(final Collection<OperationMetrics> hosts, final Writer out) throws IOException {
+        out.write(String.format("# TYPE %soperation_seconds histogram\n", PREFIX));
+        out.write(String.format("# UNIT %soperation_seconds seconds\n", PREFIX));
+        out.write(String.format("# HELP %soperation_seconds Duration of operations\n", PREFIX));
+        for(OperationMetrics metrics : hosts) {
+            for(Map.Entry<String, Timer> entry : metrics.getTimers().entrySet()) {
+                final String labels = this.labels(metrics.getHost(), entry.getKey());
+                final Timer timer = entry.getValue();
+                final long[] buckets = timer.getBuckets();
+                for(int i = 0; i < Timer.BUCKETS.length; i++) {
+                    out.write(String.format("%soperation_seconds_bucket{%s,le=\"%s\"} %d\n",
+                        PREFIX, labels, Timer.BUCKETS[i], buckets[i]));
+                }
+                out.write(String.format("%soperation_seconds_bucket{%s,le=\"+Inf\"} %d\n",
+                    PREFIX, labels, buckets[buckets.length - 1]));
+                out.write(String.format("%soperation_seconds_count{%s} %d\n", PREFIX, labels, buckets[buckets.length - 1]));
+                out.write(String.format("%soperation_seconds_sum{%s} %s\n", PREFIX, labels, timer.getSum()));
+            }
+        }
+        this.counter(hosts, out, "operation_errors", "Failed operations", Counter.errors);
+        this.counter(hosts, out, "operation_retries", "Operations attempted again after failure", Counter.retries);
+        this.counter(hosts, out, "operation_bytes", "Bytes sent or received", Counter.bytes);
+        out.write(String.format("# TYPE %srequests counter\n", PREFIX));
+        out.write(String.format("# HELP %srequests Number of requests by type\n", PREFIX));
+        for(OperationMetrics metrics : hosts) {
+            for(Map.Entry<Object, LongAdder> entry : metrics.getCounters().entrySet()) {
+                out.write(String.format("%srequests_total{%s} %d\n", PREFIX,
+                    this.labels(metrics.getHost(), this.name(entry.getKey())), entry.getValue().sum()));
+            }
+        }
+        out.write("# EOF\n");
+    }
+
+    private void counter(final Collection<OperationMetrics> hosts, final Writer out,
+                         final String name, final String help, final Counter counter) throws IOException {
+        out.write(String.format("# TYPE %s%s counter\n", PREFIX, name));
+        out.write(String.format("# HELP %s%s %s\n", PREFIX, name, help));
+        for(OperationMetrics metrics : hosts) {
+            for(Map.Entry<String, Timer> entry : metrics.getTimers().entrySet()) {
+                final long value;
+                switch(counter) {
+                    case errors:
+                        value = entry.getValue().getErrors();
+                        break;
+                    case retries:
+                        value = entry.getValue().getRetries();
+                        break;
+                    default:
+                        value = entry.getValue().getBytes();
+                        break;
+                }
+                out.write(String.format("%s%s_total{%s} %d\n", PREFIX, name, this.labels(metrics.getHost(), entry.getKey()), value));
+            }
+        }
+    }
+
+    private String name(final Object key) {
+        if(key instanceof Class) {
+            return ((Class<?>) key).getSimpleName();
+        }
+        return String.valueOf(key);
+    }
+
+    private String labels(final String host, final String operation) {
+        return String.format("host=\"%s\",operation=\"%s\"", this.escape(host), this.escape(operation));
+    }
+
+    private String escape(final String value) {
+        if(null == value) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private enum Counter {
+        errors,
+        retries,
+        bytes
+    }
+}
@@ -0,0 +1,123 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and operation timers for a single host
+ */
+public class OperationMetrics implements Metrics {
+    private static final Logger log = LogManager.getLogger(OperationMetrics.class);
+
+    private final Map<Object, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final String host;
+    /**
+     * Register timers as MBean or null
+     */
+    private final MBeanServer server;
+
+    public OperationMetrics() {
+        this(null, null);
+    }
+
+    /**
+     * @param host   Label for host
+     * @param server MBean server to register timers or null
+     */
+    public OperationMetrics(final String host, final MBeanServer server) {
+        this.host = host;
+        this.server = server;
+    }
+
+    @Override
+    public <T> void increment(final T key) {
+        counters.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    @Override
+    public <T> long get(final T key) {
+        final LongAdder counter = counters.get(key);
+        return null == counter ? 0L : counter.sum();
+    }
+
+    @Override
+    public void record(final String operation, final long nanos, final long bytes, final boolean failure) {
+        this.timer(operation).record(nanos, bytes, failure);
+    }
+
+    @Override
+    public void retry(final String operation) {
+        this.timer(operation).retry();
+    }
+
+    /**
+     * @param operation Operation name
+     * @return Existing or new timer for operation
+     */
+    public Timer timer(final String operation) {
+        final Timer timer = timers.get(operation);
+        if(timer != null) {
+            return timer;
+        }
+        final Timer created = new Timer();
+        final Timer previous = timers.putIfAbsent(operation, created);
+        if(previous != null) {
+            return previous;
+        }
+        if(server != null) {
+            try {
+                server.registerMBean(created, new ObjectName(String.format("ch.cyberduck:type=Operation,host=%s,operation=%s",
+                    ObjectName.quote(host), ObjectName.quote(operation))));
+            }
+            catch(JMException e) {
+                log.warn(String.format("Failure registering timer for %s. %s", operation, e.getMessage()));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * @return Counters by key
+     */
+    public Map<Object, LongAdder> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    /**
+     * @return Timers by operation name
+     */
+    public Map<String, Timer> getTimers() {
+        return Collections.unmodifiableMap(timers);
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
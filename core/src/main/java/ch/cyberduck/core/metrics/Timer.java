@@ -0,0 +1,140 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with counters for errors, retries and bytes of a single operation
+ */
+public final class Timer implements TimerMXBean {
+
+    /**
+     * Upper bounds of histogram buckets in seconds
+     */
+    public static final double[] BUCKETS = new double[]{0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+    /**
+     * Count by bucket with last bucket for values exceeding all bounds
+     */
+    private final LongAdder[] buckets = new LongAdder[BUCKETS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public Timer() {
+        for(int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param duration Duration in nanoseconds
+     * @param length   Bytes sent or received
+     * @param failure  Operation failed
+     */
+    public void record(final long duration, final long length, final boolean failure) {
+        final double seconds = (double) duration / TimeUnit.SECONDS.toNanos(1);
+        int i = 0;
+        while(i < BUCKETS.length && seconds > BUCKETS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        nanos.add(duration);
+        max.accumulateAndGet(duration, Math::max);
+        if(length > 0) {
+            bytes.add(length);
+        }
+        if(failure) {
+            errors.increment();
+        }
+    }
+
+    public void retry() {
+        retries.increment();
+    }
+
+    /**
+     * @return Cumulative count for each bucket bound in <code>BUCKETS</code> followed by total count
+     */
+    public long[] getBuckets() {
+        final long[] cumulative = new long[buckets.length];
+        long sum = 0L;
+        for(int i = 0; i < buckets.length; i++) {
+            sum += buckets[i].sum();
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+
+    /**
+     * @return Total duration of all operations in seconds
+     */
+    public double getSum() {
+        return (double) nanos.sum() / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        final long count = this.getCount();
+        if(0L == count) {
+            return 0d;
+        }
+        return (double) nanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return (double) max.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Timer{");
+        sb.append("count=").append(count);
+        sb.append(", errors=").append(errors);
+        sb.append(", retries=").append(retries);
+        sb.append(", bytes=").append(bytes);
+        sb.append('}');
+        return sb.toString();
+    }
+}
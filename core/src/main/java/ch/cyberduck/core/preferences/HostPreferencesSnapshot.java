@@ -0,0 +1,117 @@
+package ch.cyberduck.core.preferences;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Protocol;
+
+import java.util.Map;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Immutable view of preference values for a bookmark with values for all pre-registered keys resolved and parsed
+ * once. Obtain using {@link #get(Host)} which returns a cached snapshot unless custom bookmark properties, the
+ * protocol or application preferences have changed since it was built.
+ */
+public final class HostPreferencesSnapshot {
+
+    /**
+     * Weak identity keys to share snapshot for bookmark
+     */
+    private static final Cache<Host, HostPreferencesSnapshot> snapshots = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    /**
+     * Custom bookmark properties at the time of creation. Replaced when modified.
+     */
+    private final Map<String, String> custom;
+    private final Protocol protocol;
+    private final long revision;
+
+    private final String[] strings;
+    private final long[] primitives;
+
+    public static HostPreferencesSnapshot get(final Host bookmark) {
+        return get(bookmark, PreferencesFactory.get());
+    }
+
+    public static HostPreferencesSnapshot get(final Host bookmark, final Preferences preferences) {
+        HostPreferencesSnapshot snapshot = snapshots.getIfPresent(bookmark);
+        if(null == snapshot || snapshot.isStale(bookmark, preferences)) {
+            snapshot = new HostPreferencesSnapshot(bookmark, preferences);
+            snapshots.put(bookmark, snapshot);
+        }
+        return snapshot;
+    }
+
+    public HostPreferencesSnapshot(final Host bookmark, final Preferences preferences) {
+        this.custom = bookmark.getCustom();
+        this.protocol = bookmark.getProtocol();
+        this.revision = preferences.getRevision();
+        final PreferencesReader reader = new HostPreferences(bookmark, preferences);
+        final PreferenceKey[] keys = PreferenceKey.keys();
+        this.strings = new String[keys.length];
+        this.primitives = new long[keys.length];
+        for(PreferenceKey key : keys) {
+            if(null == key) {
+                // Concurrently registered
+                continue;
+            }
+            final String value = reader.getProperty(key.getName());
+            strings[key.getIndex()] = value;
+            switch(key.getType()) {
+                case integer:
+                    primitives[key.getIndex()] = PreferencesReader.toInteger(value);
+                    break;
+                case longinteger:
+                    primitives[key.getIndex()] = PreferencesReader.toLong(value);
+                    break;
+                case bool:
+                    primitives[key.getIndex()] = PreferencesReader.toBoolean(value) ? 1L : 0L;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return True if bookmark or preferences have been modified or keys registered since snapshot was created
+     */
+    public boolean isStale(final Host bookmark, final Preferences preferences) {
+        return custom != bookmark.getCustom()
+                || protocol != bookmark.getProtocol()
+                || revision != preferences.getRevision()
+                || strings.length != PreferenceKey.count();
+    }
+
+    public String getProperty(final PreferenceKey key) {
+        return strings[key.getIndex()];
+    }
+
+    public int getInteger(final PreferenceKey key) {
+        return (int) primitives[key.getIndex()];
+    }
+
+    public long getLong(final PreferenceKey key) {
+        return primitives[key.getIndex()];
+    }
+
+    public boolean getBoolean(final PreferenceKey key) {
+        return primitives[key.getIndex()] != 0L;
+    }
+}
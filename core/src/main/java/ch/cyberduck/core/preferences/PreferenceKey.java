@@ -0,0 +1,111 @@
+package ch.cyberduck.core.preferences;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pre-registered preference key with a fixed index into {@link HostPreferencesSnapshot}
+ */
+public final class PreferenceKey {
+
+    private static final Map<String, PreferenceKey> registry = new ConcurrentHashMap<>();
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    public enum Type {
+        string,
+        integer,
+        longinteger,
+        bool
+    }
+
+    private final String name;
+    private final Type type;
+    private final int index;
+
+    private PreferenceKey(final String name, final Type type, final int index) {
+        this.name = name;
+        this.type = type;
+        this.index = index;
+    }
+
+    public static PreferenceKey string(final String name) {
+        return register(name, Type.string);
+    }
+
+    public static PreferenceKey integer(final String name) {
+        return register(name, Type.integer);
+    }
+
+    public static PreferenceKey longinteger(final String name) {
+        return register(name, Type.longinteger);
+    }
+
+    public static PreferenceKey bool(final String name) {
+        return register(name, Type.bool);
+    }
+
+    private static PreferenceKey register(final String name, final Type type) {
+        final PreferenceKey key = registry.computeIfAbsent(name, k -> new PreferenceKey(k, type, sequence.getAndIncrement()));
+        if(key.type != type) {
+            throw new IllegalArgumentException(String.format("Key %s already registered with type %s", name, key.type));
+        }
+        return key;
+    }
+
+    /**
+     * @return Number of keys registered
+     */
+    public static int count() {
+        return sequence.get();
+    }
+
+    /**
+     * @return All registered keys
+     */
+    static PreferenceKey[] keys() {
+        final PreferenceKey[] keys = new PreferenceKey[count()];
+        for(PreferenceKey key : registry.values()) {
+            if(key.index < keys.length) {
+                keys[key.index] = key;
+            }
+        }
+        return keys;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PreferenceKey{");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", type=").append(type);
+        sb.append('}');
+        return sb.toString();
+    }
+}
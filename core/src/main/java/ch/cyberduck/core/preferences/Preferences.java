@@ -46,6 +46,7 @@ import ch.cyberduck.core.random.DefaultSecureRandomProvider;
 import ch.cyberduck.core.resources.DisabledIconCache;
 import ch.cyberduck.core.serializer.impl.dd.HostPlistReader;
 import ch.cyberduck.core.serializer.impl.dd.PlistDeserializer;
+import ch.cyberduck.core.serializer.impl.dd.PlistJournalWriter;
 import ch.cyberduck.core.serializer.impl.dd.PlistSerializer;
 import ch.cyberduck.core.serializer.impl.dd.PlistWriter;
 import ch.cyberduck.core.serializer.impl.dd.ProfilePlistReader;
@@ -97,6 +98,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.Deflater;
 
 import com.google.common.collect.ImmutableMap;
@@ -110,6 +112,11 @@ public abstract class Preferences implements Locales, PreferencesReader {
 
     protected static final String LIST_SEPERATOR = StringUtils.SPACE;
 
+    /**
+     * Incremented on every change to allow readers to detect stale cached values
+     */
+    private final AtomicLong revision = new AtomicLong();
+
     /**
      * Update the given property with a string value.
      *
@@ -187,6 +194,20 @@ public abstract class Preferences implements Locales, PreferencesReader {
 
     public abstract String getDefault(String property);
 
+    /**
+     * @return Number of modifications to user or default values
+     */
+    public long getRevision() {
+        return revision.get();
+    }
+
+    /**
+     * Notify about changed property value. Must be called by implementations when a value is set or removed.
+     */
+    protected void invalidate() {
+        revision.incrementAndGet();
+    }
+
     public abstract void setDefault(String property, String value);
 
     public static final class Version {
@@ -246,7 +267,8 @@ public abstract class Preferences implements Locales, PreferencesReader {
     }
 
     /**
-     * setting the default prefs values
+     * setting the default prefs values. Defaults are set eagerly as lookups of missing keys fall back to the
+     * defaults map. Loading of classes referenced is covered by the class data sharing archive for the CLI.
      */
     protected void setDefaults() {
         // TTL for DNS queries
@@ -422,6 +444,21 @@ public abstract class Preferences implements Locales, PreferencesReader {
          */
         this.setDefault("browser.duplicate.format", "{0} ({1}){2}");
         this.setDefault("browser.delete.trash", String.valueOf(true));
+        /*
+          Number of server side copy and move operations run in parallel for protocols with stateless connections
+         */
+        this.setDefault("copy.concurrency", String.valueOf(10));
+        this.setDefault("move.concurrency", String.valueOf(10));
+        /*
+          Determine existing files from a single listing of the parent folder
+         */
+        this.setDefault("copy.find.listing.enable", String.valueOf(false));
+        this.setDefault("move.find.listing.enable", String.valueOf(false));
+        /*
+          Number of metadata, permission, encryption and storage class changes run in parallel for protocols with stateless connections
+         */
+        this.setDefault("attributes.write.concurrency.default", String.valueOf(1));
+        this.setDefault(String.format("attributes.write.concurrency.%s", Protocol.Type.s3.name()), String.valueOf(10));
 
         /*
           Use octal or decimal file sizes
@@ -481,6 +518,21 @@ public abstract class Preferences implements Locales, PreferencesReader {
         this.setDefault("queue.download.reload.action", TransferAction.callback.name());
         this.setDefault("queue.upload.reload.action", TransferAction.callback.name());
         this.setDefault("queue.copy.reload.action", TransferAction.callback.name());
+        /*
+          Persist state of files in sync to skip comparison of unchanged files
+         */
+        this.setDefault("queue.sync.journal.enable", String.valueOf(true));
+        /*
+          Number of changes appended to saved transfer before rewriting complete transfer
+         */
+        this.setDefault("queue.transfer.journal.compaction", String.valueOf(100));
+        /*
+          Continuous synchronization. Delay to collect changes prior synchronizing, interval to poll for remote
+          changes and interval for full comparison when no change feed is available.
+         */
+        this.setDefault("sync.continuous.delay.ms", String.valueOf(2000L));
+        this.setDefault("sync.continuous.remote.interval.ms", String.valueOf(5000L));
+        this.setDefault("sync.continuous.fallback.interval.ms", String.valueOf(60000L));
 
         this.setDefault("queue.upload.permissions.change", String.valueOf(false));
         this.setDefault("queue.upload.acl.change", String.valueOf(true));
@@ -594,6 +646,10 @@ public abstract class Preferences implements Locales, PreferencesReader {
         this.setDefault("queue.connections.limit", String.valueOf(TransferConnectionLimiter.AUTO));
         this.setDefault("queue.connections.limit.default", String.valueOf(5));
         this.setDefault(String.format("queue.connections.limit.%s", Protocol.Type.ftp.name()), String.valueOf(1));
+        /*
+         * Run segments of all transfers in a global scheduler sharing the connection limit per host
+         */
+        this.setDefault("queue.scheduler.enable", String.valueOf(false));
 
         {
             final StringBuilder options = new StringBuilder();
@@ -727,6 +783,11 @@ public abstract class Preferences implements Locales, PreferencesReader {
          * Read metadata of every file in list service to display modification date stored in metadata
          */
         this.setDefault("s3.listing.metadata.enable", String.valueOf(false));
+        /*
+         * Determine version of placeholder for common prefixes in versioned bucket only when required for revert, delete, move,
+         * versions or download. Folders are added to the listing with every page read.
+         */
+        this.setDefault("s3.listing.versioning.placeholder.lazy", String.valueOf(true));
 
         this.setDefault("s3.upload.multipart", String.valueOf(true));
         this.setDefault("s3.upload.multipart.concurrency", String.valueOf(10));
@@ -790,6 +851,8 @@ public abstract class Preferences implements Locales, PreferencesReader {
          * The recommended fragment size is between 5-10 MiB.
          */
         this.setDefault("onedrive.upload.multipart.partsize.factor", String.valueOf(20)); // ~6,25 MB
+        // Number of fragments uploaded in parallel for upload session
+        this.setDefault("onedrive.upload.multipart.concurrency", String.valueOf(4));
 
         final int month = 60 * 60 * 24 * 30; //30 days in seconds
         this.setDefault("s3.cache.seconds", String.valueOf(month));
@@ -840,6 +903,10 @@ public abstract class Preferences implements Locales, PreferencesReader {
         // Limit the number of requests to 10 per second which is equal the user quota
         this.setDefault("googledrive.limit.requests.second", String.valueOf(100));
         this.setDefault("googledrive.delete.multiple.partition", String.valueOf(50));
+        // Maximum number of calls combined in a single batch request
+        this.setDefault("googledrive.batch.partition", String.valueOf(100));
+        // Number of resumable upload sessions initiated in parallel prior transfer
+        this.setDefault("googledrive.upload.session.concurrency", String.valueOf(5));
 
         this.setDefault("b2.bucket.acl.default", "allPrivate");
         this.setDefault("b2.listing.chunksize", String.valueOf(1000));
@@ -865,6 +932,10 @@ public abstract class Preferences implements Locales, PreferencesReader {
         this.setDefault("sds.encryption.missingkeys.upload", String.valueOf(true));
         this.setDefault("sds.encryption.missingkeys.scheduler.period", String.valueOf(120000)); // 2 minutes
         this.setDefault("sds.encryption.missingkeys.delete.deprecated", String.valueOf(false));
+        // Number of threads to encrypt file keys for users
+        this.setDefault("sds.encryption.missingkeys.threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        // Number of file key sets per request
+        this.setDefault("sds.encryption.missingkeys.batch.size", String.valueOf(100));
         this.setDefault("sds.encryption.keys.ttl", String.valueOf(600000)); // 10 minutes
         this.setDefault("sds.useracount.ttl", String.valueOf(3600000)); // 1 hour
         this.setDefault("sds.create.dataroom.enable", String.valueOf(true));
@@ -900,6 +971,8 @@ public abstract class Preferences implements Locales, PreferencesReader {
         this.setDefault("dropbox.upload.chunksize", String.valueOf(150 * 1024L * 1024L));
         this.setDefault("dropbox.business.enable", String.valueOf(true));
         this.setDefault("dropbox.delete.poll.interval.ms", String.valueOf(500L));
+        // Timeout in seconds between 30 and 480 to wait for changes
+        this.setDefault("dropbox.changes.longpoll.timeout", String.valueOf(30L));
 
         /*
           NTLM Windows Domain
@@ -931,6 +1004,13 @@ public abstract class Preferences implements Locales, PreferencesReader {
         this.setDefault("webdav.microsoftiis.header.translate", String.valueOf(true));
 
         this.setDefault("webdav.list.handler.sax", String.valueOf(true));
+        this.setDefault("webdav.listing.chunksize", String.valueOf(100));
+        /*
+         * Single PROPFIND with Depth: infinity for recursive operations. Disabled by default in most servers.
+         */
+        this.setDefault("webdav.listing.recursive.enable", String.valueOf(false));
+        this.setDefault("nextcloud.listing.recursive.enable", String.valueOf(true));
+        this.setDefault("owncloud.listing.recursive.enable", String.valueOf(true));
         this.setDefault("webdav.lock.enable", String.valueOf(true));
 
         /*
@@ -984,6 +1064,22 @@ public abstract class Preferences implements Locales, PreferencesReader {
         // Specific setting for transfer worker
         this.setDefault("transfer.connection.retry", String.valueOf(1));
         this.setDefault("transfer.connection.retry.delay", String.valueOf(0));
+        /*
+          Random delay up to exponential backoff in milliseconds when retrying part of multipart upload
+         */
+        this.setDefault("transfer.multipart.retry.backoff.ms", String.valueOf(250L));
+        this.setDefault("transfer.multipart.retry.backoff.max.ms", String.valueOf(10000L));
+
+        /*
+          Record latency, throughput, retries and errors by host and operation
+         */
+        this.setDefault("metrics.enable", String.valueOf(false));
+        this.setDefault("metrics.jmx.enable", String.valueOf(true));
+        /*
+          File written periodically in OpenMetrics text format
+         */
+        this.setDefault("metrics.openmetrics.file", StringUtils.EMPTY);
+        this.setDefault("metrics.openmetrics.interval.ms", String.valueOf(15000L));
 
         this.setDefault("connection.hostname.default", StringUtils.EMPTY);
         /*
@@ -1146,6 +1242,8 @@ public abstract class Preferences implements Locales, PreferencesReader {
 
         this.setDefault("threading.pool.size.max", String.valueOf(20));
         this.setDefault("threading.pool.keepalive.seconds", String.valueOf(60L));
+        // Use virtual threads when supported by runtime
+        this.setDefault("threading.pool.virtual.enable", String.valueOf(false));
 
         this.setDefault("cryptomator.enable", String.valueOf(true));
         this.setDefault("cryptomator.vault.version", String.valueOf(8));
@@ -1154,6 +1252,11 @@ public abstract class Preferences implements Locales, PreferencesReader {
         this.setDefault("cryptomator.vault.config.filename", "vault.cryptomator");
         this.setDefault("cryptomator.vault.pepper", "");
         this.setDefault("cryptomator.cache.size", String.valueOf(1000));
+        // Encrypt and decrypt file content chunks on worker threads
+        this.setDefault("cryptomator.content.parallel.enable", String.valueOf(false));
+        this.setDefault("cryptomator.content.parallel.threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        // Maximum number of chunks in flight per stream
+        this.setDefault("cryptomator.content.parallel.window", String.valueOf(2 * Runtime.getRuntime().availableProcessors()));
 
         this.setDefault("eue.upload.multipart.size", String.valueOf(4L * 1024L * 1024L)); // 4MB
         this.setDefault("eue.upload.multipart.threshold", String.valueOf(4L * 1024L * 1024L)); // 4MB
@@ -1323,7 +1426,7 @@ public abstract class Preferences implements Locales, PreferencesReader {
         this.setDefault("factory.reader.profile.class", ProfilePlistReader.class.getName());
         this.setDefault("factory.writer.profile.class", PlistWriter.class.getName());
         this.setDefault("factory.reader.transfer.class", TransferPlistReader.class.getName());
-        this.setDefault("factory.writer.transfer.class", PlistWriter.class.getName());
+        this.setDefault("factory.writer.transfer.class", PlistJournalWriter.class.getName());
         this.setDefault("factory.reader.host.class", HostPlistReader.class.getName());
         this.setDefault("factory.writer.host.class", PlistWriter.class.getName());
 
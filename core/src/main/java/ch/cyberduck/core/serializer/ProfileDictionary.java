@@ -65,7 +65,11 @@ public class ProfileDictionary<T> {
         final String protocol = dict.stringForKey("Protocol");
         if(StringUtils.isNotBlank(protocol)) {
             // Return default registered protocol specification as parent
-            Protocol parent = protocols.forName(protocols.find(filter), protocol, null);
+            Protocol parent = protocols.forName(protocols.find(filter, protocol), protocol, null);
+            if(null == parent) {
+                // Lookup in all registered protocols
+                parent = protocols.forName(protocols.find(filter), protocol, null);
+            }
             if(null == parent) {
                 log.error(String.format("Unknown protocol %s in profile. Try fallback with no predicate in lookup", protocol));
                 parent = protocols.forName(protocols.find(p -> true), protocol, null);
@@ -21,6 +21,7 @@ package ch.cyberduck.core.serializer;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.Serializable;
 import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
 
 import java.util.Collection;
 
@@ -37,4 +38,11 @@ public interface Writer<S extends Serializable> {
      * @param file Serialized file target
      */
     void write(S item, Local file) throws AccessDeniedException;
+
+    /**
+     * @param file Serialized file to delete
+     */
+    default void delete(Local file) throws AccessDeniedException, NotfoundException {
+        file.delete();
+    }
 }
@@ -0,0 +1,143 @@
+package ch.cyberduck.core.serializer.impl.dd;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.dd.plist.BinaryPropertyListParser;
+import com.dd.plist.NSArray;
+import com.dd.plist.NSDictionary;
+import com.dd.plist.NSObject;
+import com.dd.plist.PropertyListFormatException;
+
+/**
+ * Journal of binary property list records. The first record is a snapshot of the complete dictionary followed by
+ * records with changed and removed top level keys appended on every save.
+ * <pre>
+ * journal := MAGIC record*
+ * record  := length:int type:byte payload:binary plist
+ * </pre>
+ */
+public class PlistJournalParser {
+    private static final Logger log = LogManager.getLogger(PlistJournalParser.class);
+
+    public static final byte[] MAGIC = "CDJ1".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Complete dictionary
+     */
+    public static final byte SNAPSHOT = 0;
+    /**
+     * Dictionary with changed keys in <code>Set</code> and removed keys in <code>Remove</code>
+     */
+    public static final byte DELTA = 1;
+
+    /**
+     * Upper limit for length of a single record to reject corrupt journals
+     */
+    public static final int MAXIMUM_RECORD_LENGTH = 256 * 1024 * 1024;
+
+    /**
+     * @param in Input stream supporting mark
+     * @return True if stream starts with journal header. The stream is reset to its previous position.
+     */
+    public boolean isJournal(final InputStream in) throws IOException {
+        in.mark(MAGIC.length);
+        try {
+            final byte[] header = new byte[MAGIC.length];
+            return IOUtils.read(in, header) == MAGIC.length && Arrays.equals(MAGIC, header);
+        }
+        finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * @param in Journal including header
+     * @return Dictionary with all records applied
+     */
+    public NSDictionary parse(final InputStream in) throws IOException, PropertyListFormatException {
+        final DataInputStream journal = new DataInputStream(in);
+        final byte[] header = new byte[MAGIC.length];
+        journal.readFully(header);
+        if(!Arrays.equals(MAGIC, header)) {
+            throw new PropertyListFormatException("Invalid journal header");
+        }
+        NSDictionary dict = null;
+        int records = 0;
+        while(true) {
+            final int length;
+            final byte type;
+            final byte[] payload;
+            try {
+                length = journal.readInt();
+                if(length < 0 || length > MAXIMUM_RECORD_LENGTH) {
+                    throw new PropertyListFormatException(String.format("Invalid record length %d in journal", length));
+                }
+                type = journal.readByte();
+                payload = new byte[length];
+                journal.readFully(payload);
+            }
+            catch(EOFException e) {
+                // End of journal or partially written last record
+                break;
+            }
+            final NSObject record = BinaryPropertyListParser.parse(payload);
+            if(!(record instanceof NSDictionary)) {
+                throw new PropertyListFormatException(String.format("Unexpected record %s in journal", record));
+            }
+            switch(type) {
+                case SNAPSHOT:
+                    dict = (NSDictionary) record;
+                    break;
+                case DELTA:
+                    if(null == dict) {
+                        throw new PropertyListFormatException("Missing snapshot in journal");
+                    }
+                    final NSObject set = ((NSDictionary) record).objectForKey("Set");
+                    if(set instanceof NSDictionary) {
+                        dict.putAll(((NSDictionary) set).getHashMap());
+                    }
+                    final NSObject remove = ((NSDictionary) record).objectForKey("Remove");
+                    if(remove instanceof NSArray) {
+                        for(NSObject key : ((NSArray) remove).getArray()) {
+                            dict.remove(key.toString());
+                        }
+                    }
+                    break;
+                default:
+                    throw new PropertyListFormatException(String.format("Unknown record type %d in journal", type));
+            }
+            records++;
+        }
+        if(null == dict) {
+            throw new PropertyListFormatException("Missing snapshot in journal");
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Applied %d records from journal", records));
+        }
+        return dict;
+    }
+}
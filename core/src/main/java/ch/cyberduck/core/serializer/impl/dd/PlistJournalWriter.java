@@ -0,0 +1,203 @@
+package ch.cyberduck.core.serializer.impl.dd;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Serializable;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.serializer.Writer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.dd.plist.BinaryPropertyListWriter;
+import com.dd.plist.NSArray;
+import com.dd.plist.NSDictionary;
+import com.dd.plist.NSObject;
+import com.dd.plist.NSString;
+
+/**
+ * Write items to an append only journal of binary property lists. Saving an item again only appends the top level
+ * keys changed since the last save. Lists such as the roots of a transfer are only written with a new snapshot when
+ * their serialized content changed or the number of appended records exceeds the compaction threshold.
+ *
+ * @see PlistJournalParser
+ */
+public class PlistJournalWriter<S extends Serializable> implements Writer<S> {
+    private static final Logger log = LogManager.getLogger(PlistJournalWriter.class);
+
+    /**
+     * State of last save by file
+     */
+    private final Map<String, Journal> journals = new ConcurrentHashMap<>();
+
+    /**
+     * Number of records appended before rewriting snapshot
+     */
+    private final int compaction;
+
+    public PlistJournalWriter() {
+        this(PreferencesFactory.get().getInteger("queue.transfer.journal.compaction"));
+    }
+
+    public PlistJournalWriter(final int compaction) {
+        this.compaction = compaction;
+    }
+
+    @Override
+    public void write(final Collection<S> collection, final Local file) throws AccessDeniedException {
+        new PlistWriter<S>().write(collection, file);
+    }
+
+    @Override
+    public synchronized void write(final S item, final Local file) throws AccessDeniedException {
+        final ListSerializer serializer = new ListSerializer();
+        final NSDictionary values = item.serialize(serializer);
+        final Map<String, NSObject> lists = serializer.getLists();
+        final Journal previous = journals.get(file.getAbsolute());
+        if(null == previous || previous.records >= compaction || !previous.lists.equals(lists)
+            || !file.exists() || previous.length != file.attributes().getSize()) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Write snapshot of %s to %s", item, file));
+            }
+            final long length = this.append(file, false, PlistJournalParser.SNAPSHOT, serializer.complete());
+            journals.put(file.getAbsolute(), new Journal(values, lists, 0, length));
+            return;
+        }
+        final NSDictionary set = new NSDictionary();
+        for(Map.Entry<String, NSObject> entry : values.entrySet()) {
+            if(!Objects.equals(entry.getValue(), previous.values.get(entry.getKey()))) {
+                set.put(entry.getKey(), entry.getValue());
+            }
+        }
+        final List<NSObject> remove = new ArrayList<>();
+        for(String key : previous.values.keySet()) {
+            if(!values.containsKey(key)) {
+                remove.add(new NSString(key));
+            }
+        }
+        if(set.isEmpty() && remove.isEmpty()) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Skip saving unchanged %s", item));
+            }
+            return;
+        }
+        final NSDictionary delta = new NSDictionary();
+        delta.put("Set", set);
+        delta.put("Remove", new NSArray(remove.toArray(new NSObject[0])));
+        final long length = this.append(file, true, PlistJournalParser.DELTA, delta);
+        journals.put(file.getAbsolute(), new Journal(values, lists, previous.records + 1, previous.length + length));
+    }
+
+    @Override
+    public void delete(final Local file) throws AccessDeniedException, NotfoundException {
+        journals.remove(file.getAbsolute());
+        file.delete();
+    }
+
+    /**
+     * @param append False to replace any previous content with header and record
+     * @return Number of bytes written
+     */
+    private long append(final Local file, final boolean append, final byte type, final NSDictionary record) throws AccessDeniedException {
+        try {
+            final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            BinaryPropertyListWriter.write(payload, record);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file.getOutputStream(append)))) {
+                if(!append) {
+                    out.write(PlistJournalParser.MAGIC);
+                }
+                out.writeInt(payload.size());
+                out.writeByte(type);
+                payload.writeTo(out);
+                out.flush();
+                return out.size();
+            }
+        }
+        catch(IOException e) {
+            throw new AccessDeniedException(String.format("Cannot create file %s", file.getAbsolute()), e);
+        }
+    }
+
+    private static final class Journal {
+        /**
+         * Top level values excluding lists
+         */
+        private final NSDictionary values;
+        /**
+         * Serialized lists by key
+         */
+        private final Map<String, NSObject> lists;
+        /**
+         * Number of records appended since snapshot
+         */
+        private final int records;
+        /**
+         * Expected file size
+         */
+        private final long length;
+
+        public Journal(final NSDictionary values, final Map<String, NSObject> lists, final int records, final long length) {
+            this.values = values;
+            this.lists = lists;
+            this.records = records;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Keep serialized lists apart from top level values to compare with previous save
+     */
+    private static final class ListSerializer extends PlistSerializer {
+        private final NSDictionary lists = new NSDictionary();
+
+        @Override
+        public <O extends Serializable> void setListForKey(final Collection<O> value, final String key) {
+            new PlistSerializer(lists).setListForKey(value, key);
+        }
+
+        /**
+         * @return Serialized lists by key
+         */
+        public Map<String, NSObject> getLists() {
+            return new HashMap<>(lists.getHashMap());
+        }
+
+        /**
+         * @return Copy of serialized values including lists
+         */
+        public NSDictionary complete() {
+            final NSDictionary dict = new NSDictionary();
+            dict.putAll(this.getSerialized().getHashMap());
+            dict.putAll(lists.getHashMap());
+            return dict;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import ch.cyberduck.core.serializer.Reader;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.ParseException;
@@ -38,6 +39,8 @@ import com.dd.plist.XMLPropertyListParser;
 
 public abstract class PlistReader<S extends Serializable> implements Reader<S> {
 
+    private final PlistJournalParser journal = new PlistJournalParser();
+
     /**
      * @param file A valid bookmark dictionary
      * @return Null if the file cannot be deserialized
@@ -66,7 +69,11 @@ public abstract class PlistReader<S extends Serializable> implements Reader<S> {
 
     private NSObject parse(final InputStream in) throws AccessDeniedException {
         try {
-            return XMLPropertyListParser.parse(in);
+            final BufferedInputStream buffer = new BufferedInputStream(in);
+            if(journal.isJournal(buffer)) {
+                return journal.parse(buffer);
+            }
+            return XMLPropertyListParser.parse(buffer);
         }
         catch(ParserConfigurationException | IOException | SAXException | ParseException |
               PropertyListFormatException e) {
@@ -0,0 +1,115 @@
+package ch.cyberduck.core.shared;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.RecursiveList;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+
+/**
+ * Listing for recursive operations. Fetches the complete subtree of a directory with a single request when
+ * supported by the server and answers the listing of descendant folders from the cache. Listings are removed from
+ * the cache when returned as each folder is expected to be listed once when descending. Falls back to listing every
+ * directory separately otherwise.
+ */
+public class PrefetchingListService implements ListService {
+    private static final Logger log = LogManager.getLogger(PrefetchingListService.class);
+
+    private final ListService proxy;
+    private final RecursiveList recursive;
+    private final Cache<Path> cache;
+
+    /**
+     * Use with new empty cache
+     */
+    public PrefetchingListService(final Session<?> session) {
+        this(session, new PathCache(Integer.MAX_VALUE));
+    }
+
+    /**
+     * @param cache Unbounded cache for listings of descendant folders shared between connections
+     */
+    public PrefetchingListService(final Session<?> session, final Cache<Path> cache) {
+        this(session.getFeature(ListService.class), session.getFeature(RecursiveList.class), cache);
+    }
+
+    /**
+     * @param proxy     Listing of single directory
+     * @param recursive Subtree listing or null if not supported
+     * @param cache     Unbounded cache for listings of descendant folders
+     */
+    public PrefetchingListService(final ListService proxy, final RecursiveList recursive, final Cache<Path> cache) {
+        this.proxy = proxy;
+        this.recursive = recursive;
+        this.cache = cache;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(cache.isCached(directory)) {
+            final AttributedList<Path> list = cache.remove(directory);
+            listener.chunk(directory, list);
+            return list;
+        }
+        if(null != recursive && recursive.isSupported(directory)) {
+            try {
+                final Map<Path, AttributedList<Path>> tree = recursive.list(directory, listener);
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Fetched %d folders in subtree of %s", tree.size(), directory));
+                }
+                AttributedList<Path> list = null;
+                for(Map.Entry<Path, AttributedList<Path>> entry : tree.entrySet()) {
+                    if(entry.getKey().equals(directory)) {
+                        list = entry.getValue();
+                    }
+                    else {
+                        cache.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                if(null != list) {
+                    listener.chunk(directory, list);
+                    return list;
+                }
+                log.warn(String.format("Missing %s in subtree listing", directory));
+            }
+            catch(UnsupportedException e) {
+                log.warn(String.format("Fallback to list %s with %s. %s", directory, proxy, e));
+            }
+        }
+        return proxy.list(directory, listener);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PrefetchingListService{");
+        sb.append("proxy=").append(proxy);
+        sb.append(", recursive=").append(recursive);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -37,9 +37,9 @@ public class CachingComparePathFilter implements ComparePathFilter {
 
     private Map<TransferItem, Comparison> cache = Collections.emptyMap();
 
-    private final DefaultComparePathFilter delegate;
+    private final ComparePathFilter delegate;
 
-    public CachingComparePathFilter(final DefaultComparePathFilter delegate) {
+    public CachingComparePathFilter(final ComparePathFilter delegate) {
         this.delegate = delegate;
     }
 
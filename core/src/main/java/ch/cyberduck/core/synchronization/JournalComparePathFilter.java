@@ -0,0 +1,87 @@
+package ch.cyberduck.core.synchronization;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.AttributesFinder;
+import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.transfer.TransferItem;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+
+/**
+ * Skip comparison for files unchanged on both sides since last synchronization
+ */
+public class JournalComparePathFilter implements ComparePathFilter {
+    private static final Logger log = LogManager.getLogger(JournalComparePathFilter.class);
+
+    private final SyncJournal journal;
+    private final ComparePathFilter delegate;
+
+    public JournalComparePathFilter(final SyncJournal journal, final ComparePathFilter delegate) {
+        this.journal = journal;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Comparison compare(final Path file, final Local local, final ProgressListener listener) throws BackgroundException {
+        if(file.isFile()) {
+            if(journal.isUnchanged(file, local)) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Skip comparison for %s unchanged since last synchronization", file));
+                }
+                return Comparison.equal;
+            }
+        }
+        final Comparison comparison = delegate.compare(file, local, listener);
+        if(file.isFile()) {
+            switch(comparison) {
+                case equal:
+                    if(local.exists()) {
+                        journal.record(file, file.attributes(), local);
+                    }
+                    break;
+                default:
+                    journal.remove(file);
+            }
+        }
+        return comparison;
+    }
+
+    @Override
+    public JournalComparePathFilter withFinder(final Find finder) {
+        delegate.withFinder(finder);
+        return this;
+    }
+
+    @Override
+    public JournalComparePathFilter withAttributes(final AttributesFinder attribute) {
+        delegate.withAttributes(attribute);
+        return this;
+    }
+
+    @Override
+    public JournalComparePathFilter withCache(final Map<TransferItem, Comparison> cache) {
+        delegate.withCache(cache);
+        return this;
+    }
+}
@@ -0,0 +1,257 @@
+package ch.cyberduck.core.synchronization;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalAttributes;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.LocalAccessDeniedException;
+import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent state of files last known to be in sync on both sides. Allows to skip comparison of files where
+ * neither the attributes from the remote listing nor the local file status have changed since.
+ */
+public class SyncJournal {
+    private static final Logger log = LogManager.getLogger(SyncJournal.class);
+
+    private static final int VERSION = 1;
+
+    private final Local file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param file Journal file
+     */
+    public SyncJournal(final Local file) {
+        this.file = file;
+    }
+
+    /**
+     * Read entries from journal file if any
+     */
+    public SyncJournal load() {
+        if(!file.exists()) {
+            return this;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(file.getAbsolute()))))) {
+            if(in.readInt() != VERSION) {
+                log.warn(String.format("Ignore journal %s with unknown version", file));
+                return this;
+            }
+            final int count = in.readInt();
+            for(int i = 0; i < count; i++) {
+                final String path = in.readUTF();
+                entries.put(path, new Entry(readString(in), readString(in), in.readLong(), in.readLong(),
+                    in.readLong(), in.readLong(), readString(in)));
+            }
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Loaded %d entries from journal %s", entries.size(), file));
+            }
+        }
+        catch(EOFException e) {
+            log.warn(String.format("Truncated journal %s with %d entries", file, entries.size()));
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading journal %s. %s", file, e.getMessage()));
+            entries.clear();
+        }
+        return this;
+    }
+
+    /**
+     * Write all entries to journal file replacing previous content
+     */
+    public void save() throws AccessDeniedException {
+        new DefaultLocalDirectoryFeature().mkdir(file.getParent());
+        final java.nio.file.Path target = Paths.get(file.getAbsolute());
+        final java.nio.file.Path temporary = Paths.get(String.format("%s.tmp", file.getAbsolute()));
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(VERSION);
+                // Snapshot of concurrently modified map
+                final Map<String, Entry> snapshot = new HashMap<>(entries);
+                out.writeInt(snapshot.size());
+                for(Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    final Entry e = entry.getValue();
+                    writeString(out, e.etag);
+                    writeString(out, e.versionId);
+                    out.writeLong(e.remoteModified);
+                    out.writeLong(e.remoteSize);
+                    out.writeLong(e.localModified);
+                    out.writeLong(e.localSize);
+                    writeString(out, e.fileKey);
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Saved %d entries to journal %s", entries.size(), file));
+            }
+        }
+        catch(IOException e) {
+            throw new LocalAccessDeniedException(String.format("Failure writing journal %s", file), e);
+        }
+    }
+
+    /**
+     * @param file  Remote file with attributes from listing
+     * @param local Local file
+     * @return True if both remote attributes and local file status match the last recorded state
+     */
+    public boolean isUnchanged(final Path file, final Local local) {
+        final Entry entry = entries.get(file.getAbsolute());
+        if(null == entry) {
+            return false;
+        }
+        if(!entry.isRemoteUnchanged(file.attributes())) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Remote file %s changed since last synchronization", file));
+            }
+            return false;
+        }
+        if(!entry.isLocalUnchanged(local.attributes())) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Local file %s changed since last synchronization", local));
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record state of files known to be in sync
+     *
+     * @param file   Remote file
+     * @param remote Current attributes of remote file
+     * @param local  Local file
+     */
+    public void record(final Path file, final PathAttributes remote, final Local local) {
+        if(null == remote.getETag() && null == remote.getVersionId() && -1L == remote.getModificationDate()) {
+            // Change of remote file cannot be determined
+            entries.remove(file.getAbsolute());
+            return;
+        }
+        final LocalAttributes attributes = local.attributes();
+        entries.put(file.getAbsolute(), new Entry(remote.getETag(), remote.getVersionId(), remote.getModificationDate(), remote.getSize(),
+            attributes.getModificationDate(), attributes.getSize(), attributes.getFileKey()));
+    }
+
+    /**
+     * @param file Remote file
+     */
+    public void remove(final Path file) {
+        entries.remove(file.getAbsolute());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Local getFile() {
+        return file;
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        if(in.readBoolean()) {
+            return in.readUTF();
+        }
+        return null;
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if(value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static final class Entry {
+        private final String etag;
+        private final String versionId;
+        private final long remoteModified;
+        private final long remoteSize;
+        private final long localModified;
+        private final long localSize;
+        /**
+         * Device and inode on Unix
+         */
+        private final String fileKey;
+
+        public Entry(final String etag, final String versionId, final long remoteModified, final long remoteSize,
+                     final long localModified, final long localSize, final String fileKey) {
+            this.etag = etag;
+            this.versionId = versionId;
+            this.remoteModified = remoteModified;
+            this.remoteSize = remoteSize;
+            this.localModified = localModified;
+            this.localSize = localSize;
+            this.fileKey = fileKey;
+        }
+
+        private boolean isRemoteUnchanged(final PathAttributes attributes) {
+            if(etag != null) {
+                return etag.equals(attributes.getETag());
+            }
+            if(versionId != null) {
+                return versionId.equals(attributes.getVersionId());
+            }
+            return remoteModified != -1L && remoteModified == attributes.getModificationDate()
+                && remoteSize == attributes.getSize();
+        }
+
+        private boolean isLocalUnchanged(final LocalAttributes attributes) {
+            if(localSize != attributes.getSize()) {
+                return false;
+            }
+            if(localModified != attributes.getModificationDate()) {
+                return false;
+            }
+            if(fileKey != null) {
+                return Objects.equals(fileKey, attributes.getFileKey());
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SyncJournal{");
+        sb.append("file=").append(file);
+        sb.append(", entries=").append(entries.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -51,6 +51,16 @@ public class ThreadPoolFactory extends Factory<ThreadPool> {
      */
     protected ThreadPool create(final String prefix, final Integer size, final ThreadPool.Priority priority,
                                 final BlockingQueue<Runnable> queue, final Thread.UncaughtExceptionHandler handler) {
+        if(DefaultThreadPool.class.equals(clazz)) {
+            // No custom implementation configured
+            if(PreferencesFactory.get().getBoolean("threading.pool.virtual.enable")) {
+                // Priority is not supported for virtual threads
+                if(VirtualThreadPool.isSupported() && ThreadPool.Priority.norm == priority) {
+                    // Concurrency limited by semaphore with no need for pooling threads
+                    return new VirtualThreadPool(prefix, size, queue, handler);
+                }
+            }
+        }
         try {
             final Constructor<? extends ThreadPool> constructor = ConstructorUtils.getMatchingAccessibleConstructor(clazz,
                     prefix.getClass(), size.getClass(), priority.getClass(), queue.getClass(), handler.getClass());
@@ -134,8 +134,10 @@ public class TransferBackgroundAction extends TransferWorkerBackgroundAction<Boo
                                     final TransferErrorCallback error,
                                     final TransferSpeedometer meter,
                                     final StreamListener stream) {
-        super(controller, source, new ConcurrentTransferWorker(source, destination, transfer, options, meter, prompt, error, callback, progress, stream,
-            NotificationServiceFactory.get()));
+        super(controller, source, new ConcurrentTransferWorker(source, destination, transfer,
+            // Background synchronization yields to interactive transfers
+            transfer.getType() == Transfer.Type.sync ? ThreadPool.Priority.low : ThreadPool.Priority.norm,
+            options, meter, prompt, error, callback, progress, stream, NotificationServiceFactory.get()));
         this.options = options;
         this.meter = meter;
         this.transfer = transfer;
@@ -0,0 +1,228 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Starts a new virtual thread for every task with the number of concurrently running tasks limited by a semaphore.
+ * Tasks waiting for a permit are parked virtual threads instead of entries in a queue. Requires a runtime with
+ * virtual thread support, see {@link #isSupported()}.
+ */
+public class VirtualThreadPool extends ExecutorServiceThreadPool {
+    private static final Logger log = LogManager.getLogger(VirtualThreadPool.class);
+
+    private static final Method ofVirtual;
+    private static final Method name;
+    private static final Method factory;
+
+    static {
+        Method m1 = null, m2 = null, m3 = null;
+        try {
+            m1 = Thread.class.getMethod("ofVirtual");
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            m2 = builder.getMethod("name", String.class, long.class);
+            m3 = builder.getMethod("factory");
+        }
+        catch(NoSuchMethodException | ClassNotFoundException e) {
+            log.debug("No virtual thread support in runtime");
+        }
+        ofVirtual = m1;
+        name = m2;
+        factory = m3;
+    }
+
+    private static final boolean supported = probe();
+
+    private static boolean probe() {
+        if(null == ofVirtual) {
+            return false;
+        }
+        try {
+            // Fails with preview features not enabled
+            newThreadFactory(DEFAULT_THREAD_NAME_PREFIX);
+            return true;
+        }
+        catch(UnsupportedOperationException e) {
+            log.warn(String.format("Virtual threads not available. %s", e.getMessage()));
+            return false;
+        }
+    }
+
+    /**
+     * @return True if runtime supports virtual threads
+     */
+    public static boolean isSupported() {
+        return supported;
+    }
+
+    private static ThreadFactory newThreadFactory(final String prefix) {
+        try {
+            return (ThreadFactory) factory.invoke(name.invoke(ofVirtual.invoke(null), String.format("%s-", prefix), 1L));
+        }
+        catch(IllegalAccessException e) {
+            throw new UnsupportedOperationException(e);
+        }
+        catch(InvocationTargetException e) {
+            throw new UnsupportedOperationException(e.getCause());
+        }
+    }
+
+    public VirtualThreadPool(final String prefix, final Integer size, final Thread.UncaughtExceptionHandler handler) {
+        this(prefix, size, new LinkedBlockingQueue<>(Integer.MAX_VALUE), handler);
+    }
+
+    /**
+     * @param queue Only remaining capacity of queue is used to limit tasks waiting for a permit. Tasks are run on
+     *              caller thread when exceeded.
+     */
+    public VirtualThreadPool(final String prefix, final Integer size, final BlockingQueue<Runnable> queue, final Thread.UncaughtExceptionHandler handler) {
+        super(new SemaphoreExecutorService(newThreadFactory(prefix), size, queue.remainingCapacity(), handler));
+    }
+
+    /**
+     * Executor starting a thread per task and limiting concurrency with a semaphore
+     */
+    private static final class SemaphoreExecutorService extends AbstractExecutorService {
+        private final ThreadFactory threads;
+        private final Semaphore permits;
+        /**
+         * Maximum number of tasks waiting for a permit
+         */
+        private final int capacity;
+        private final Thread.UncaughtExceptionHandler handler;
+        private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+        /**
+         * Tasks not yet started waiting for a permit
+         */
+        private final Map<Thread, Runnable> queued = new ConcurrentHashMap<>();
+
+        private volatile boolean shutdown;
+
+        public SemaphoreExecutorService(final ThreadFactory threads, final int size, final int capacity, final Thread.UncaughtExceptionHandler handler) {
+            this.threads = threads;
+            this.permits = new Semaphore(size, true);
+            this.capacity = capacity;
+            this.handler = handler;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            if(shutdown) {
+                throw new RejectedExecutionException(String.format("Rejected execution of %s", command));
+            }
+            if(queued.size() - permits.availablePermits() >= capacity) {
+                log.warn(String.format("Run %s on caller thread", command));
+                command.run();
+                return;
+            }
+            final Thread thread = threads.newThread(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        if(null == queued.remove(Thread.currentThread())) {
+                            // Returned from shutdownNow
+                            return;
+                        }
+                        command.run();
+                    }
+                    catch(Throwable t) {
+                        handler.uncaughtException(Thread.currentThread(), t);
+                    }
+                    finally {
+                        permits.release();
+                    }
+                }
+                catch(InterruptedException e) {
+                    if(null != queued.remove(Thread.currentThread())) {
+                        log.warn(String.format("Interrupted waiting for permit to run %s", command));
+                        if(command instanceof Future) {
+                            // Complete future of task never run
+                            ((Future<?>) command).cancel(false);
+                        }
+                    }
+                }
+                finally {
+                    running.remove(Thread.currentThread());
+                }
+            });
+            queued.put(thread, command);
+            running.add(thread);
+            thread.start();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            // Tasks never started
+            final List<Runnable> pending = new ArrayList<>();
+            for(Thread thread : running) {
+                final Runnable command = queued.remove(thread);
+                if(command != null) {
+                    pending.add(command);
+                }
+                thread.interrupt();
+            }
+            return pending;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && running.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            for(Thread thread : running.stream().collect(Collectors.toList())) {
+                final long remaining = deadline - System.nanoTime();
+                if(remaining <= 0) {
+                    return this.isTerminated();
+                }
+                TimeUnit.NANOSECONDS.timedJoin(thread, remaining);
+            }
+            return this.isTerminated();
+        }
+    }
+}
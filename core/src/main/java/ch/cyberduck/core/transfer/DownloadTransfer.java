@@ -25,6 +25,7 @@ import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Bulk;
 import ch.cyberduck.core.features.Download;
 import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.Versioning;
 import ch.cyberduck.core.filter.DownloadDuplicateFilter;
 import ch.cyberduck.core.filter.DownloadRegexFilter;
 import ch.cyberduck.core.io.BandwidthThrottle;
@@ -36,6 +37,7 @@ import ch.cyberduck.core.local.features.Symlink;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
+import ch.cyberduck.core.shared.PrefetchingListService;
 import ch.cyberduck.core.transfer.download.AbstractDownloadFilter;
 import ch.cyberduck.core.transfer.download.CompareFilter;
 import ch.cyberduck.core.transfer.download.DownloadFilterOptions;
@@ -71,6 +73,12 @@ public class DownloadTransfer extends Transfer {
     private Cache<Path> cache
             = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
 
+    /**
+     * Listings of descendant folders fetched with subtree listing
+     */
+    private final Cache<Path> prefetched
+            = new PathCache(Integer.MAX_VALUE);
+
     private DownloadFilterOptions options = new DownloadFilterOptions(host);
 
     public DownloadTransfer(final Host host, final Path root, final Local local) {
@@ -133,12 +141,20 @@ public class DownloadTransfer extends Transfer {
                 list = cache.get(directory);
             }
             else {
-                list = session.getFeature(ListService.class).list(directory, listener);
+                list = new PrefetchingListService(session, prefetched).list(directory, listener);
                 cache.put(directory, list);
             }
             final List<TransferItem> children = new ArrayList<>();
+            final Versioning versioning = filter instanceof DownloadDuplicateFilter ? session.getFeature(Versioning.class) : null;
             // Return copy with filtered result only
             for(Path f : new AttributedList<>(list.filter(comparator, filter))) {
+                if(f.isDirectory() && null != versioning && versioning.isRevertable(f)) {
+                    // Deleted folder with version state only determined on demand
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Reject duplicate %s", f));
+                    }
+                    continue;
+                }
                 children.add(new TransferItem(f, LocalFactory.get(local, f.getName())));
             }
             return children;
@@ -345,6 +361,7 @@ public class DownloadTransfer extends Transfer {
     @Override
     public void stop() {
         cache.clear();
+        prefetched.clear();
         super.stop();
     }
 
@@ -26,22 +26,28 @@ import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
 import ch.cyberduck.core.serializer.Serializer;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.synchronization.CachingComparePathFilter;
 import ch.cyberduck.core.synchronization.Comparison;
+import ch.cyberduck.core.synchronization.ComparePathFilter;
 import ch.cyberduck.core.synchronization.DefaultComparePathFilter;
+import ch.cyberduck.core.synchronization.JournalComparePathFilter;
+import ch.cyberduck.core.synchronization.SyncJournal;
 import ch.cyberduck.core.transfer.synchronisation.SynchronizationPathFilter;
 
 import org.apache.commons.collections4.map.LRUMap;
@@ -81,16 +87,29 @@ public class SyncTransfer extends Transfer {
     private final Map<TransferItem, Comparison> comparisons = Collections.synchronizedMap(new LRUMap<>(
         PreferencesFactory.get().getInteger("transfer.cache.size")));
 
+    /**
+     * State of files in sync from previous runs. Null if disabled or not started
+     */
+    private SyncJournal journal;
+
     public SyncTransfer(final Host host, final TransferItem item) {
         this(host, item, TransferAction.callback);
     }
 
     public SyncTransfer(final Host host, final TransferItem item, final TransferAction action) {
-        super(host, Collections.singletonList(item),
+        this(host, Collections.singletonList(item), action);
+    }
+
+    /**
+     * @param items Files and folders to synchronize with no item contained in another
+     * @param action Action for all items
+     */
+    public SyncTransfer(final Host host, final List<TransferItem> items, final TransferAction action) {
+        super(host, items,
             new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.upload.bandwidth.bytes")));
         this.upload = new UploadTransfer(host, roots).withCache(cache);
         this.download = new DownloadTransfer(host, roots).withCache(cache);
-        this.item = item;
+        this.item = items.get(0);
         this.action = action;
     }
 
@@ -155,7 +174,8 @@ public class SyncTransfer extends Transfer {
         final AttributesFinder attributes = new CachingAttributesFinderFeature(cache,
             source.getFeature(AttributesFinder.class, new DefaultAttributesFinderFeature(source)));
         // Set chosen action (upload, download, mirror) from prompt
-        comparison = new CachingComparePathFilter(new DefaultComparePathFilter(source, host.getTimezone()))
+        final ComparePathFilter compare = new DefaultComparePathFilter(source, host.getTimezone());
+        comparison = new CachingComparePathFilter(null == journal ? compare : new JournalComparePathFilter(journal, compare))
             .withCache(comparisons)
             .withAttributes(attributes)
             .withFinder(find);
@@ -166,7 +186,8 @@ public class SyncTransfer extends Transfer {
             upload.filter(source, destination, TransferAction.overwrite, listener)
                 .withAttributes(attributes)
                 .withFinder(find),
-            action
+            action,
+            journal
         );
     }
 
@@ -249,10 +270,21 @@ public class SyncTransfer extends Transfer {
         return comparison.get(item);
     }
 
+    /**
+     * @return Journal file with state of files in sync
+     */
+    public Local getJournal() {
+        return LocalFactory.get(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Sync"),
+            String.format("%s.journal", uuid));
+    }
+
     @Override
     public void start() {
         download.start();
         upload.start();
+        if(PreferencesFactory.get().getBoolean("queue.sync.journal.enable")) {
+            journal = new SyncJournal(this.getJournal()).load();
+        }
         super.start();
     }
 
@@ -262,6 +294,15 @@ public class SyncTransfer extends Transfer {
         upload.stop();
         cache.clear();
         comparisons.clear();
+        if(journal != null) {
+            try {
+                journal.save();
+            }
+            catch(AccessDeniedException e) {
+                log.warn(String.format("Failure saving journal %s. %s", journal, e.getMessage()));
+            }
+            journal = null;
+        }
         super.stop();
     }
 
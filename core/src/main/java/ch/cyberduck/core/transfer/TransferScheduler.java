@@ -0,0 +1,257 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ExecutorServiceThreadPool;
+import ch.cyberduck.core.threading.LoggingUncaughtExceptionHandler;
+import ch.cyberduck.core.threading.NamedThreadFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules segments of all running transfers with a connection budget per host. Pending segments of transfers to the
+ * same host are dispatched using weighted fair queuing with the weight derived from the transfer priority. A segment
+ * of a transfer with higher priority is dispatched first when a connection becomes available, but a transfer with low
+ * priority is never starved.
+ */
+public final class TransferScheduler {
+    private static final Logger log = LogManager.getLogger(TransferScheduler.class);
+
+    private static TransferScheduler instance;
+
+    public static synchronized TransferScheduler get() {
+        if(null == instance) {
+            instance = new TransferScheduler();
+        }
+        return instance;
+    }
+
+    private final TransferConnectionLimiter limiter;
+    /**
+     * Threads are only started for dispatched segments and therefore bounded by the sum of all host budgets
+     */
+    private final ThreadPool pool;
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+
+    public TransferScheduler() {
+        this(new AutoTransferConnectionLimiter());
+    }
+
+    public TransferScheduler(final TransferConnectionLimiter limiter) {
+        this(limiter, new ExecutorServiceThreadPool(new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+                PreferencesFactory.get().getLong("threading.pool.keepalive.seconds"), TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new NamedThreadFactory("transfer-scheduler", ThreadPool.Priority.norm, new LoggingUncaughtExceptionHandler()))) {
+        });
+    }
+
+    public TransferScheduler(final TransferConnectionLimiter limiter, final ThreadPool pool) {
+        this.limiter = limiter;
+        this.pool = pool;
+    }
+
+    /**
+     * @param host     Connection budget to account segments of transfer to
+     * @param transfer Transfer segments belong to
+     * @param priority Determines share of host budget
+     * @return Executor to submit segments of transfer to
+     */
+    public Executor executor(final Host host, final Transfer transfer, final ThreadPool.Priority priority) {
+        return command -> this.execute(host, transfer, priority, command);
+    }
+
+    /**
+     * Queue segment and run when connection budget of host allows
+     */
+    public void execute(final Host host, final Transfer transfer, final ThreadPool.Priority priority, final Runnable command) {
+        final HostQueue queue;
+        synchronized(hosts) {
+            // Limit is read again for every new queue of host
+            queue = hosts.computeIfAbsent(this.toKey(host), k -> new HostQueue(k, limiter.getLimit(host)));
+            queue.add(transfer, priority, command);
+        }
+        this.dispatch(queue);
+    }
+
+    /**
+     * Drop pending segments of transfer not yet started
+     *
+     * @param transfer Transfer stopped or completed
+     * @return Number of segments dropped
+     */
+    public int cancel(final Transfer transfer) {
+        int dropped = 0;
+        synchronized(hosts) {
+            for(HostQueue queue : hosts.values()) {
+                dropped += queue.remove(transfer);
+            }
+            hosts.values().removeIf(HostQueue::isIdle);
+        }
+        return dropped;
+    }
+
+    /**
+     * Start next segments while below connection budget
+     */
+    private void dispatch(final HostQueue queue) {
+        Runnable next;
+        while((next = queue.poll()) != null) {
+            final Runnable command = next;
+            pool.execute(() -> {
+                try {
+                    command.run();
+                }
+                finally {
+                    queue.done();
+                    this.release(queue);
+                    this.dispatch(queue);
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Remove queue of host with no segments pending or running
+     */
+    private void release(final HostQueue queue) {
+        synchronized(hosts) {
+            if(queue.isIdle()) {
+                hosts.remove(queue.key, queue);
+            }
+        }
+    }
+
+    private String toKey(final Host host) {
+        return String.format("%s://%s@%s:%d", host.getProtocol().getIdentifier(),
+                host.getCredentials().getUsername(), host.getHostname(), host.getPort());
+    }
+
+    /**
+     * Pending segments for a single host with transfers served in order of virtual finish time
+     */
+    private static final class HostQueue {
+        private final String key;
+        private final int limit;
+        private final Map<Transfer, Flow> flows = new LinkedHashMap<>();
+        private int running;
+        /**
+         * Virtual time advanced with each dispatched segment
+         */
+        private double clock;
+
+        public HostQueue(final String key, final int limit) {
+            this.key = key;
+            this.limit = Math.max(1, limit);
+        }
+
+        public synchronized void add(final Transfer transfer, final ThreadPool.Priority priority, final Runnable command) {
+            final Flow flow = flows.computeIfAbsent(transfer, t -> new Flow(weight(priority)));
+            if(flow.pending.isEmpty()) {
+                // Do not accumulate credit while idle
+                flow.finish = Math.max(flow.finish, clock);
+            }
+            flow.pending.add(command);
+        }
+
+        /**
+         * @return Number of pending segments dropped
+         */
+        public synchronized int remove(final Transfer transfer) {
+            final Flow flow = flows.remove(transfer);
+            if(flow != null && !flow.pending.isEmpty()) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Drop %d pending segments of %s", flow.pending.size(), transfer));
+                }
+                return flow.pending.size();
+            }
+            return 0;
+        }
+
+        /**
+         * @return No segments pending or running
+         */
+        public synchronized boolean isIdle() {
+            return 0 == running && flows.values().stream().allMatch(flow -> flow.pending.isEmpty());
+        }
+
+        /**
+         * @return Next segment to run or null if no segment pending or connection budget exhausted
+         */
+        public synchronized Runnable poll() {
+            if(running >= limit) {
+                return null;
+            }
+            Flow selected = null;
+            for(Flow flow : flows.values()) {
+                if(flow.pending.isEmpty()) {
+                    continue;
+                }
+                if(null == selected || flow.finish + 1d / flow.weight < selected.finish + 1d / selected.weight) {
+                    selected = flow;
+                }
+            }
+            if(null == selected) {
+                return null;
+            }
+            selected.finish += 1d / selected.weight;
+            clock = Math.max(clock, selected.finish - 1d / selected.weight);
+            running++;
+            return selected.pending.poll();
+        }
+
+        public synchronized void done() {
+            running--;
+        }
+
+        private static int weight(final ThreadPool.Priority priority) {
+            switch(priority) {
+                case low:
+                    return 1;
+                case max:
+                    return 16;
+                default:
+                    return 4;
+            }
+        }
+    }
+
+    private static final class Flow {
+        private final int weight;
+        private final Deque<Runnable> pending = new ArrayDeque<>();
+        /**
+         * Virtual finish time of last dispatched segment
+         */
+        private double finish;
+
+        public Flow(final int weight) {
+            this.weight = weight;
+        }
+    }
+}
@@ -167,7 +167,7 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
     private Integer part;
 
     /**
-     * Part URL
+     * Part URL or session URI of resumable upload
      */
     private String url;
 
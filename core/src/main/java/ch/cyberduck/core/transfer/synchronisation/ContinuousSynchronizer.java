@@ -0,0 +1,462 @@
+package ch.cyberduck.core.transfer.synchronisation;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalAttributes;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.ChangeFeed;
+import ch.cyberduck.core.filter.UploadRegexFilter;
+import ch.cyberduck.core.local.FileTreeWatcher;
+import ch.cyberduck.core.local.FileWatcherListener;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.threading.ScheduledThreadPool;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Long running synchronization of a folder pair. Local changes are reported by the file system watcher and remote
+ * changes by the change feed of the session if available or else by periodic full comparison. Changes are collected
+ * and passed on in batches to be synchronized incrementally.
+ */
+public class ContinuousSynchronizer {
+    private static final Logger log = LogManager.getLogger(ContinuousSynchronizer.class);
+
+    private final Session<?> session;
+    private final TransferItem root;
+    private final Callback callback;
+    private final FileTreeWatcher watcher;
+
+    private final ScheduledThreadPool scheduler = new ScheduledThreadPool();
+    private final ThreadPool pool = ThreadPoolFactory.get("changes", 1);
+
+    /**
+     * Changes not yet synchronized
+     */
+    private final Set<TransferItem> pending = new LinkedHashSet<>();
+    /**
+     * Items in running synchronization
+     */
+    private final Set<TransferItem> running = ConcurrentHashMap.newKeySet();
+    /**
+     * Changes reported for items in running synchronization to check when completed. True for remote changes
+     */
+    private final Map<TransferItem, Boolean> deferred = new LinkedHashMap<>();
+    /**
+     * State of local files written by synchronization
+     */
+    private final Map<String, State> local = new ConcurrentHashMap<>();
+    /**
+     * State of remote files written by synchronization
+     */
+    private final Map<String, State> remote = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    public interface Callback {
+        /**
+         * @param items Changed files and folders to synchronize
+         * @return Files transferred with status including attributes of file written if available
+         */
+        Map<TransferItem, TransferStatus> synchronize(List<TransferItem> items) throws BackgroundException;
+    }
+
+    public ContinuousSynchronizer(final Session<?> session, final TransferItem root, final Callback callback) {
+        this(session, root, callback, new FileTreeWatcher());
+    }
+
+    public ContinuousSynchronizer(final Session<?> session, final TransferItem root, final Callback callback, final FileTreeWatcher watcher) {
+        this.session = session;
+        this.root = root;
+        this.callback = callback;
+        this.watcher = watcher;
+    }
+
+    /**
+     * Start watching for changes. The first batch includes the root folder for a full comparison.
+     */
+    public void start() throws BackgroundException {
+        final HostPreferences preferences = new HostPreferences(session.getHost());
+        try {
+            Uninterruptibles.awaitUninterruptibly(watcher.register(root.local, new UploadRegexFilter(), new FileWatcherListener() {
+                @Override
+                public void fileWritten(final Local file) {
+                    changed(file, file.isDirectory());
+                }
+
+                @Override
+                public void fileDeleted(final Local file) {
+                    // Type no longer known
+                    changed(file.getParent(), true);
+                }
+
+                @Override
+                public void fileCreated(final Local file) {
+                    changed(file, file.isDirectory());
+                }
+            }));
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map(e);
+        }
+        final ChangeFeed feed = session.getFeature(ChangeFeed.class);
+        if(null == feed) {
+            this.fallback();
+        }
+        else {
+            try {
+                // Mark state prior initial full comparison
+                final String cursor = feed.cursor(root.remote);
+                pool.execute(() -> this.poll(feed, cursor));
+            }
+            catch(UnsupportedException e) {
+                log.warn(String.format("Change feed %s not supported for %s. %s", feed, root.remote, e.getMessage()));
+                this.fallback();
+            }
+        }
+        this.changed(root);
+        final long delay = preferences.getLong("sync.continuous.delay.ms");
+        scheduler.repeat(this::flush, delay, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Periodic full comparison when no change feed is available
+     */
+    private void fallback() {
+        final long interval = new HostPreferences(session.getHost()).getLong("sync.continuous.fallback.interval.ms");
+        if(log.isWarnEnabled()) {
+            log.warn(String.format("No change feed available for %s. Compare every %dms", session.getHost(), interval));
+        }
+        scheduler.repeat(() -> this.changed(root), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean poll(final ChangeFeed feed, final String initial) {
+        final long interval = new HostPreferences(session.getHost()).getLong("sync.continuous.remote.interval.ms");
+        String cursor = initial;
+        while(!closed) {
+            try {
+                if(null == cursor) {
+                    cursor = feed.cursor(root.remote);
+                    // Changes may have been missed
+                    this.changed(root);
+                }
+                else {
+                    cursor = feed.poll(root.remote, cursor, new ChangeFeed.Listener() {
+                        @Override
+                        public void changed(final Path file) {
+                            ContinuousSynchronizer.this.changed(file);
+                        }
+
+                        @Override
+                        public void reset() {
+                            ContinuousSynchronizer.this.changed(root);
+                        }
+                    });
+                }
+            }
+            catch(ConnectionCanceledException e) {
+                return false;
+            }
+            catch(UnsupportedException e) {
+                log.warn(String.format("Change feed %s not supported for %s. %s", feed, root.remote, e.getMessage()));
+                this.fallback();
+                return false;
+            }
+            catch(BackgroundException e) {
+                log.warn(String.format("Failure retrieving changes for %s. %s", root.remote, e.getMessage()));
+                // Start over with new cursor
+                cursor = null;
+            }
+            try {
+                Thread.sleep(interval);
+            }
+            catch(InterruptedException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param file      Local file changed
+     * @param directory Local file is a folder
+     */
+    protected void changed(final Local file, final boolean directory) {
+        final Deque<String> names = new ArrayDeque<>();
+        for(Local f = file; !f.equals(root.local); f = f.getParent()) {
+            if(f.isRoot()) {
+                log.warn(String.format("Ignore change for %s outside of %s", file, root.local));
+                return;
+            }
+            names.push(f.getName());
+        }
+        Path remote = root.remote;
+        Local local = root.local;
+        while(!names.isEmpty()) {
+            final String name = names.pop();
+            remote = new Path(remote, name, names.isEmpty() && !directory ? EnumSet.of(Path.Type.file) : EnumSet.of(Path.Type.directory));
+            local = LocalFactory.get(local, name);
+        }
+        this.changed(new TransferItem(remote, local), false);
+    }
+
+    /**
+     * @param file Remote file changed with attributes if known
+     */
+    protected void changed(final Path file) {
+        final Deque<String> names = new ArrayDeque<>();
+        for(Path f = file; !f.getAbsolute().equals(root.remote.getAbsolute()); f = f.getParent()) {
+            if(f.isRoot()) {
+                log.warn(String.format("Ignore change for %s outside of %s", file, root.remote));
+                return;
+            }
+            names.push(f.getName());
+        }
+        Local local = root.local;
+        while(!names.isEmpty()) {
+            local = LocalFactory.get(local, names.pop());
+        }
+        this.changed(new TransferItem(file, local), true);
+    }
+
+    /**
+     * @param item     Changed file
+     * @param external Change reported for remote file
+     */
+    private void changed(final TransferItem item, final boolean external) {
+        synchronized(deferred) {
+            if(this.isRunning(item)) {
+                // Compare with state written when synchronization is completed
+                deferred.put(item, external);
+                return;
+            }
+        }
+        if(this.isWritten(item, external)) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Ignore change %s written by synchronization", item));
+            }
+            return;
+        }
+        this.changed(item);
+    }
+
+    protected void changed(final TransferItem item) {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Add pending change %s", item));
+        }
+        synchronized(pending) {
+            pending.add(item);
+        }
+    }
+
+    /**
+     * @return True if item is included in a running synchronization
+     */
+    private boolean isRunning(final TransferItem item) {
+        return running.stream().anyMatch(parent -> parent.remote.getAbsolute().equals(item.remote.getAbsolute())
+                || parent.remote.isDirectory() && item.remote.isChild(parent.remote));
+    }
+
+    /**
+     * @param external Compare attributes of remote file reported by change feed or else of local file
+     * @return True if current state of file matches the state written by synchronization
+     */
+    private boolean isWritten(final TransferItem item, final boolean external) {
+        if(external) {
+            final State written = remote.get(item.remote.getAbsolute());
+            if(null == written) {
+                return false;
+            }
+            if(written.equals(State.of(item.remote.attributes()))) {
+                return true;
+            }
+            // Modified by user
+            remote.remove(item.remote.getAbsolute());
+            return false;
+        }
+        final State written = local.get(item.local.getAbsolute());
+        if(null == written) {
+            return false;
+        }
+        if(item.local.exists() && written.equals(State.of(item.local.attributes()))) {
+            return true;
+        }
+        // Modified by user
+        local.remove(item.local.getAbsolute());
+        return false;
+    }
+
+    /**
+     * Save state of files written to ignore changes reported for them
+     */
+    private void written(final Map<TransferItem, TransferStatus> files) {
+        for(Map.Entry<TransferItem, TransferStatus> entry : files.entrySet()) {
+            final TransferItem item = entry.getKey();
+            final TransferStatus status = entry.getValue();
+            if(!status.isComplete() || item.remote.isDirectory()) {
+                continue;
+            }
+            if(item.local.exists()) {
+                local.put(item.local.getAbsolute(), State.of(item.local.attributes()));
+            }
+            // Attributes of uploaded file or of file downloaded
+            final State state = State.of(null == status.getResponse() ? item.remote.attributes() : status.getResponse());
+            if(null != state) {
+                remote.put(item.remote.getAbsolute(), state);
+            }
+        }
+    }
+
+    /**
+     * @return Pending changes without items already included by a pending parent folder
+     */
+    protected List<TransferItem> drain() {
+        final List<TransferItem> items = new ArrayList<>();
+        synchronized(pending) {
+            for(TransferItem item : pending) {
+                if(pending.stream().anyMatch(parent -> parent.remote.isDirectory() && item.remote.isChild(parent.remote))) {
+                    continue;
+                }
+                items.add(item);
+            }
+            pending.clear();
+        }
+        return items;
+    }
+
+    protected void flush() {
+        final List<TransferItem> items = this.drain();
+        if(items.isEmpty()) {
+            return;
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Synchronize %d changes", items.size()));
+        }
+        running.addAll(items);
+        try {
+            this.written(callback.synchronize(items));
+        }
+        catch(BackgroundException e) {
+            log.warn(String.format("Failure synchronizing changes %s. %s", items, e.getMessage()));
+        }
+        finally {
+            final Map<TransferItem, Boolean> changes;
+            synchronized(deferred) {
+                running.removeAll(items);
+                changes = new LinkedHashMap<>(deferred);
+                deferred.clear();
+            }
+            // Notifications from file system watcher and change feed received while running
+            changes.forEach((item, external) -> this.changed(item, external));
+        }
+    }
+
+    public void close() {
+        closed = true;
+        local.clear();
+        remote.clear();
+        watcher.close();
+        scheduler.shutdown();
+        pool.shutdown(false);
+    }
+
+    /**
+     * Size with checksum or else modification date of file
+     */
+    private static final class State {
+        private final long size;
+        private final long modified;
+        private final String etag;
+
+        private State(final long size, final long modified, final String etag) {
+            this.size = size;
+            this.modified = modified;
+            this.etag = etag;
+        }
+
+        private static State of(final LocalAttributes attributes) {
+            return new State(attributes.getSize(), attributes.getModificationDate(), null);
+        }
+
+        /**
+         * @return Null if no size is known
+         */
+        private static State of(final PathAttributes attributes) {
+            if(attributes.getSize() < 0) {
+                return null;
+            }
+            return new State(attributes.getSize(), attributes.getModificationDate(), attributes.getETag());
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(!(o instanceof State)) {
+                return false;
+            }
+            final State state = (State) o;
+            if(size != state.size) {
+                return false;
+            }
+            if(etag != null && state.etag != null) {
+                return etag.equals(state.etag);
+            }
+            return modified == state.modified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ContinuousSynchronizer{");
+        sb.append("root=").append(root);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -21,12 +21,14 @@ package ch.cyberduck.core.transfer.synchronisation;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.synchronization.ComparePathFilter;
 import ch.cyberduck.core.synchronization.Comparison;
+import ch.cyberduck.core.synchronization.SyncJournal;
 import ch.cyberduck.core.transfer.TransferAction;
 import ch.cyberduck.core.transfer.TransferPathFilter;
 import ch.cyberduck.core.transfer.TransferStatus;
@@ -54,14 +56,28 @@ public class SynchronizationPathFilter implements TransferPathFilter {
      */
     private final TransferAction action;
 
+    /**
+     * State of files in sync after completion or null
+     */
+    private final SyncJournal journal;
+
     public SynchronizationPathFilter(final ComparePathFilter comparison,
                                      final TransferPathFilter downloadFilter,
                                      final TransferPathFilter uploadFilter,
                                      final TransferAction action) {
+        this(comparison, downloadFilter, uploadFilter, action, null);
+    }
+
+    public SynchronizationPathFilter(final ComparePathFilter comparison,
+                                     final TransferPathFilter downloadFilter,
+                                     final TransferPathFilter uploadFilter,
+                                     final TransferAction action,
+                                     final SyncJournal journal) {
         this.comparison = comparison;
         this.downloadFilter = downloadFilter;
         this.uploadFilter = uploadFilter;
         this.action = action;
+        this.journal = journal;
     }
 
     @Override
@@ -126,9 +142,21 @@ public class SynchronizationPathFilter implements TransferPathFilter {
         switch(comparison.compare(file, local, listener)) {
             case remote:
                 downloadFilter.complete(file, local, status, listener);
+                if(null != journal && file.isFile() && status.isComplete()) {
+                    journal.record(file, file.attributes(), local);
+                }
                 break;
             case local:
                 uploadFilter.complete(file, local, status, listener);
+                if(null != journal && file.isFile() && status.isComplete()) {
+                    if(null == status.getResponse() || PathAttributes.EMPTY == status.getResponse()) {
+                        // No attributes of uploaded file returned
+                        journal.remove(file);
+                    }
+                    else {
+                        journal.record(file, status.getResponse(), local);
+                    }
+                }
         }
     }
 
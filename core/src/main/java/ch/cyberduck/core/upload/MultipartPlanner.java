@@ -0,0 +1,98 @@
+package ch.cyberduck.core.upload;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Split a file into parts skipping parts already uploaded
+ */
+public class MultipartPlanner {
+
+    private final long partsize;
+
+    /**
+     * @param partsize Size of parts except for the last part
+     */
+    public MultipartPlanner(final long partsize) {
+        this.partsize = partsize;
+    }
+
+    /**
+     * @param status    Transfer status with offset of completed parts and remaining length
+     * @param completed Length of completed parts by part number
+     * @return Parts remaining to upload
+     */
+    public List<Part> plan(final TransferStatus status, final Map<Integer, Long> completed) {
+        if(0L == status.getLength() && completed.isEmpty()) {
+            // Single empty part
+            return Collections.singletonList(new Part(1, 0L, 0L));
+        }
+        final List<Part> parts = new ArrayList<>();
+        long remaining = status.getLength();
+        long offset = 0L;
+        for(int partNumber = 1; remaining > 0; partNumber++) {
+            if(completed.containsKey(partNumber)) {
+                offset += completed.get(partNumber);
+                continue;
+            }
+            final long length = Math.min(partsize, remaining);
+            parts.add(new Part(partNumber, offset, length));
+            remaining -= length;
+            offset += length;
+        }
+        return parts;
+    }
+
+    public static final class Part {
+        private final int number;
+        private final long offset;
+        private final long length;
+
+        public Part(final int number, final long offset, final long length) {
+            this.number = number;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("Part{");
+            sb.append("number=").append(number);
+            sb.append(", offset=").append(offset);
+            sb.append(", length=").append(length);
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+}
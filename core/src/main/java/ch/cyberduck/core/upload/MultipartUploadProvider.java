@@ -0,0 +1,96 @@
+package ch.cyberduck.core.upload;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Protocol specific operations of a multipart upload
+ *
+ * @param <Reply>  Response for completed upload
+ * @param <Upload> Identifier of pending upload
+ * @param <Part>   Response for uploaded part
+ * @see MultipartUploadService
+ */
+public interface MultipartUploadProvider<Reply, Upload, Part> {
+
+    /**
+     * @return Pending upload to resume or null if not found
+     */
+    default Upload find(final Path file, final TransferStatus status) throws BackgroundException {
+        return null;
+    }
+
+    /**
+     * @param upload Pending upload
+     * @return Parts already uploaded by part number
+     */
+    default Map<Integer, Part> list(final Upload upload) throws BackgroundException {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Initiate new upload
+     */
+    Upload start(Path file, TransferStatus status) throws BackgroundException;
+
+    /**
+     * @param upload Pending upload
+     * @param size   Full size of file
+     * @return Size of parts except for the last part
+     */
+    long partsize(Upload upload, long size);
+
+    /**
+     * Invoked sequentially in order of part number before part is submitted for upload
+     *
+     * @param part Transfer status for part
+     */
+    default void prepare(final Upload upload, final Path file, final Local local, final TransferStatus part) throws BackgroundException {
+        //
+    }
+
+    /**
+     * Upload single part. Invoked concurrently and again on failure.
+     *
+     * @param local   Local file shared by all parts
+     * @param overall Transfer status for file
+     * @param part    Transfer status with offset, length and part number
+     */
+    Part put(Upload upload, Path file, Local local, BandwidthThrottle throttle, StreamListener listener,
+             TransferStatus overall, TransferStatus part, ConnectionCallback callback) throws BackgroundException;
+
+    /**
+     * @param part Uploaded part
+     * @return Length of part
+     */
+    long length(Part part);
+
+    /**
+     * @param parts All parts ordered by part number
+     */
+    Reply complete(Upload upload, Path file, TransferStatus status, List<Part> parts) throws BackgroundException;
+}
@@ -0,0 +1,218 @@
+package ch.cyberduck.core.upload;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.BytecountStreamListener;
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Metrics;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.metrics.MetricsRegistry;
+import ch.cyberduck.core.metrics.Operation;
+import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Upload file in parts with a bounded number of parts in flight. Parts are only submitted when a previous part has
+ * completed to limit resources held for pending parts. Each part is retried on failure with jittered backoff and all
+ * parts read from a single open file channel.
+ */
+public class MultipartUploadService<Reply, Upload, Part> {
+    private static final Logger log = LogManager.getLogger(MultipartUploadService.class);
+
+    private final Host host;
+    private final MultipartUploadProvider<Reply, Upload, Part> provider;
+    private final Integer concurrency;
+
+    public MultipartUploadService(final Host host, final MultipartUploadProvider<Reply, Upload, Part> provider, final Integer concurrency) {
+        this.host = host;
+        this.provider = provider;
+        this.concurrency = concurrency;
+    }
+
+    public Reply upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                        final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        Upload upload = null;
+        final SortedMap<Integer, Part> completed = new TreeMap<>();
+        if(status.isAppend()) {
+            try {
+                upload = provider.find(file, status);
+            }
+            catch(AccessDeniedException | InteroperabilityException e) {
+                log.warn(String.format("Ignore failure listing incomplete multipart uploads. %s", e));
+            }
+            if(null != upload) {
+                // Add already completed parts
+                completed.putAll(provider.list(upload));
+            }
+        }
+        if(null == upload) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("No pending multipart upload found for %s", file));
+            }
+            upload = provider.start(file, status);
+        }
+        final Map<Integer, Long> lengths = new HashMap<>();
+        for(Map.Entry<Integer, Part> entry : completed.entrySet()) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Skip completed part number %d", entry.getKey()));
+            }
+            lengths.put(entry.getKey(), provider.length(entry.getValue()));
+        }
+        // Full size of file
+        final long size = status.getOffset() + status.getLength();
+        final MultipartPlanner planner = new MultipartPlanner(provider.partsize(upload, size));
+        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        // Bound number of parts in flight
+        final Semaphore permits = new Semaphore(concurrency);
+        final AtomicBoolean failure = new AtomicBoolean();
+        final Map<Integer, Future<Part>> parts = new HashMap<>();
+        try (SharedChannelLocal shared = new SharedChannelLocal(local)) {
+            try {
+                for(MultipartPlanner.Part part : planner.plan(status, lengths)) {
+                    while(!permits.tryAcquire(1L, TimeUnit.SECONDS)) {
+                        status.validate();
+                    }
+                    if(failure.get()) {
+                        // Stop submitting parts after failure
+                        permits.release();
+                        break;
+                    }
+                    try {
+                        parts.put(part.getNumber(), this.submit(pool, upload, file, shared, throttle, listener, status, part, callback, permits, failure));
+                    }
+                    catch(BackgroundException e) {
+                        permits.release();
+                        throw e;
+                    }
+                }
+                for(Map.Entry<Integer, Future<Part>> entry : parts.entrySet()) {
+                    completed.put(entry.getKey(), Uninterruptibles.getUninterruptibly(entry.getValue()));
+                }
+            }
+            catch(ExecutionException e) {
+                log.warn(String.format("Part upload failed with execution failure %s", e.getMessage()));
+                Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
+                throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DefaultExceptionMappingService().map(e);
+            }
+            finally {
+                // Cancel future tasks
+                pool.shutdown(false);
+            }
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure closing %s. %s", local, e.getMessage()));
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Complete upload %s with %d parts", file, completed.size()));
+        }
+        return provider.complete(upload, file, status, new ArrayList<>(completed.values()));
+    }
+
+    private Future<Part> submit(final ThreadPool pool, final Upload upload, final Path file, final Local local,
+                                final BandwidthThrottle throttle, final StreamListener listener, final TransferStatus overall,
+                                final MultipartPlanner.Part part, final ConnectionCallback callback,
+                                final Semaphore permits, final AtomicBoolean failure) throws BackgroundException {
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Submit part %d of %s to queue with offset %d and length %d",
+                part.getNumber(), file, part.getOffset(), part.getLength()));
+        }
+        final TransferStatus status = new TransferStatus()
+            .segment(true)
+            .withOffset(part.getOffset())
+            .withLength(part.getLength());
+        status.setPart(part.getNumber());
+        status.setHeader(overall.getHeader());
+        provider.prepare(upload, file, local, status);
+        final Metrics metrics = MetricsRegistry.get().find(host);
+        final BytecountStreamListener counter = new BytecountStreamListener(listener);
+        return pool.execute(new PartRetryCallable<>(host, new BackgroundExceptionCallable<Part>() {
+            @Override
+            public Part call() throws BackgroundException {
+                overall.validate();
+                final long start = System.nanoTime();
+                try {
+                    final Part response = provider.put(upload, file, local, throttle, counter, overall, status, callback);
+                    metrics.record(Operation.part.name(), System.nanoTime() - start, part.getLength(), false);
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Received response %s for part number %d", response, part.getNumber()));
+                    }
+                    return response;
+                }
+                catch(BackgroundException e) {
+                    metrics.record(Operation.part.name(), System.nanoTime() - start, 0L, true);
+                    throw e;
+                }
+            }
+        }, overall, counter) {
+            @Override
+            public boolean retry(final BackgroundException e, final ProgressListener progress, final BackgroundActionState cancel) {
+                if(super.retry(e, progress, cancel)) {
+                    metrics.retry(Operation.part.name());
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public Part call() throws BackgroundException {
+                try {
+                    return super.call();
+                }
+                catch(BackgroundException e) {
+                    failure.set(true);
+                    throw e;
+                }
+                finally {
+                    permits.release();
+                }
+            }
+        });
+    }
+}
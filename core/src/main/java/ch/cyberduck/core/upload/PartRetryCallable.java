@@ -0,0 +1,99 @@
+package ch.cyberduck.core.upload;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.BytecountStreamListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.StreamCancelation;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.transfer.SegmentRetryCallable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retry upload of part with exponential backoff and full jitter to avoid concurrent parts failing at the same time
+ * to retry in lockstep
+ */
+public class PartRetryCallable<T> extends SegmentRetryCallable<T> {
+    private static final Logger log = LogManager.getLogger(PartRetryCallable.class);
+
+    /**
+     * Base delay in milliseconds
+     */
+    private final long base;
+    /**
+     * Maximum delay in milliseconds
+     */
+    private final long cap;
+
+    private int attempt = 0;
+
+    public PartRetryCallable(final Host host, final BackgroundExceptionCallable<T> delegate,
+                             final StreamCancelation status, final BytecountStreamListener counter) {
+        this(host, delegate, status, counter,
+            new HostPreferences(host).getLong("transfer.multipart.retry.backoff.ms"),
+            new HostPreferences(host).getLong("transfer.multipart.retry.backoff.max.ms"));
+    }
+
+    public PartRetryCallable(final Host host, final BackgroundExceptionCallable<T> delegate,
+                             final StreamCancelation status, final BytecountStreamListener counter,
+                             final long base, final long cap) {
+        super(host, delegate, status, counter);
+        this.base = base;
+        this.cap = cap;
+    }
+
+    @Override
+    public boolean retry(final BackgroundException failure, final ProgressListener progress, final BackgroundActionState cancel) {
+        if(!super.retry(failure, progress, cancel)) {
+            return false;
+        }
+        final long delay = this.delay(attempt++);
+        if(delay > 0) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Delay retry for failure %s by %dms", failure, delay));
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return !cancel.isCanceled();
+    }
+
+    /**
+     * @param attempt Number of previous retries
+     * @return Random delay between zero and exponential backoff
+     */
+    protected long delay(final int attempt) {
+        if(base <= 0) {
+            return 0L;
+        }
+        final long backoff = Math.min(cap, base << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(backoff + 1);
+    }
+}
@@ -0,0 +1,140 @@
+package ch.cyberduck.core.upload;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.AccessDeniedException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read concurrently from a single open file channel with positional reads. Falls back to opening a new input stream
+ * from the original file if the channel cannot be opened.
+ */
+final class SharedChannelLocal extends Local implements Closeable {
+    private static final Logger log = LogManager.getLogger(SharedChannelLocal.class);
+
+    private final Local proxy;
+    private final FileChannel channel;
+
+    public SharedChannelLocal(final Local proxy) {
+        super(proxy.getAbsolute());
+        this.proxy = proxy;
+        this.channel = open(proxy);
+    }
+
+    private static FileChannel open(final Local file) {
+        try {
+            return FileChannel.open(Paths.get(file.getAbsolute()), StandardOpenOption.READ);
+        }
+        catch(RuntimeException | IOException e) {
+            log.warn(String.format("Failure opening channel for %s. %s", file, e.getMessage()));
+            return null;
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws AccessDeniedException {
+        if(null == channel) {
+            return proxy.getInputStream();
+        }
+        return new PositionalInputStream(channel);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Stream with own position not closing shared channel
+     */
+    private static final class PositionalInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position = 0L;
+        private long mark = 0L;
+
+        public PositionalInputStream(final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            final int read = this.read(b, 0, 1);
+            if(read > 0) {
+                return b[0] & 0xff;
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if(0 == len) {
+                return 0;
+            }
+            final int read = channel.read(ByteBuffer.wrap(b, off, len), position);
+            if(read > 0) {
+                position += read;
+                return read;
+            }
+            return -1;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = Math.max(0L, Math.min(n, channel.size() - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0L, channel.size() - position));
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(final int readlimit) {
+            mark = position;
+        }
+
+        @Override
+        public synchronized void reset() {
+            position = mark;
+        }
+
+        @Override
+        public void close() {
+            // Shared channel is closed when upload is complete
+        }
+    }
+}
@@ -22,7 +22,8 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.features.Vault;
-import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.preferences.HostPreferencesSnapshot;
+import ch.cyberduck.core.preferences.PreferenceKey;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -32,6 +33,10 @@ import java.nio.charset.StandardCharsets;
 public class VaultFinderListProgressListener extends IndexedListProgressListener {
     private static final Logger log = LogManager.getLogger(VaultFinderListProgressListener.class);
 
+    private static final PreferenceKey MASTERKEY_FILENAME = PreferenceKey.string("cryptomator.vault.masterkey.filename");
+    private static final PreferenceKey CONFIG_FILENAME = PreferenceKey.string("cryptomator.vault.config.filename");
+    private static final PreferenceKey PEPPER = PreferenceKey.string("cryptomator.vault.pepper");
+
     private final Session<?> session;
     private final VaultLookupListener listener;
     private final ListProgressListener progress;
@@ -45,15 +50,16 @@ public class VaultFinderListProgressListener extends IndexedListProgressListener
     @Override
     public void visit(final AttributedList<Path> list, final int index, final Path file) throws ConnectionCanceledException {
         final Path directory = file.getParent();
-        if(new HostPreferences(session.getHost()).getProperty("cryptomator.vault.masterkey.filename").equals(file.getName())) {
+        final HostPreferencesSnapshot preferences = HostPreferencesSnapshot.get(session.getHost());
+        if(preferences.getProperty(MASTERKEY_FILENAME).equals(file.getName())) {
             if(log.isInfoEnabled()) {
                 log.info(String.format("Found master key %s", file));
             }
             try {
                 final Vault vault = listener.load(session, directory,
-                        new HostPreferences(session.getHost()).getProperty("cryptomator.vault.masterkey.filename"),
-                        new HostPreferences(session.getHost()).getProperty("cryptomator.vault.config.filename"),
-                        new HostPreferences(session.getHost()).getProperty("cryptomator.vault.pepper").getBytes(StandardCharsets.UTF_8));
+                        preferences.getProperty(MASTERKEY_FILENAME),
+                        preferences.getProperty(CONFIG_FILENAME),
+                        preferences.getProperty(PEPPER).getBytes(StandardCharsets.UTF_8));
                 if(vault.equals(Vault.DISABLED)) {
                     return;
                 }
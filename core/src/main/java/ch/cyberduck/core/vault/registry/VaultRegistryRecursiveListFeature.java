@@ -0,0 +1,96 @@
+package ch.cyberduck.core.vault.registry;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.RecursiveList;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.vault.VaultRegistry;
+import ch.cyberduck.core.vault.VaultUnlockCancelException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Refuse subtree listing in vaults and omit folders containing a vault from result to allow detection when listed
+ */
+public class VaultRegistryRecursiveListFeature implements RecursiveList {
+    private static final Logger log = LogManager.getLogger(VaultRegistryRecursiveListFeature.class);
+
+    private final Session<?> session;
+    private final RecursiveList proxy;
+    private final VaultRegistry registry;
+
+    public VaultRegistryRecursiveListFeature(final Session<?> session, final RecursiveList proxy, final VaultRegistry registry) {
+        this.session = session;
+        this.proxy = proxy;
+        this.registry = registry;
+    }
+
+    @Override
+    public Map<Path, AttributedList<Path>> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        try {
+            if(registry.find(session, directory).contains(directory)) {
+                throw new UnsupportedException(String.format("Subtree listing not supported in vault for %s", directory));
+            }
+        }
+        catch(VaultUnlockCancelException e) {
+            throw new UnsupportedException(e.getDetail(), e);
+        }
+        final Map<Path, AttributedList<Path>> tree = proxy.list(directory, listener);
+        final HostPreferences preferences = new HostPreferences(session.getHost());
+        if(preferences.getBoolean("cryptomator.enable") && preferences.getBoolean("cryptomator.vault.autodetect")) {
+            final Set<Path> vaults = new HashSet<>();
+            for(Map.Entry<Path, AttributedList<Path>> entry : tree.entrySet()) {
+                if(entry.getValue().toStream().anyMatch(file -> file.isFile() && StringUtils.equalsAny(file.getName(),
+                        preferences.getProperty("cryptomator.vault.masterkey.filename"),
+                        preferences.getProperty("cryptomator.vault.config.filename")))) {
+                    vaults.add(entry.getKey());
+                }
+            }
+            if(!vaults.isEmpty()) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Omit vaults %s from subtree listing", vaults));
+                }
+                tree.keySet().removeIf(folder -> vaults.stream().anyMatch(vault -> vault.equals(folder) || folder.isChild(vault)));
+            }
+        }
+        return tree;
+    }
+
+    @Override
+    public boolean isSupported(final Path directory) {
+        return proxy.isSupported(directory);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("VaultRegistryRecursiveListFeature{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -26,6 +26,7 @@ import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.Metrics;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
@@ -33,9 +34,15 @@ import ch.cyberduck.core.SleepPreventer;
 import ch.cyberduck.core.SleepPreventerFactory;
 import ch.cyberduck.core.TransferItemCache;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.RetriableAccessDeniedException;
 import ch.cyberduck.core.exception.TransferCanceledException;
+import ch.cyberduck.core.features.Readiness;
 import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.metrics.MetricsRegistry;
+import ch.cyberduck.core.metrics.Operation;
 import ch.cyberduck.core.notification.NotificationService;
+import ch.cyberduck.core.threading.BackgroundActionPauser;
 import ch.cyberduck.core.threading.TransferBackgroundActionState;
 import ch.cyberduck.core.transfer.SynchronizingTransferErrorCallback;
 import ch.cyberduck.core.transfer.Transfer;
@@ -54,8 +61,12 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
@@ -84,6 +95,18 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
      * Workload
      */
     private final Cache<TransferItem> cache;
+    /**
+     * Files deferred until reported ready by server
+     */
+    private final Map<TransferItem, TransferStatus> deferred = Collections.synchronizedMap(new LinkedHashMap<>());
+    /**
+     * Files reported ready by server
+     */
+    private final Set<TransferItem> ready = ConcurrentHashMap.newKeySet();
+    /**
+     * Order of transfer determined by server or null
+     */
+    private Readiness readiness;
     private final ProgressListener progress;
     private final StreamListener stream;
 
@@ -218,11 +241,15 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             this.await();
             meter.reset();
             transfer.pre(source, destination, table, transfer.filter(source, destination, action, progress), error, progress, connect);
+            readiness = source.getFeature(Readiness.class);
             // Transfer all files sequentially
             for(TransferItem next : transfer.getRoots()) {
                 this.transfer(next, action);
             }
             this.await();
+            if(readiness != null) {
+                this.schedule(action);
+            }
             transfer.post(source, destination, table, error, progress, connect);
         }
         finally {
@@ -237,10 +264,75 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             sleep.release(lock);
             table.clear();
             cache.clear();
+            deferred.clear();
+            ready.clear();
         }
         return true;
     }
 
+    /**
+     * Transfer deferred files in windows reported ready by server. Poll for next window when all files in window are
+     * transferred.
+     *
+     * @param action Transfer action for existing files
+     */
+    protected void schedule(final TransferAction action) throws BackgroundException {
+        while(!deferred.isEmpty()) {
+            if(this.isCanceled()) {
+                throw new TransferCanceledException();
+            }
+            final Map<TransferItem, TransferStatus> pending;
+            synchronized(deferred) {
+                pending = new LinkedHashMap<>(deferred);
+            }
+            List<TransferItem> window;
+            try {
+                window = readiness.ready(transfer.getType(), pending);
+            }
+            catch(RetriableAccessDeniedException e) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("No files ready for transfer %s. %s", this, e.getDetail()));
+                }
+                final BackgroundActionPauser.Callback callback = new BackgroundActionPauser.Callback() {
+                    @Override
+                    public void validate() throws ConnectionCanceledException {
+                        if(isCanceled()) {
+                            throw new TransferCanceledException();
+                        }
+                    }
+
+                    @Override
+                    public void progress(final Integer seconds) {
+                        //
+                    }
+                };
+                if(null == e.getDelay()) {
+                    new BackgroundActionPauser(callback).await();
+                }
+                else {
+                    new BackgroundActionPauser(callback, (int) e.getDelay().getSeconds()).await();
+                }
+                continue;
+            }
+            if(window.isEmpty()) {
+                log.warn(String.format("No order returned for %d files in transfer %s", pending.size(), this));
+                window = new ArrayList<>(pending.keySet());
+            }
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Transfer %d of %d pending files ready in transfer %s", window.size(), pending.size(), this));
+            }
+            for(TransferItem item : window) {
+                if(null == deferred.remove(item)) {
+                    continue;
+                }
+                ready.add(item);
+                this.transfer(item, action);
+            }
+            // Wait for files in window before polling for next window
+            this.await();
+        }
+    }
+
     /**
      * To be called before any file is actually transferred
      *
@@ -358,6 +450,13 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         if(table.containsKey(item)) {
             // Overall transfer status
             final TransferStatus status = table.get(item);
+            if(readiness != null && item.remote.isFile() && !ready.remove(item)) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Defer transfer of %s until ready", item));
+                }
+                deferred.put(item, status);
+                return ConcurrentUtils.constantFuture(status);
+            }
             // Handle submit of one or more segments
             final List<TransferStatus> segments = status.getSegments();
             for(final TransferStatus segment : segments) {
@@ -410,18 +509,24 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         final Session<?> s = borrow(Connection.source);
                         final Session<?> d = borrow(Connection.destination);
                         final BytecountStreamListener counter = new BytecountStreamListener(stream);
+                        final Metrics metrics = MetricsRegistry.get().find(transfer.getSource());
+                        final String operation = AbstractTransferWorker.this.operation(segment);
+                        final long start = System.nanoTime();
                         try {
                             transfer.transfer(s, d,
                                     segment.getRename().remote != null ? segment.getRename().remote : item.remote,
                                     segment.getRename().local != null ? segment.getRename().local : item.local,
                                     options, status, segment, connect, progress, counter);
+                            metrics.record(operation, System.nanoTime() - start, counter.getRecv() + counter.getSent(), false);
                         }
                         catch(BackgroundException e) {
+                            metrics.record(operation, System.nanoTime() - start, counter.getRecv() + counter.getSent(), true);
                             release(s, Connection.source, e);
                             release(d, Connection.destination, e);
                             log.warn(String.format("Failure %s transferring %s", item, e));
                             // Determine if we should retry depending on failure type
                             if(this.retry(e, progress, new TransferBackgroundActionState(status))) {
+                                metrics.retry(operation);
                                 final Session<?> source = borrow(Connection.source);
                                 final Session<?> destination = borrow(Connection.destination);
                                 try {
@@ -536,6 +641,24 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         // No-op
     }
 
+    /**
+     * @param segment Transfer status
+     * @return Operation name to record metrics for transfer of segment
+     */
+    private String operation(final TransferStatus segment) {
+        if(segment.isSegment()) {
+            return Operation.part.name();
+        }
+        switch(transfer.getType()) {
+            case download:
+                return Operation.read.name();
+            case upload:
+                return Operation.write.name();
+            default:
+                return Operation.copy.name();
+        }
+    }
+
     @Override
     public String getActivity() {
         return BookmarkNameProvider.toString(transfer.getSource());
@@ -26,6 +26,7 @@ import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.shared.PrefetchingListService;
 
 import java.text.MessageFormat;
 import java.util.List;
@@ -49,8 +50,10 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
 
     @Override
     public Long run(final Session<?> session) throws BackgroundException {
+        // Fetch complete subtree with single request if supported
+        final ListService list = new PrefetchingListService(session);
         for(Path next : files) {
-            next.attributes().setSize(this.calculateSize(session, next));
+            next.attributes().setSize(this.calculateSize(list, next));
         }
         return total;
     }
@@ -62,7 +65,7 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
      * @param p Directory or file
      * @return The size of the file or the sum of all containing files if a directory
      */
-    private long calculateSize(final Session<?> session, final Path p) throws BackgroundException {
+    private long calculateSize(final ListService list, final Path p) throws BackgroundException {
         long size = 0;
         if(this.isCanceled()) {
             throw new ConnectionCanceledException();
@@ -70,8 +73,8 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
         listener.message(MessageFormat.format(LocaleFactory.localizedString("Getting size of {0}", "Status"),
                 p.getName()));
         if(p.isDirectory()) {
-            for(Path next : session.getFeature(ListService.class).list(p, new WorkerListProgressListener(this, listener))) {
-                size += this.calculateSize(session, next);
+            for(Path next : list.list(p, new WorkerListProgressListener(this, listener))) {
+                size += this.calculateSize(list, next);
             }
         }
         else if(p.isFile()) {
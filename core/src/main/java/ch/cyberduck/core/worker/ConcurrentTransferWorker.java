@@ -27,6 +27,7 @@ import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.NotificationService;
 import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.BackgroundActionState;
 import ch.cyberduck.core.threading.ThreadPool;
 import ch.cyberduck.core.threading.ThreadPoolFactory;
@@ -35,6 +36,7 @@ import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferErrorCallback;
 import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferPrompt;
+import ch.cyberduck.core.transfer.TransferScheduler;
 import ch.cyberduck.core.transfer.TransferSpeedometer;
 import ch.cyberduck.core.transfer.TransferStatus;
 
@@ -43,6 +45,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -56,10 +59,18 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
     private final SessionPool source;
     private final SessionPool destination;
 
+    private final Transfer transfer;
     private final CompletionService<TransferStatus> completion;
     // Keep number of submitted tasks
     private final AtomicInteger size = new AtomicInteger();
+    /**
+     * Pool for this transfer only or null when segments are run by global scheduler
+     */
     private final ThreadPool pool;
+    /**
+     * Number of segments submitted to global scheduler not yet completed
+     */
+    private final AtomicInteger running = new AtomicInteger();
 
     public ConcurrentTransferWorker(final SessionPool source,
                                     final SessionPool destination,
@@ -91,9 +102,28 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
         super(transfer, options, prompt, meter, error, progressListener, streamListener, connect, notification);
         this.source = source;
         this.destination = destination;
-        this.pool = ThreadPoolFactory.get(String.format("%s-transfer", new AlphanumericRandomStringService().random()),
-                new AutoTransferConnectionLimiter().getLimit(transfer.getSource()), priority, new LinkedBlockingQueue<>(Integer.MAX_VALUE));
-        this.completion = new ExecutorCompletionService<>(pool.executor());
+        this.transfer = transfer;
+        if(PreferencesFactory.get().getBoolean("queue.scheduler.enable")) {
+            // Share connection budget for host with all other running transfers
+            this.pool = null;
+            final Executor scheduler = TransferScheduler.get().executor(transfer.getSource(), transfer, priority);
+            this.completion = new ExecutorCompletionService<>(command -> {
+                running.incrementAndGet();
+                scheduler.execute(() -> {
+                    try {
+                        command.run();
+                    }
+                    finally {
+                        this.done(1);
+                    }
+                });
+            });
+        }
+        else {
+            this.pool = ThreadPoolFactory.get(String.format("%s-transfer", new AlphanumericRandomStringService().random()),
+                    new AutoTransferConnectionLimiter().getLimit(transfer.getSource()), priority, new LinkedBlockingQueue<>(Integer.MAX_VALUE));
+            this.completion = new ExecutorCompletionService<>(pool.executor());
+        }
     }
 
     @Override
@@ -179,10 +209,38 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
 
     @Override
     protected void shutdown() {
+        if(null == pool) {
+            // Drop segments not yet started
+            this.done(TransferScheduler.get().cancel(transfer));
+            // Wait for segments in progress
+            synchronized(running) {
+                while(running.get() > 0) {
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Await completion of %d running segments", running.get()));
+                    }
+                    try {
+                        running.wait();
+                    }
+                    catch(InterruptedException e) {
+                        log.warn(String.format("Interrupted awaiting completion of %d running segments", running.get()));
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            return;
+        }
         // Always shutdown gracefully allowing the threads to return after checking transfer status
         pool.shutdown(true);
     }
 
+    private void done(final int segments) {
+        synchronized(running) {
+            running.addAndGet(-segments);
+            running.notifyAll();
+        }
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("ConcurrentTransferWorker{");
@@ -0,0 +1,166 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledCancelCallback;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.preferences.PreferencesReader;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.CancelCallback;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Run changes to file attributes in parallel with a bounded number of requests in flight while the caller continues
+ * listing folders recursively. No reference to completed changes is retained to allow writing to any number of files.
+ */
+public class ConcurrentWriteQueue {
+    private static final Logger log = LogManager.getLogger(ConcurrentWriteQueue.class);
+
+    private final int concurrency;
+    private final ThreadPool pool;
+    private final Semaphore permits;
+    private final CancelCallback cancel;
+    /**
+     * First failure of any change
+     */
+    private final AtomicReference<BackgroundException> failure = new AtomicReference<>();
+
+    public ConcurrentWriteQueue(final Session<?> session, final CancelCallback cancel) {
+        this(getConcurrency(session), cancel);
+    }
+
+    public ConcurrentWriteQueue(final int concurrency) {
+        this(concurrency, new DisabledCancelCallback());
+    }
+
+    public ConcurrentWriteQueue(final int concurrency, final CancelCallback cancel) {
+        this.concurrency = concurrency;
+        this.cancel = cancel;
+        this.pool = ThreadPoolFactory.get("write", concurrency);
+        this.permits = new Semaphore(concurrency);
+    }
+
+    /**
+     * Blocks until a slot is available
+     *
+     * @param change Change to file to run in background
+     * @throws BackgroundException Failure of previously submitted change
+     */
+    public void submit(final Change change) throws BackgroundException {
+        this.validate();
+        try {
+            while(!permits.tryAcquire(1L, TimeUnit.SECONDS)) {
+                this.validate();
+            }
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DefaultExceptionMappingService().map(e);
+        }
+        pool.execute(new BackgroundExceptionCallable<Void>() {
+            @Override
+            public Void call() throws BackgroundException {
+                try {
+                    change.run();
+                }
+                catch(BackgroundException e) {
+                    failure.compareAndSet(null, e);
+                    throw e;
+                }
+                catch(Throwable e) {
+                    failure.compareAndSet(null, new DefaultExceptionMappingService().map(e));
+                    throw e;
+                }
+                finally {
+                    permits.release();
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Wait for all submitted changes to complete
+     *
+     * @throws BackgroundException Failure of any change
+     */
+    public void await() throws BackgroundException {
+        this.validate();
+        try {
+            while(!permits.tryAcquire(concurrency, 1L, TimeUnit.SECONDS)) {
+                this.validate();
+            }
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DefaultExceptionMappingService().map(e);
+        }
+        permits.release(concurrency);
+        this.validate();
+    }
+
+    /**
+     * Cancel pending changes
+     */
+    public void shutdown() {
+        pool.shutdown(false);
+    }
+
+    private void validate() throws BackgroundException {
+        cancel.verify();
+        final BackgroundException e = failure.get();
+        if(e != null) {
+            log.warn(String.format("Abort with failure %s", e));
+            throw e;
+        }
+    }
+
+    /**
+     * @return Number of changes to run in parallel. Sessions of stateful protocols are not shared.
+     */
+    private static int getConcurrency(final Session<?> session) {
+        final Host host = session.getHost();
+        switch(host.getProtocol().getStatefulness()) {
+            case stateless:
+                final PreferencesReader preferences = new HostPreferences(host);
+                // Determine number of changes in parallel depending on protocol
+                final int concurrency = preferences.getInteger(String.format("attributes.write.concurrency.%s",
+                        host.getProtocol().getType().name()));
+                if(-1 == concurrency) {
+                    // No explicit setting for protocol
+                    return preferences.getInteger("attributes.write.concurrency.default");
+                }
+                return concurrency;
+            default:
+                return 1;
+        }
+    }
+
+    public interface Change {
+        void run() throws BackgroundException;
+    }
+}
@@ -34,19 +34,36 @@ import ch.cyberduck.core.features.Directory;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.io.DisabledStreamListener;
 import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.ui.comparator.TimestampComparator;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 public class CopyWorker extends Worker<Map<Path, Path>> {
+    private static final Logger log = LogManager.getLogger(CopyWorker.class);
 
     private final Map<Path, Path> files;
     private final SessionPool target;
@@ -75,42 +92,123 @@ public class CopyWorker extends Worker<Map<Path, Path>> {
                 return true;
             }
         });
+        final ThreadPool pool = ThreadPoolFactory.get("copy", this.getConcurrency(session));
         try {
             final Copy copy = session.getFeature(Copy.class).withTarget(destination);
             final ListService list = session.getFeature(ListService.class);
-            final Map<Path, Path> result = new HashMap<>();
+            final Map<Path, Path> recursive = new LinkedHashMap<>();
             for(Map.Entry<Path, Path> entry : files.entrySet()) {
                 if(this.isCanceled()) {
                     throw new ConnectionCanceledException();
                 }
-                final Map<Path, Path> recursive = this.compile(copy, list, entry.getKey(), entry.getValue());
-                for(Map.Entry<Path, Path> r : recursive.entrySet()) {
-                    if(r.getKey().isDirectory() && !copy.isRecursive(r.getKey(), r.getValue())) {
-                        // Create directory unless copy implementation is recursive
-                        final Directory directory = session.getFeature(Directory.class);
-                        result.put(r.getKey(), directory.mkdir(r.getValue(),
-                                new TransferStatus().withRegion(r.getKey().attributes().getRegion())));
+                recursive.putAll(this.compile(copy, list, entry.getKey(), entry.getValue()));
+            }
+            final Map<Path, Path> result = new HashMap<>();
+            final Find find = this.getFind(session);
+            // Folders created in this run known to be empty
+            final Set<Path> created = new HashSet<>();
+            // Versions of the same file to copy in order
+            final Map<Path, List<Path>> versions = new LinkedHashMap<>();
+            for(Map.Entry<Path, Path> r : recursive.entrySet()) {
+                if(r.getKey().isDirectory() && !copy.isRecursive(r.getKey(), r.getValue())) {
+                    if(this.isCanceled()) {
+                        throw new ConnectionCanceledException();
                     }
-                    else {
-                        final TransferStatus status = new TransferStatus()
-                                .withMime(new MappingMimeTypeService().getMime(r.getValue().getName()))
-                                .exists(new CachingFindFeature(cache, session.getFeature(Find.class, new DefaultFindFeature(session))).find(r.getValue()))
-                                .withLength(r.getKey().attributes().getSize());
-                        final Path copied = copy.copy(r.getKey(), r.getValue(), status, callback, new DisabledStreamListener());
-                        if(PathAttributes.EMPTY.equals(copied.attributes())) {
-                            copied.withAttributes(session.getFeature(AttributesFinder.class).find(copied));
+                    // Target folder cannot exist when parent was created in this run
+                    final boolean exists = !created.contains(r.getValue().getParent()) && find.find(r.getValue());
+                    // Create directory unless copy implementation is recursive. Parents are created before children.
+                    final Directory directory = session.getFeature(Directory.class);
+                    result.put(r.getKey(), directory.mkdir(r.getValue(),
+                            new TransferStatus().withRegion(r.getKey().attributes().getRegion())));
+                    if(!exists) {
+                        created.add(r.getValue());
+                    }
+                }
+                else {
+                    versions.computeIfAbsent(r.getValue(), key -> new ArrayList<>()).add(r.getKey());
+                }
+            }
+            final List<Future<Map<Path, Path>>> copies = new ArrayList<>();
+            for(Map.Entry<Path, List<Path>> entry : versions.entrySet()) {
+                final Path file = entry.getKey();
+                final Boolean exists;
+                if(created.contains(file.getParent())) {
+                    exists = false;
+                }
+                else if(new HostPreferences(session.getHost()).getBoolean("copy.find.listing.enable")) {
+                    // Lookup in parent listing cached with first sibling
+                    exists = find.find(file);
+                }
+                else {
+                    exists = null;
+                }
+                copies.add(pool.execute(new Callable<Map<Path, Path>>() {
+                    @Override
+                    public Map<Path, Path> call() throws BackgroundException {
+                        final Map<Path, Path> copied = new HashMap<>();
+                        for(Path source : entry.getValue()) {
+                            if(CopyWorker.this.isCanceled()) {
+                                throw new ConnectionCanceledException();
+                            }
+                            copied.put(source, CopyWorker.this.copy(session, copy, source, file, null == exists ? find.find(file) : exists));
                         }
-                        result.put(r.getKey(), copied);
+                        return copied;
                     }
+                }));
+            }
+            for(Future<Map<Path, Path>> f : copies) {
+                try {
+                    result.putAll(Uninterruptibles.getUninterruptibly(f));
+                }
+                catch(ExecutionException e) {
+                    log.warn(String.format("Copy failed with execution failure %s", e.getMessage()));
+                    Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
+                    throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
                 }
             }
             return result;
         }
         finally {
+            // Cancel future tasks
+            pool.shutdown(false);
             target.release(destination, null);
         }
     }
 
+    private Path copy(final Session<?> session, final Copy copy, final Path source, final Path target, final boolean exists) throws BackgroundException {
+        final TransferStatus status = new TransferStatus()
+                .withMime(new MappingMimeTypeService().getMime(target.getName()))
+                .exists(exists)
+                .withLength(source.attributes().getSize());
+        final Path copied = copy.copy(source, target, status, callback, new DisabledStreamListener());
+        if(PathAttributes.EMPTY.equals(copied.attributes())) {
+            copied.withAttributes(session.getFeature(AttributesFinder.class).find(copied));
+        }
+        return copied;
+    }
+
+    /**
+     * @return Existence check for target files. Looks up files in a single listing of the parent folder when enabled.
+     */
+    protected Find getFind(final Session<?> session) {
+        if(new HostPreferences(session.getHost()).getBoolean("copy.find.listing.enable")) {
+            return new CachingFindFeature(cache, new DefaultFindFeature(session));
+        }
+        return new CachingFindFeature(cache, session.getFeature(Find.class, new DefaultFindFeature(session)));
+    }
+
+    /**
+     * @return Number of server side copies to run in parallel. Sessions of stateful protocols are not shared.
+     */
+    protected int getConcurrency(final Session<?> session) {
+        switch(session.getHost().getProtocol().getStatefulness()) {
+            case stateless:
+                return new HostPreferences(session.getHost()).getInteger("copy.concurrency");
+            default:
+                return 1;
+        }
+    }
+
     protected Map<Path, Path> compile(final Copy copy, final ListService list, final Path source, final Path target) throws BackgroundException {
         // Compile recursive list
         final Map<Path, Path> recursive = new LinkedHashMap<>();
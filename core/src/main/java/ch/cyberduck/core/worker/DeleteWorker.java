@@ -33,6 +33,7 @@ import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.features.Trash;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.shared.PrefetchingListService;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.logging.log4j.LogManager;
@@ -107,7 +108,8 @@ public class DeleteWorker extends Worker<List<Path>> {
         else {
             delete = session.getFeature(Delete.class);
         }
-        final ListService list = session.getFeature(ListService.class);
+        // Fetch complete subtree with single request if supported
+        final ListService list = new PrefetchingListService(session);
         final Map<Path, TransferStatus> recursive = new LinkedHashMap<>();
         for(Path file : files) {
             if(this.isCanceled()) {
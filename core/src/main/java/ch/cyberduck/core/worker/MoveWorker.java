@@ -37,9 +37,12 @@ import ch.cyberduck.core.features.Directory;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.features.Move;
 import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.ui.comparator.VersionsComparator;
 
@@ -50,13 +53,21 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+
 public class MoveWorker extends Worker<Map<Path, Path>> {
     private static final Logger log = LogManager.getLogger(MoveWorker.class);
 
@@ -87,6 +98,7 @@ public class MoveWorker extends Worker<Map<Path, Path>> {
                 return true;
             }
         });
+        final ThreadPool pool = ThreadPoolFactory.get("move", this.getConcurrency(session));
         try {
             final Move feature = session.getFeature(Move.class).withTarget(destination);
             if(log.isDebugEnabled()) {
@@ -96,69 +108,149 @@ public class MoveWorker extends Worker<Map<Path, Path>> {
             // Sort ascending by timestamp to move older versions first
             final Map<Path, Path> sorted = new TreeMap<>(new VersionsComparator(true));
             sorted.putAll(files);
-            final Map<Path, Path> result = new HashMap<>();
+            final Map<Path, Path> recursive = new LinkedHashMap<>();
             for(Map.Entry<Path, Path> entry : sorted.entrySet()) {
                 if(this.isCanceled()) {
                     throw new ConnectionCanceledException();
                 }
-                final Map<Path, Path> recursive = this.compile(feature, list, entry.getKey(), entry.getValue());
-                if(log.isDebugEnabled()) {
-                    log.debug(String.format("Compiled recursive list %s", recursive));
-                }
-                for(Map.Entry<Path, Path> r : recursive.entrySet()) {
-                    if(r.getKey().isDirectory() && !feature.isRecursive(r.getKey(), r.getValue())) {
-                        log.warn(String.format("Move operation is not recursive. Create directory %s", r.getValue()));
-                        // Create directory unless copy implementation is recursive
-                        result.put(r.getKey(), session.getFeature(Directory.class).mkdir(r.getValue(),
-                                new TransferStatus().withRegion(r.getKey().attributes().getRegion())));
+                recursive.putAll(this.compile(feature, list, entry.getKey(), entry.getValue()));
+            }
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Compiled recursive list %s", recursive));
+            }
+            final Map<Path, Path> result = new HashMap<>();
+            final Find find = this.getFind(session);
+            // Folders created in this run known to be empty
+            final Set<Path> created = new HashSet<>();
+            // Versions of the same file to move in order
+            final Map<Path, List<Path>> versions = new LinkedHashMap<>();
+            for(Map.Entry<Path, Path> r : recursive.entrySet()) {
+                if(r.getKey().isDirectory() && !feature.isRecursive(r.getKey(), r.getValue())) {
+                    if(this.isCanceled()) {
+                        throw new ConnectionCanceledException();
                     }
-                    else {
-                        final TransferStatus status = new TransferStatus()
-                                .withLockId(this.getLockId(r.getKey()))
-                                .withMime(new MappingMimeTypeService().getMime(r.getValue().getName()))
-                                .exists(new CachingFindFeature(cache, session.getFeature(Find.class, new DefaultFindFeature(session))).find(r.getValue()))
-                                .withLength(r.getKey().attributes().getSize());
-                        if(status.isExists()) {
-                            status.withRemote(new CachingAttributesFinderFeature(cache, session.getFeature(AttributesFinder.class, new DefaultAttributesFinderFeature(session))).find(r.getValue()));
-                        }
-                        final Path moved = feature.move(r.getKey(), r.getValue(), status,
-                                new Delete.Callback() {
-                                    @Override
-                                    public void delete(final Path file) {
-                                        listener.message(MessageFormat.format(LocaleFactory.localizedString("Deleting {0}", "Status"),
-                                                file.getName()));
-                                    }
-                                }, callback);
-                        if(PathAttributes.EMPTY.equals(moved.attributes())) {
-                            moved.withAttributes(session.getFeature(AttributesFinder.class).find(moved));
-                        }
-                        result.put(r.getKey(), moved);
+                    // Target folder cannot exist when parent was created in this run
+                    final boolean exists = !created.contains(r.getValue().getParent()) && find.find(r.getValue());
+                    log.warn(String.format("Move operation is not recursive. Create directory %s", r.getValue()));
+                    // Create directory unless copy implementation is recursive. Parents are created before children.
+                    result.put(r.getKey(), session.getFeature(Directory.class).mkdir(r.getValue(),
+                            new TransferStatus().withRegion(r.getKey().attributes().getRegion())));
+                    if(!exists) {
+                        created.add(r.getValue());
                     }
                 }
-                // Find previous folders to be deleted
-                final List<Path> folders = recursive.entrySet().stream()
-                        .filter(f -> !feature.isRecursive(f.getKey(), f.getValue()))
-                        .collect(Collectors.toCollection(ArrayList::new)).stream()
-                        .map(Map.Entry::getKey).filter(Path::isDirectory)
-                        .collect(Collectors.toCollection(ArrayList::new));
-                if(!folders.isEmpty()) {
-                    // Must delete inverse
-                    Collections.reverse(folders);
-                    final Delete delete = session.getFeature(Delete.class);
-                    for(Path folder : folders) {
-                        log.warn(String.format("Delete source directory %s", folder));
-                        final TransferStatus status = new TransferStatus().withLockId(this.getLockId(folder));
-                        delete.delete(Collections.singletonMap(folder, status), callback, new Delete.DisabledCallback());
+                else {
+                    versions.computeIfAbsent(r.getValue(), key -> new ArrayList<>()).add(r.getKey());
+                }
+            }
+            final List<Future<Map<Path, Path>>> moves = new ArrayList<>();
+            for(Map.Entry<Path, List<Path>> entry : versions.entrySet()) {
+                final Path file = entry.getKey();
+                final Boolean exists;
+                if(created.contains(file.getParent())) {
+                    exists = false;
+                }
+                else if(new HostPreferences(session.getHost()).getBoolean("move.find.listing.enable")) {
+                    // Lookup in parent listing cached with first sibling
+                    exists = find.find(file);
+                }
+                else {
+                    exists = null;
+                }
+                moves.add(pool.execute(new Callable<Map<Path, Path>>() {
+                    @Override
+                    public Map<Path, Path> call() throws BackgroundException {
+                        final Map<Path, Path> moved = new HashMap<>();
+                        for(Path source : entry.getValue()) {
+                            if(MoveWorker.this.isCanceled()) {
+                                throw new ConnectionCanceledException();
+                            }
+                            moved.put(source, MoveWorker.this.move(session, feature, source, file, null == exists ? find.find(file) : exists));
+                        }
+                        return moved;
                     }
+                }));
+            }
+            for(Future<Map<Path, Path>> f : moves) {
+                try {
+                    result.putAll(Uninterruptibles.getUninterruptibly(f));
+                }
+                catch(ExecutionException e) {
+                    log.warn(String.format("Move failed with execution failure %s", e.getMessage()));
+                    Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
+                    throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
+                }
+            }
+            // Find previous folders to be deleted
+            final List<Path> folders = recursive.entrySet().stream()
+                    .filter(f -> !feature.isRecursive(f.getKey(), f.getValue()))
+                    .collect(Collectors.toCollection(ArrayList::new)).stream()
+                    .map(Map.Entry::getKey).filter(Path::isDirectory)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            if(!folders.isEmpty()) {
+                // Must delete inverse
+                Collections.reverse(folders);
+                final Delete delete = session.getFeature(Delete.class);
+                for(Path folder : folders) {
+                    log.warn(String.format("Delete source directory %s", folder));
+                    final TransferStatus status = new TransferStatus().withLockId(this.getLockId(folder));
+                    delete.delete(Collections.singletonMap(folder, status), callback, new Delete.DisabledCallback());
                 }
             }
             return result;
         }
         finally {
+            // Cancel future tasks
+            pool.shutdown(false);
             target.release(destination, null);
         }
     }
 
+    private Path move(final Session<?> session, final Move feature, final Path source, final Path target, final boolean exists) throws BackgroundException {
+        final TransferStatus status = new TransferStatus()
+                .withLockId(this.getLockId(source))
+                .withMime(new MappingMimeTypeService().getMime(target.getName()))
+                .exists(exists)
+                .withLength(source.attributes().getSize());
+        if(status.isExists()) {
+            status.withRemote(new CachingAttributesFinderFeature(cache, session.getFeature(AttributesFinder.class, new DefaultAttributesFinderFeature(session))).find(target));
+        }
+        final Path moved = feature.move(source, target, status,
+                new Delete.Callback() {
+                    @Override
+                    public void delete(final Path file) {
+                        listener.message(MessageFormat.format(LocaleFactory.localizedString("Deleting {0}", "Status"),
+                                file.getName()));
+                    }
+                }, callback);
+        if(PathAttributes.EMPTY.equals(moved.attributes())) {
+            moved.withAttributes(session.getFeature(AttributesFinder.class).find(moved));
+        }
+        return moved;
+    }
+
+    /**
+     * @return Existence check for target files. Looks up files in a single listing of the parent folder when enabled.
+     */
+    protected Find getFind(final Session<?> session) {
+        if(new HostPreferences(session.getHost()).getBoolean("move.find.listing.enable")) {
+            return new CachingFindFeature(cache, new DefaultFindFeature(session));
+        }
+        return new CachingFindFeature(cache, session.getFeature(Find.class, new DefaultFindFeature(session)));
+    }
+
+    /**
+     * @return Number of server side moves to run in parallel. Sessions of stateful protocols are not shared.
+     */
+    protected int getConcurrency(final Session<?> session) {
+        switch(session.getHost().getProtocol().getStatefulness()) {
+            case stateless:
+                return new HostPreferences(session.getHost()).getInteger("move.concurrency");
+            default:
+                return 1;
+        }
+    }
+
     protected String getLockId(final Path file) {
         return null;
     }
@@ -25,6 +25,8 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.RecursiveList;
 import ch.cyberduck.core.features.Search;
 
 import org.apache.logging.log4j.LogManager;
@@ -32,6 +34,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.text.MessageFormat;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -58,9 +61,30 @@ public class SearchWorker extends Worker<AttributedList<Path>> {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Run with feature %s", feature));
         }
+        if(!feature.isRecursive() && !cache.isCached(directory)) {
+            this.prefetch(session, directory);
+        }
         return this.search(feature, directory);
     }
 
+    /**
+     * Populate cache with listing of all folders in subtree using single request if supported
+     */
+    private void prefetch(final Session<?> session, final Path workdir) throws BackgroundException {
+        final RecursiveList recursive = session.getFeature(RecursiveList.class);
+        if(null == recursive || !recursive.isSupported(workdir)) {
+            return;
+        }
+        try {
+            for(Map.Entry<Path, AttributedList<Path>> entry : recursive.list(workdir, new WorkerListProgressListener(this, listener)).entrySet()) {
+                cache.put(entry.getKey(), entry.getValue());
+            }
+        }
+        catch(UnsupportedException e) {
+            log.warn(String.format("Fallback to search in every folder of %s. %s", workdir, e));
+        }
+    }
+
     private AttributedList<Path> search(final Search search, final Path workdir) throws BackgroundException {
         if(this.isCanceled()) {
             throw new ConnectionCanceledException();
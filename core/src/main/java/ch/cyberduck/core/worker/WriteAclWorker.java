@@ -77,27 +77,41 @@ public class WriteAclWorker extends Worker<Boolean> {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Run with feature %s", feature));
         }
-        for(Path file : files) {
-            this.write(session, feature, file);
+        final ConcurrentWriteQueue queue = new ConcurrentWriteQueue(session, () -> {
+            if(this.isCanceled()) {
+                throw new ConnectionCanceledException();
+            }
+        });
+        try {
+            for(Path file : files) {
+                this.write(session, feature, file, queue);
+            }
+            // Wait for pending changes
+            queue.await();
+        }
+        finally {
+            queue.shutdown();
         }
         return true;
     }
 
-    protected void write(final Session<?> session, final AclPermission feature, final Path file) throws BackgroundException {
+    protected void write(final Session<?> session, final AclPermission feature, final Path file, final ConcurrentWriteQueue queue) throws BackgroundException {
         if(this.isCanceled()) {
             throw new ConnectionCanceledException();
         }
         listener.message(MessageFormat.format(LocaleFactory.localizedString("Changing permission of {0} to {1}", "Status"),
                 file.getName(), acl));
-        feature.setPermission(file, acl);
-        file.attributes().setAcl(acl);
+        queue.submit(() -> {
+            feature.setPermission(file, acl);
+            file.attributes().setAcl(acl);
+        });
         if(file.isVolume()) {
             // No recursion when changing container ACL
         }
         else if(file.isDirectory()) {
             if(callback.recurse(file, acl)) {
                 for(Path child : session.getFeature(ListService.class).list(file, new WorkerListProgressListener(this, listener))) {
-                    this.write(session, feature, child);
+                    this.write(session, feature, child, queue);
                 }
             }
         }
@@ -78,11 +78,23 @@ public class WriteMetadataWorker extends Worker<Boolean> {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Run with feature %s", feature));
         }
-        for(Path file : files) {
+        final ConcurrentWriteQueue queue = new ConcurrentWriteQueue(session, () -> {
             if(this.isCanceled()) {
                 throw new ConnectionCanceledException();
             }
-            this.write(session, feature, file);
+        });
+        try {
+            for(Path file : files) {
+                if(this.isCanceled()) {
+                    throw new ConnectionCanceledException();
+                }
+                this.write(session, feature, file, queue);
+            }
+            // Wait for pending changes
+            queue.await();
+        }
+        finally {
+            queue.shutdown();
         }
         return true;
     }
@@ -91,7 +103,7 @@ public class WriteMetadataWorker extends Worker<Boolean> {
         return null;
     }
 
-    protected void write(final Session<?> session, final Metadata feature, final Path file) throws BackgroundException {
+    protected void write(final Session<?> session, final Metadata feature, final Path file, final ConcurrentWriteQueue queue) throws BackgroundException {
         if(this.isCanceled()) {
             throw new ConnectionCanceledException();
         }
@@ -111,13 +123,15 @@ public class WriteMetadataWorker extends Worker<Boolean> {
         if(!update.equals(file.attributes().getMetadata())) {
             listener.message(MessageFormat.format(LocaleFactory.localizedString("Writing metadata of {0}", "Status"),
                 file.getName()));
-            feature.setMetadata(file, new TransferStatus().withMetadata(update).withLockId(this.getLockId(file)));
-            file.attributes().setMetadata(metadata);
+            queue.submit(() -> {
+                feature.setMetadata(file, new TransferStatus().withMetadata(update).withLockId(this.getLockId(file)));
+                file.attributes().setMetadata(metadata);
+            });
         }
         if(file.isDirectory()) {
             if(callback.recurse(file, LocaleFactory.localizedString("Metadata", "Info"))) {
                 for(Path child : session.getFeature(ListService.class).list(file, new WorkerListProgressListener(this, listener))) {
-                    this.write(session, feature, child);
+                    this.write(session, feature, child, queue);
                 }
             }
         }
@@ -77,29 +77,43 @@ public class WriteRedundancyWorker extends Worker<Boolean> {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Run with feature %s", feature));
         }
-        for(Path file : files) {
+        final ConcurrentWriteQueue queue = new ConcurrentWriteQueue(session, () -> {
             if(this.isCanceled()) {
                 throw new ConnectionCanceledException();
             }
-            this.write(session, feature, file);
+        });
+        try {
+            for(Path file : files) {
+                if(this.isCanceled()) {
+                    throw new ConnectionCanceledException();
+                }
+                this.write(session, feature, file, queue);
+            }
+            // Wait for pending changes
+            queue.await();
+        }
+        finally {
+            queue.shutdown();
         }
         return true;
     }
 
-    protected void write(final Session<?> session, final Redundancy feature, final Path file) throws BackgroundException {
+    protected void write(final Session<?> session, final Redundancy feature, final Path file, final ConcurrentWriteQueue queue) throws BackgroundException {
         if(this.isCanceled()) {
             throw new ConnectionCanceledException();
         }
         if(!level.equals(file.attributes().getStorageClass())) {
             listener.message(MessageFormat.format(LocaleFactory.localizedString("Writing metadata of {0}", "Status"),
                     file.getName()));
-            feature.setClass(file, level);
-            file.attributes().setStorageClass(level);
+            queue.submit(() -> {
+                feature.setClass(file, level);
+                file.attributes().setStorageClass(level);
+            });
         }
         if(file.isDirectory()) {
             if(callback.recurse(file, level)) {
                 for(Path child : session.getFeature(ListService.class).list(file, new WorkerListProgressListener(this, listener))) {
-                    this.write(session, feature, child);
+                    this.write(session, feature, child, queue);
                 }
             }
         }
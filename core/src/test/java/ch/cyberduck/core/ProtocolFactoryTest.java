@@ -23,11 +23,16 @@ import ch.cyberduck.core.serializer.impl.dd.ProfilePlistReader;
 
 import org.junit.Test;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -276,4 +281,47 @@ public class ProtocolFactoryTest {
         assertFalse(profile.isEnabled());
         assertTrue(file.exists());
     }
+
+    @Test
+    public void testDiscover() throws Exception {
+        final java.nio.file.Path directory = Files.createTempDirectory("services");
+        final java.nio.file.Path services = Files.createDirectories(directory.resolve("META-INF").resolve("services"));
+        Files.write(services.resolve(Protocol.class.getName()), Collections.singletonList(TestProtocol.class.getName()), StandardCharsets.UTF_8);
+        final ProtocolFactory f = new ProtocolFactory(Collections.emptySet());
+        f.discover(new URLClassLoader(new URL[]{directory.toUri().toURL()}, this.getClass().getClassLoader()));
+        assertEquals(1, f.find().size());
+        assertEquals(TestProtocol.class, f.find().get(0).getClass());
+        assertNotNull(f.forType(Protocol.Type.dav));
+    }
+
+    @Test
+    public void testDiscoverInstantiateOnLookup() throws Exception {
+        final java.nio.file.Path directory = Files.createTempDirectory("services");
+        final java.nio.file.Path services = Files.createDirectories(directory.resolve("META-INF").resolve("services"));
+        Files.write(services.resolve(Protocol.class.getName()), Arrays.asList(
+                String.format("%s # test dav http", TestProtocol.class.getName()),
+                String.format("%s # lazy", LazyProtocol.class.getName())), StandardCharsets.UTF_8);
+        final ProtocolFactory f = new ProtocolFactory(Collections.emptySet());
+        f.discover(new URLClassLoader(new URL[]{directory.toUri().toURL()}, this.getClass().getClassLoader()));
+        LazyProtocol.instances.set(0);
+        assertEquals(TestProtocol.class, f.forName("test").getClass());
+        assertEquals(0, LazyProtocol.instances.get());
+        assertEquals(LazyProtocol.class, f.forName("lazy").getClass());
+        assertEquals(1, LazyProtocol.instances.get());
+        assertEquals(2, f.find().size());
+        assertEquals(1, LazyProtocol.instances.get());
+    }
+
+    public static final class LazyProtocol extends TestProtocol {
+        private static final AtomicInteger instances = new AtomicInteger();
+
+        public LazyProtocol() {
+            instances.incrementAndGet();
+        }
+
+        @Override
+        public String getIdentifier() {
+            return "lazy";
+        }
+    }
 }
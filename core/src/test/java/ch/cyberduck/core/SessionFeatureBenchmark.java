@@ -0,0 +1,85 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.features.AttributesFinder;
+import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of feature lookups made per file when preparing and transferring 100k files
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionFeatureBenchmark {
+
+    private static final int FILES = 100000;
+
+    private Session<?> session;
+
+    @Setup
+    public void setup() {
+        session = new NullSession(new Host(new TestProtocol()))
+            .withRegistry(new DefaultVaultRegistry(new DisabledPasswordCallback()));
+    }
+
+    @Benchmark
+    public void memoized(final Blackhole bh) {
+        for(int i = 0; i < FILES; i++) {
+            bh.consume(session.getFeature(Find.class));
+            bh.consume(session.getFeature(AttributesFinder.class));
+            bh.consume(session.getFeature(Write.class));
+            bh.consume(session.getFeature(Read.class));
+        }
+    }
+
+    @Benchmark
+    public void created(final Blackhole bh) {
+        for(int i = 0; i < FILES; i++) {
+            bh.consume(session.getFeature(Find.class, session._getFeature(Find.class)));
+            bh.consume(session.getFeature(AttributesFinder.class, session._getFeature(AttributesFinder.class)));
+            bh.consume(session.getFeature(Write.class, session._getFeature(Write.class)));
+            bh.consume(session.getFeature(Read.class, session._getFeature(Read.class)));
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SessionFeatureBenchmark.class.getSimpleName()).build()).run();
+    }
+}
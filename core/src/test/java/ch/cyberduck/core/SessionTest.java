@@ -0,0 +1,53 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.features.Directory;
+import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.features.Upload;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SessionTest {
+
+    @Test
+    public void testGetFeatureMemoized() {
+        final NullSession session = new NullSession(new Host(new TestProtocol()));
+        final Find find = session.getFeature(Find.class);
+        assertNotNull(find);
+        assertSame(find, session.getFeature(Find.class));
+        assertSame(session.getFeature(Read.class), session.getFeature(Read.class));
+        // Configured by caller
+        assertNotSame(session.getFeature(Upload.class), session.getFeature(Upload.class));
+        assertNotSame(session.getFeature(Directory.class), session.getFeature(Directory.class));
+        session.invalidate();
+        assertNotSame(find, session.getFeature(Find.class));
+    }
+
+    @Test
+    public void testInvalidateWithRegistry() {
+        final NullSession session = new NullSession(new Host(new TestProtocol()));
+        final Find find = session.getFeature(Find.class);
+        session.withRegistry(new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        final Find proxy = session.getFeature(Find.class);
+        assertNotSame(find, proxy);
+        assertSame(proxy, session.getFeature(Find.class));
+    }
+}
@@ -0,0 +1,64 @@
+package ch.cyberduck.core.metrics;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.features.Copy;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class OpenMetricsWriterTest {
+
+    @Test
+    public void testWrite() throws Exception {
+        final OperationMetrics metrics = new OperationMetrics("s3://h", null);
+        metrics.record(Operation.list.name(), TimeUnit.MILLISECONDS.toNanos(20), 0L, false);
+        metrics.record(Operation.list.name(), TimeUnit.SECONDS.toNanos(2), 0L, true);
+        metrics.record(Operation.write.name(), TimeUnit.SECONDS.toNanos(120), 1024L, false);
+        metrics.retry(Operation.write.name());
+        metrics.increment(Copy.class);
+        final StringWriter out = new StringWriter();
+        new OpenMetricsWriter().write(Collections.singletonList(metrics), out);
+        final String text = out.toString();
+        assertTrue(text.contains("cyberduck_operation_seconds_bucket{host=\"s3://h\",operation=\"list\",le=\"0.01\"} 0\n"));
+        assertTrue(text.contains("cyberduck_operation_seconds_bucket{host=\"s3://h\",operation=\"list\",le=\"0.025\"} 1\n"));
+        assertTrue(text.contains("cyberduck_operation_seconds_bucket{host=\"s3://h\",operation=\"list\",le=\"60.0\"} 2\n"));
+        assertTrue(text.contains("cyberduck_operation_seconds_bucket{host=\"s3://h\",operation=\"write\",le=\"60.0\"} 0\n"));
+        assertTrue(text.contains("cyberduck_operation_seconds_bucket{host=\"s3://h\",operation=\"write\",le=\"+Inf\"} 1\n"));
+        assertTrue(text.contains("cyberduck_operation_seconds_count{host=\"s3://h\",operation=\"list\"} 2\n"));
+        assertTrue(text.contains("cyberduck_operation_errors_total{host=\"s3://h\",operation=\"list\"} 1\n"));
+        assertTrue(text.contains("cyberduck_operation_retries_total{host=\"s3://h\",operation=\"write\"} 1\n"));
+        assertTrue(text.contains("cyberduck_operation_bytes_total{host=\"s3://h\",operation=\"write\"} 1024\n"));
+        assertTrue(text.contains("cyberduck_requests_total{host=\"s3://h\",operation=\"Copy\"} 1\n"));
+        assertTrue(text.endsWith("# EOF\n"));
+    }
+
+    @Test
+    public void testTimer() {
+        final Timer timer = new Timer();
+        timer.record(TimeUnit.MILLISECONDS.toNanos(10), 0L, false);
+        timer.record(TimeUnit.MILLISECONDS.toNanos(30), 0L, false);
+        assertEquals(2L, timer.getCount());
+        assertEquals(20d, timer.getMeanMillis(), 0.01);
+        assertEquals(30d, timer.getMaxMillis(), 0.01);
+        assertEquals(0.04d, timer.getSum(), 0.0001);
+    }
+}
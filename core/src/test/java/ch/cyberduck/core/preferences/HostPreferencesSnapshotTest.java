@@ -0,0 +1,69 @@
+package ch.cyberduck.core.preferences;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.TestProtocol;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HostPreferencesSnapshotTest {
+
+    @Test
+    public void testGet() {
+        final PreferenceKey size = PreferenceKey.integer("snapshot.test.size");
+        final PreferenceKey enable = PreferenceKey.bool("snapshot.test.enable");
+        final PreferenceKey name = PreferenceKey.string("snapshot.test.name");
+        final Preferences preferences = new MemoryPreferences();
+        preferences.load();
+        preferences.setDefault("snapshot.test.size", "5");
+        preferences.setDefault("snapshot.test.enable", "true");
+        final Host bookmark = new Host(new TestProtocol());
+        final HostPreferencesSnapshot snapshot = HostPreferencesSnapshot.get(bookmark, preferences);
+        assertEquals(5, snapshot.getInteger(size));
+        assertEquals(5L, snapshot.getLong(size));
+        assertTrue(snapshot.getBoolean(enable));
+        assertNull(snapshot.getProperty(name));
+        assertSame(snapshot, HostPreferencesSnapshot.get(bookmark, preferences));
+    }
+
+    @Test
+    public void testRefreshOnChange() {
+        final PreferenceKey size = PreferenceKey.integer("snapshot.test.refresh");
+        final Preferences preferences = new MemoryPreferences();
+        preferences.load();
+        preferences.setDefault("snapshot.test.refresh", "1");
+        final Host bookmark = new Host(new TestProtocol());
+        final HostPreferencesSnapshot snapshot = HostPreferencesSnapshot.get(bookmark, preferences);
+        assertEquals(1, snapshot.getInteger(size));
+        preferences.setProperty("snapshot.test.refresh", 2);
+        assertTrue(snapshot.isStale(bookmark, preferences));
+        assertEquals(2, HostPreferencesSnapshot.get(bookmark, preferences).getInteger(size));
+        // Bookmark override
+        bookmark.setProperty("snapshot.test.refresh", "3");
+        assertEquals(3, HostPreferencesSnapshot.get(bookmark, preferences).getInteger(size));
+        // Immutable
+        assertEquals(1, snapshot.getInteger(size));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterConflictingType() {
+        PreferenceKey.integer("snapshot.test.type");
+        PreferenceKey.bool("snapshot.test.type");
+    }
+}
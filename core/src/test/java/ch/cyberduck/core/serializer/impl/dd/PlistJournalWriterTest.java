@@ -0,0 +1,109 @@
+package ch.cyberduck.core.serializer.impl.dd;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ProtocolFactory;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.transfer.DownloadTransfer;
+import ch.cyberduck.core.transfer.Transfer;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import com.dd.plist.PropertyListFormatException;
+
+import static org.junit.Assert.*;
+
+public class PlistJournalWriterTest {
+
+    @Test
+    public void testAppendChanges() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), String.format("%s.cyberducktransfer", UUID.randomUUID()));
+        final Transfer transfer = new DownloadTransfer(new Host(new TestProtocol(), "t"), new Path("/f", EnumSet.of(Path.Type.file)),
+            new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        transfer.setSize(10L);
+        final PlistJournalWriter<Transfer> writer = new PlistJournalWriter<>(2);
+        final TransferPlistReader reader = new TransferPlistReader(new ProtocolFactory(Collections.singleton(new TestProtocol())));
+        try {
+            writer.write(transfer, file);
+            final long snapshot = file.attributes().getSize();
+            assertEquals(10L, (long) reader.read(file).getSize());
+            transfer.setTransferred(5L);
+            writer.write(transfer, file);
+            final long delta = file.attributes().getSize();
+            assertTrue(delta > snapshot);
+            assertEquals(5L, (long) reader.read(file).getTransferred());
+            // Unchanged
+            writer.write(transfer, file);
+            assertEquals(delta, file.attributes().getSize());
+            transfer.setTransferred(7L);
+            writer.write(transfer, file);
+            final long appended = file.attributes().getSize();
+            assertEquals(7L, (long) reader.read(file).getTransferred());
+            // Compaction after threshold
+            transfer.setTransferred(9L);
+            writer.write(transfer, file);
+            assertTrue(file.attributes().getSize() < appended);
+            final Transfer read = reader.read(file);
+            assertEquals(9L, (long) read.getTransferred());
+            assertEquals(transfer.getRoot(), read.getRoot());
+            assertEquals(transfer.getUuid(), read.getUuid());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSnapshotChangedRootAttributes() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), String.format("%s.cyberducktransfer", UUID.randomUUID()));
+        final Path root = new Path("/f", EnumSet.of(Path.Type.file));
+        final Transfer transfer = new DownloadTransfer(new Host(new TestProtocol(), "t"), root,
+            new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        final PlistJournalWriter<Transfer> writer = new PlistJournalWriter<>(100);
+        final TransferPlistReader reader = new TransferPlistReader(new ProtocolFactory(Collections.singleton(new TestProtocol())));
+        try {
+            writer.write(transfer, file);
+            root.attributes().setVersionId("v1");
+            writer.write(transfer, file);
+            assertEquals("v1", reader.read(file).getRoot().remote.attributes().getVersionId());
+        }
+        finally {
+            writer.delete(file);
+        }
+        assertFalse(file.exists());
+    }
+
+    @Test(expected = PropertyListFormatException.class)
+    public void testParseInvalidRecordLength() throws Exception {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(buffer);
+        out.write(PlistJournalParser.MAGIC);
+        out.writeInt(-1);
+        out.writeByte(PlistJournalParser.SNAPSHOT);
+        out.flush();
+        new PlistJournalParser().parse(new ByteArrayInputStream(buffer.toByteArray()));
+    }
+}
@@ -0,0 +1,87 @@
+package ch.cyberduck.core.shared;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.RecursiveList;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PrefetchingListServiceTest {
+
+    @Test
+    public void testListSubtree() throws Exception {
+        final Path root = new Path("/r", EnumSet.of(Path.Type.directory));
+        final Path a = new Path(root, "a", EnumSet.of(Path.Type.directory));
+        final Path f = new Path(a, "f", EnumSet.of(Path.Type.file));
+        final AtomicInteger recursive = new AtomicInteger();
+        final AtomicInteger single = new AtomicInteger();
+        final ListService service = new PrefetchingListService(new ListService() {
+            @Override
+            public AttributedList<Path> list(final Path directory, final ListProgressListener listener) {
+                single.incrementAndGet();
+                return AttributedList.emptyList();
+            }
+        }, new RecursiveList() {
+            @Override
+            public Map<Path, AttributedList<Path>> list(final Path directory, final ListProgressListener listener) {
+                recursive.incrementAndGet();
+                final Map<Path, AttributedList<Path>> tree = new LinkedHashMap<>();
+                tree.put(root, new AttributedList<>(Collections.singletonList(a)));
+                tree.put(a, new AttributedList<>(Collections.singletonList(f)));
+                return tree;
+            }
+        }, new PathCache(Integer.MAX_VALUE));
+        assertEquals(Collections.singletonList(a), service.list(root, new DisabledListProgressListener()).toList());
+        assertEquals(Collections.singletonList(f), service.list(a, new DisabledListProgressListener()).toList());
+        assertEquals(1, recursive.get());
+        assertEquals(0, single.get());
+    }
+
+    @Test
+    public void testFallback() throws Exception {
+        final Path root = new Path("/r", EnumSet.of(Path.Type.directory));
+        final AtomicInteger single = new AtomicInteger();
+        final ListService service = new PrefetchingListService(new ListService() {
+            @Override
+            public AttributedList<Path> list(final Path directory, final ListProgressListener listener) {
+                single.incrementAndGet();
+                return AttributedList.emptyList();
+            }
+        }, new RecursiveList() {
+            @Override
+            public Map<Path, AttributedList<Path>> list(final Path directory, final ListProgressListener listener) throws UnsupportedException {
+                throw new UnsupportedException();
+            }
+        }, new PathCache(Integer.MAX_VALUE));
+        assertTrue(service.list(root, new DisabledListProgressListener()).isEmpty());
+        assertEquals(1, single.get());
+    }
+}
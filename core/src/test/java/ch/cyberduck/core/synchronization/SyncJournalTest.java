@@ -0,0 +1,72 @@
+package ch.cyberduck.core.synchronization;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.local.DefaultLocalTouchFeature;
+
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class SyncJournalTest {
+
+    @Test
+    public void testRecordLoad() throws Exception {
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        new DefaultLocalTouchFeature().touch(local);
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), String.format("%s.journal", UUID.randomUUID()));
+        final Path remote = new Path("/f", EnumSet.of(Path.Type.file), new PathAttributes().withETag("a"));
+        final SyncJournal journal = new SyncJournal(file);
+        assertFalse(journal.isUnchanged(remote, local));
+        journal.record(remote, remote.attributes(), local);
+        assertTrue(journal.isUnchanged(remote, local));
+        journal.save();
+        final SyncJournal loaded = new SyncJournal(file).load();
+        assertEquals(1, loaded.size());
+        assertTrue(loaded.isUnchanged(remote, local));
+        assertFalse(loaded.isUnchanged(new Path("/f", EnumSet.of(Path.Type.file), new PathAttributes().withETag("b")), local));
+        try (OutputStream out = local.getOutputStream(true)) {
+            out.write(1);
+        }
+        assertFalse(loaded.isUnchanged(remote, local));
+        file.delete();
+        local.delete();
+    }
+
+    @Test
+    public void testRecordUnknownRemoteState() throws Exception {
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        new DefaultLocalTouchFeature().touch(local);
+        final SyncJournal journal = new SyncJournal(new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        final Path remote = new Path("/f", EnumSet.of(Path.Type.file));
+        journal.record(remote, remote.attributes(), local);
+        assertEquals(0, journal.size());
+        assertFalse(journal.isUnchanged(remote, local));
+        local.delete();
+    }
+
+    @Test
+    public void testLoadMissing() {
+        assertEquals(0, new SyncJournal(new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString())).load().size());
+    }
+}
@@ -0,0 +1,101 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadPoolTest {
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        assumeTrue(VirtualThreadPool.isSupported());
+        final VirtualThreadPool pool = new VirtualThreadPool("test", 3, new LoggingUncaughtExceptionHandler());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            final int n = i;
+            futures.add(pool.execute(() -> {
+                max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5L);
+                running.decrementAndGet();
+                return n;
+            }));
+        }
+        for(int i = 0; i < futures.size(); i++) {
+            assertEquals(i, futures.get(i).get().intValue());
+        }
+        assertTrue(max.get() <= 3);
+        pool.shutdown(true);
+        assertTrue(pool.executor().isTerminated());
+    }
+
+    @Test
+    public void testShutdownNowReturnsPending() throws Exception {
+        assumeTrue(VirtualThreadPool.isSupported());
+        final VirtualThreadPool pool = new VirtualThreadPool("test", 1, new LoggingUncaughtExceptionHandler());
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger count = new AtomicInteger();
+        pool.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10000L);
+            }
+            catch(InterruptedException e) {
+                // Interrupted by shutdown
+            }
+            return null;
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        pool.execute(count::incrementAndGet);
+        final List<Runnable> pending = pool.executor().shutdownNow();
+        assertEquals(1, pending.size());
+        assertTrue(pool.executor().awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    public void testRunOnCallerWhenQueueFull() throws Exception {
+        assumeTrue(VirtualThreadPool.isSupported());
+        final VirtualThreadPool pool = new VirtualThreadPool("test", 1, new LinkedBlockingQueue<>(1), new LoggingUncaughtExceptionHandler());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch lock = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            lock.await();
+            return null;
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        // Waiting for permit
+        final Future<Thread> queued = pool.execute(Thread::currentThread);
+        // Exceeds queue capacity
+        assertSame(Thread.currentThread(), pool.execute(Thread::currentThread).get());
+        lock.countDown();
+        assertNotSame(Thread.currentThread(), queued.get());
+        pool.shutdown(true);
+    }
+}
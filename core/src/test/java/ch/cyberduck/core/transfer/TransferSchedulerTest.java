@@ -0,0 +1,156 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.threading.DefaultThreadPool;
+import ch.cyberduck.core.threading.ThreadPool;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TransferSchedulerTest {
+
+    @Test
+    public void testConnectionBudget() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(host -> 2, new DefaultThreadPool(10));
+        final Host host = new Host(new TestProtocol());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(20);
+        for(int i = 0; i < 4; i++) {
+            final DownloadTransfer transfer = new DownloadTransfer(host, new Path("/t" + i, EnumSet.of(Path.Type.file)), null);
+            for(int j = 0; j < 5; j++) {
+                scheduler.execute(host, transfer, ThreadPool.Priority.norm, () -> {
+                    max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(10L);
+                    }
+                    catch(InterruptedException e) {
+                        fail();
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(2, max.get());
+    }
+
+    @Test
+    public void testPriority() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(host -> 1, new DefaultThreadPool(2));
+        final Host host = new Host(new TestProtocol());
+        final DownloadTransfer blocking = new DownloadTransfer(host, new Path("/b", EnumSet.of(Path.Type.file)), null);
+        final DownloadTransfer bulk = new DownloadTransfer(host, new Path("/bulk", EnumSet.of(Path.Type.file)), null);
+        final DownloadTransfer interactive = new DownloadTransfer(host, new Path("/interactive", EnumSet.of(Path.Type.file)), null);
+        final CountDownLatch block = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(7);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        scheduler.execute(host, blocking, ThreadPool.Priority.norm, () -> {
+            try {
+                block.await();
+            }
+            catch(InterruptedException e) {
+                fail();
+            }
+            done.countDown();
+        });
+        for(int i = 0; i < 3; i++) {
+            scheduler.execute(host, bulk, ThreadPool.Priority.low, () -> {
+                order.add("bulk");
+                done.countDown();
+            });
+        }
+        for(int i = 0; i < 3; i++) {
+            scheduler.execute(host, interactive, ThreadPool.Priority.max, () -> {
+                order.add("interactive");
+                done.countDown();
+            });
+        }
+        block.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("interactive", "interactive", "interactive", "bulk", "bulk", "bulk"), order);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final TransferScheduler scheduler = new TransferScheduler(host -> 1, new DefaultThreadPool(2));
+        final Host host = new Host(new TestProtocol());
+        final DownloadTransfer transfer = new DownloadTransfer(host, new Path("/t", EnumSet.of(Path.Type.file)), null);
+        final CountDownLatch block = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger count = new AtomicInteger();
+        scheduler.execute(host, transfer, ThreadPool.Priority.norm, () -> {
+            started.countDown();
+            try {
+                block.await();
+            }
+            catch(InterruptedException e) {
+                fail();
+            }
+        });
+        scheduler.execute(host, transfer, ThreadPool.Priority.norm, count::incrementAndGet);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertEquals(1, scheduler.cancel(transfer));
+        block.countDown();
+        Thread.sleep(100L);
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    public void testLimitRefreshedForIdleHost() throws Exception {
+        final AtomicInteger limit = new AtomicInteger(1);
+        final TransferScheduler scheduler = new TransferScheduler(host -> limit.get(), new DefaultThreadPool(10));
+        final Host host = new Host(new TestProtocol());
+        final DownloadTransfer transfer = new DownloadTransfer(host, new Path("/t", EnumSet.of(Path.Type.file)), null);
+        final CountDownLatch first = new CountDownLatch(1);
+        scheduler.execute(host, transfer, ThreadPool.Priority.norm, first::countDown);
+        assertTrue(first.await(10, TimeUnit.SECONDS));
+        scheduler.cancel(transfer);
+        // Queue of host is released when idle
+        Thread.sleep(100L);
+        limit.set(2);
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch block = new CountDownLatch(1);
+        for(int i = 0; i < 2; i++) {
+            scheduler.execute(host, transfer, ThreadPool.Priority.norm, () -> {
+                started.countDown();
+                try {
+                    block.await();
+                }
+                catch(InterruptedException e) {
+                    fail();
+                }
+            });
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        block.countDown();
+    }
+}
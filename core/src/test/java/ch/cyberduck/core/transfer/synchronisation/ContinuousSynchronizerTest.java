@@ -0,0 +1,139 @@
+package ch.cyberduck.core.transfer.synchronisation;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.NullSession;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ContinuousSynchronizerTest {
+
+    @Test
+    public void testDrainCoalesceChildren() {
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final ContinuousSynchronizer synchronizer = new ContinuousSynchronizer(new NullSession(new Host(new TestProtocol())),
+            new TransferItem(directory, local), items -> Collections.emptyMap());
+        try {
+            synchronizer.changed(new Path(directory, "f", EnumSet.of(Path.Type.file)));
+            synchronizer.changed(new Path(new Path(directory, "a", EnumSet.of(Path.Type.directory)), "f", EnumSet.of(Path.Type.file)));
+            synchronizer.changed(new Path(directory, "a", EnumSet.of(Path.Type.directory)));
+            final List<TransferItem> items = synchronizer.drain();
+            assertEquals(2, items.size());
+            assertEquals(new Path(directory, "f", EnumSet.of(Path.Type.file)), items.get(0).remote);
+            assertEquals(new Local(local, "f"), items.get(0).local);
+            assertEquals(new Path(directory, "a", EnumSet.of(Path.Type.directory)), items.get(1).remote);
+            assertEquals(new Local(local, "a"), items.get(1).local);
+            assertEquals(Collections.emptyList(), synchronizer.drain());
+            synchronizer.changed(new Path(directory, "f", EnumSet.of(Path.Type.file)));
+            synchronizer.changed(new TransferItem(directory, local));
+            assertEquals(Collections.singletonList(new TransferItem(directory, local)), synchronizer.drain());
+        }
+        finally {
+            synchronizer.close();
+        }
+    }
+
+    @Test
+    public void testLocalChange() {
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final ContinuousSynchronizer synchronizer = new ContinuousSynchronizer(new NullSession(new Host(new TestProtocol())),
+            new TransferItem(directory, local), items -> Collections.emptyMap());
+        try {
+            synchronizer.changed(new Local(new Local(local, "a"), "f"), false);
+            final List<TransferItem> items = synchronizer.drain();
+            assertEquals(1, items.size());
+            assertEquals(new Path("/d/a/f", EnumSet.of(Path.Type.file)), items.get(0).remote);
+            assertEquals(new Local(new Local(local, "a"), "f"), items.get(0).local);
+            // Outside of synchronized folder
+            synchronizer.changed(new Local(System.getProperty("java.io.tmpdir"), "f"), false);
+            assertTrue(synchronizer.drain().isEmpty());
+        }
+        finally {
+            synchronizer.close();
+        }
+    }
+
+    @Test
+    public void testIgnoreChangeWrittenBySynchronization() throws Exception {
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Path folder = new Path(directory, "a", EnumSet.of(Path.Type.directory));
+        final Local file = new Local(new Local(local, "a"), "f");
+        final ContinuousSynchronizer[] synchronizer = new ContinuousSynchronizer[1];
+        synchronizer[0] = new ContinuousSynchronizer(new NullSession(new Host(new TestProtocol())),
+            new TransferItem(directory, local), items -> {
+            file.getParent().mkdir();
+            try (OutputStream out = file.getOutputStream(false)) {
+                out.write(new byte[]{1, 2, 3});
+            }
+            catch(IOException e) {
+                fail();
+            }
+            // Notifications while running for files written
+            synchronizer[0].changed(file, false);
+            synchronizer[0].changed(new Path(folder, "f", EnumSet.of(Path.Type.file), new PathAttributes().withSize(3L).withETag("e1")));
+            // Changed by user while running
+            synchronizer[0].changed(new Path(folder, "g", EnumSet.of(Path.Type.file)));
+            return Collections.singletonMap(new TransferItem(new Path(folder, "f", EnumSet.of(Path.Type.file)), file),
+                new TransferStatus().withResponse(new PathAttributes().withSize(3L).withETag("e1")).complete());
+        });
+        try {
+            synchronizer[0].changed(folder);
+            synchronizer[0].flush();
+            assertEquals(Collections.singletonList(new Path(folder, "g", EnumSet.of(Path.Type.file))),
+                synchronizer[0].drain().stream().map(item -> item.remote).collect(Collectors.toList()));
+            // Notifications for files written
+            synchronizer[0].changed(new Path(folder, "f", EnumSet.of(Path.Type.file), new PathAttributes().withSize(3L).withETag("e1")));
+            synchronizer[0].changed(file, false);
+            assertTrue(synchronizer[0].drain().isEmpty());
+            // Modified by user
+            synchronizer[0].changed(new Path(folder, "f", EnumSet.of(Path.Type.file), new PathAttributes().withSize(3L).withETag("e2")));
+            assertEquals(1, synchronizer[0].drain().size());
+            try (OutputStream out = file.getOutputStream(true)) {
+                out.write(new byte[]{4});
+            }
+            synchronizer[0].changed(file, false);
+            assertEquals(1, synchronizer[0].drain().size());
+            synchronizer[0].changed(new Path(directory, "f", EnumSet.of(Path.Type.file)));
+            assertEquals(1, synchronizer[0].drain().size());
+        }
+        finally {
+            synchronizer[0].close();
+            file.delete();
+            file.getParent().delete();
+            local.delete();
+        }
+    }
+}
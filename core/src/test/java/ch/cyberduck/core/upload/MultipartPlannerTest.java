@@ -0,0 +1,68 @@
+package ch.cyberduck.core.upload;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class MultipartPlannerTest {
+
+    @Test
+    public void testPlan() {
+        final List<MultipartPlanner.Part> parts = new MultipartPlanner(10L).plan(
+            new TransferStatus().withLength(25L), Collections.emptyMap());
+        assertEquals(3, parts.size());
+        assertEquals(1, parts.get(0).getNumber());
+        assertEquals(0L, parts.get(0).getOffset());
+        assertEquals(10L, parts.get(0).getLength());
+        assertEquals(3, parts.get(2).getNumber());
+        assertEquals(20L, parts.get(2).getOffset());
+        assertEquals(5L, parts.get(2).getLength());
+    }
+
+    @Test
+    public void testPlanSkipCompleted() {
+        final Map<Integer, Long> completed = new HashMap<>();
+        completed.put(1, 10L);
+        completed.put(3, 10L);
+        final List<MultipartPlanner.Part> parts = new MultipartPlanner(10L).plan(
+            new TransferStatus().withOffset(20L).withLength(15L), completed);
+        assertEquals(2, parts.size());
+        assertEquals(2, parts.get(0).getNumber());
+        assertEquals(10L, parts.get(0).getOffset());
+        assertEquals(10L, parts.get(0).getLength());
+        assertEquals(4, parts.get(1).getNumber());
+        assertEquals(30L, parts.get(1).getOffset());
+        assertEquals(5L, parts.get(1).getLength());
+    }
+
+    @Test
+    public void testPlanEmpty() {
+        final List<MultipartPlanner.Part> parts = new MultipartPlanner(10L).plan(
+            new TransferStatus().withLength(0L), Collections.emptyMap());
+        assertEquals(1, parts.size());
+        assertEquals(1, parts.get(0).getNumber());
+        assertEquals(0L, parts.get(0).getLength());
+    }
+}
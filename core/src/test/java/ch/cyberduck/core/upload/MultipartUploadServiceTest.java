@@ -0,0 +1,244 @@
+package ch.cyberduck.core.upload;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.BytecountStreamListener;
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DisabledConnectionCallback;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.NullLocal;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionRefusedException;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.DisabledStreamListener;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.junit.Test;
+
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import static org.junit.Assert.*;
+
+public class MultipartUploadServiceTest {
+
+    @Test
+    public void testUpload() throws Exception {
+        final FakeProvider provider = new FakeProvider();
+        final List<TransferStatus> reply = new MultipartUploadService<>(new Host(new TestProtocol()), provider, 2).upload(
+            new Path("/f", EnumSet.of(Path.Type.file)), this.local(), new BandwidthThrottle(BandwidthThrottle.UNLIMITED),
+            new DisabledStreamListener(), new TransferStatus().withLength(25L), new DisabledConnectionCallback());
+        assertTrue(provider.started.get());
+        assertEquals(3, reply.size());
+        assertEquals(1, reply.get(0).getPart(), 0L);
+        assertEquals(0L, reply.get(0).getOffset());
+        assertEquals(2, reply.get(1).getPart(), 0L);
+        assertEquals(3, reply.get(2).getPart(), 0L);
+        assertEquals(20L, reply.get(2).getOffset());
+        assertEquals(5L, reply.get(2).getLength());
+    }
+
+    @Test
+    public void testBoundPartsInFlight() throws Exception {
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        final FakeProvider provider = new FakeProvider() {
+            @Override
+            public void prepare(final String upload, final Path file, final Local local, final TransferStatus part) {
+                maximum.accumulateAndGet(pending.incrementAndGet(), Math::max);
+            }
+
+            @Override
+            public TransferStatus put(final String upload, final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                                      final TransferStatus overall, final TransferStatus part, final ConnectionCallback callback) throws BackgroundException {
+                Uninterruptibles.sleepUninterruptibly(20L, TimeUnit.MILLISECONDS);
+                final TransferStatus response = super.put(upload, file, local, throttle, listener, overall, part, callback);
+                pending.decrementAndGet();
+                return response;
+            }
+        };
+        final List<TransferStatus> reply = new MultipartUploadService<>(new Host(new TestProtocol()), provider, 2).upload(
+            new Path("/f", EnumSet.of(Path.Type.file)), this.local(), new BandwidthThrottle(BandwidthThrottle.UNLIMITED),
+            new DisabledStreamListener(), new TransferStatus().withLength(80L), new DisabledConnectionCallback());
+        assertEquals(8, reply.size());
+        // No part is submitted before a permit is released by a completed part
+        assertTrue(maximum.get() <= 2);
+    }
+
+    @Test
+    public void testStopAfterFailure() throws Exception {
+        final AtomicBoolean completed = new AtomicBoolean();
+        final FakeProvider provider = new FakeProvider() {
+            @Override
+            public TransferStatus put(final String upload, final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                                      final TransferStatus overall, final TransferStatus part, final ConnectionCallback callback) throws BackgroundException {
+                if(part.getPart() == 2) {
+                    attempts.computeIfAbsent(part.getPart(), n -> new AtomicInteger()).incrementAndGet();
+                    throw new AccessDeniedException("f");
+                }
+                return super.put(upload, file, local, throttle, listener, overall, part, callback);
+            }
+
+            @Override
+            public List<TransferStatus> complete(final String upload, final Path file, final TransferStatus status, final List<TransferStatus> parts) {
+                completed.set(true);
+                return parts;
+            }
+        };
+        try {
+            new MultipartUploadService<>(new Host(new TestProtocol()), provider, 1).upload(
+                new Path("/f", EnumSet.of(Path.Type.file)), this.local(), new BandwidthThrottle(BandwidthThrottle.UNLIMITED),
+                new DisabledStreamListener(), new TransferStatus().withLength(50L), new DisabledConnectionCallback());
+            fail();
+        }
+        catch(AccessDeniedException e) {
+            // Expected
+        }
+        assertFalse(completed.get());
+        // No retry for application failure
+        assertEquals(1, provider.attempts.get(2).get());
+        // No further parts submitted after failure
+        assertEquals(Collections.singleton(2), provider.attempts.keySet());
+        assertEquals(Collections.singleton(1), provider.uploaded);
+    }
+
+    @Test
+    public void testRetryNetworkFailure() throws Exception {
+        final FakeProvider provider = new FakeProvider() {
+            @Override
+            public TransferStatus put(final String upload, final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                                      final TransferStatus overall, final TransferStatus part, final ConnectionCallback callback) throws BackgroundException {
+                if(attempts.computeIfAbsent(part.getPart(), n -> new AtomicInteger()).incrementAndGet() == 1) {
+                    throw new ConnectionRefusedException("f", new SocketException());
+                }
+                return super.put(upload, file, local, throttle, listener, overall, part, callback);
+            }
+        };
+        final List<TransferStatus> reply = new MultipartUploadService<>(new Host(new TestProtocol()), provider, 2).upload(
+            new Path("/f", EnumSet.of(Path.Type.file)), this.local(), new BandwidthThrottle(BandwidthThrottle.UNLIMITED),
+            new DisabledStreamListener(), new TransferStatus().withLength(20L), new DisabledConnectionCallback());
+        assertEquals(2, reply.size());
+        assertEquals(2, provider.attempts.get(1).get());
+        assertEquals(2, provider.attempts.get(2).get());
+    }
+
+    @Test
+    public void testResumeSkipCompleted() throws Exception {
+        final FakeProvider provider = new FakeProvider() {
+            @Override
+            public String find(final Path file, final TransferStatus status) {
+                return "pending";
+            }
+
+            @Override
+            public Map<Integer, TransferStatus> list(final String upload) {
+                final TransferStatus part = new TransferStatus().withOffset(0L).withLength(10L);
+                part.setPart(1);
+                return Collections.singletonMap(1, part);
+            }
+        };
+        final List<TransferStatus> reply = new MultipartUploadService<>(new Host(new TestProtocol()), provider, 2).upload(
+            new Path("/f", EnumSet.of(Path.Type.file)), this.local(), new BandwidthThrottle(BandwidthThrottle.UNLIMITED),
+            new DisabledStreamListener(), new TransferStatus().append(true).withOffset(10L).withLength(15L), new DisabledConnectionCallback());
+        assertFalse(provider.started.get());
+        assertEquals(3, reply.size());
+        assertEquals(1, reply.get(0).getPart(), 0L);
+        assertEquals(10L, reply.get(1).getOffset());
+        assertEquals(20L, reply.get(2).getOffset());
+        assertEquals(5L, reply.get(2).getLength());
+        // Only missing parts uploaded
+        assertEquals(new HashSet<>(Arrays.asList(2, 3)), provider.uploaded);
+    }
+
+    @Test
+    public void testRetryDelay() {
+        final PartRetryCallable<Void> callable = new PartRetryCallable<>(new Host(new TestProtocol()), new BackgroundExceptionCallable<Void>() {
+            @Override
+            public Void call() {
+                return null;
+            }
+        }, new TransferStatus(), new BytecountStreamListener(), 100L, 400L);
+        for(int i = 0; i < 100; i++) {
+            assertTrue(callable.delay(0) <= 100L);
+            assertTrue(callable.delay(1) <= 200L);
+            assertTrue(callable.delay(10) <= 400L);
+            assertTrue(callable.delay(32) >= 0L);
+        }
+        assertEquals(0L, new PartRetryCallable<>(new Host(new TestProtocol()), new BackgroundExceptionCallable<Void>() {
+            @Override
+            public Void call() {
+                return null;
+            }
+        }, new TransferStatus(), new BytecountStreamListener(), 0L, 400L).delay(5));
+    }
+
+    private Local local() {
+        return new NullLocal(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+    }
+
+    private static class FakeProvider implements MultipartUploadProvider<List<TransferStatus>, String, TransferStatus> {
+        protected final AtomicBoolean started = new AtomicBoolean();
+        protected final Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        protected final Set<Integer> uploaded = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public String start(final Path file, final TransferStatus status) {
+            started.set(true);
+            return "upload";
+        }
+
+        @Override
+        public long partsize(final String upload, final long size) {
+            return 10L;
+        }
+
+        @Override
+        public TransferStatus put(final String upload, final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                                  final TransferStatus overall, final TransferStatus part, final ConnectionCallback callback) throws BackgroundException {
+            uploaded.add(part.getPart());
+            return part;
+        }
+
+        @Override
+        public long length(final TransferStatus part) {
+            return part.getLength();
+        }
+
+        @Override
+        public List<TransferStatus> complete(final String upload, final Path file, final TransferStatus status, final List<TransferStatus> parts) {
+            return parts;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ConcurrentWriteQueueTest {
+
+    @Test
+    public void testAwait() throws Exception {
+        final ConcurrentWriteQueue queue = new ConcurrentWriteQueue(2);
+        final AtomicInteger count = new AtomicInteger();
+        try {
+            for(int i = 0; i < 100; i++) {
+                queue.submit(count::incrementAndGet);
+            }
+            queue.await();
+            assertEquals(100, count.get());
+        }
+        finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test(expected = AccessDeniedException.class)
+    public void testFailure() throws Exception {
+        final ConcurrentWriteQueue queue = new ConcurrentWriteQueue(2);
+        try {
+            queue.submit(() -> {
+                throw new AccessDeniedException();
+            });
+            queue.await();
+            fail();
+        }
+        finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test(expected = ConnectionCanceledException.class)
+    public void testCancelAwait() throws Exception {
+        final AtomicBoolean canceled = new AtomicBoolean();
+        final ConcurrentWriteQueue queue = new ConcurrentWriteQueue(2, () -> {
+            if(canceled.get()) {
+                throw new ConnectionCanceledException();
+            }
+        });
+        final CountDownLatch lock = new CountDownLatch(1);
+        try {
+            queue.submit(() -> Uninterruptibles.awaitUninterruptibly(lock));
+            canceled.set(true);
+            queue.await();
+            fail();
+        }
+        finally {
+            lock.countDown();
+            queue.shutdown();
+        }
+    }
+}
@@ -17,6 +17,7 @@ import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.AttributesFinder;
+import ch.cyberduck.core.features.Readiness;
 import ch.cyberduck.core.io.DisabledStreamListener;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.DisabledNotificationService;
@@ -34,9 +35,13 @@ import ch.cyberduck.core.transfer.download.AbstractDownloadFilter;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -171,6 +176,76 @@ public class SingleTransferWorkerTest {
         assertTrue(worker.getCache().isEmpty());
     }
 
+    @Test
+    public void testUploadReadiness() throws Exception {
+        final Path root = new Path("/t", EnumSet.of(Path.Type.directory));
+        final NullLocal local = new NullLocal("l") {
+            @Override
+            public AttributedList<Local> list() {
+                AttributedList<Local> l = new AttributedList<>();
+                l.add(new NullLocal(this.getAbsolute(), "a") {
+                    @Override
+                    public boolean exists() {
+                        return true;
+                    }
+                });
+                l.add(new NullLocal(this.getAbsolute(), "b") {
+                    @Override
+                    public boolean exists() {
+                        return true;
+                    }
+                });
+                return l;
+            }
+
+            @Override
+            public boolean exists() {
+                return true;
+            }
+        };
+        final List<String> transferred = new ArrayList<>();
+        final Transfer t = new UploadTransfer(new Host(new TestProtocol()), root, local) {
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, Local local,
+                                 final TransferOptions options, final TransferStatus overall, final TransferStatus segment,
+                                 final ConnectionCallback connectionCallback,
+                                 final ProgressListener listener, final StreamListener streamListener) {
+                transferred.add(file.getName());
+            }
+        };
+        final AtomicInteger polls = new AtomicInteger();
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                return new AttributedList<>(Collections.singletonList(new Path("/t", EnumSet.of(Path.Type.directory))));
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Readiness.class) {
+                    return (T) (Readiness) (transferType, files) -> {
+                        // Report files ready one at a time in reverse order
+                        polls.incrementAndGet();
+                        final List<TransferItem> pending = new ArrayList<>(files.keySet());
+                        return Collections.singletonList(pending.get(pending.size() - 1));
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final SingleTransferWorker worker = new SingleTransferWorker(session, session, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return TransferAction.overwrite;
+            }
+        }, new DisabledTransferErrorCallback(),
+            new DisabledProgressListener(), new DisabledStreamListener(), new DisabledLoginCallback(), new DisabledNotificationService());
+        worker.run(session);
+        assertEquals(Arrays.asList("t", "b", "a"), transferred);
+        assertEquals(2, polls.get());
+    }
+
     @Test
     public void testDownloadPrepareOverride() throws Exception {
         final Path child = new Path("/t/c", EnumSet.of(Path.Type.file));
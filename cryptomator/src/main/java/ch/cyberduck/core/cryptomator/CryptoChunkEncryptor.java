@@ -0,0 +1,56 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.cryptomator.cryptolib.api.FileContentCryptor;
+import org.cryptomator.cryptolib.api.FileHeader;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+
+/**
+ * Encrypt single file content chunk
+ */
+public final class CryptoChunkEncryptor implements Callable<ByteBuffer> {
+
+    private final FileContentCryptor cryptor;
+    private final FileHeader header;
+    private final ByteBuffer cleartext;
+    private final long chunkIndex;
+    private final byte[] nonce;
+
+    public CryptoChunkEncryptor(final FileContentCryptor cryptor, final FileHeader header, final ByteBuffer cleartext,
+                                final long chunkIndex, final byte[] nonce) {
+        this.cryptor = cryptor;
+        this.header = header;
+        this.cleartext = cleartext;
+        this.chunkIndex = chunkIndex;
+        this.nonce = nonce;
+    }
+
+    @Override
+    public ByteBuffer call() {
+        return cryptor.encryptChunk(cleartext, chunkIndex, header, nonce);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CryptoChunkEncryptor{");
+        sb.append("chunkIndex=").append(chunkIndex);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.cryptomator.cryptolib.api.CryptoException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+public final class CryptoChunkFuture {
+
+    private CryptoChunkFuture() {
+    }
+
+    /**
+     * Wait for chunk and map failure
+     *
+     * @param chunk Pending chunk
+     * @return Chunk contents
+     */
+    public static ByteBuffer await(final Future<ByteBuffer> chunk) throws IOException {
+        try {
+            return chunk.get();
+        }
+        catch(InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        }
+        catch(ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if(cause instanceof CryptoException) {
+                throw new IOException(cause.getMessage(), new CryptoAuthenticationException(cause.getMessage(), (CryptoException) cause));
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+}
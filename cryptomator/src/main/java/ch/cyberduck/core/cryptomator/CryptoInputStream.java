@@ -31,7 +31,14 @@ public class CryptoInputStream extends ProxyInputStream {
     private final FileContentCryptor cryptor;
     private final FileHeader header;
 
-    private ByteBuffer buffer = ByteBuffer.allocate(0);
+    /**
+     * Reused buffer for ciphertext read from proxy
+     */
+    private final ByteBuffer ciphertext;
+    /**
+     * Reused buffer for decrypted cleartext of current chunk
+     */
+    private final ByteBuffer buffer;
 
     /**
      * Position proxy content cryptor
@@ -46,14 +53,20 @@ public class CryptoInputStream extends ProxyInputStream {
         this.header = header;
         this.chunkSize = cryptor.ciphertextChunkSize();
         this.chunkIndexOffset = chunkIndexOffset;
+        this.ciphertext = ByteBuffer.allocate(chunkSize);
+        this.buffer = ByteBuffer.allocate(cryptor.cleartextChunkSize());
+        this.buffer.flip();
     }
 
     @Override
     public int read() throws IOException {
         if(!buffer.hasRemaining()) {
-            this.readNextChunk();
+            final int read = this.readNextChunk();
+            if(read == IOUtils.EOF) {
+                return IOUtils.EOF;
+            }
         }
-        return buffer.get();
+        return buffer.get() & 0xFF;
     }
 
     @Override
@@ -80,15 +93,17 @@ public class CryptoInputStream extends ProxyInputStream {
     }
 
     private int readNextChunk() throws IOException {
-        final ByteBuffer ciphertextBuf = ByteBuffer.allocate(chunkSize);
-        final int read = IOUtils.read(proxy, ciphertextBuf.array());
+        ciphertext.clear();
+        final int read = IOUtils.read(proxy, ciphertext.array());
         if(read == 0) {
             return IOUtils.EOF;
         }
-        ciphertextBuf.position(read);
-        ciphertextBuf.flip();
+        ciphertext.position(read);
+        ciphertext.flip();
         try {
-            buffer = cryptor.decryptChunk(ciphertextBuf, chunkIndexOffset++, header, true);
+            buffer.clear();
+            cryptor.decryptChunk(ciphertext, buffer, chunkIndexOffset++, header, true);
+            buffer.flip();
         }
         catch(CryptoException e) {
             throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
@@ -15,10 +15,11 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
-import ch.cyberduck.core.io.MemorySegementingOutputStream;
 import ch.cyberduck.core.random.NonceGenerator;
 
 import org.apache.commons.io.output.ProxyOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.cryptomator.cryptolib.api.CryptoException;
 import org.cryptomator.cryptolib.api.FileContentCryptor;
 import org.cryptomator.cryptolib.api.FileHeader;
@@ -26,14 +27,34 @@ import org.cryptomator.cryptolib.api.FileHeader;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Encrypts cleartext in chunks of {@link FileContentCryptor#cleartextChunkSize()}. A single cleartext buffer is
+ * reused for all chunks and full chunks contained in the written array are encrypted without intermediate copy.
+ */
 public class CryptoOutputStream extends ProxyOutputStream {
+    private static final Logger log = LogManager.getLogger(CryptoOutputStream.class);
+
+    private final FileContentCryptor cryptor;
+    private final FileHeader header;
+    private final NonceGenerator nonces;
+    /**
+     * Pending cleartext not yet filling a complete chunk
+     */
+    private final ByteBuffer cleartext;
+    private final AtomicBoolean close = new AtomicBoolean();
+
+    private long chunkIndexOffset;
 
     public CryptoOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
                               final NonceGenerator nonces, final long chunkIndexOffset) {
-        super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset),
-                cryptor.cleartextChunkSize()));
+        super(proxy);
+        this.cryptor = cryptor;
+        this.header = header;
+        this.nonces = nonces;
+        this.chunkIndexOffset = chunkIndexOffset;
+        this.cleartext = ByteBuffer.allocate(cryptor.cleartextChunkSize());
     }
 
     @Override
@@ -43,47 +64,80 @@ public class CryptoOutputStream extends ProxyOutputStream {
 
     @Override
     public void write(final byte[] b) throws IOException {
-        write(b, 0, b.length);
+        this.write(b, 0, b.length);
     }
 
-    private static final class EncryptingOutputStream extends ProxyOutputStream {
-        private final FileContentCryptor cryptor;
-        private final FileHeader header;
-        private final int chunksize;
-        private final NonceGenerator nonces;
-        private long chunkIndexOffset;
-
-        public EncryptingOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
-                                      final NonceGenerator nonces, final long chunkIndexOffset) {
-            super(proxy);
-            this.cryptor = cryptor;
-            this.header = header;
-            this.chunksize = cryptor.cleartextChunkSize();
-            this.nonces = nonces;
-            this.chunkIndexOffset = chunkIndexOffset;
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        if(cleartext.position() > 0) {
+            // Complete pending chunk first
+            final int n = Math.min(remaining, cleartext.remaining());
+            cleartext.put(b, offset, n);
+            offset += n;
+            remaining -= n;
+            if(cleartext.hasRemaining()) {
+                return;
+            }
+            cleartext.flip();
+            this.encrypt(cleartext);
+            cleartext.clear();
+        }
+        // Encrypt full chunks directly from caller array
+        while(remaining >= cleartext.capacity()) {
+            this.encrypt(ByteBuffer.wrap(b, offset, cleartext.capacity()));
+            offset += cleartext.capacity();
+            remaining -= cleartext.capacity();
+        }
+        if(remaining > 0) {
+            cleartext.put(b, offset, remaining);
         }
+    }
 
-        @Override
-        public void write(final byte[] b) throws IOException {
-            this.write(b, 0, b.length);
+    private void encrypt(final ByteBuffer chunk) throws IOException {
+        final ByteBuffer ciphertext;
+        try {
+            ciphertext = cryptor.encryptChunk(chunk, chunkIndexOffset++, header, nonces.next());
+        }
+        catch(CryptoException e) {
+            throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
         }
+        if(ciphertext.hasArray()) {
+            // Write from backing array without copy
+            out.write(ciphertext.array(), ciphertext.arrayOffset() + ciphertext.position(), ciphertext.remaining());
+        }
+        else {
+            final byte[] encrypted = new byte[ciphertext.remaining()];
+            ciphertext.get(encrypted);
+            out.write(encrypted);
+        }
+    }
 
-        @Override
-        public void write(final byte[] b, final int off, final int len) throws IOException {
-            try {
-                for(int chunkOffset = off; chunkOffset < len; chunkOffset += chunksize) {
-                    int chunkLen = Math.min(chunksize, len - chunkOffset);
-                    final ByteBuffer encryptedChunk = cryptor.encryptChunk(
-                        ByteBuffer.wrap(Arrays.copyOfRange(b, chunkOffset, chunkOffset + chunkLen)),
-                        chunkIndexOffset++, header, nonces.next());
-                    final byte[] encrypted = new byte[encryptedChunk.remaining()];
-                    encryptedChunk.get(encrypted);
-                    super.write(encrypted);
-                }
-            }
-            catch(CryptoException e) {
-                throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
+    /**
+     * Pending cleartext is only written when closing the stream as a partial chunk must be the last chunk of the file
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(close.get()) {
+            log.warn(String.format("Skip double close of stream %s", this));
+            return;
+        }
+        try {
+            if(cleartext.position() > 0) {
+                cleartext.flip();
+                this.encrypt(cleartext);
+                cleartext.clear();
             }
+            super.close();
+        }
+        finally {
+            close.set(true);
         }
     }
 }
@@ -0,0 +1,166 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.ProxyInputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.cryptomator.cryptolib.api.FileContentCryptor;
+import org.cryptomator.cryptolib.api.FileHeader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decrypts file content chunks concurrently on a worker pool. Ciphertext is read from the proxy stream ahead of the
+ * consumer for up to window number of chunks and decrypted chunks are returned in order.
+ */
+public class ParallelCryptoInputStream extends ProxyInputStream {
+    private static final Logger log = LogManager.getLogger(ParallelCryptoInputStream.class);
+
+    private final InputStream proxy;
+    private final FileContentCryptor cryptor;
+    private final FileHeader header;
+    private final ThreadPool pool;
+    private final int window;
+    private final int chunkSize;
+    /**
+     * Pending decryption of chunks in order of chunk index
+     */
+    private final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+    private final AtomicBoolean close = new AtomicBoolean();
+
+    private ByteBuffer buffer = ByteBuffer.allocate(0);
+    /**
+     * No more ciphertext available from proxy
+     */
+    private boolean eof;
+
+    /**
+     * Position proxy content cryptor
+     */
+    private long chunkIndexOffset;
+
+    public ParallelCryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
+                                     final long chunkIndexOffset, final int threads, final int window) {
+        this(proxy, cryptor, header, chunkIndexOffset, ThreadPoolFactory.get("cryptomator-decrypt", threads), window);
+    }
+
+    public ParallelCryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
+                                     final long chunkIndexOffset, final ThreadPool pool, final int window) {
+        super(proxy);
+        this.proxy = proxy;
+        this.cryptor = cryptor;
+        this.header = header;
+        this.chunkSize = cryptor.ciphertextChunkSize();
+        this.chunkIndexOffset = chunkIndexOffset;
+        this.pool = pool;
+        this.window = Math.max(1, window);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if(!buffer.hasRemaining()) {
+            final int read = this.readNextChunk();
+            if(read == IOUtils.EOF) {
+                return IOUtils.EOF;
+            }
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b) throws IOException {
+        return this.read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(final byte[] dst, final int off, final int len) throws IOException {
+        if(!buffer.hasRemaining()) {
+            final int read = this.readNextChunk();
+            if(read == IOUtils.EOF) {
+                return IOUtils.EOF;
+            }
+        }
+        final int read = Math.min(len, buffer.remaining());
+        buffer.get(dst, off, read);
+        return read;
+    }
+
+    @Override
+    public long skip(final long len) throws IOException {
+        return IOUtils.skip(this, len);
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    /**
+     * Fill read ahead window and wait for decryption of next chunk
+     *
+     * @return Number of cleartext bytes available or EOF
+     */
+    private int readNextChunk() throws IOException {
+        while(!eof && pending.size() < window) {
+            final byte[] ciphertext = new byte[chunkSize];
+            final int read = IOUtils.read(proxy, ciphertext);
+            if(read == 0) {
+                eof = true;
+                break;
+            }
+            if(read < chunkSize) {
+                // Last chunk
+                eof = true;
+            }
+            pending.add(pool.execute(new CryptoChunkDecryptor(cryptor, header, ByteBuffer.wrap(ciphertext, 0, read), chunkIndexOffset++)));
+        }
+        if(pending.isEmpty()) {
+            return IOUtils.EOF;
+        }
+        buffer = CryptoChunkFuture.await(pending.poll());
+        return buffer.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(close.get()) {
+            log.warn(String.format("Skip double close of stream %s", this));
+            return;
+        }
+        try {
+            super.close();
+        }
+        finally {
+            for(Future<ByteBuffer> f : pending) {
+                f.cancel(true);
+            }
+            pending.clear();
+            pool.shutdown(false);
+            close.set(true);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.random.NonceGenerator;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import org.apache.commons.io.output.ProxyOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.cryptomator.cryptolib.api.FileContentCryptor;
+import org.cryptomator.cryptolib.api.FileHeader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Encrypts file content chunks concurrently on a worker pool. Chunk index and nonce are assigned in order on the
+ * writing thread and encrypted chunks are written to the proxy stream in order. The number of chunks in flight is
+ * bounded by the window size.
+ */
+public class ParallelCryptoOutputStream extends ProxyOutputStream {
+    private static final Logger log = LogManager.getLogger(ParallelCryptoOutputStream.class);
+
+    private final FileContentCryptor cryptor;
+    private final FileHeader header;
+    private final NonceGenerator nonces;
+    private final ThreadPool pool;
+    private final int window;
+    /**
+     * Pending encryption of chunks in order of chunk index
+     */
+    private final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+    private final AtomicBoolean close = new AtomicBoolean();
+
+    private ByteBuffer cleartext;
+    private long chunkIndexOffset;
+
+    public ParallelCryptoOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
+                                      final NonceGenerator nonces, final long chunkIndexOffset,
+                                      final int threads, final int window) {
+        this(proxy, cryptor, header, nonces, chunkIndexOffset, ThreadPoolFactory.get("cryptomator-encrypt", threads), window);
+    }
+
+    public ParallelCryptoOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
+                                      final NonceGenerator nonces, final long chunkIndexOffset,
+                                      final ThreadPool pool, final int window) {
+        super(proxy);
+        this.cryptor = cryptor;
+        this.header = header;
+        this.nonces = nonces;
+        this.chunkIndexOffset = chunkIndexOffset;
+        this.pool = pool;
+        this.window = Math.max(1, window);
+        this.cleartext = ByteBuffer.allocate(cryptor.cleartextChunkSize());
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        throw new IOException(new UnsupportedOperationException());
+    }
+
+    @Override
+    public void write(final byte[] b) throws IOException {
+        this.write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while(remaining > 0) {
+            final int n = Math.min(remaining, cleartext.remaining());
+            cleartext.put(b, offset, n);
+            offset += n;
+            remaining -= n;
+            if(!cleartext.hasRemaining()) {
+                this.submit();
+            }
+        }
+    }
+
+    /**
+     * Hand off current cleartext buffer for encryption and write completed chunks once window is full
+     */
+    private void submit() throws IOException {
+        cleartext.flip();
+        pending.add(pool.execute(new CryptoChunkEncryptor(cryptor, header, cleartext, chunkIndexOffset++, nonces.next())));
+        // Buffer is owned by encryption task
+        cleartext = ByteBuffer.allocate(cryptor.cleartextChunkSize());
+        while(pending.size() >= window) {
+            this.drain();
+        }
+    }
+
+    /**
+     * Write next encrypted chunk in order
+     */
+    private void drain() throws IOException {
+        final ByteBuffer ciphertext = CryptoChunkFuture.await(pending.poll());
+        if(ciphertext.hasArray()) {
+            out.write(ciphertext.array(), ciphertext.arrayOffset() + ciphertext.position(), ciphertext.remaining());
+        }
+        else {
+            final byte[] encrypted = new byte[ciphertext.remaining()];
+            ciphertext.get(encrypted);
+            out.write(encrypted);
+        }
+    }
+
+    /**
+     * Pending cleartext is only written when closing the stream as a partial chunk must be the last chunk of the file
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(close.get()) {
+            log.warn(String.format("Skip double close of stream %s", this));
+            return;
+        }
+        try {
+            if(cleartext.position() > 0) {
+                this.submit();
+            }
+            while(!pending.isEmpty()) {
+                this.drain();
+            }
+            super.close();
+        }
+        finally {
+            for(Future<ByteBuffer> f : pending) {
+                f.cancel(true);
+            }
+            pool.shutdown(false);
+            close.set(true);
+        }
+    }
+}
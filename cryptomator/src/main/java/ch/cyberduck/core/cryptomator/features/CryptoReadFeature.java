@@ -21,8 +21,11 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.cryptomator.CryptoInputStream;
 import ch.cyberduck.core.cryptomator.CryptoVault;
+import ch.cyberduck.core.cryptomator.ParallelCryptoInputStream;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.preferences.PreferencesReader;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.io.IOUtils;
@@ -60,12 +63,12 @@ public class CryptoReadFeature implements Read {
                 IOUtils.closeQuietly(in);
                 final TransferStatus s = new TransferStatus(status).withLength(-1L);
                 s.setOffset(this.align(status.getOffset()));
-                final CryptoInputStream crypto = new CryptoInputStream(proxy.read(vault.encrypt(session, file), s, callback), vault.getFileContentCryptor(), header, this.chunk(status.getOffset()));
+                final InputStream crypto = this.decrypt(proxy.read(vault.encrypt(session, file), s, callback), header, this.chunk(status.getOffset()));
                 crypto.skip(this.position(status.getOffset()));
                 return crypto;
             }
             else {
-                return new CryptoInputStream(in, vault.getFileContentCryptor(), header, vault.numberOfChunks(status.getOffset()));
+                return this.decrypt(in, header, vault.numberOfChunks(status.getOffset()));
             }
         }
         catch(IOException e) {
@@ -73,6 +76,16 @@ public class CryptoReadFeature implements Read {
         }
     }
 
+    protected InputStream decrypt(final InputStream in, final FileHeader header, final long chunkIndexOffset) {
+        final PreferencesReader preferences = new HostPreferences(session.getHost());
+        if(preferences.getBoolean("cryptomator.content.parallel.enable")) {
+            return new ParallelCryptoInputStream(in, vault.getFileContentCryptor(), header, chunkIndexOffset,
+                    preferences.getInteger("cryptomator.content.parallel.threads"),
+                    preferences.getInteger("cryptomator.content.parallel.window"));
+        }
+        return new CryptoInputStream(in, vault.getFileContentCryptor(), header, chunkIndexOffset);
+    }
+
     protected long chunk(final long offset) {
         return offset / vault.getFileContentCryptor().cleartextChunkSize();
     }
@@ -23,17 +23,21 @@ import ch.cyberduck.core.Session;
 import ch.cyberduck.core.cryptomator.CryptoInvalidFilesizeException;
 import ch.cyberduck.core.cryptomator.CryptoOutputStream;
 import ch.cyberduck.core.cryptomator.CryptoVault;
+import ch.cyberduck.core.cryptomator.ParallelCryptoOutputStream;
 import ch.cyberduck.core.cryptomator.random.RotatingNonceGenerator;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.io.ChecksumCompute;
 import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.preferences.PreferencesReader;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 public class CryptoWriteFeature<Reply> implements Write<Reply> {
     private static final Logger log = LogManager.getLogger(CryptoWriteFeature.class);
@@ -74,9 +78,21 @@ public class CryptoWriteFeature<Reply> implements Write<Reply> {
             if(status.getOffset() == 0L) {
                 cleartext.write(status.getHeader().array());
             }
-            return new StatusOutputStream<Reply>(new CryptoOutputStream(cleartext,
-                    vault.getFileContentCryptor(), vault.getFileHeaderCryptor().decryptHeader(status.getHeader()),
-                    status.getNonces(), vault.numberOfChunks(status.getOffset()))) {
+            final PreferencesReader preferences = new HostPreferences(session.getHost());
+            final OutputStream ciphertext;
+            if(preferences.getBoolean("cryptomator.content.parallel.enable")) {
+                ciphertext = new ParallelCryptoOutputStream(cleartext,
+                        vault.getFileContentCryptor(), vault.getFileHeaderCryptor().decryptHeader(status.getHeader()),
+                        status.getNonces(), vault.numberOfChunks(status.getOffset()),
+                        preferences.getInteger("cryptomator.content.parallel.threads"),
+                        preferences.getInteger("cryptomator.content.parallel.window"));
+            }
+            else {
+                ciphertext = new CryptoOutputStream(cleartext,
+                        vault.getFileContentCryptor(), vault.getFileHeaderCryptor().decryptHeader(status.getHeader()),
+                        status.getNonces(), vault.numberOfChunks(status.getOffset()));
+            }
+            return new StatusOutputStream<Reply>(ciphertext) {
                 @Override
                 public Reply getStatus() throws BackgroundException {
                     return cleartext.getStatus();
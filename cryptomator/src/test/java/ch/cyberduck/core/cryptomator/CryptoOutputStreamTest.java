@@ -129,4 +129,28 @@ public class CryptoOutputStreamTest {
 
         assertArrayEquals(cleartext, read);
     }
+
+    @Test
+    public void testWriteWithOffsetAcrossChunks() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final CryptoOutputStream stream = new CryptoOutputStream(new ProxyOutputStream(cipherText), vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0);
+
+        final int chunksize = vault.getFileContentCryptor().cleartextChunkSize();
+        final byte[] cleartext = RandomUtils.nextBytes(3 * chunksize + 17);
+        // Unaligned writes with offset into source array
+        stream.write(cleartext, 0, 100);
+        stream.write(cleartext, 100, chunksize);
+        stream.write(cleartext, 100 + chunksize, cleartext.length - 100 - chunksize);
+        stream.close();
+
+        final byte[] read = new byte[cleartext.length];
+        final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()), vault.getFileContentCryptor(), header, 0);
+        IOUtils.readFully(cryptoInputStream, read);
+        assertEquals(IOUtils.EOF, cryptoInputStream.read());
+        cryptoInputStream.close();
+
+        assertArrayEquals(cleartext, read);
+    }
 }
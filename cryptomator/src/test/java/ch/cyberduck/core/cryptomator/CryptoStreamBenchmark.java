@@ -0,0 +1,117 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.cryptomator.random.FastSecureRandomProvider;
+import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.cryptomator.cryptolib.api.Cryptor;
+import org.cryptomator.cryptolib.api.CryptorProvider;
+import org.cryptomator.cryptolib.api.FileHeader;
+import org.cryptomator.cryptolib.api.Masterkey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single threaded throughput of vault content encryption and decryption. Each invocation processes 1 MiB of
+ * cleartext, operations per second therefore equal MB/s per core.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class CryptoStreamBenchmark {
+
+    private static final int MEGABYTE = 1024 * 1024;
+
+    /**
+     * Size of array passed to write. Copy buffer size of stream copier defaults to 32 KiB
+     */
+    @Param({"8192", "32768", "1048576"})
+    public int writeSize;
+
+    private Cryptor cryptor;
+    private FileHeader header;
+    private byte[] cleartext;
+    private byte[] ciphertext;
+    private byte[] read;
+
+    @Setup
+    public void setup() throws IOException {
+        cryptor = CryptorProvider.forScheme(CryptorProvider.Scheme.SIV_CTRMAC).provide(
+                Masterkey.generate(FastSecureRandomProvider.get().provide()), FastSecureRandomProvider.get().provide());
+        header = cryptor.fileHeaderCryptor().create();
+        cleartext = RandomUtils.nextBytes(MEGABYTE);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.write(out);
+        ciphertext = out.toByteArray();
+        read = new byte[writeSize];
+    }
+
+    private void write(final OutputStream proxy) throws IOException {
+        final CryptoOutputStream stream = new CryptoOutputStream(proxy, cryptor.fileContentCryptor(), header, new RandomNonceGenerator(), 0L);
+        for(int offset = 0; offset < cleartext.length; offset += writeSize) {
+            stream.write(cleartext, offset, Math.min(writeSize, cleartext.length - offset));
+        }
+        stream.close();
+    }
+
+    @Benchmark
+    public void encrypt() throws IOException {
+        this.write(NullOutputStream.NULL_OUTPUT_STREAM);
+    }
+
+    @Benchmark
+    public long decrypt() throws IOException {
+        final CryptoInputStream stream = new CryptoInputStream(new ByteArrayInputStream(ciphertext), cryptor.fileContentCryptor(), header, 0L);
+        long total = 0L;
+        int n;
+        while(IOUtils.EOF != (n = stream.read(read))) {
+            total += n;
+        }
+        stream.close();
+        return total;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CryptoStreamBenchmark.class.getSimpleName()).build()).run();
+    }
+}
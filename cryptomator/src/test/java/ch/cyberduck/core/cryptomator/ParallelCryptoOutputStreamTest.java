@@ -0,0 +1,136 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledPasswordStore;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.NullSession;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
+import ch.cyberduck.core.features.Directory;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.threading.DefaultThreadPool;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.VaultCredentials;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.ProxyOutputStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.cryptomator.cryptolib.api.FileHeader;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class ParallelCryptoOutputStreamTest {
+
+    private CryptoVault getVault() throws Exception {
+        final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Directory.class) {
+                    return (T) new Directory() {
+
+                        @Override
+                        public Path mkdir(final Path folder, final TransferStatus status) {
+                            assertTrue(folder.equals(home) || folder.isChild(home));
+                            return folder;
+                        }
+
+                        @Override
+                        public Directory withWriter(final Write writer) {
+                            return this;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final CryptoVault vault = new CryptoVault(home);
+        vault.create(session, null, new VaultCredentials("test"), new DisabledPasswordStore());
+        return vault;
+    }
+
+    @Test
+    public void testWriteMultipleChunks() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final ParallelCryptoOutputStream stream = new ParallelCryptoOutputStream(new ProxyOutputStream(cipherText), vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0,
+                new DefaultThreadPool(4), 3);
+
+        final byte[] cleartext = RandomUtils.nextBytes(10 * vault.getFileContentCryptor().cleartextChunkSize() + 1);
+        stream.write(cleartext, 0, 1000);
+        stream.write(cleartext, 1000, cleartext.length - 1000);
+        stream.close();
+
+        // Compatible with sequential implementation
+        final byte[] read = new byte[cleartext.length];
+        final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()), vault.getFileContentCryptor(), header, 0);
+        IOUtils.readFully(cryptoInputStream, read);
+        assertEquals(IOUtils.EOF, cryptoInputStream.read());
+        cryptoInputStream.close();
+        assertArrayEquals(cleartext, read);
+    }
+
+    @Test
+    public void testReadMultipleChunks() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final CryptoOutputStream stream = new CryptoOutputStream(new ProxyOutputStream(cipherText), vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0);
+        final byte[] cleartext = RandomUtils.nextBytes(7 * vault.getFileContentCryptor().cleartextChunkSize() + 13);
+        stream.write(cleartext, 0, cleartext.length);
+        stream.close();
+
+        final byte[] read = new byte[cleartext.length];
+        final ParallelCryptoInputStream cryptoInputStream = new ParallelCryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()), vault.getFileContentCryptor(), header, 0,
+                new DefaultThreadPool(4), 2);
+        IOUtils.readFully(cryptoInputStream, read);
+        assertEquals(IOUtils.EOF, cryptoInputStream.read());
+        cryptoInputStream.close();
+        assertArrayEquals(cleartext, read);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadTampered() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final CryptoOutputStream stream = new CryptoOutputStream(new ProxyOutputStream(cipherText), vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0);
+        final byte[] cleartext = RandomUtils.nextBytes(3 * vault.getFileContentCryptor().cleartextChunkSize());
+        stream.write(cleartext, 0, cleartext.length);
+        stream.close();
+
+        final byte[] ciphertext = cipherText.toByteArray();
+        ciphertext[vault.getFileContentCryptor().ciphertextChunkSize() + 100] ^= 1;
+        final ParallelCryptoInputStream cryptoInputStream = new ParallelCryptoInputStream(new ByteArrayInputStream(ciphertext), vault.getFileContentCryptor(), header, 0,
+                new DefaultThreadPool(2), 2);
+        try {
+            IOUtils.readFully(cryptoInputStream, new byte[cleartext.length]);
+        }
+        finally {
+            cryptoInputStream.close();
+        }
+    }
+}
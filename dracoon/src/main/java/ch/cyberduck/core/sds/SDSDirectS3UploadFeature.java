@@ -15,7 +15,6 @@ package ch.cyberduck.core.sds;
  * GNU General Public License for more details.
  */
 
-import ch.cyberduck.core.BytecountStreamListener;
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.DisabledListProgressListener;
@@ -47,12 +46,9 @@ import ch.cyberduck.core.sds.io.swagger.client.model.PresignedUrl;
 import ch.cyberduck.core.sds.io.swagger.client.model.S3FileUploadPart;
 import ch.cyberduck.core.sds.triplecrypt.TripleCryptConverter;
 import ch.cyberduck.core.sds.triplecrypt.TripleCryptExceptionMappingService;
-import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
-import ch.cyberduck.core.transfer.SegmentRetryCallable;
 import ch.cyberduck.core.transfer.TransferStatus;
-import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+import ch.cyberduck.core.upload.MultipartUploadProvider;
+import ch.cyberduck.core.upload.MultipartUploadService;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -63,11 +59,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.MessageDigest;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.dracoon.sdk.crypto.Crypto;
 import com.dracoon.sdk.crypto.error.CryptoSystemException;
@@ -76,8 +70,6 @@ import com.dracoon.sdk.crypto.error.InvalidKeyPairException;
 import com.dracoon.sdk.crypto.error.UnknownVersionException;
 import com.dracoon.sdk.crypto.model.EncryptedFileKey;
 import com.fasterxml.jackson.databind.ObjectReader;
-import com.google.common.base.Throwables;
-import com.google.common.util.concurrent.Uninterruptibles;
 
 public class SDSDirectS3UploadFeature extends HttpUploadFeature<Node, MessageDigest> {
     private static final Logger log = LogManager.getLogger(SDSDirectS3UploadFeature.class);
@@ -110,109 +102,13 @@ public class SDSDirectS3UploadFeature extends HttpUploadFeature<Node, MessageDig
     @Override
     public Node upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                        final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        final DirectS3UploadProvider provider = new DirectS3UploadProvider(local);
         try {
-            final CreateFileUploadRequest createFileUploadRequest = new CreateFileUploadRequest()
-                    .directS3Upload(true)
-                    .timestampModification(status.getTimestamp() != null ? new DateTime(status.getTimestamp()) : null)
-                    .size(TransferStatus.UNKNOWN_LENGTH == status.getLength() ? null : status.getLength())
-                    .parentId(Long.parseLong(nodeid.getVersionId(file.getParent(), new DisabledListProgressListener())))
-                    .name(file.getName());
-            final CreateFileUploadResponse createFileUploadResponse = new NodesApi(session.getClient())
-                    .createFileUploadChannel(createFileUploadRequest, StringUtils.EMPTY);
-            if(log.isDebugEnabled()) {
-                log.debug(String.format("upload started for %s with response %s", file, createFileUploadResponse));
-            }
-            final Map<Integer, TransferStatus> etags = new HashMap<>();
-            final List<PresignedUrl> presignedUrls = this.retrievePresignedUrls(createFileUploadResponse, status);
-            final List<Future<TransferStatus>> parts = new ArrayList<>();
-            final InputStream in;
-            final String random = new UUIDRandomStringService().random();
-            if(SDSNodeIdProvider.isEncrypted(file)) {
-                in = new SDSTripleCryptEncryptorFeature(session, nodeid).encrypt(file, local.getInputStream(), status);
-            }
-            else {
-                in = local.getInputStream();
-            }
-            try {
-                // Full size of file
-                final long size = status.getLength() + status.getOffset();
-                long offset = 0;
-                long remaining = status.getLength();
-                for(int partNumber = 1; remaining >= 0; partNumber++) {
-                    final long length = Math.min(Math.max((size / (MAXIMUM_UPLOAD_PARTS - 1)), partsize), remaining);
-                    final PresignedUrl presignedUrl = presignedUrls.get(partNumber - 1);
-                    if(SDSNodeIdProvider.isEncrypted(file)) {
-                        final Local temporary = temp.create(String.format("%s-%d", random, partNumber));
-                        if(log.isDebugEnabled()) {
-                            log.debug(String.format("Encrypted contents for part %d to %s", partNumber, temporary));
-                        }
-                        final FileBuffer buffer = new FileBuffer(temporary);
-                        new StreamCopier(status, StreamProgress.noop).withAutoclose(false).withLimit(length)
-                                .transfer(in, new BufferOutputStream(buffer));
-                        parts.add(this.submit(pool, file, temporary, buffer, throttle, listener, status,
-                                presignedUrl.getUrl(), presignedUrl.getPartNumber(), 0L, length, callback));
-                    }
-                    else {
-                        parts.add(this.submit(pool, file, local, Buffer.noop, throttle, listener, status,
-                                presignedUrl.getUrl(), presignedUrl.getPartNumber(), offset, length, callback));
-                    }
-                    remaining -= length;
-                    offset += length;
-                    if(0L == remaining) {
-                        break;
-                    }
-                }
-            }
-            finally {
-                in.close();
-            }
-            for(Future<TransferStatus> f : parts) {
-                try {
-                    final TransferStatus part = Uninterruptibles.getUninterruptibly(f);
-                    etags.put(part.getPart(), part);
-                }
-                catch(ExecutionException e) {
-                    log.warn(String.format("Part upload failed with execution failure %s", e.getMessage()));
-                    Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
-                    throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
-                }
-            }
-            final CompleteS3FileUploadRequest completeS3FileUploadRequest = new CompleteS3FileUploadRequest()
-                    .keepShareLinks(new HostPreferences(session.getHost()).getBoolean("sds.upload.sharelinks.keep"))
-                    .resolutionStrategy(CompleteS3FileUploadRequest.ResolutionStrategyEnum.OVERWRITE);
-            if(status.getFilekey() != null) {
-                final ObjectReader reader = session.getClient().getJSON().getContext(null).readerFor(FileKey.class);
-                final FileKey fileKey = reader.readValue(status.getFilekey().array());
-                final EncryptedFileKey encryptFileKey = Crypto.encryptFileKey(
-                        TripleCryptConverter.toCryptoPlainFileKey(fileKey),
-                        TripleCryptConverter.toCryptoUserPublicKey(session.keyPair().getPublicKeyContainer())
-                );
-                completeS3FileUploadRequest.setFileKey(TripleCryptConverter.toSwaggerFileKey(encryptFileKey));
-            }
-            etags.forEach((key, value) -> completeS3FileUploadRequest.addPartsItem(
-                    new S3FileUploadPart().partEtag(value.getChecksum().hash).partNumber(key)));
-            if(log.isDebugEnabled()) {
-                log.debug(String.format("Complete file upload with %s for %s", completeS3FileUploadRequest, file));
-            }
-            new NodesApi(session.getClient()).completeS3FileUpload(completeS3FileUploadRequest, createFileUploadResponse.getUploadId(), StringUtils.EMPTY);
-            // Polling
-            new SDSUploadService(session, nodeid).await(file, status, createFileUploadResponse.getUploadId());
-            return null;
-        }
-        catch(CryptoSystemException | InvalidFileKeyException | InvalidKeyPairException | UnknownVersionException e) {
-            throw new TripleCryptExceptionMappingService().map("Upload {0} failed", e, file);
-        }
-        catch(ApiException e) {
-            throw new SDSExceptionMappingService(nodeid).map("Upload {0} failed", e, file);
-        }
-        catch(IOException e) {
-            throw new DefaultIOExceptionMappingService().map(e);
+            return new MultipartUploadService<>(session.getHost(), provider, concurrency).upload(file, local, throttle, listener, status, callback);
         }
         finally {
+            provider.close();
             temp.shutdown();
-            // Cancel future tasks
-            pool.shutdown(false);
         }
     }
 
@@ -247,35 +143,168 @@ public class SDSDirectS3UploadFeature extends HttpUploadFeature<Node, MessageDig
         return presignedUrls;
     }
 
-    private Future<TransferStatus> submit(final ThreadPool pool, final Path file, final Local local,
-                                          final Buffer buffer, final BandwidthThrottle throttle, final StreamListener listener,
-                                          final TransferStatus overall, final String url, final Integer partNumber,
-                                          final long offset, final long length, final ConnectionCallback callback) {
-        if(log.isInfoEnabled()) {
-            log.info(String.format("Submit part %d of %s to queue with offset %d and length %d", partNumber, file, offset, length));
+    private final class DirectS3UploadProvider implements MultipartUploadProvider<Node, DirectS3UploadProvider.Upload, TransferStatus> {
+        private final Local local;
+        private final String random = new UUIDRandomStringService().random();
+        /**
+         * Encrypted parts written to temporary files by part number
+         */
+        private final Map<Integer, EncryptedPart> encrypted = new ConcurrentHashMap<>();
+        /**
+         * Stream of encrypted contents or null
+         */
+        private InputStream in;
+
+        public DirectS3UploadProvider(final Local local) {
+            this.local = local;
         }
-        final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<TransferStatus>() {
-            @Override
-            public TransferStatus call() throws BackgroundException {
-                overall.validate();
-                final TransferStatus status = new TransferStatus()
-                        .segment(true)
-                        .withLength(length)
-                        .withOffset(offset);
-                status.setUrl(url);
-                status.setPart(partNumber);
-                status.setHeader(overall.getHeader());
-                status.setFilekey(overall.getFilekey());
-                SDSDirectS3UploadFeature.super.upload(
-                        file, local, throttle, counter, status, overall, status, callback);
-                if(log.isInfoEnabled()) {
-                    log.info(String.format("Received response for part number %d", partNumber));
+
+        @Override
+        public Upload start(final Path file, final TransferStatus status) throws BackgroundException {
+            try {
+                final CreateFileUploadRequest createFileUploadRequest = new CreateFileUploadRequest()
+                        .directS3Upload(true)
+                        .timestampModification(status.getTimestamp() != null ? new DateTime(status.getTimestamp()) : null)
+                        .size(TransferStatus.UNKNOWN_LENGTH == status.getLength() ? null : status.getLength())
+                        .parentId(Long.parseLong(nodeid.getVersionId(file.getParent(), new DisabledListProgressListener())))
+                        .name(file.getName());
+                final CreateFileUploadResponse createFileUploadResponse = new NodesApi(session.getClient())
+                        .createFileUploadChannel(createFileUploadRequest, StringUtils.EMPTY);
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("upload started for %s with response %s", file, createFileUploadResponse));
+                }
+                if(SDSNodeIdProvider.isEncrypted(file)) {
+                    in = new SDSTripleCryptEncryptorFeature(session, nodeid).encrypt(file, local.getInputStream(), status);
                 }
-                // Delete temporary file if any
+                return new Upload(createFileUploadResponse, retrievePresignedUrls(createFileUploadResponse, status));
+            }
+            catch(ApiException e) {
+                throw new SDSExceptionMappingService(nodeid).map("Upload {0} failed", e, file);
+            }
+        }
+
+        @Override
+        public long partsize(final Upload upload, final long size) {
+            return Math.max((size / (MAXIMUM_UPLOAD_PARTS - 1)), partsize);
+        }
+
+        @Override
+        public void prepare(final Upload upload, final Path file, final Local local, final TransferStatus part) throws BackgroundException {
+            if(null == in) {
+                return;
+            }
+            // Parts are prepared in order while only a bounded number of parts is in flight
+            final Local temporary = temp.create(String.format("%s-%d", random, part.getPart()));
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Encrypted contents for part %d to %s", part.getPart(), temporary));
+            }
+            final FileBuffer buffer = new FileBuffer(temporary);
+            try {
+                new StreamCopier(part, StreamProgress.noop).withAutoclose(false).withLimit(part.getLength())
+                        .transfer(in, new BufferOutputStream(buffer));
+            }
+            catch(IOException e) {
                 buffer.close();
-                return status;
+                throw new DefaultIOExceptionMappingService().map(e);
+            }
+            encrypted.put(part.getPart(), new EncryptedPart(temporary, buffer));
+            // Read encrypted contents from start of temporary file
+            part.withOffset(0L);
+        }
+
+        @Override
+        public TransferStatus put(final Upload upload, final Path file, final Local local, final BandwidthThrottle throttle,
+                                  final StreamListener listener, final TransferStatus overall, final TransferStatus status,
+                                  final ConnectionCallback callback) throws BackgroundException {
+            final PresignedUrl presignedUrl = upload.presignedUrls.get(status.getPart() - 1);
+            status.setUrl(presignedUrl.getUrl());
+            status.setFilekey(overall.getFilekey());
+            final EncryptedPart part = encrypted.get(status.getPart());
+            SDSDirectS3UploadFeature.super.upload(
+                    file, null == part ? local : part.temporary, throttle, listener, status, overall, status, callback);
+            if(null != part) {
+                // Delete temporary file
+                encrypted.remove(status.getPart()).buffer.close();
+            }
+            return status;
+        }
+
+        @Override
+        public long length(final TransferStatus part) {
+            return part.getLength();
+        }
+
+        @Override
+        public Node complete(final Upload upload, final Path file, final TransferStatus status, final List<TransferStatus> parts) throws BackgroundException {
+            try {
+                final CompleteS3FileUploadRequest completeS3FileUploadRequest = new CompleteS3FileUploadRequest()
+                        .keepShareLinks(new HostPreferences(session.getHost()).getBoolean("sds.upload.sharelinks.keep"))
+                        .resolutionStrategy(CompleteS3FileUploadRequest.ResolutionStrategyEnum.OVERWRITE);
+                if(status.getFilekey() != null) {
+                    final ObjectReader reader = session.getClient().getJSON().getContext(null).readerFor(FileKey.class);
+                    final FileKey fileKey = reader.readValue(status.getFilekey().array());
+                    final EncryptedFileKey encryptFileKey = Crypto.encryptFileKey(
+                            TripleCryptConverter.toCryptoPlainFileKey(fileKey),
+                            TripleCryptConverter.toCryptoUserPublicKey(session.keyPair().getPublicKeyContainer())
+                    );
+                    completeS3FileUploadRequest.setFileKey(TripleCryptConverter.toSwaggerFileKey(encryptFileKey));
+                }
+                for(TransferStatus part : parts) {
+                    completeS3FileUploadRequest.addPartsItem(
+                            new S3FileUploadPart().partEtag(part.getChecksum().hash).partNumber(part.getPart()));
+                }
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Complete file upload with %s for %s", completeS3FileUploadRequest, file));
+                }
+                new NodesApi(session.getClient()).completeS3FileUpload(completeS3FileUploadRequest, upload.response.getUploadId(), StringUtils.EMPTY);
+                // Polling
+                new SDSUploadService(session, nodeid).await(file, status, upload.response.getUploadId());
+                return null;
+            }
+            catch(CryptoSystemException | InvalidFileKeyException | InvalidKeyPairException | UnknownVersionException e) {
+                throw new TripleCryptExceptionMappingService().map("Upload {0} failed", e, file);
+            }
+            catch(ApiException e) {
+                throw new SDSExceptionMappingService(nodeid).map("Upload {0} failed", e, file);
+            }
+            catch(IOException e) {
+                throw new DefaultIOExceptionMappingService().map(e);
             }
-        }, overall, counter));
+        }
+
+        public void close() throws BackgroundException {
+            for(EncryptedPart part : encrypted.values()) {
+                part.buffer.close();
+            }
+            encrypted.clear();
+            if(in != null) {
+                try {
+                    in.close();
+                }
+                catch(IOException e) {
+                    throw new DefaultIOExceptionMappingService().map(e);
+                }
+            }
+        }
+
+        private final class Upload {
+            private final CreateFileUploadResponse response;
+            private final List<PresignedUrl> presignedUrls;
+
+            public Upload(final CreateFileUploadResponse response, final List<PresignedUrl> presignedUrls) {
+                this.response = response;
+                this.presignedUrls = presignedUrls;
+            }
+        }
+    }
+
+    private static final class EncryptedPart {
+        private final Local temporary;
+        private final Buffer buffer;
+
+        public EncryptedPart(final Local temporary, final Buffer buffer) {
+            this.temporary = temporary;
+            this.buffer = buffer;
+        }
     }
 }
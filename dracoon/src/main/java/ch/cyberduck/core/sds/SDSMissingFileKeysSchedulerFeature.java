@@ -38,6 +38,9 @@ import ch.cyberduck.core.sds.triplecrypt.TripleCryptConverter;
 import ch.cyberduck.core.sds.triplecrypt.TripleCryptExceptionMappingService;
 import ch.cyberduck.core.sds.triplecrypt.TripleCryptKeyPair;
 import ch.cyberduck.core.shared.AbstractSchedulerFeature;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -45,20 +48,21 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import com.dracoon.sdk.crypto.Crypto;
 import com.dracoon.sdk.crypto.error.CryptoException;
-import com.dracoon.sdk.crypto.error.CryptoSystemException;
-import com.dracoon.sdk.crypto.error.InvalidFileKeyException;
-import com.dracoon.sdk.crypto.error.InvalidKeyPairException;
-import com.dracoon.sdk.crypto.error.InvalidPasswordException;
-import com.dracoon.sdk.crypto.error.UnknownVersionException;
 import com.dracoon.sdk.crypto.model.EncryptedFileKey;
 import com.dracoon.sdk.crypto.model.PlainFileKey;
 import com.dracoon.sdk.crypto.model.UserKeyPair;
 import com.dracoon.sdk.crypto.model.UserPrivateKey;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import static java.util.stream.Collectors.groupingBy;
 
@@ -95,45 +99,83 @@ public class SDSMissingFileKeysSchedulerFeature extends AbstractSchedulerFeature
             }
             // Null when operating from scheduler. File reference is set for post upload.
             final Long fileId = file != null ? Long.parseLong(nodeid.getVersionId(file, new DisabledListProgressListener())) : null;
-            UserFileKeySetBatchRequest request;
-            do {
-                if(log.isDebugEnabled()) {
-                    log.debug(String.format("Request a list of missing file keys for file %s", file));
-                }
-                request = new UserFileKeySetBatchRequest();
-                final MissingKeysResponse missingKeys = new NodesApi(session.getClient()).requestMissingFileKeys(
-                    null, null, null, fileId, null, null, null);
-                final Map<Long, List<UserUserPublicKey>> userPublicKeys = missingKeys.getUsers().stream().collect(groupingBy(UserUserPublicKey::getId));
-                final Map<Long, List<FileFileKeys>> files = missingKeys.getFiles().stream().collect(groupingBy(FileFileKeys::getId));
-                for(UserIdFileIdItem item : missingKeys.getItems()) {
-                    for(FileFileKeys fileKey : files.get(item.getFileId())) {
+            final HostPreferences preferences = new HostPreferences(session.getHost());
+            final int batch = preferences.getInteger("sds.encryption.missingkeys.batch.size");
+            final ThreadPool pool = ThreadPoolFactory.get("missingkeys", preferences.getInteger("sds.encryption.missingkeys.threads"),
+                ThreadPool.Priority.norm, new LinkedBlockingQueue<>());
+            // Upload file key sets in order while remaining keys are encrypted
+            final ThreadPool uploader = ThreadPoolFactory.get("missingkeys-upload", 1,
+                ThreadPool.Priority.norm, new LinkedBlockingQueue<>());
+            // Decrypted file keys by file and key version
+            final Map<String, PlainFileKey> plainFileKeys = new HashMap<>();
+            try {
+                List<Future<UserFileKeySetRequest>> encrypted;
+                do {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Request a list of missing file keys for file %s", file));
+                    }
+                    final MissingKeysResponse missingKeys = new NodesApi(session.getClient()).requestMissingFileKeys(
+                        null, null, null, fileId, null, null, null);
+                    final Map<Long, List<UserUserPublicKey>> userPublicKeys = missingKeys.getUsers().stream().collect(groupingBy(UserUserPublicKey::getId));
+                    final Map<Long, List<FileFileKeys>> files = missingKeys.getFiles().stream().collect(groupingBy(FileFileKeys::getId));
+                    // Decrypt file key only once for all users
+                    final Map<String, Future<PlainFileKey>> decrypted = new HashMap<>();
+                    for(FileFileKeys fileKey : missingKeys.getFiles()) {
+                        final String key = this.toKey(fileKey);
+                        if(plainFileKeys.containsKey(key) || decrypted.containsKey(key)) {
+                            continue;
+                        }
                         final EncryptedFileKey encryptedFileKey = TripleCryptConverter.toCryptoEncryptedFileKey(fileKey.getFileKeyContainer());
-                        final UserKeyPairContainer keyPairForDecryption = session.getKeyPairForFileKey(encryptedFileKey.getVersion());
-                        for(UserUserPublicKey userPublicKey : userPublicKeys.get(item.getUserId())) {
-                            final EncryptedFileKey fk = this.encryptFileKey(
-                                TripleCryptConverter.toCryptoUserPrivateKey(keyPairForDecryption.getPrivateKeyContainer()),
-                                encryptedFileKey.getVersion() == EncryptedFileKey.Version.RSA2048_AES256GCM ? passphraseDeprecated : passphrase,
-                                userPublicKey, fileKey);
-                            final UserFileKeySetRequest keySetRequest = new UserFileKeySetRequest()
-                                .fileId(item.getFileId())
-                                .userId(item.getUserId())
-                                .fileKey(TripleCryptConverter.toSwaggerFileKey(fk));
-                            if(log.isDebugEnabled()) {
-                                log.debug(String.format("Missing file key processed for file %d and user %d", item.getFileId(), item.getUserId()));
+                        final UserPrivateKey privateKey = TripleCryptConverter.toCryptoUserPrivateKey(
+                            session.getKeyPairForFileKey(encryptedFileKey.getVersion()).getPrivateKeyContainer());
+                        final Credentials credentials = encryptedFileKey.getVersion() == EncryptedFileKey.Version.RSA2048_AES256GCM ? passphraseDeprecated : passphrase;
+                        decrypted.put(key, pool.execute(() -> Crypto.decryptFileKey(encryptedFileKey, privateKey, credentials.getPassword())));
+                    }
+                    for(Map.Entry<String, Future<PlainFileKey>> entry : decrypted.entrySet()) {
+                        plainFileKeys.put(entry.getKey(), this.await(entry.getValue()));
+                    }
+                    // Encrypt file keys for users on all threads
+                    encrypted = new ArrayList<>();
+                    for(UserIdFileIdItem item : missingKeys.getItems()) {
+                        for(FileFileKeys fileKey : files.get(item.getFileId())) {
+                            final PlainFileKey plainFileKey = plainFileKeys.get(this.toKey(fileKey));
+                            for(UserUserPublicKey userPublicKey : userPublicKeys.get(item.getUserId())) {
+                                encrypted.add(pool.execute(() -> {
+                                    final EncryptedFileKey fk = Crypto.encryptFileKey(
+                                        plainFileKey, TripleCryptConverter.toCryptoUserPublicKey(userPublicKey.getPublicKeyContainer()));
+                                    if(log.isDebugEnabled()) {
+                                        log.debug(String.format("Missing file key processed for file %d and user %d", item.getFileId(), item.getUserId()));
+                                    }
+                                    return new UserFileKeySetRequest()
+                                        .fileId(item.getFileId())
+                                        .userId(item.getUserId())
+                                        .fileKey(TripleCryptConverter.toSwaggerFileKey(fk));
+                                }));
                             }
-                            request.addItemsItem(keySetRequest);
                         }
                     }
-                }
-                if(!request.getItems().isEmpty()) {
-                    if(log.isDebugEnabled()) {
-                        log.debug(String.format("Set file keys with %s", request));
+                    final List<Future<List<UserFileKeySetRequest>>> uploads = new ArrayList<>();
+                    UserFileKeySetBatchRequest request = new UserFileKeySetBatchRequest();
+                    for(Future<UserFileKeySetRequest> f : encrypted) {
+                        request.addItemsItem(this.await(f));
+                        if(request.getItems().size() == batch) {
+                            uploads.add(this.submit(uploader, session, request));
+                            request = new UserFileKeySetBatchRequest();
+                        }
+                    }
+                    if(!request.getItems().isEmpty()) {
+                        uploads.add(this.submit(uploader, session, request));
+                    }
+                    for(Future<List<UserFileKeySetRequest>> f : uploads) {
+                        processed.addAll(this.await(f));
                     }
-                    new NodesApi(session.getClient()).setUserFileKeys(request, StringUtils.EMPTY);
-                    processed.addAll(request.getItems());
                 }
+                while(!encrypted.isEmpty());
+            }
+            finally {
+                pool.shutdown(false);
+                uploader.shutdown(false);
             }
-            while(!request.getItems().isEmpty());
             this.deleteDeprecatedKeyPair(session);
             return processed;
         }
@@ -159,12 +201,29 @@ public class SDSMissingFileKeysSchedulerFeature extends AbstractSchedulerFeature
         }
     }
 
-    private EncryptedFileKey encryptFileKey(final UserPrivateKey privateKey, final Credentials passphrase,
-                                            final UserUserPublicKey pubkey, final FileFileKeys fileKeys)
-        throws InvalidFileKeyException, InvalidKeyPairException, InvalidPasswordException, CryptoSystemException, UnknownVersionException {
-        final PlainFileKey plainFileKey = Crypto.decryptFileKey(
-            TripleCryptConverter.toCryptoEncryptedFileKey(fileKeys.getFileKeyContainer()), privateKey, passphrase.getPassword());
-        return Crypto.encryptFileKey(
-            plainFileKey, TripleCryptConverter.toCryptoUserPublicKey(pubkey.getPublicKeyContainer()));
+    private Future<List<UserFileKeySetRequest>> submit(final ThreadPool uploader, final SDSSession session, final UserFileKeySetBatchRequest request) {
+        return uploader.execute(() -> {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Set file keys with %s", request));
+            }
+            new NodesApi(session.getClient()).setUserFileKeys(request, StringUtils.EMPTY);
+            return request.getItems();
+        });
+    }
+
+    private <T> T await(final Future<T> future) throws ApiException, CryptoException, BackgroundException {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        }
+        catch(ExecutionException e) {
+            Throwables.throwIfInstanceOf(e.getCause(), ApiException.class);
+            Throwables.throwIfInstanceOf(e.getCause(), CryptoException.class);
+            Throwables.throwIfInstanceOf(e.getCause(), BackgroundException.class);
+            throw new DefaultExceptionMappingService().map(e.getCause());
+        }
+    }
+
+    private String toKey(final FileFileKeys fileKey) {
+        return String.format("%d-%s", fileKey.getId(), fileKey.getFileKeyContainer().getVersion());
     }
 }
@@ -0,0 +1,142 @@
+package ch.cyberduck.core.dropbox;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionTimeoutException;
+import ch.cyberduck.core.features.ChangeFeed;
+import ch.cyberduck.core.preferences.HostPreferences;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import com.dropbox.core.DbxException;
+import com.dropbox.core.v2.files.DbxUserFilesRequests;
+import com.dropbox.core.v2.files.ListFolderLongpollResult;
+import com.dropbox.core.v2.files.ListFolderResult;
+import com.dropbox.core.v2.files.Metadata;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Wait for changes with <code>list_folder/longpoll</code> and retrieve them with <code>list_folder/continue</code>
+ */
+public class DropboxChangeFeedFeature implements ChangeFeed {
+    private static final Logger log = LogManager.getLogger(DropboxChangeFeedFeature.class);
+
+    private final DropboxSession session;
+    private final PathContainerService containerService;
+    private final DropboxListService parser;
+
+    public DropboxChangeFeedFeature(final DropboxSession session) {
+        this.session = session;
+        this.containerService = new DropboxPathContainerService(session);
+        this.parser = new DropboxListService(session);
+    }
+
+    @Override
+    public String cursor(final Path directory) throws BackgroundException {
+        try {
+            return new DbxUserFilesRequests(session.getClient(directory)).listFolderGetLatestCursorBuilder(containerService.getKey(directory))
+                .withRecursive(true).start().getCursor();
+        }
+        catch(DbxException e) {
+            throw new DropboxExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    @Override
+    public String poll(final Path directory, final String cursor, final Listener listener) throws BackgroundException {
+        final ListFolderLongpollResult result;
+        try {
+            result = new DbxUserFilesRequests(session.getClient(directory)).listFolderLongpoll(cursor,
+                new HostPreferences(session.getHost()).getLong("dropbox.changes.longpoll.timeout"));
+        }
+        catch(DbxException e) {
+            final BackgroundException failure = new DropboxExceptionMappingService().map("Listing directory {0} failed", e, directory);
+            if(failure instanceof ConnectionTimeoutException) {
+                log.warn(String.format("Timeout waiting for changes in %s", directory));
+                return cursor;
+            }
+            throw failure;
+        }
+        try {
+            String next = cursor;
+            if(result.getChanges()) {
+                final String key = containerService.getKey(directory);
+                ListFolderResult changes;
+                do {
+                    changes = new DbxUserFilesRequests(session.getClient(directory)).listFolderContinue(next);
+                    for(Metadata metadata : changes.getEntries()) {
+                        final Path file = this.toPath(directory, key, metadata);
+                        if(null == file) {
+                            continue;
+                        }
+                        if(log.isDebugEnabled()) {
+                            log.debug(String.format("Change for file %s", file));
+                        }
+                        listener.changed(file);
+                    }
+                    next = changes.getCursor();
+                }
+                while(changes.getHasMore());
+            }
+            if(null != result.getBackoff()) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Backoff for %ds as requested by server", result.getBackoff()));
+                }
+                Uninterruptibles.sleepUninterruptibly(result.getBackoff(), TimeUnit.SECONDS);
+            }
+            return next;
+        }
+        catch(DbxException e) {
+            throw new DropboxExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    /**
+     * @param directory Watched directory
+     * @param key       Key of watched directory
+     * @param metadata  Changed file
+     * @return Null if outside of watched directory
+     */
+    private Path toPath(final Path directory, final String key, final Metadata metadata) {
+        final String relative = StringUtils.removeStartIgnoreCase(metadata.getPathDisplay(), key);
+        if(StringUtils.equals(relative, metadata.getPathDisplay()) && StringUtils.isNotEmpty(key)) {
+            log.warn(String.format("Ignore change for %s outside of %s", metadata.getPathDisplay(), directory));
+            return null;
+        }
+        Path parent = directory;
+        final String[] segments = StringUtils.split(PathNormalizer.parent(PathNormalizer.normalize(relative), Path.DELIMITER), Path.DELIMITER);
+        if(null != segments) {
+            for(String segment : segments) {
+                parent = new Path(parent, segment, EnumSet.of(Path.Type.directory));
+            }
+        }
+        final Path file = parser.parse(parent, metadata);
+        if(null == file) {
+            // Deleted file with unknown type
+            return parent;
+        }
+        return file;
+    }
+}
@@ -165,6 +165,9 @@ public class DropboxSession extends HttpSession<CustomDbxRawClientV2> {
         if(type == Versioning.class) {
             return (T) new DropboxVersioningFeature(this);
         }
+        if(type == ChangeFeed.class) {
+            return (T) new DropboxChangeFeedFeature(this);
+        }
         return super._getFeature(type);
     }
 
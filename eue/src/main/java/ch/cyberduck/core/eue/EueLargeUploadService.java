@@ -15,7 +15,6 @@ package ch.cyberduck.core.eue;
  * GNU General Public License for more details.
  */
 
-import ch.cyberduck.core.BytecountStreamListener;
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.Local;
@@ -31,12 +30,9 @@ import ch.cyberduck.core.http.HttpUploadFeature;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.HostPreferences;
-import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
-import ch.cyberduck.core.transfer.SegmentRetryCallable;
 import ch.cyberduck.core.transfer.TransferStatus;
-import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+import ch.cyberduck.core.upload.MultipartUploadProvider;
+import ch.cyberduck.core.upload.MultipartUploadService;
 
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Base64;
@@ -46,18 +42,12 @@ import org.apache.logging.log4j.Logger;
 
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 
-import com.google.common.base.Throwables;
-import com.google.common.util.concurrent.Uninterruptibles;
-
-public class EueLargeUploadService extends HttpUploadFeature<EueWriteFeature.Chunk, MessageDigest> {
+public class EueLargeUploadService extends HttpUploadFeature<EueWriteFeature.Chunk, MessageDigest>
+        implements MultipartUploadProvider<EueWriteFeature.Chunk, EueLargeUploadService.ChunkedUpload, EueWriteFeature.Chunk> {
     private static final Logger log = LogManager.getLogger(EueLargeUploadService.class);
 
     private final EueSession session;
@@ -84,47 +74,53 @@ public class EueLargeUploadService extends HttpUploadFeature<EueWriteFeature.Chu
     @Override
     public EueWriteFeature.Chunk upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                                         final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        return new MultipartUploadService<>(session.getHost(), this, concurrency).upload(file, local, throttle, listener, status, callback);
+    }
+
+    @Override
+    public ChunkedUpload start(final Path file, final TransferStatus status) throws BackgroundException {
+        if(status.isExists()) {
+            final String resourceId = fileid.getFileId(file, new DisabledListProgressListener());
+            return new ChunkedUpload(resourceId,
+                    EueUploadHelper.updateResource(session, resourceId, status, UploadType.CHUNKED).getUploadURI());
+        }
+        final ResourceCreationResponseEntry uploadResourceCreationResponseEntry = EueUploadHelper.
+                createResource(session, fileid.getFileId(file.getParent(), new DisabledListProgressListener()), file.getName(),
+                        status, UploadType.CHUNKED);
+        return new ChunkedUpload(EueResourceIdProvider.getResourceIdFromResourceUri(uploadResourceCreationResponseEntry.getHeaders().getLocation()),
+                uploadResourceCreationResponseEntry.getEntity().getUploadURI());
+    }
+
+    @Override
+    public long partsize(final ChunkedUpload upload, final long size) {
+        return chunksize;
+    }
+
+    @Override
+    public EueWriteFeature.Chunk put(final ChunkedUpload upload, final Path file, final Local local, final BandwidthThrottle throttle,
+                                     final StreamListener listener, final TransferStatus overall, final TransferStatus status,
+                                     final ConnectionCallback callback) throws BackgroundException {
+        final Map<String, String> parameters = new HashMap<>();
+        parameters.put(EueWriteFeature.RESOURCE_ID, upload.resourceId);
+        status.withParameters(parameters);
+        status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+        status.setUrl(upload.uploadUri);
+        return this.upload(file, local, throttle, listener, status, overall, status, callback);
+    }
+
+    @Override
+    public long length(final EueWriteFeature.Chunk chunk) {
+        return chunk.getLength();
+    }
+
+    @Override
+    public EueWriteFeature.Chunk complete(final ChunkedUpload upload, final Path file, final TransferStatus status,
+                                          final List<EueWriteFeature.Chunk> chunks) throws BackgroundException {
         try {
-            final List<Future<EueWriteFeature.Chunk>> parts = new ArrayList<>();
-            long offset = 0;
-            long remaining = status.getLength();
-            final String resourceId;
-            final String uploadUri;
-            if(status.isExists()) {
-                resourceId = fileid.getFileId(file, new DisabledListProgressListener());
-                uploadUri = EueUploadHelper.updateResource(session, resourceId, status, UploadType.CHUNKED).getUploadURI();
-            }
-            else {
-                final ResourceCreationResponseEntry uploadResourceCreationResponseEntry = EueUploadHelper.
-                        createResource(session, fileid.getFileId(file.getParent(), new DisabledListProgressListener()), file.getName(),
-                                status, UploadType.CHUNKED);
-                resourceId = EueResourceIdProvider.getResourceIdFromResourceUri(uploadResourceCreationResponseEntry.getHeaders().getLocation());
-                uploadUri = uploadResourceCreationResponseEntry.getEntity().getUploadURI();
-            }
-            for(int partNumber = 1; remaining > 0; partNumber++) {
-                final long length = Math.min(chunksize, remaining);
-                parts.add(this.submit(pool, file, local, throttle, listener, status,
-                        uploadUri, resourceId, partNumber, offset, length, callback));
-                remaining -= length;
-                offset += length;
-            }
-            // Checksums for uploaded segments
-            final List<EueWriteFeature.Chunk> chunks = new ArrayList<>();
-            for(Future<EueWriteFeature.Chunk> f : parts) {
-                try {
-                    chunks.add(Uninterruptibles.getUninterruptibly(f));
-                }
-                catch(ExecutionException e) {
-                    log.warn(String.format("Part upload failed with execution failure %s", e.getMessage()));
-                    Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
-                    throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
-                }
-            }
             // Full size of file
             final long size = status.getOffset() + status.getLength();
             final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
-            chunks.stream().sorted(Comparator.comparing(EueWriteFeature.Chunk::getPartnumber)).forEach(chunk -> {
+            for(EueWriteFeature.Chunk chunk : chunks) {
                 try {
                     messageDigest.update(Hex.decodeHex(chunk.getChecksum().hash));
                 }
@@ -132,11 +128,11 @@ public class EueLargeUploadService extends HttpUploadFeature<EueWriteFeature.Chu
                     log.error(String.format("Failure %s decoding hash %s", e, chunk.getChecksum()));
                 }
                 messageDigest.update(ChunkListSHA256ChecksumCompute.intToBytes(chunk.getLength().intValue()));
-            });
+            }
             final String cdash64 = Base64.encodeBase64URLSafeString(messageDigest.digest());
             final EueUploadHelper.UploadResponse completedUploadResponse = new EueMultipartUploadCompleter(session)
-                    .getCompletedUploadResponse(uploadUri, size, cdash64);
-            final EueWriteFeature.Chunk object = new EueWriteFeature.Chunk(resourceId, size, cdash64);
+                    .getCompletedUploadResponse(upload.uploadUri, size, cdash64);
+            final EueWriteFeature.Chunk object = new EueWriteFeature.Chunk(upload.resourceId, size, cdash64);
             // Mark parent status as complete
             status.withResponse(new EueAttributesAdapter().toAttributes(object)).setComplete();
             return object;
@@ -144,43 +140,6 @@ public class EueLargeUploadService extends HttpUploadFeature<EueWriteFeature.Chu
         catch(NoSuchAlgorithmException e) {
             throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e);
         }
-        finally {
-            // Cancel future tasks
-            pool.shutdown(false);
-        }
-    }
-
-    private Future<EueWriteFeature.Chunk> submit(final ThreadPool pool, final Path file, final Local local,
-                                                 final BandwidthThrottle throttle, final StreamListener listener,
-                                                 final TransferStatus overall, final String url, final String resourceId,
-                                                 final int partNumber, final long offset, final long length, final ConnectionCallback callback) {
-        if(log.isInfoEnabled()) {
-            log.info(String.format("Submit %s to queue with offset %d and length %d", file, offset, length));
-        }
-        final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<EueWriteFeature.Chunk>() {
-            @Override
-            public EueWriteFeature.Chunk call() throws BackgroundException {
-                overall.validate();
-                final Map<String, String> parameters = new HashMap<>();
-                parameters.put(EueWriteFeature.RESOURCE_ID, resourceId);
-                final TransferStatus status = new TransferStatus()
-                        .segment(true)
-                        .withOffset(offset)
-                        .withLength(length)
-                        .withParameters(parameters);
-                status.setPart(partNumber);
-                status.setHeader(overall.getHeader());
-                status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
-                status.setUrl(url);
-                final EueWriteFeature.Chunk chunk = EueLargeUploadService.this.upload(
-                        file, local, throttle, listener, status, overall, status, callback);
-                if(log.isInfoEnabled()) {
-                    log.info(String.format("Received response %s for part %d", chunk, partNumber));
-                }
-                return chunk;
-            }
-        }, overall, counter));
     }
 
     @Override
@@ -188,4 +147,17 @@ public class EueLargeUploadService extends HttpUploadFeature<EueWriteFeature.Chu
         this.writer = writer;
         return super.withWriter(writer);
     }
+
+    /**
+     * Resource and URI for chunked upload
+     */
+    public static final class ChunkedUpload {
+        private final String resourceId;
+        private final String uploadUri;
+
+        public ChunkedUpload(final String resourceId, final String uploadUri) {
+            this.resourceId = resourceId;
+            this.uploadUri = uploadUri;
+        }
+    }
 }
@@ -173,6 +173,7 @@ public class FTPSession extends SSLSession<FTPClient> {
                 = new CustomTrustSSLProtocolSocketFactory(trust, key, preferences.getProperty("connection.ssl.protocols.ftp").split(","));
 
             final LoggingProtocolCommandListener listener = new LoggingProtocolCommandListener(this);
+            final MetricsProtocolCommandListener metrics = new MetricsProtocolCommandListener(this.getMetrics());
             final FTPClient client = new FTPClient(host.getProtocol(), f, f.getSSLContext()) {
                 @Override
                 public void disconnect() throws IOException {
@@ -181,10 +182,12 @@ public class FTPSession extends SSLSession<FTPClient> {
                     }
                     finally {
                         this.removeProtocolCommandListener(listener);
+                        this.removeProtocolCommandListener(metrics);
                     }
                 }
             };
             client.addProtocolCommandListener(listener);
+            client.addProtocolCommandListener(metrics);
             this.configure(client);
             client.connect(new PunycodeConverter().convert(host.getHostname()), host.getPort());
             client.setTcpNoDelay(false);
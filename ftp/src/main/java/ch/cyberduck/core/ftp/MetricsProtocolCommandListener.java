@@ -0,0 +1,60 @@
+package ch.cyberduck.core.ftp;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Metrics;
+
+import org.apache.commons.net.ProtocolCommandEvent;
+import org.apache.commons.net.ProtocolCommandListener;
+import org.apache.commons.net.ftp.FTPReply;
+
+/**
+ * Record time from sending command on control connection until completion reply is received
+ */
+public class MetricsProtocolCommandListener implements ProtocolCommandListener {
+
+    private final Metrics metrics;
+
+    /**
+     * Pending command
+     */
+    private String command;
+    private long start;
+
+    public MetricsProtocolCommandListener(final Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public synchronized void protocolCommandSent(final ProtocolCommandEvent event) {
+        command = event.getCommand();
+        start = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void protocolReplyReceived(final ProtocolCommandEvent event) {
+        if(null == command) {
+            return;
+        }
+        if(FTPReply.isPositivePreliminary(event.getReplyCode())) {
+            // Wait for completion reply after data transfer
+            return;
+        }
+        metrics.record(String.format("ftp.%s", command), System.nanoTime() - start, 0L,
+            event.getReplyCode() >= 400);
+        command = null;
+    }
+}
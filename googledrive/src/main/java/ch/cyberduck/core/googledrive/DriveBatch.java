@@ -0,0 +1,135 @@
+package ch.cyberduck.core.googledrive;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.http.DefaultHttpResponseExceptionMappingService;
+import ch.cyberduck.core.preferences.HostPreferences;
+
+import org.apache.http.client.HttpResponseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.services.json.AbstractGoogleJsonClientRequest;
+import com.google.api.client.http.HttpHeaders;
+
+/**
+ * Collect requests into batches executed in a single HTTP round trip when the partition size is reached. Only used
+ * where all files are known up front as in {@link DriveBulkFeature} creating missing folders prior upload. Timestamp,
+ * metadata, move and attributes features are invoked by workers with a single file and must return the result of that
+ * call and are therefore not batched.
+ */
+public class DriveBatch {
+    private static final Logger log = LogManager.getLogger(DriveBatch.class);
+
+    private final DriveSession session;
+    private final DriveFileIdProvider fileid;
+    private final Integer partition;
+    private final List<BackgroundException> failures = new CopyOnWriteArrayList<>();
+
+    private BatchRequest batch;
+
+    public DriveBatch(final DriveSession session, final DriveFileIdProvider fileid) {
+        this(session, fileid, new HostPreferences(session.getHost()).getInteger("googledrive.batch.partition"));
+    }
+
+    /**
+     * @param partition Maximum number of calls in a single batch
+     */
+    public DriveBatch(final DriveSession session, final DriveFileIdProvider fileid, final Integer partition) {
+        this.session = session;
+        this.fileid = fileid;
+        this.partition = partition;
+    }
+
+    /**
+     * Add request to current batch. Execute batch when partition size is reached.
+     *
+     * @param file     File the request applies to
+     * @param request  Request not yet executed
+     * @param callback Notified with response or mapped failure of request
+     */
+    public <T> void queue(final Path file, final AbstractGoogleJsonClientRequest<T> request, final Callback<T> callback) throws BackgroundException {
+        if(null == batch) {
+            batch = session.getClient().batch();
+        }
+        try {
+            request.queue(batch, new JsonBatchCallback<T>() {
+                @Override
+                public void onFailure(final GoogleJsonError e, final HttpHeaders responseHeaders) {
+                    log.warn(String.format("Failure in batch request for %s. %s", file, e.getMessage()));
+                    final BackgroundException failure = new DefaultHttpResponseExceptionMappingService().map(
+                            new HttpResponseException(e.getCode(), e.getMessage()));
+                    failures.add(failure);
+                    callback.failure(file, failure);
+                }
+
+                @Override
+                public void onSuccess(final T response, final HttpHeaders responseHeaders) {
+                    callback.success(file, response);
+                }
+            });
+        }
+        catch(IOException e) {
+            throw new DriveExceptionMappingService(fileid).map(e);
+        }
+        if(batch.size() >= partition) {
+            this.execute();
+        }
+    }
+
+    /**
+     * Execute pending requests
+     *
+     * @return Failures of all requests since last call
+     */
+    public List<BackgroundException> execute() throws BackgroundException {
+        if(null != batch && batch.size() > 0) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Execute batch with %d requests", batch.size()));
+            }
+            try {
+                batch.execute();
+            }
+            catch(IOException e) {
+                throw new DriveExceptionMappingService(fileid).map(e);
+            }
+            finally {
+                batch = null;
+            }
+        }
+        final List<BackgroundException> result = new ArrayList<>(failures);
+        failures.clear();
+        return result;
+    }
+
+    public interface Callback<T> {
+        void success(Path file, T response);
+
+        default void failure(Path file, BackgroundException failure) {
+            //
+        }
+    }
+}
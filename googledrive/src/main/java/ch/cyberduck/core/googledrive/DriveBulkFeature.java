@@ -0,0 +1,205 @@
+package ch.cyberduck.core.googledrive;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Bulk;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.Transfer;
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.google.api.services.drive.model.File;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Create missing folders in batches by depth and initiate resumable upload sessions for all files in parallel prior transfer
+ */
+public class DriveBulkFeature implements Bulk<Void> {
+    private static final Logger log = LogManager.getLogger(DriveBulkFeature.class);
+
+    private final DriveSession session;
+    private final DriveFileIdProvider fileid;
+    private final DriveWriteFeature writer;
+
+    public DriveBulkFeature(final DriveSession session, final DriveFileIdProvider fileid) {
+        this(session, fileid, new DriveWriteFeature(session, fileid));
+    }
+
+    public DriveBulkFeature(final DriveSession session, final DriveFileIdProvider fileid, final DriveWriteFeature writer) {
+        this.session = session;
+        this.fileid = fileid;
+        this.writer = writer;
+    }
+
+    @Override
+    public Void pre(final Transfer.Type type, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) throws BackgroundException {
+        switch(type) {
+            case upload:
+                break;
+            default:
+                return null;
+        }
+        // Folders not yet created
+        final Set<Path> directories = this.mkdir(files);
+        final ThreadPool pool = ThreadPoolFactory.get("session",
+                new HostPreferences(session.getHost()).getInteger("googledrive.upload.session.concurrency"),
+                ThreadPool.Priority.norm, new LinkedBlockingQueue<>());
+        try {
+            final Map<TransferStatus, Future<String>> sessions = new HashMap<>();
+            for(Map.Entry<TransferItem, TransferStatus> entry : files.entrySet()) {
+                final Path file = entry.getKey().remote;
+                final TransferStatus status = entry.getValue();
+                if(!file.isFile()) {
+                    continue;
+                }
+                if(directories.contains(file.getParent())) {
+                    // Parent folder is created in transfer
+                    continue;
+                }
+                if(status.getRename().remote != null) {
+                    continue;
+                }
+                if(file.getType().contains(Path.Type.encrypted)) {
+                    // Length of content is changed by encryption in writer
+                    continue;
+                }
+                sessions.put(status, pool.execute(() -> writer.start(file, status)));
+            }
+            for(Map.Entry<TransferStatus, Future<String>> entry : sessions.entrySet()) {
+                try {
+                    final Map<String, String> parameters = new HashMap<>(entry.getKey().getParameters());
+                    parameters.put(DriveWriteFeature.UPLOAD_SESSION_PARAMETER, Uninterruptibles.getUninterruptibly(entry.getValue()));
+                    entry.getKey().setParameters(parameters);
+                }
+                catch(ExecutionException e) {
+                    // Session is initiated with upload instead
+                    log.warn(String.format("Failure initiating upload session. %s", e.getMessage()));
+                }
+            }
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Initiated %d upload sessions prior transfer", sessions.size()));
+            }
+        }
+        finally {
+            pool.shutdown(false);
+        }
+        return null;
+    }
+
+    /**
+     * Create folders with one batch request per level of depth
+     *
+     * @return Folders that could not be created in batch and are created in transfer instead
+     */
+    private Set<Path> mkdir(final Map<TransferItem, TransferStatus> files) {
+        final Set<Path> missing = new HashSet<>();
+        final SortedMap<Integer, List<Map.Entry<TransferItem, TransferStatus>>> levels = new TreeMap<>();
+        for(Map.Entry<TransferItem, TransferStatus> entry : files.entrySet()) {
+            final Path file = entry.getKey().remote;
+            if(file.isDirectory() && !entry.getValue().isExists()) {
+                missing.add(file);
+                if(file.getType().contains(Path.Type.encrypted)) {
+                    // Directory ID file in vault is written when creating folder with directory feature in transfer
+                    continue;
+                }
+                levels.computeIfAbsent(StringUtils.countMatches(file.getAbsolute(), Path.DELIMITER), level -> new ArrayList<>()).add(entry);
+            }
+        }
+        final int total = missing.size();
+        for(List<Map.Entry<TransferItem, TransferStatus>> level : levels.values()) {
+            final DriveBatch batch = new DriveBatch(session, fileid);
+            for(Map.Entry<TransferItem, TransferStatus> entry : level) {
+                final Path folder = entry.getKey().remote;
+                final TransferStatus status = entry.getValue();
+                if(missing.contains(folder.getParent())) {
+                    // Parent folder failed to be created
+                    continue;
+                }
+                if(DriveHomeFinderService.SHARED_DRIVES_NAME.equals(folder.getParent())) {
+                    continue;
+                }
+                try {
+                    batch.queue(folder, session.getClient().files().create(new File()
+                                    .setName(folder.getName())
+                                    .setMimeType("application/vnd.google-apps.folder")
+                                    .setParents(Collections.singletonList(fileid.getFileId(folder.getParent(), new DisabledListProgressListener()))))
+                            .setFields(DriveAttributesFinderFeature.DEFAULT_FIELDS)
+                            .setSupportsAllDrives(new HostPreferences(session.getHost()).getBoolean("googledrive.teamdrive.enable")),
+                        new DriveBatch.Callback<File>() {
+                            @Override
+                            public void success(final Path file, final File response) {
+                                fileid.cache(file, response.getId());
+                                // Skip creating folder in transfer
+                                status.setExists(true);
+                                missing.remove(file);
+                            }
+                        });
+                }
+                catch(IOException | BackgroundException e) {
+                    log.warn(String.format("Failure creating folder %s in batch. %s", folder, e.getMessage()));
+                }
+            }
+            try {
+                for(BackgroundException failure : batch.execute()) {
+                    // Folder is created in transfer instead
+                    log.warn(String.format("Failure creating folder in batch. %s", failure.getMessage()));
+                }
+            }
+            catch(BackgroundException e) {
+                log.warn(String.format("Failure executing batch. %s", e.getMessage()));
+            }
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Created %d folders in batch prior transfer", total - missing.size()));
+        }
+        return missing;
+    }
+
+    @Override
+    public void post(final Transfer.Type type, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) {
+        // Timestamp is set with metadata when initiating upload
+    }
+
+    @Override
+    public Bulk<Void> withDelete(final Delete delete) {
+        return this;
+    }
+}
@@ -0,0 +1,155 @@
+package ch.cyberduck.core.googledrive;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.ChangeFeed;
+import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.webloc.UrlFileWriterFactory;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.api.services.drive.model.Change;
+import com.google.api.services.drive.model.ChangeList;
+import com.google.api.services.drive.model.File;
+
+/**
+ * Changes from <code>changes.list</code>. Changed files are resolved to paths by looking up parent folders up to the
+ * watched directory.
+ */
+public class DriveChangeFeedFeature implements ChangeFeed {
+    private static final Logger log = LogManager.getLogger(DriveChangeFeedFeature.class);
+
+    private static final String PARENT_FIELDS = "id,name,parents";
+
+    private final DriveSession session;
+    private final DriveFileIdProvider fileid;
+    private final DriveAttributesFinderFeature attributes;
+
+    public DriveChangeFeedFeature(final DriveSession session, final DriveFileIdProvider fileid) {
+        this.session = session;
+        this.fileid = fileid;
+        this.attributes = new DriveAttributesFinderFeature(session, fileid);
+    }
+
+    @Override
+    public String cursor(final Path directory) throws BackgroundException {
+        try {
+            return session.getClient().changes().getStartPageToken()
+                .setSupportsAllDrives(new HostPreferences(session.getHost()).getBoolean("googledrive.teamdrive.enable"))
+                .execute().getStartPageToken();
+        }
+        catch(IOException e) {
+            throw new DriveExceptionMappingService(fileid).map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    @Override
+    public String poll(final Path directory, final String cursor, final Listener listener) throws BackgroundException {
+        try {
+            // Resolved folders by file id
+            final Map<String, Path> folders = new HashMap<>();
+            folders.put(session.getClient().files().get(fileid.getFileId(directory, new DisabledListProgressListener()))
+                .setSupportsAllDrives(new HostPreferences(session.getHost()).getBoolean("googledrive.teamdrive.enable"))
+                .setFields("id").execute().getId(), directory);
+            String page = cursor;
+            while(true) {
+                final ChangeList list = session.getClient().changes().list(page)
+                    .setIncludeItemsFromAllDrives(true)
+                    .setSupportsAllDrives(new HostPreferences(session.getHost()).getBoolean("googledrive.teamdrive.enable"))
+                    .setPageSize(new HostPreferences(session.getHost()).getInteger("googledrive.list.limit"))
+                    .setFields(String.format("changes(removed,fileId,file(%s,parents)),nextPageToken,newStartPageToken",
+                        DriveAttributesFinderFeature.DEFAULT_FIELDS))
+                    .execute();
+                for(Change change : list.getChanges()) {
+                    final File f = change.getFile();
+                    if(null == f || null == f.getParents() || f.getParents().isEmpty()) {
+                        if(log.isDebugEnabled()) {
+                            log.debug(String.format("Ignore change %s with unknown location", change.getFileId()));
+                        }
+                        continue;
+                    }
+                    final Path parent = this.resolve(f.getParents().get(0), folders);
+                    if(null == parent) {
+                        // Outside of watched directory
+                        continue;
+                    }
+                    final Path file = this.toPath(parent, f);
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Change for file %s", file));
+                    }
+                    listener.changed(file);
+                }
+                if(null == list.getNextPageToken()) {
+                    return list.getNewStartPageToken();
+                }
+                page = list.getNextPageToken();
+            }
+        }
+        catch(IOException e) {
+            throw new DriveExceptionMappingService(fileid).map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    private Path toPath(final Path parent, final File f) {
+        final PathAttributes attr = attributes.toAttributes(f);
+        if(AbstractDriveListService.DRIVE_FOLDER.equals(f.getMimeType())) {
+            return new Path(parent, f.getName(), EnumSet.of(Path.Type.directory), attr);
+        }
+        if(StringUtils.startsWith(f.getMimeType(), AbstractDriveListService.GOOGLE_APPS_PREFIX)) {
+            // Google Apps document listed as web link file
+            return new Path(parent, String.format("%s.%s", f.getName(), UrlFileWriterFactory.get().getExtension()),
+                EnumSet.of(Path.Type.file, Path.Type.placeholder), attr);
+        }
+        return new Path(parent, f.getName(), EnumSet.of(Path.Type.file), attr);
+    }
+
+    /**
+     * @param id      Folder id
+     * @param folders Cache of resolved folders
+     * @return Null if folder is not contained in watched directory
+     */
+    private Path resolve(final String id, final Map<String, Path> folders) throws IOException {
+        if(folders.containsKey(id)) {
+            return folders.get(id);
+        }
+        final File folder = session.getClient().files().get(id)
+            .setSupportsAllDrives(new HostPreferences(session.getHost()).getBoolean("googledrive.teamdrive.enable"))
+            .setFields(PARENT_FIELDS).execute();
+        final Path resolved;
+        if(null == folder.getParents() || folder.getParents().isEmpty()) {
+            // Reached root
+            resolved = null;
+        }
+        else {
+            final Path parent = this.resolve(folder.getParents().get(0), folders);
+            resolved = null == parent ? null : new Path(parent, folder.getName(), EnumSet.of(Path.Type.directory),
+                new PathAttributes().withFileId(folder.getId()));
+        }
+        folders.put(id, resolved);
+        return resolved;
+    }
+}
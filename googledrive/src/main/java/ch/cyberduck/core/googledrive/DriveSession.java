@@ -151,6 +151,9 @@ public class DriveSession extends HttpSession<Drive> {
         if(type == Upload.class) {
             return (T) new DriveUploadFeature(this, fileid);
         }
+        if(type == Bulk.class) {
+            return (T) new DriveBulkFeature(this, fileid);
+        }
         if(type == Directory.class) {
             return (T) new DriveDirectoryFeature(this, fileid);
         }
@@ -199,6 +202,9 @@ public class DriveSession extends HttpSession<Drive> {
         if(type == Versioning.class) {
             return (T) new DriveVersioningFeature(this, fileid);
         }
+        if(type == ChangeFeed.class) {
+            return (T) new DriveChangeFeedFeature(this, fileid);
+        }
         return super._getFeature(type);
     }
 
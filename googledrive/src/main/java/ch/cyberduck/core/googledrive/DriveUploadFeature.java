@@ -15,7 +15,16 @@ package ch.cyberduck.core.googledrive;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Upload;
+import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.http.HttpUploadFeature;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.transfer.TransferStatus;
 
 import java.security.MessageDigest;
 
@@ -23,7 +32,36 @@ import com.google.api.services.drive.model.File;
 
 public class DriveUploadFeature extends HttpUploadFeature<File, MessageDigest> {
 
+    private Write<File> writer;
+
     public DriveUploadFeature(final DriveSession session, final DriveFileIdProvider fileid) {
-        super(new DriveWriteFeature(session, fileid));
+        this(new DriveWriteFeature(session, fileid));
+    }
+
+    public DriveUploadFeature(final DriveWriteFeature writer) {
+        super(writer);
+        this.writer = writer;
+    }
+
+    @Override
+    public File upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                       final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        if(null != status.getUrl() && writer instanceof DriveWriteFeature) {
+            // Retry of previous attempt with resumable upload session
+            final File complete = ((DriveWriteFeature) writer).resume(file, status);
+            if(null != complete) {
+                listener.sent(status.getOffset() + status.getLength());
+                return complete;
+            }
+            // Count bytes already persisted by server
+            listener.sent(status.getOffset());
+        }
+        return super.upload(file, local, throttle, listener, status, callback);
+    }
+
+    @Override
+    public Upload<File> withWriter(final Write<File> writer) {
+        this.writer = writer;
+        return super.withWriter(writer);
     }
 }
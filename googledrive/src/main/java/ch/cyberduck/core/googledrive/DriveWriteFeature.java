@@ -32,7 +32,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.HttpResponseException;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpPatch;
@@ -43,10 +42,14 @@ import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.protocol.HTTP;
 import org.apache.http.util.EntityUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.TimeZone;
 
 import com.google.api.services.drive.model.File;
@@ -54,6 +57,12 @@ import com.google.api.services.drive.model.File;
 import static com.google.api.client.json.Json.MEDIA_TYPE;
 
 public class DriveWriteFeature extends AbstractHttpWriteFeature<File> implements Write<File> {
+    private static final Logger log = LogManager.getLogger(DriveWriteFeature.class);
+
+    /**
+     * Parameter in transfer status with session URI of resumable upload created prior transfer
+     */
+    public static final String UPLOAD_SESSION_PARAMETER = "upload_session";
 
     private final DriveSession session;
     private final DriveFileIdProvider fileid;
@@ -80,89 +89,40 @@ public class DriveWriteFeature extends AbstractHttpWriteFeature<File> implements
             @Override
             public File call(final AbstractHttpEntity entity) throws BackgroundException {
                 try {
-                    // Initiate a resumable upload
-                    final HttpEntityEnclosingRequestBase request;
-                    if(status.isExists()) {
-                        final String fileid = DriveWriteFeature.this.fileid.getFileId(file, new DisabledListProgressListener());
-                        request = new HttpPatch(String.format("%supload/drive/v3/files/%s?supportsAllDrives=true&fields=%s",
-                                session.getClient().getRootUrl(), fileid, DriveAttributesFinderFeature.DEFAULT_FIELDS));
-                        if(StringUtils.isNotBlank(status.getMime())) {
-                            request.setHeader(HttpHeaders.CONTENT_TYPE, status.getMime());
-                        }
-                        // Upload the file
-                        request.setEntity(entity);
-                    }
-                    else {
-                        request = new HttpPost(String.format("%supload/drive/v3/files?uploadType=resumable&supportsAllDrives=%s&fields=%s",
-                                session.getClient().getRootUrl(), new HostPreferences(session.getHost()).getBoolean("googledrive.teamdrive.enable"),
-                                DriveAttributesFinderFeature.DEFAULT_FIELDS));
-                        final StringBuilder metadata = new StringBuilder("{");
-                        metadata.append(String.format("\"name\":\"%s\"", file.getName()));
-                        if(null != status.getTimestamp()) {
-                            metadata.append(String.format(",\"modifiedTime\":\"%s\"",
-                                    new RFC3339DateFormatter().format(status.getTimestamp(), TimeZone.getTimeZone("UTC"))));
-                        }
-                        if(StringUtils.isNotBlank(status.getMime())) {
-                            metadata.append(String.format(",\"mimeType\":\"%s\"", status.getMime()));
+                    if(null == status.getUrl()) {
+                        if(status.getParameters().containsKey(UPLOAD_SESSION_PARAMETER)) {
+                            // Use session initiated prior transfer
+                            status.setUrl(status.getParameters().get(UPLOAD_SESSION_PARAMETER));
                         }
-                        metadata.append(String.format(",\"parents\":[\"%s\"]", fileid.getFileId(file.getParent(), new DisabledListProgressListener())));
-                        metadata.append("}");
-                        request.setEntity(new StringEntity(metadata.toString(),
-                                ContentType.create("application/json", StandardCharsets.UTF_8.name())));
-                        if(StringUtils.isNotBlank(status.getMime())) {
-                            // Set to the media MIME type of the upload data to be transferred in subsequent requests.
-                            request.addHeader("X-Upload-Content-Type", status.getMime());
+                        else {
+                            status.setUrl(DriveWriteFeature.this.start(file, status));
                         }
                     }
-                    request.addHeader(HTTP.CONTENT_TYPE, MEDIA_TYPE);
-                    final HttpClient client = session.getHttpClient();
-                    final HttpResponse postResponse = client.execute(request);
+                    // Upload the file. Session URI is kept in status to resume on failure
+                    final HttpPut put = new HttpPut(status.getUrl());
+                    if(status.isAppend()) {
+                        final long length = status.getOffset() + status.getLength();
+                        put.addHeader(HttpHeaders.CONTENT_RANGE, String.format("bytes %d-%d/%d",
+                                status.getOffset(), length - 1, length));
+                    }
+                    put.setEntity(entity);
+                    final HttpResponse putResponse = session.getHttpClient().execute(put);
                     try {
-                        switch(postResponse.getStatusLine().getStatusCode()) {
+                        switch(putResponse.getStatusLine().getStatusCode()) {
                             case HttpStatus.SC_OK:
-                                if(status.isExists()) {
-                                    return session.getClient().getObjectParser().parseAndClose(
-                                            new InputStreamReader(postResponse.getEntity().getContent(), StandardCharsets.UTF_8), File.class);
-                                }
-                                break;
+                            case HttpStatus.SC_CREATED:
+                                final File response = session.getClient().getObjectParser().parseAndClose(
+                                        new InputStreamReader(putResponse.getEntity().getContent(), StandardCharsets.UTF_8), File.class);
+                                fileid.cache(file, response.getId());
+                                return response;
                             default:
                                 throw new DefaultHttpResponseExceptionMappingService().map(
-                                        new HttpResponseException(postResponse.getStatusLine().getStatusCode(), postResponse.getStatusLine().getReasonPhrase()));
+                                        new HttpResponseException(putResponse.getStatusLine().getStatusCode(), putResponse.getStatusLine().getReasonPhrase()));
                         }
                     }
                     finally {
-                        EntityUtils.consume(postResponse.getEntity());
-                    }
-                    if(!status.isExists()) {
-                        if(postResponse.containsHeader(HttpHeaders.LOCATION)) {
-                            final String putTarget = postResponse.getFirstHeader(HttpHeaders.LOCATION).getValue();
-                            // Upload the file
-                            final HttpPut put = new HttpPut(putTarget);
-                            put.setEntity(entity);
-                            final HttpResponse putResponse = client.execute(put);
-                            try {
-                                switch(putResponse.getStatusLine().getStatusCode()) {
-                                    case HttpStatus.SC_OK:
-                                    case HttpStatus.SC_CREATED:
-                                        final File response = session.getClient().getObjectParser().parseAndClose(
-                                                new InputStreamReader(putResponse.getEntity().getContent(), StandardCharsets.UTF_8), File.class);
-                                        fileid.cache(file, response.getId());
-                                        return response;
-                                    default:
-                                        throw new DefaultHttpResponseExceptionMappingService().map(
-                                                new HttpResponseException(putResponse.getStatusLine().getStatusCode(), putResponse.getStatusLine().getReasonPhrase()));
-                                }
-                            }
-                            finally {
-                                EntityUtils.consume(putResponse.getEntity());
-                            }
-                        }
-                        else {
-                            throw new DefaultHttpResponseExceptionMappingService().map(
-                                    new HttpResponseException(postResponse.getStatusLine().getStatusCode(), postResponse.getStatusLine().getReasonPhrase()));
-                        }
+                        EntityUtils.consume(putResponse.getEntity());
                     }
-                    return null;
                 }
                 catch(IOException e) {
                     throw new DriveExceptionMappingService(fileid).map("Upload {0} failed", e, file);
@@ -176,4 +136,127 @@ public class DriveWriteFeature extends AbstractHttpWriteFeature<File> implements
         };
         return this.write(file, status, command);
     }
+
+    /**
+     * Initiate a resumable upload
+     *
+     * @param file   File
+     * @param status Transfer status with length, timestamp and MIME type
+     * @return Session URI to upload content
+     */
+    public String start(final Path file, final TransferStatus status) throws BackgroundException {
+        try {
+            final HttpEntityEnclosingRequestBase request;
+            final StringBuilder metadata = new StringBuilder("{");
+            if(status.isExists()) {
+                final String fileid = this.fileid.getFileId(file, new DisabledListProgressListener());
+                request = new HttpPatch(String.format("%supload/drive/v3/files/%s?uploadType=resumable&supportsAllDrives=true&fields=%s",
+                        session.getClient().getRootUrl(), fileid, DriveAttributesFinderFeature.DEFAULT_FIELDS));
+            }
+            else {
+                request = new HttpPost(String.format("%supload/drive/v3/files?uploadType=resumable&supportsAllDrives=%s&fields=%s",
+                        session.getClient().getRootUrl(), new HostPreferences(session.getHost()).getBoolean("googledrive.teamdrive.enable"),
+                        DriveAttributesFinderFeature.DEFAULT_FIELDS));
+                metadata.append(String.format("\"name\":\"%s\",", file.getName()));
+                metadata.append(String.format("\"parents\":[\"%s\"],", fileid.getFileId(file.getParent(), new DisabledListProgressListener())));
+            }
+            if(null != status.getTimestamp()) {
+                metadata.append(String.format("\"modifiedTime\":\"%s\",",
+                        new RFC3339DateFormatter().format(status.getTimestamp(), TimeZone.getTimeZone("UTC"))));
+            }
+            if(StringUtils.isNotBlank(status.getMime())) {
+                metadata.append(String.format("\"mimeType\":\"%s\",", status.getMime()));
+            }
+            metadata.setLength(metadata.length() - (metadata.length() > 1 ? 1 : 0));
+            metadata.append("}");
+            request.setEntity(new StringEntity(metadata.toString(),
+                    ContentType.create("application/json", StandardCharsets.UTF_8.name())));
+            if(StringUtils.isNotBlank(status.getMime())) {
+                // Set to the media MIME type of the upload data to be transferred in subsequent requests.
+                request.addHeader("X-Upload-Content-Type", status.getMime());
+            }
+            if(TransferStatus.UNKNOWN_LENGTH != status.getLength()) {
+                request.addHeader("X-Upload-Content-Length", String.valueOf(status.getOffset() + status.getLength()));
+            }
+            request.addHeader(HTTP.CONTENT_TYPE, MEDIA_TYPE);
+            final HttpResponse response = session.getHttpClient().execute(request);
+            try {
+                switch(response.getStatusLine().getStatusCode()) {
+                    case HttpStatus.SC_OK:
+                        if(response.containsHeader(HttpHeaders.LOCATION)) {
+                            final String location = response.getFirstHeader(HttpHeaders.LOCATION).getValue();
+                            if(log.isDebugEnabled()) {
+                                log.debug(String.format("Initiated resumable upload %s for %s", location, file));
+                            }
+                            return location;
+                        }
+                    default:
+                        throw new DefaultHttpResponseExceptionMappingService().map(
+                                new HttpResponseException(response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase()));
+                }
+            }
+            finally {
+                EntityUtils.consume(response.getEntity());
+            }
+        }
+        catch(IOException e) {
+            throw new DriveExceptionMappingService(fileid).map("Upload {0} failed", e, file);
+        }
+    }
+
+    /**
+     * Query resumable upload session for bytes persisted by server and set offset in status to resume upload.
+     *
+     * @param file   File
+     * @param status Transfer status with session URI
+     * @return File if upload is already complete
+     */
+    public File resume(final Path file, final TransferStatus status) throws BackgroundException {
+        try {
+            final long length = status.getOffset() + status.getLength();
+            final HttpPut request = new HttpPut(status.getUrl());
+            request.addHeader(HttpHeaders.CONTENT_RANGE, String.format("bytes */%d", length));
+            final HttpResponse response = session.getHttpClient().execute(request);
+            try {
+                switch(response.getStatusLine().getStatusCode()) {
+                    case HttpStatus.SC_OK:
+                    case HttpStatus.SC_CREATED:
+                        final File reply = session.getClient().getObjectParser().parseAndClose(
+                                new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8), File.class);
+                        fileid.cache(file, reply.getId());
+                        return reply;
+                    case 308:
+                        // Resume Incomplete with range of bytes received
+                        long committed = 0L;
+                        if(response.containsHeader(HttpHeaders.RANGE)) {
+                            committed = Long.parseLong(StringUtils.substringAfter(response.getFirstHeader(HttpHeaders.RANGE).getValue(), "-")) + 1;
+                        }
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Resume upload %s for %s at offset %d", status.getUrl(), file, committed));
+                        }
+                        status.setOffset(committed);
+                        status.setLength(length - committed);
+                        status.setAppend(committed > 0L);
+                        return null;
+                    case HttpStatus.SC_NOT_FOUND:
+                    case HttpStatus.SC_GONE:
+                        log.warn(String.format("Upload session %s for %s expired", status.getUrl(), file));
+                        status.setUrl(null);
+                        final Map<String, String> parameters = new HashMap<>(status.getParameters());
+                        parameters.remove(UPLOAD_SESSION_PARAMETER);
+                        status.setParameters(parameters);
+                        return null;
+                    default:
+                        throw new DefaultHttpResponseExceptionMappingService().map(
+                                new HttpResponseException(response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase()));
+                }
+            }
+            finally {
+                EntityUtils.consume(response.getEntity());
+            }
+        }
+        catch(IOException e) {
+            throw new DriveExceptionMappingService(fileid).map("Upload {0} failed", e, file);
+        }
+    }
 }
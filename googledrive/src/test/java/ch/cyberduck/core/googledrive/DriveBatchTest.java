@@ -0,0 +1,93 @@
+package ch.cyberduck.core.googledrive;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import com.google.api.services.drive.model.File;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class DriveBatchTest extends AbstractDriveTest {
+
+    @Test
+    public void testExecute() throws Exception {
+        final DriveFileIdProvider fileid = new DriveFileIdProvider(session);
+        final DriveBatch batch = new DriveBatch(session, fileid, 1);
+        final List<Path> created = new ArrayList<>();
+        final Path folder = new Path(DriveHomeFinderService.MYDRIVE_FOLDER, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory));
+        batch.queue(folder, session.getClient().files().create(new File()
+                .setName(folder.getName())
+                .setMimeType("application/vnd.google-apps.folder")
+                .setParents(Collections.singletonList(fileid.getFileId(folder.getParent(), new DisabledListProgressListener())))), new DriveBatch.Callback<File>() {
+            @Override
+            public void success(final Path file, final File response) {
+                fileid.cache(file, response.getId());
+                created.add(file);
+            }
+        });
+        // Executed with partition size reached
+        assertEquals(Collections.singletonList(folder), created);
+        assertTrue(batch.execute().isEmpty());
+        assertTrue(new DriveFindFeature(session, fileid).find(folder));
+        new DriveDeleteFeature(session, fileid).delete(Collections.singletonList(folder), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final DriveFileIdProvider fileid = new DriveFileIdProvider(session);
+        final DriveBatch batch = new DriveBatch(session, fileid);
+        final List<BackgroundException> failures = new ArrayList<>();
+        final Path folder = new Path(DriveHomeFinderService.MYDRIVE_FOLDER, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory));
+        batch.queue(folder, session.getClient().files().create(new File()
+                .setName(folder.getName())
+                .setMimeType("application/vnd.google-apps.folder")
+                .setParents(Collections.singletonList(new AlphanumericRandomStringService().random()))), new DriveBatch.Callback<File>() {
+            @Override
+            public void success(final Path file, final File response) {
+                fail();
+            }
+
+            @Override
+            public void failure(final Path file, final BackgroundException failure) {
+                failures.add(failure);
+            }
+        });
+        assertTrue(failures.isEmpty());
+        final List<BackgroundException> result = batch.execute();
+        assertEquals(1, result.size());
+        assertEquals(failures, result);
+        assertTrue(result.get(0) instanceof NotfoundException);
+        // Failures are reset
+        assertTrue(batch.execute().isEmpty());
+    }
+}
@@ -0,0 +1,80 @@
+package ch.cyberduck.core.googledrive;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.DisabledConnectionCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.transfer.Transfer;
+import ch.cyberduck.core.transfer.TransferItem;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class DriveBulkFeatureTest extends AbstractDriveTest {
+
+    @Test
+    public void testPreCreateFolders() throws Exception {
+        final DriveFileIdProvider fileid = new DriveFileIdProvider(session);
+        final Path parent = new Path(DriveHomeFinderService.MYDRIVE_FOLDER, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory));
+        final Path child = new Path(parent, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory));
+        final Path encrypted = new Path(parent, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory, Path.Type.encrypted));
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Map<TransferItem, TransferStatus> files = new HashMap<>();
+        final TransferStatus parentStatus = new TransferStatus();
+        files.put(new TransferItem(parent, local), parentStatus);
+        final TransferStatus childStatus = new TransferStatus();
+        files.put(new TransferItem(child, local), childStatus);
+        final TransferStatus encryptedStatus = new TransferStatus();
+        files.put(new TransferItem(encrypted, local), encryptedStatus);
+        new DriveBulkFeature(session, fileid).pre(Transfer.Type.upload, files, new DisabledConnectionCallback());
+        assertTrue(parentStatus.isExists());
+        assertTrue(childStatus.isExists());
+        // Left to directory feature in vault
+        assertFalse(encryptedStatus.isExists());
+        final DriveFindFeature find = new DriveFindFeature(session, fileid);
+        assertTrue(find.find(parent));
+        assertTrue(find.find(child));
+        assertFalse(find.find(encrypted));
+        new DriveDeleteFeature(session, fileid).delete(Arrays.asList(child, parent), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+
+    @Test
+    public void testPreDownload() throws Exception {
+        final DriveFileIdProvider fileid = new DriveFileIdProvider(session);
+        final Path folder = new Path(DriveHomeFinderService.MYDRIVE_FOLDER, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory));
+        final TransferStatus status = new TransferStatus();
+        new DriveBulkFeature(session, fileid).pre(Transfer.Type.download,
+                Collections.singletonMap(new TransferItem(folder, new Local(System.getProperty("java.io.tmpdir"), folder.getName())), status),
+                new DisabledConnectionCallback());
+        assertFalse(status.isExists());
+        assertFalse(new DriveFindFeature(session, fileid).find(folder));
+    }
+}
@@ -29,6 +29,12 @@ import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.test.IntegrationTest;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.util.EntityUtils;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
@@ -79,4 +85,39 @@ public class DriveUploadFeatureTest extends AbstractDriveTest {
         new DriveDeleteFeature(session, fileid).delete(Collections.singletonList(test), new DisabledLoginCallback(),
             new Delete.DisabledCallback());
     }
+
+    @Test
+    public void testResume() throws Exception {
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        // Chunks must be multiple of 256 KiB
+        final byte[] content = RandomUtils.nextBytes(2 * 256 * 1024);
+        final OutputStream out = local.getOutputStream(false);
+        IOUtils.write(content, out);
+        IOUtils.closeQuietly(out);
+        final Path test = new Path(DriveHomeFinderService.MYDRIVE_FOLDER, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file));
+        final DriveFileIdProvider fileid = new DriveFileIdProvider(session);
+        final DriveWriteFeature writer = new DriveWriteFeature(session, fileid);
+        final TransferStatus status = new TransferStatus().withLength(content.length);
+        status.setUrl(writer.start(test, status));
+        // Interrupted upload with first chunk persisted
+        final HttpPut put = new HttpPut(status.getUrl());
+        put.addHeader(HttpHeaders.CONTENT_RANGE, String.format("bytes 0-%d/%d", 256 * 1024 - 1, content.length));
+        put.setEntity(new ByteArrayEntity(content, 0, 256 * 1024));
+        final HttpResponse response = session.getHttpClient().execute(put);
+        assertEquals(308, response.getStatusLine().getStatusCode());
+        EntityUtils.consume(response.getEntity());
+        assertNull(writer.resume(test, status));
+        assertEquals(256 * 1024, status.getOffset());
+        assertEquals(content.length - 256 * 1024, status.getLength());
+        assertTrue(status.isAppend());
+        new DriveUploadFeature(writer).upload(test, local, new BandwidthThrottle(BandwidthThrottle.UNLIMITED), new DisabledStreamListener(),
+            status, new DisabledConnectionCallback());
+        assertEquals(content.length, new DriveAttributesFinderFeature(session, fileid).find(test).getSize());
+        final byte[] buffer = new byte[content.length];
+        IOUtils.readFully(new DriveReadFeature(session, fileid).read(test, new TransferStatus(), new DisabledConnectionCallback()), buffer);
+        assertArrayEquals(content, buffer);
+        new DriveDeleteFeature(session, fileid).delete(Collections.singletonList(test), new DisabledLoginCallback(),
+            new Delete.DisabledCallback());
+        local.delete();
+    }
 }
@@ -269,6 +269,9 @@ public abstract class GraphSession extends HttpSession<OneDriveAPI> {
         if(type == Versioning.class) {
             return (T) new GraphVersioningFeature(this, fileid);
         }
+        if(type == ChangeFeed.class) {
+            return (T) new GraphChangeFeedFeature(this, fileid);
+        }
         return super._getFeature(type);
     }
 
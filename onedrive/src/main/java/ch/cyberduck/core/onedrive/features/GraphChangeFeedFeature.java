@@ -0,0 +1,193 @@
+package ch.cyberduck.core.onedrive.features;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.ChangeFeed;
+import ch.cyberduck.core.http.DefaultHttpResponseExceptionMappingService;
+import ch.cyberduck.core.onedrive.GraphExceptionMappingService;
+import ch.cyberduck.core.onedrive.GraphSession;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpResponseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.nuxeo.onedrive.client.OneDriveAPIException;
+import org.nuxeo.onedrive.client.RequestHeader;
+import org.nuxeo.onedrive.client.Response;
+import org.nuxeo.onedrive.client.types.DriveItem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Changes from <code>delta</code> query on the watched folder. The cursor is the <code>@odata.deltaLink</code> of the
+ * last response. Parent folders are resolved by id as the delta response does not include the path.
+ */
+public class GraphChangeFeedFeature implements ChangeFeed {
+    private static final Logger log = LogManager.getLogger(GraphChangeFeedFeature.class);
+
+    private final GraphSession session;
+    private final GraphFileIdProvider fileid;
+
+    public GraphChangeFeedFeature(final GraphSession session, final GraphFileIdProvider fileid) {
+        this.session = session;
+        this.fileid = fileid;
+    }
+
+    @Override
+    public String cursor(final Path directory) throws BackgroundException {
+        try {
+            final DriveItem.Metadata metadata = session.getMetadata(session.getItem(directory), null);
+            JsonObject response = this.get(directory, String.format("%s/drives/%s/items/%s/delta?token=latest",
+                session.getClient().getBaseURL(), metadata.getParentReference().getDriveId(), metadata.getId()));
+            while(!response.has("@odata.deltaLink")) {
+                response = this.get(directory, response.get("@odata.nextLink").getAsString());
+            }
+            return response.get("@odata.deltaLink").getAsString();
+        }
+        catch(OneDriveAPIException e) {
+            throw new GraphExceptionMappingService(fileid).map("Listing directory {0} failed", e, directory);
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    @Override
+    public String poll(final Path directory, final String cursor, final Listener listener) throws BackgroundException {
+        try {
+            final DriveItem.Metadata metadata = session.getMetadata(session.getItem(directory), null);
+            final String drive = metadata.getParentReference().getDriveId();
+            // Resolved folders by item id
+            final Map<String, Path> folders = new HashMap<>();
+            folders.put(metadata.getId(), directory);
+            String link = cursor;
+            while(true) {
+                final JsonObject response = this.get(directory, link);
+                for(JsonElement element : response.getAsJsonArray("value")) {
+                    final JsonObject item = element.getAsJsonObject();
+                    if(metadata.getId().equals(item.get("id").getAsString())) {
+                        continue;
+                    }
+                    if(!item.has("parentReference") || !item.getAsJsonObject("parentReference").has("id")) {
+                        if(log.isDebugEnabled()) {
+                            log.debug(String.format("Ignore change %s with unknown location", item.get("id")));
+                        }
+                        continue;
+                    }
+                    final Path parent = this.resolve(directory, drive, item.getAsJsonObject("parentReference").get("id").getAsString(),
+                        folders, new HashSet<>());
+                    if(null == parent) {
+                        // Outside of watched directory
+                        continue;
+                    }
+                    final Path file;
+                    if(item.has("deleted") || !item.has("name")) {
+                        // Type no longer known
+                        file = parent;
+                    }
+                    else {
+                        file = new Path(parent, item.get("name").getAsString(),
+                            item.has("folder") ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file),
+                            new PathAttributes().withFileId(item.get("id").getAsString()));
+                    }
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Change for file %s", file));
+                    }
+                    listener.changed(file);
+                }
+                if(response.has("@odata.deltaLink")) {
+                    return response.get("@odata.deltaLink").getAsString();
+                }
+                link = response.get("@odata.nextLink").getAsString();
+            }
+        }
+        catch(OneDriveAPIException e) {
+            throw new GraphExceptionMappingService(fileid).map("Listing directory {0} failed", e, directory);
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    /**
+     * @param id      Folder id
+     * @param folders Cache of resolved folders
+     * @param visited Folders already visited in this lookup
+     * @return Null if folder is not contained in watched directory
+     */
+    private Path resolve(final Path directory, final String drive, final String id, final Map<String, Path> folders,
+                         final Set<String> visited) throws BackgroundException, IOException {
+        if(folders.containsKey(id)) {
+            return folders.get(id);
+        }
+        if(!visited.add(id)) {
+            return null;
+        }
+        final JsonObject folder = this.get(directory, String.format("%s/drives/%s/items/%s?$select=id,name,parentReference",
+            session.getClient().getBaseURL(), drive, id));
+        final Path resolved;
+        if(!folder.has("parentReference") || !folder.getAsJsonObject("parentReference").has("id")) {
+            // Reached root of drive
+            resolved = null;
+        }
+        else {
+            final Path parent = this.resolve(directory, drive, folder.getAsJsonObject("parentReference").get("id").getAsString(),
+                folders, visited);
+            resolved = null == parent ? null : new Path(parent, folder.get("name").getAsString(), EnumSet.of(Path.Type.directory),
+                new PathAttributes().withFileId(id));
+        }
+        folders.put(id, resolved);
+        return resolved;
+    }
+
+    private JsonObject get(final Path directory, final String url) throws BackgroundException, IOException {
+        final Set<RequestHeader> headers = new HashSet<>();
+        session.getClient().getExecutor().addAuthorizationHeader(headers);
+        final Response response = session.getClient().getExecutor().doGet(new URL(url), headers);
+        try (InputStream in = response.getInputStream()) {
+            switch(response.getStatusCode()) {
+                case HttpStatus.SC_OK:
+                    return JsonParser.parseReader(new InputStreamReader(in, StandardCharsets.UTF_8)).getAsJsonObject();
+                case HttpStatus.SC_BAD_REQUEST:
+                case HttpStatus.SC_FORBIDDEN:
+                case HttpStatus.SC_NOT_IMPLEMENTED:
+                    // Delta query not available for folder other than drive root with business accounts
+                    throw new UnsupportedException(response.getStatusMessage());
+                default:
+                    throw new DefaultHttpResponseExceptionMappingService().map("Listing directory {0} failed",
+                        new HttpResponseException(response.getStatusCode(), response.getStatusMessage()), directory);
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@ import ch.cyberduck.core.URIEncoder;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.UnsupportedException;
 import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.http.DefaultHttpResponseExceptionMappingService;
 import ch.cyberduck.core.http.HttpRange;
 import ch.cyberduck.core.http.HttpResponseOutputStream;
 import ch.cyberduck.core.io.MemorySegementingOutputStream;
@@ -31,22 +32,47 @@ import ch.cyberduck.core.onedrive.GraphSession;
 import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
 import ch.cyberduck.core.threading.DefaultRetryCallable;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpResponseException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.nuxeo.onedrive.client.Files;
 import org.nuxeo.onedrive.client.OneDriveAPIException;
 import org.nuxeo.onedrive.client.OneDriveJsonObject;
+import org.nuxeo.onedrive.client.Response;
 import org.nuxeo.onedrive.client.UploadSession;
 import org.nuxeo.onedrive.client.types.DriveItem;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
 public class GraphWriteFeature implements Write<DriveItem.Metadata> {
     private static final Logger log = LogManager.getLogger(GraphWriteFeature.class);
 
@@ -73,7 +99,8 @@ public class GraphWriteFeature implements Write<DriveItem.Metadata> {
                 item = new DriveItem(folder, URIEncoder.encode(file.getName()));
             }
             final UploadSession upload = Files.createUploadSession(item);
-            final ChunkedOutputStream proxy = new ChunkedOutputStream(upload, file, status);
+            final ChunkedOutputStream proxy = new ChunkedOutputStream(upload, file, status,
+                    new HostPreferences(session.getHost()).getInteger("onedrive.upload.multipart.concurrency"));
             final int partsize = new HostPreferences(session.getHost()).getInteger("onedrive.upload.multipart.partsize.minimum")
                     * new HostPreferences(session.getHost()).getInteger("onedrive.upload.multipart.partsize.factor");
             return new HttpResponseOutputStream<DriveItem.Metadata>(new MemorySegementingOutputStream(proxy, partsize), new GraphAttributesFinderFeature(session, fileid), status) {
@@ -96,21 +123,32 @@ public class GraphWriteFeature implements Write<DriveItem.Metadata> {
         return new Append(false).withStatus(status);
     }
 
+    /**
+     * Upload fragments of upload session in parallel with bounded number of fragments in flight. Fragments are accepted
+     * in any order by the server and the reply to the last fragment received contains the drive item.
+     */
     private final class ChunkedOutputStream extends OutputStream {
         private final UploadSession upload;
         private final Path file;
         private final TransferStatus overall;
         private final AtomicBoolean close = new AtomicBoolean();
         private final AtomicReference<DriveItem.Metadata> response = new AtomicReference<>();
+        private final AtomicReference<BackgroundException> failure = new AtomicReference<>();
+
+        private final ThreadPool pool;
+        private final Semaphore permits;
+        private final List<Future<Void>> fragments = new ArrayList<>();
 
         private Long offset = 0L;
         private final Long length;
 
-        public ChunkedOutputStream(final UploadSession upload, final Path file, final TransferStatus status) {
+        public ChunkedOutputStream(final UploadSession upload, final Path file, final TransferStatus status, final int concurrency) {
             this.upload = upload;
             this.file = file;
             this.overall = status;
             this.length = status.getOffset() + status.getLength();
+            this.pool = ThreadPoolFactory.get("fragment", concurrency);
+            this.permits = new Semaphore(concurrency);
         }
 
         @Override
@@ -120,41 +158,122 @@ public class GraphWriteFeature implements Write<DriveItem.Metadata> {
 
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
-            final byte[] content = Arrays.copyOfRange(b, off, len);
+            final byte[] content = Arrays.copyOfRange(b, off, off + len);
             final HttpRange range = HttpRange.byLength(offset, content.length);
             final String header = String.format("%d-%d/%d", range.getStart(), range.getEnd(), length);
             try {
-                new DefaultRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<Void>() {
-                    @Override
-                    public Void call() throws BackgroundException {
-                        try {
-                            final OneDriveJsonObject reply = upload.uploadFragment(header, content);
-                            if(reply instanceof DriveItem.Metadata) {
-                                if(log.isInfoEnabled()) {
-                                    log.info(String.format("Completed upload for %s", file));
+                // Wait for fragment in flight to complete
+                while(!permits.tryAcquire(1L, TimeUnit.SECONDS)) {
+                    overall.validate();
+                }
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            catch(BackgroundException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            if(failure.get() != null) {
+                permits.release();
+                throw new IOException(failure.get().getMessage(), failure.get());
+            }
+            fragments.add(pool.execute(new Callable<Void>() {
+                @Override
+                public Void call() throws BackgroundException {
+                    try {
+                        return new DefaultRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<Void>() {
+                            private boolean retry;
+
+                            @Override
+                            public Void call() throws BackgroundException {
+                                if(retry) {
+                                    // Resume from ranges missing on server
+                                    if(!expected(range)) {
+                                        if(log.isInfoEnabled()) {
+                                            log.info(String.format("Skip fragment %s for file %s already received", header, file));
+                                        }
+                                        return null;
+                                    }
+                                }
+                                retry = true;
+                                upload(header, content);
+                                return null;
+                            }
+                        }, overall).call();
+                    }
+                    catch(BackgroundException e) {
+                        failure.compareAndSet(null, e);
+                        throw e;
+                    }
+                    finally {
+                        permits.release();
+                    }
+                }
+            }));
+            offset += content.length;
+        }
+
+        private void upload(final String header, final byte[] content) throws BackgroundException {
+            try {
+                final OneDriveJsonObject reply = upload.uploadFragment(header, content);
+                if(reply instanceof DriveItem.Metadata) {
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Completed upload for %s", file));
+                    }
+                    final String id = session.getFileId(((DriveItem.Metadata) reply));
+                    fileid.cache(file, id);
+                    response.set((DriveItem.Metadata) reply);
+                }
+                else {
+                    log.debug(String.format("Uploaded fragment %s for file %s", header, file));
+                }
+            }
+            catch(OneDriveAPIException e) {
+                throw new GraphExceptionMappingService(fileid).map("Upload {0} failed", e, file);
+            }
+            catch(IOException e) {
+                throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
+            }
+        }
+
+        /**
+         * @param range Fragment
+         * @return True if any byte of range is in next expected ranges reported by upload session status
+         */
+        private boolean expected(final HttpRange range) throws BackgroundException {
+            try {
+                final Response status = session.getClient().getExecutor().doGet(upload.getUploadUrl(), Collections.emptySet());
+                try (InputStream in = status.getInputStream()) {
+                    switch(status.getStatusCode()) {
+                        case HttpStatus.SC_OK:
+                            final JsonObject json = JsonParser.parseReader(new InputStreamReader(in, StandardCharsets.UTF_8)).getAsJsonObject();
+                            if(!json.has("nextExpectedRanges")) {
+                                return true;
+                            }
+                            for(JsonElement element : json.getAsJsonArray("nextExpectedRanges")) {
+                                // Format start-end with end omitted for remainder of file
+                                final String value = element.getAsString();
+                                final long start = Long.parseLong(StringUtils.substringBefore(value, "-"));
+                                final long end = StringUtils.isBlank(StringUtils.substringAfter(value, "-")) ?
+                                        length - 1 : Long.parseLong(StringUtils.substringAfter(value, "-"));
+                                if(start <= range.getEnd() && end >= range.getStart()) {
+                                    return true;
                                 }
-                                final String id = session.getFileId(((DriveItem.Metadata) reply));
-                                fileid.cache(file, id);
-                                response.set((DriveItem.Metadata) reply);
                             }
-                            else {
-                                log.debug(String.format("Uploaded fragment %s for file %s", header, file));
+                            if(log.isDebugEnabled()) {
+                                log.debug(String.format("Range %s not in expected ranges %s", range, json.getAsJsonArray("nextExpectedRanges")));
                             }
-                        }
-                        catch(OneDriveAPIException e) {
-                            throw new GraphExceptionMappingService(fileid).map("Upload {0} failed", e, file);
-                        }
-                        catch(IOException e) {
-                            throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
-                        }
-                        return null;
+                            return false;
+                        default:
+                            throw new DefaultHttpResponseExceptionMappingService().map("Upload {0} failed",
+                                    new HttpResponseException(status.getStatusCode(), status.getStatusMessage()), file);
                     }
-                }, overall).call();
+                }
             }
-            catch(BackgroundException e) {
-                throw new IOException(e.getMessage(), e);
+            catch(IOException e) {
+                throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
             }
-            offset += content.length;
         }
 
         @Override
@@ -164,17 +283,34 @@ public class GraphWriteFeature implements Write<DriveItem.Metadata> {
                     log.warn(String.format("Skip double close of stream %s", this));
                     return;
                 }
+                for(Future<Void> fragment : fragments) {
+                    try {
+                        Uninterruptibles.getUninterruptibly(fragment);
+                    }
+                    catch(ExecutionException e) {
+                        log.warn(String.format("Fragment upload failed with execution failure %s", e.getMessage()));
+                        Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
+                        throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
+                    }
+                }
                 if(0L == offset) {
                     log.warn(String.format("Abort upload session %s with no completed parts", upload));
                     // Use touch feature for empty file upload
                     upload.cancelUpload();
                     new GraphTouchFeature(session, fileid).touch(file, overall);
                 }
+                else if(null == response.get()) {
+                    // Reply for last fragment skipped on retry
+                    final DriveItem.Metadata metadata = session.getMetadata(session.getItem(file), null);
+                    fileid.cache(file, session.getFileId(metadata));
+                    response.set(metadata);
+                }
             }
             catch(BackgroundException e) {
-                throw new IOException(e);
+                throw new IOException(e.getMessage(), e);
             }
             finally {
+                pool.shutdown(false);
                 close.set(true);
             }
         }
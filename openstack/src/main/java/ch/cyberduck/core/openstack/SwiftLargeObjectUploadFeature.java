@@ -18,7 +18,6 @@ package ch.cyberduck.core.openstack;
  * feedback@cyberduck.ch
  */
 
-import ch.cyberduck.core.BytecountStreamListener;
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.DefaultPathContainerService;
@@ -34,13 +33,11 @@ import ch.cyberduck.core.http.HttpUploadFeature;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.HashAlgorithm;
 import ch.cyberduck.core.io.StreamListener;
-import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
-import ch.cyberduck.core.transfer.SegmentRetryCallable;
 import ch.cyberduck.core.transfer.TransferStatus;
-import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+import ch.cyberduck.core.upload.MultipartUploadProvider;
+import ch.cyberduck.core.upload.MultipartUploadService;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -48,16 +45,15 @@ import java.io.IOException;
 import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.Map;
 
 import ch.iterate.openstack.swift.exception.GenericException;
 import ch.iterate.openstack.swift.model.StorageObject;
-import com.google.common.base.Throwables;
-import com.google.common.util.concurrent.Uninterruptibles;
 
-public class SwiftLargeObjectUploadFeature extends HttpUploadFeature<StorageObject, MessageDigest> {
+public class SwiftLargeObjectUploadFeature extends HttpUploadFeature<StorageObject, MessageDigest>
+    implements MultipartUploadProvider<StorageObject, Path, StorageObject> {
     private static final Logger log = LogManager.getLogger(SwiftLargeObjectUploadFeature.class);
 
     private final SwiftSession session;
@@ -98,66 +94,72 @@ public class SwiftLargeObjectUploadFeature extends HttpUploadFeature<StorageObje
                                 final StreamListener listener,
                                 final TransferStatus status,
                                 final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        return new MultipartUploadService<>(session.getHost(), this, concurrency).upload(file, local, throttle, listener, status, callback);
+    }
+
+    @Override
+    public Path find(final Path file, final TransferStatus status) {
+        return file;
+    }
+
+    @Override
+    public Map<Integer, StorageObject> list(final Path file) throws BackgroundException {
+        final Map<Integer, StorageObject> completed = new HashMap<>();
+        // Get a lexicographically ordered list of the existing file segments
         final List<Path> existingSegments = new ArrayList<>();
-        if(status.isAppend()) {
-            // Get a lexicographically ordered list of the existing file segments
-            try {
-                existingSegments.addAll(listService.list(segmentService.getSegmentsDirectory(file), new DisabledListProgressListener()).toList());
-            }
-            catch(NotfoundException e) {
-                // Ignore
-            }
+        try {
+            existingSegments.addAll(listService.list(segmentService.getSegmentsDirectory(file), new DisabledListProgressListener()).toList());
         }
-        // Get the results of the uploads in the order they were submitted
-        // this is important for building the manifest, and is not a problem in terms of performance
-        // because we should only continue when all segments have uploaded successfully
-        final List<StorageObject> completed = new ArrayList<>();
-        // Submit file segments for concurrent upload
-        final List<Future<StorageObject>> segments = new ArrayList<>();
-        long remaining = status.getLength();
-        long offset = 0;
-        for(int segmentNumber = 1; remaining > 0; segmentNumber++) {
-            final long length = Math.min(segmentSize, remaining);
+        catch(NotfoundException e) {
+            // Ignore
+        }
+        for(Path existingSegment : existingSegments) {
+            if(!StringUtils.isNumeric(existingSegment.getName())) {
+                continue;
+            }
             // Segment name with left padded segment number
-            final Path segment = segmentService.getSegment(file, segmentNumber);
-            if(existingSegments.contains(segment)) {
-                final Path existingSegment = existingSegments.get(existingSegments.indexOf(segment));
-                if(log.isDebugEnabled()) {
-                    log.debug(String.format("Skip segment %s", existingSegment));
-                }
-                final StorageObject stored = new StorageObject(containerService.getKey(segment));
-                if(HashAlgorithm.md5.equals(existingSegment.attributes().getChecksum().algorithm)) {
-                    stored.setMd5sum(existingSegment.attributes().getChecksum().hash);
-                }
-                stored.setSize(existingSegment.attributes().getSize());
-                offset += existingSegment.attributes().getSize();
-                completed.add(stored);
+            final int segmentNumber = Integer.parseInt(existingSegment.getName());
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Skip segment %s", existingSegment));
             }
-            else {
-                // Submit to queue
-                segments.add(this.submit(pool, segment, local, throttle, listener, status, offset, length, callback));
-                if(log.isDebugEnabled()) {
-                    log.debug(String.format("Segment %s submitted with size %d and offset %d",
-                        segment, length, offset));
-                }
-                remaining -= length;
-                offset += length;
+            final StorageObject stored = new StorageObject(containerService.getKey(existingSegment));
+            if(HashAlgorithm.md5.equals(existingSegment.attributes().getChecksum().algorithm)) {
+                stored.setMd5sum(existingSegment.attributes().getChecksum().hash);
             }
+            stored.setSize(existingSegment.attributes().getSize());
+            completed.put(segmentNumber, stored);
         }
-        try {
-            for(Future<StorageObject> f : segments) {
-                completed.add(Uninterruptibles.getUninterruptibly(f));
-            }
-        }
-        catch(ExecutionException e) {
-            log.warn(String.format("Part upload failed with execution failure %s", e.getMessage()));
-            Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
-            throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
-        }
-        finally {
-            pool.shutdown(false);
-        }
+        return completed;
+    }
+
+    @Override
+    public Path start(final Path file, final TransferStatus status) {
+        // Segments are uploaded as separate objects
+        return file;
+    }
+
+    @Override
+    public long partsize(final Path file, final long size) {
+        return segmentSize;
+    }
+
+    @Override
+    public StorageObject put(final Path file, final Path target, final Local local, final BandwidthThrottle throttle,
+                             final StreamListener listener, final TransferStatus overall, final TransferStatus status,
+                             final ConnectionCallback callback) throws BackgroundException {
+        final Path segment = segmentService.getSegment(file, status.getPart());
+        status.setChecksum(writer.checksum(segment, status).compute(local.getInputStream(), status));
+        return super.upload(segment, local, throttle, listener, status, overall, status, callback);
+    }
+
+    @Override
+    public long length(final StorageObject segment) {
+        return segment.getSize();
+    }
+
+    @Override
+    public StorageObject complete(final Path file, final Path target, final TransferStatus status,
+                                  final List<StorageObject> completed) throws BackgroundException {
         if(log.isInfoEnabled()) {
             log.info(String.format("Finished large file upload %s with %d parts", file, completed.size()));
         }
@@ -191,26 +193,6 @@ public class SwiftLargeObjectUploadFeature extends HttpUploadFeature<StorageObje
         }
     }
 
-    private Future<StorageObject> submit(final ThreadPool pool, final Path segment, final Local local,
-                                         final BandwidthThrottle throttle, final StreamListener listener,
-                                         final TransferStatus overall, final Long offset, final Long length, final ConnectionCallback callback) {
-        final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<StorageObject>() {
-            @Override
-            public StorageObject call() throws BackgroundException {
-                overall.validate();
-                final TransferStatus status = new TransferStatus()
-                    .withLength(length)
-                    .withOffset(offset);
-                status.setHeader(overall.getHeader());
-                status.setChecksum(writer.checksum(segment, status).compute(local.getInputStream(), status));
-                status.setSegment(true);
-                return SwiftLargeObjectUploadFeature.super.upload(
-                    segment, local, throttle, counter, status, overall, status, callback);
-            }
-        }, overall, counter));
-    }
-
     @Override
     public Upload<StorageObject> withWriter(final Write<StorageObject> writer) {
         this.writer = writer;
@@ -20,9 +20,11 @@ import ch.cyberduck.core.UrlProvider;
 import ch.cyberduck.core.dav.DAVSession;
 import ch.cyberduck.core.features.Lock;
 import ch.cyberduck.core.features.PromptUrlProvider;
+import ch.cyberduck.core.features.RecursiveList;
 import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.http.HttpUploadFeature;
+import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.nextcloud.NextcloudShareProvider;
 import ch.cyberduck.core.nextcloud.NextcloudUrlProvider;
 import ch.cyberduck.core.nextcloud.NextcloudWriteFeature;
@@ -42,6 +44,12 @@ public class OwncloudSession extends DAVSession {
             // https://github.com/nextcloud/server/issues/1308
             return null;
         }
+        if(type == RecursiveList.class) {
+            if(new HostPreferences(host).getBoolean("owncloud.listing.recursive.enable")) {
+                return (T) this.getRecursiveList();
+            }
+            return null;
+        }
         if(type == Upload.class) {
             return (T) new HttpUploadFeature(new NextcloudWriteFeature(this));
         }
@@ -79,7 +79,13 @@ public class S3CopyFeature implements Copy {
         destination.setAcl(acl.toAcl(status.getAcl()));
         final Path bucket = containerService.getContainer(target);
         destination.setBucketName(bucket.isRoot() ? StringUtils.EMPTY : bucket.getName());
-        destination.replaceAllMetadata(new HashMap<>(new S3MetadataFeature(session, acl).getMetadata(source)));
+        if(status.getMetadata().isEmpty()) {
+            // Keep metadata of source
+            destination.replaceAllMetadata(new HashMap<>(new S3MetadataFeature(session, acl).getMetadata(source)));
+        }
+        else {
+            destination.replaceAllMetadata(new HashMap<>(status.getMetadata()));
+        }
         final String versionId = this.copy(source, destination, status, listener);
         return target.withAttributes(new PathAttributes(source.attributes()).withVersionId(versionId));
     }
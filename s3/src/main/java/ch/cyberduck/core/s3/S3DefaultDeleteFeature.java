@@ -41,6 +41,7 @@ public class S3DefaultDeleteFeature implements Delete {
     private final S3Session session;
     private final PathContainerService containerService;
     private final S3MultipartService multipartService;
+    private final S3VersionedPlaceholderFinder placeholders;
 
     public S3DefaultDeleteFeature(final S3Session session) {
         this(session, new S3DefaultMultipartService(session));
@@ -50,6 +51,7 @@ public class S3DefaultDeleteFeature implements Delete {
         this.session = session;
         this.multipartService = multipartService;
         this.containerService = session.getFeature(PathContainerService.class);
+        this.placeholders = new S3VersionedPlaceholderFinder(session);
     }
 
     public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) throws BackgroundException {
@@ -61,6 +63,8 @@ public class S3DefaultDeleteFeature implements Delete {
             else {
                 callback.delete(file);
                 final Path bucket = containerService.getContainer(file);
+                // Determine version of placeholder not read in listing
+                placeholders.find(file);
                 if(file.getType().contains(Path.Type.upload)) {
                     // In-progress multipart upload
                     try {
@@ -19,6 +19,7 @@ package ch.cyberduck.core.s3;
  */
 
 import ch.cyberduck.core.Acl;
+import ch.cyberduck.core.DisabledConnectionCallback;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathContainerService;
@@ -29,6 +30,7 @@ import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.Encryption;
 import ch.cyberduck.core.features.Headers;
 import ch.cyberduck.core.features.Redundancy;
+import ch.cyberduck.core.io.DisabledStreamListener;
 import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.transfer.TransferStatus;
 
@@ -70,6 +72,18 @@ public class S3MetadataFeature implements Headers {
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Write metadata %s for file %s", status, file));
             }
+            if(file.isFile() && file.attributes().getSize() > new HostPreferences(session.getHost()).getLong("s3.upload.multipart.required.threshold")) {
+                // Single copy request to replace metadata is limited in size
+                final Map<String, String> metadata = new HashMap<>(status.getMetadata());
+                if(status.getTimestamp() != null) {
+                    metadata.put(S3TimestampFeature.METADATA_MODIFICATION_DATE, String.valueOf(status.getTimestamp()));
+                }
+                final Path copy = new S3ThresholdCopyFeature(session, acl).copy(file, file,
+                        new TransferStatus().withLength(file.attributes().getSize()).withMetadata(metadata),
+                        new DisabledConnectionCallback(), new DisabledStreamListener());
+                file.attributes().setVersionId(copy.attributes().getVersionId());
+                return;
+            }
             try {
                 final StorageObject target = new StorageObject(containerService.getKey(file));
                 target.replaceAllMetadata(new HashMap<>(status.getMetadata()));
@@ -59,6 +59,8 @@ public class S3MoveFeature implements Move {
     @Override
     public Path move(final Path source, final Path renamed, final TransferStatus status, final Delete.Callback callback, final ConnectionCallback connectionCallback) throws BackgroundException {
         Path copy;
+        // Determine version of placeholder not read in listing
+        new S3VersionedPlaceholderFinder(session).find(source);
         if(source.attributes().getCustom().containsKey(KEY_DELETE_MARKER)) {
             // Delete marker, copy not supported but we have to retain the delete marker at the target
             copy = new Path(renamed);
@@ -17,16 +17,13 @@ package ch.cyberduck.core.s3;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
-import ch.cyberduck.core.BytecountStreamListener;
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathContainerService;
-import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ChecksumException;
-import ch.cyberduck.core.exception.InteroperabilityException;
 import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.http.HttpUploadFeature;
@@ -35,12 +32,9 @@ import ch.cyberduck.core.io.ChecksumComputeFactory;
 import ch.cyberduck.core.io.HashAlgorithm;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.HostPreferences;
-import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
-import ch.cyberduck.core.transfer.SegmentRetryCallable;
 import ch.cyberduck.core.transfer.TransferStatus;
-import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+import ch.cyberduck.core.upload.MultipartUploadProvider;
+import ch.cyberduck.core.upload.MultipartUploadService;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -54,18 +48,13 @@ import org.jets3t.service.model.StorageObject;
 
 import java.security.MessageDigest;
 import java.text.MessageFormat;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 
-import com.google.common.base.Throwables;
-import com.google.common.util.concurrent.Uninterruptibles;
-
-public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, MessageDigest> {
+public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, MessageDigest>
+    implements MultipartUploadProvider<StorageObject, MultipartUpload, MultipartPart> {
     private static final Logger log = LogManager.getLogger(S3MultipartUploadService.class);
 
     private final S3Session session;
@@ -99,81 +88,81 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
     @Override
     public StorageObject upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                                 final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        return new MultipartUploadService<>(session.getHost(), this, concurrency).upload(file, local, throttle, listener, status, callback);
+    }
+
+    @Override
+    public MultipartUpload find(final Path file, final TransferStatus status) throws BackgroundException {
+        final List<MultipartUpload> list = multipartService.find(file);
+        if(list.isEmpty()) {
+            return null;
+        }
+        return list.iterator().next();
+    }
+
+    @Override
+    public Map<Integer, MultipartPart> list(final MultipartUpload multipart) throws BackgroundException {
+        final Map<Integer, MultipartPart> completed = new HashMap<>();
+        for(MultipartPart part : multipartService.list(multipart)) {
+            completed.put(part.getPartNumber(), part);
+        }
+        return completed;
+    }
+
+    @Override
+    public MultipartUpload start(final Path file, final TransferStatus status) throws BackgroundException {
         try {
-            MultipartUpload multipart = null;
-            try {
-                if(status.isAppend()) {
-                    final List<MultipartUpload> list = multipartService.find(file);
-                    if(!list.isEmpty()) {
-                        multipart = list.iterator().next();
-                    }
-                }
-            }
-            catch(AccessDeniedException | InteroperabilityException e) {
-                log.warn(String.format("Ignore failure listing incomplete multipart uploads. %s", e));
-            }
-            final List<MultipartPart> completed = new ArrayList<>();
-            // Not found or new upload
-            if(null == multipart) {
-                if(log.isInfoEnabled()) {
-                    log.info("No pending multipart upload found");
-                }
-                final S3Object object = new S3WriteFeature(session, acl).getDetails(file, status);
-                // ID for the initiated multipart upload.
-                final Path bucket = containerService.getContainer(file);
-                multipart = session.getClient().multipartStartUpload(bucket.isRoot() ? StringUtils.EMPTY : bucket.getName(), object);
-                if(log.isDebugEnabled()) {
-                    log.debug(String.format("Multipart upload started for %s with ID %s", multipart.getObjectKey(), multipart.getUploadId()));
-                }
-            }
-            else {
-                if(status.isAppend()) {
-                    // Add already completed parts
-                    completed.addAll(multipartService.list(multipart));
-                }
-            }
-            // Full size of file
-            final long size = status.getOffset() + status.getLength();
-            final List<Future<MultipartPart>> parts = new ArrayList<>();
-            long remaining = status.getLength();
-            long offset = 0;
-            for(int partNumber = 1; remaining > 0; partNumber++) {
-                boolean skip = false;
-                if(status.isAppend()) {
-                    if(log.isInfoEnabled()) {
-                        log.info(String.format("Determine if part number %d can be skipped", partNumber));
-                    }
-                    for(MultipartPart c : completed) {
-                        if(c.getPartNumber().equals(partNumber)) {
-                            if(log.isInfoEnabled()) {
-                                log.info(String.format("Skip completed part number %d", partNumber));
-                            }
-                            skip = true;
-                            offset += c.getSize();
-                            break;
-                        }
-                    }
-                }
-                if(!skip) {
-                    // Last part can be less than 5 MB. Adjust part size.
-                    final long length = Math.min(Math.max((size / (S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS - 1)), partsize), remaining);
-                    // Submit to queue
-                    parts.add(this.submit(pool, file, local, throttle, listener, status, multipart, partNumber, offset, length, callback));
-                    remaining -= length;
-                    offset += length;
-                }
-            }
-            for(Future<MultipartPart> f : parts) {
-                try {
-                    completed.add(Uninterruptibles.getUninterruptibly(f));
-                }
-                catch(ExecutionException e) {
-                    log.warn(String.format("Part upload failed with execution failure %s", e.getMessage()));
-                    Throwables.throwIfInstanceOf(Throwables.getRootCause(e), BackgroundException.class);
-                    throw new DefaultExceptionMappingService().map(Throwables.getRootCause(e));
-                }
+            final S3Object object = new S3WriteFeature(session, acl).getDetails(file, status);
+            // ID for the initiated multipart upload.
+            final Path bucket = containerService.getContainer(file);
+            final MultipartUpload multipart = session.getClient().multipartStartUpload(
+                bucket.isRoot() ? StringUtils.EMPTY : bucket.getName(), object);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Multipart upload started for %s with ID %s", multipart.getObjectKey(), multipart.getUploadId()));
             }
+            return multipart;
+        }
+        catch(ServiceException e) {
+            throw new S3ExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+    }
+
+    @Override
+    public long partsize(final MultipartUpload multipart, final long size) {
+        // Last part can be less than 5 MB. Adjust part size.
+        return Math.max((size / (S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS - 1)), partsize);
+    }
+
+    @Override
+    public MultipartPart put(final MultipartUpload multipart, final Path file, final Local local, final BandwidthThrottle throttle,
+                             final StreamListener listener, final TransferStatus overall, final TransferStatus status,
+                             final ConnectionCallback callback) throws BackgroundException {
+        final Map<String, String> requestParameters = new HashMap<>();
+        requestParameters.put("uploadId", multipart.getUploadId());
+        requestParameters.put("partNumber", String.valueOf(status.getPart()));
+        status.setParameters(requestParameters);
+        switch(session.getSignatureVersion()) {
+            case AWS4HMACSHA256:
+                status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                break;
+        }
+        final StorageObject part = super.upload(file, local, throttle, listener, status, overall, status, callback);
+        // Populate part with response data that is accessible via the object's metadata
+        return new MultipartPart(status.getPart(),
+            null == part.getLastModifiedDate() ? new Date(System.currentTimeMillis()) : part.getLastModifiedDate(),
+            null == part.getETag() ? StringUtils.EMPTY : part.getETag(),
+            part.getContentLength());
+    }
+
+    @Override
+    public long length(final MultipartPart part) {
+        return part.getSize();
+    }
+
+    @Override
+    public StorageObject complete(final MultipartUpload multipart, final Path file, final TransferStatus status,
+                                  final List<MultipartPart> completed) throws BackgroundException {
+        try {
             // Combining all the given parts into the final object. Processing of a Complete Multipart Upload request
             // could take several minutes to complete. Because a request could fail after the initial 200 OK response
             // has been sent, it is important that you check the response body to determine whether the request succeeded.
@@ -187,7 +176,6 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
             }
             else {
                 if(S3Session.isAwsHostname(session.getHost().getHostname())) {
-                    completed.sort(new MultipartPart.PartNumberComparator());
                     final StringBuilder concat = new StringBuilder();
                     for(MultipartPart part : completed) {
                         concat.append(part.getEtag());
@@ -207,7 +195,8 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
             if(status.getTimestamp() != null) {
                 object.addMetadata(S3TimestampFeature.METADATA_MODIFICATION_DATE, String.valueOf(status.getTimestamp()));
             }
-            object.setContentLength(size);
+            // Full size of file
+            object.setContentLength(status.getOffset() + status.getLength());
             // Mark parent status as complete
             status.withResponse(new S3AttributesAdapter().toAttributes(object)).setComplete();
             return object;
@@ -215,52 +204,6 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
         catch(ServiceException e) {
             throw new S3ExceptionMappingService().map("Upload {0} failed", e, file);
         }
-        finally {
-            // Cancel future tasks
-            pool.shutdown(false);
-        }
-    }
-
-    private Future<MultipartPart> submit(final ThreadPool pool, final Path file, final Local local,
-                                         final BandwidthThrottle throttle, final StreamListener listener,
-                                         final TransferStatus overall, final MultipartUpload multipart,
-                                         final int partNumber, final long offset, final long length, final ConnectionCallback callback) {
-        if(log.isInfoEnabled()) {
-            log.info(String.format("Submit part %d of %s to queue with offset %d and length %d", partNumber, file, offset, length));
-        }
-        final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<MultipartPart>() {
-            @Override
-            public MultipartPart call() throws BackgroundException {
-                overall.validate();
-                final TransferStatus status = new TransferStatus()
-                    .withLength(length)
-                    .withOffset(offset);
-                final Map<String, String> requestParameters = new HashMap<>();
-                requestParameters.put("uploadId", multipart.getUploadId());
-                requestParameters.put("partNumber", String.valueOf(partNumber));
-                status.setParameters(requestParameters);
-                status.setPart(partNumber);
-                status.setHeader(overall.getHeader());
-                switch(session.getSignatureVersion()) {
-                    case AWS4HMACSHA256:
-                        status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
-                        break;
-                }
-                status.setSegment(true);
-                final StorageObject part = S3MultipartUploadService.super.upload(
-                    file, local, throttle, counter, status, overall, status, callback);
-                if(log.isInfoEnabled()) {
-                    log.info(String.format("Received response %s for part number %d", part, partNumber));
-                }
-                // Populate part with response data that is accessible via the object's metadata
-                return new MultipartPart(partNumber,
-                    null == part.getLastModifiedDate() ? new Date(System.currentTimeMillis()) : part.getLastModifiedDate(),
-                    null == part.getETag() ? StringUtils.EMPTY : part.getETag(),
-                    part.getContentLength());
-
-            }
-        }, overall, counter));
     }
 
     @Override
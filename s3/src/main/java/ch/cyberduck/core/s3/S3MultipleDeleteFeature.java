@@ -48,6 +48,7 @@ public class S3MultipleDeleteFeature implements Delete {
     private final S3Session session;
     private final PathContainerService containerService;
     private final S3MultipartService multipartService;
+    private final S3VersionedPlaceholderFinder placeholders;
     private final S3VersioningFeature versioningService;
 
     public S3MultipleDeleteFeature(final S3Session session, final S3AccessControlListFeature acl) {
@@ -59,6 +60,7 @@ public class S3MultipleDeleteFeature implements Delete {
         this.multipartService = multipartService;
         this.versioningService = versioningService;
         this.containerService = session.getFeature(PathContainerService.class);
+        this.placeholders = new S3VersionedPlaceholderFinder(session);
     }
 
     public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) throws BackgroundException {
@@ -71,6 +73,8 @@ public class S3MultipleDeleteFeature implements Delete {
             }
             callback.delete(file);
             final Path bucket = containerService.getContainer(file);
+            // Determine version of placeholder not read in listing
+            placeholders.find(file);
             if(file.getType().contains(Path.Type.upload)) {
                 // In-progress multipart upload
                 try {
@@ -29,7 +29,8 @@ import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.URIEncoder;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
-import ch.cyberduck.core.preferences.HostPreferences;
+import ch.cyberduck.core.preferences.HostPreferencesSnapshot;
+import ch.cyberduck.core.preferences.PreferenceKey;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -44,6 +45,9 @@ import java.util.EnumSet;
 public class S3ObjectListService extends S3AbstractListService implements ListService {
     private static final Logger log = LogManager.getLogger(S3ObjectListService.class);
 
+    private static final PreferenceKey LISTING_CHUNKSIZE = PreferenceKey.integer("s3.listing.chunksize");
+    private static final PreferenceKey LISTING_METADATA = PreferenceKey.bool("s3.listing.metadata.enable");
+
     private final PathContainerService containerService;
     private final S3Session session;
     private final S3AttributesFinderFeature attributes;
@@ -51,7 +55,7 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
     private final boolean metadata;
 
     public S3ObjectListService(final S3Session session, final S3AccessControlListFeature acl) {
-        this(session, acl, new HostPreferences(session.getHost()).getBoolean("s3.listing.metadata.enable"));
+        this(session, acl, HostPreferencesSnapshot.get(session.getHost()).getBoolean(LISTING_METADATA));
     }
 
     public S3ObjectListService(final S3Session session, final S3AccessControlListFeature acl, final boolean metadata) {
@@ -68,7 +72,7 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
     }
 
     protected AttributedList<Path> list(final Path directory, final ListProgressListener listener, final String delimiter) throws BackgroundException {
-        return this.list(directory, listener, delimiter, new HostPreferences(session.getHost()).getInteger("s3.listing.chunksize"));
+        return this.list(directory, listener, delimiter, HostPreferencesSnapshot.get(session.getHost()).getInteger(LISTING_CHUNKSIZE));
     }
 
     protected AttributedList<Path> list(final Path directory, final ListProgressListener listener, final String delimiter, final int chunksize) throws BackgroundException {
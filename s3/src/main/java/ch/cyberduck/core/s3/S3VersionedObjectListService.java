@@ -37,7 +37,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jets3t.service.ServiceException;
-import org.jets3t.service.StorageObjectsChunk;
 import org.jets3t.service.VersionOrDeleteMarkersChunk;
 import org.jets3t.service.model.BaseVersionOrDeleteMarker;
 import org.jets3t.service.model.S3Version;
@@ -51,7 +50,6 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import com.google.common.base.Throwables;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Uninterruptibles;
 
 public class S3VersionedObjectListService extends S3AbstractListService implements ListService {
@@ -62,6 +60,7 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
     private final PathContainerService containerService;
     private final S3Session session;
     private final S3AttributesFinderFeature attributes;
+    private final S3VersionedPlaceholderFinder placeholders;
     private final Integer concurrency;
 
     /**
@@ -69,6 +68,11 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
      */
     private final boolean metadata;
 
+    /**
+     * Skip listing placeholder version and deleted state for every common prefix
+     */
+    private final boolean lazy;
+
     public S3VersionedObjectListService(final S3Session session, final S3AccessControlListFeature acl) {
         this(session, acl, new HostPreferences(session.getHost()).getInteger("s3.listing.concurrency"));
     }
@@ -86,9 +90,11 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
         super(session);
         this.session = session;
         this.attributes = new S3AttributesFinderFeature(session, acl);
+        this.placeholders = new S3VersionedPlaceholderFinder(session);
         this.concurrency = concurrency;
         this.containerService = session.getFeature(PathContainerService.class);
         this.metadata = metadata;
+        this.lazy = new HostPreferences(session.getHost()).getBoolean("s3.listing.versioning.placeholder.lazy");
     }
 
     @Override
@@ -166,7 +172,17 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
                     if(new SimplePathPredicate(new Path(bucket, key, EnumSet.of(Path.Type.directory))).test(directory)) {
                         continue;
                     }
-                    folders.add(this.submit(pool, bucket, directory, URIEncoder.decode(common)));
+                    final PathAttributes attr = new PathAttributes();
+                    attr.setRegion(bucket.attributes().getRegion());
+                    final Path folder = new Path(directory, PathNormalizer.name(URIEncoder.decode(common)),
+                            EnumSet.of(Path.Type.directory, Path.Type.placeholder), attr);
+                    if(lazy) {
+                        // Version of placeholder is determined when required
+                        children.add(folder);
+                    }
+                    else {
+                        folders.add(this.submit(pool, folder));
+                    }
                 }
                 priorLastKey = null != chunk.getNextKeyMarker() ? URIEncoder.decode(chunk.getNextKeyMarker()) : null;
                 priorLastVersionId = chunk.getNextVersionIdMarker();
@@ -213,39 +229,11 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
         }
     }
 
-    private Future<Path> submit(final ThreadPool pool, final Path bucket, final Path directory, final String common) {
+    private Future<Path> submit(final ThreadPool pool, final Path folder) {
         return pool.execute(new BackgroundExceptionCallable<Path>() {
             @Override
             public Path call() throws BackgroundException {
-                final PathAttributes attr = new PathAttributes();
-                attr.setRegion(bucket.attributes().getRegion());
-                final Path prefix = new Path(directory, PathNormalizer.name(common),
-                        EnumSet.of(Path.Type.directory, Path.Type.placeholder), attr);
-                try {
-                    final VersionOrDeleteMarkersChunk versions = session.getClient().listVersionedObjectsChunked(
-                            bucket.isRoot() ? StringUtils.EMPTY : bucket.getName(), common, null, 1,
-                            null, null, false);
-                    if(versions.getItems().length == 1) {
-                        final BaseVersionOrDeleteMarker version = versions.getItems()[0];
-                        if(URIEncoder.decode(version.getKey()).equals(common)) {
-                            attr.setVersionId(version.getVersionId());
-                            if(version.isDeleteMarker()) {
-                                attr.setCustom(ImmutableMap.of(KEY_DELETE_MARKER, Boolean.TRUE.toString()));
-                            }
-                        }
-                        // no placeholder but objects inside - need to check if all of them are deleted
-                        final StorageObjectsChunk unversioned = session.getClient().listObjectsChunked(
-                                bucket.isRoot() ? StringUtils.EMPTY : bucket.getName(), common,
-                                null, 1, null, false);
-                        if(unversioned.getObjects().length == 0) {
-                            attr.setDuplicate(true);
-                        }
-                    }
-                    return prefix;
-                }
-                catch(ServiceException e) {
-                    throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, prefix);
-                }
+                return placeholders.probe(folder);
             }
         });
     }
@@ -0,0 +1,134 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.URIEncoder;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.features.Versioning;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jets3t.service.ServiceException;
+import org.jets3t.service.StorageObjectsChunk;
+import org.jets3t.service.VersionOrDeleteMarkersChunk;
+import org.jets3t.service.model.BaseVersionOrDeleteMarker;
+
+import static ch.cyberduck.core.s3.S3VersionedObjectListService.KEY_DELETE_MARKER;
+
+/**
+ * Determine version of directory placeholder and if all objects with the prefix are deleted. Attributes of the folder
+ * are updated in place to keep the result with the folder in the listing cache.
+ */
+public class S3VersionedPlaceholderFinder {
+    private static final Logger log = LogManager.getLogger(S3VersionedPlaceholderFinder.class);
+
+    /**
+     * Version state of folder determined. Common prefixes without placeholder have no version
+     */
+    public static final String KEY_PLACEHOLDER_PROBED = "placeholder_probed";
+
+    private final S3Session session;
+    private final PathContainerService containerService;
+
+    public S3VersionedPlaceholderFinder(final S3Session session) {
+        this.session = session;
+        this.containerService = session.getFeature(PathContainerService.class);
+    }
+
+    /**
+     * Probe version state of folder unless already known or versioning is not enabled for bucket
+     *
+     * @param folder Directory placeholder or common prefix
+     * @return Same folder with version attributes set
+     */
+    public Path find(final Path folder) throws BackgroundException {
+        if(!folder.isDirectory() || containerService.isContainer(folder)) {
+            return folder;
+        }
+        if(StringUtils.isNotBlank(folder.attributes().getVersionId())) {
+            // Determined in previous listing
+            return folder;
+        }
+        if(folder.attributes().getCustom().containsKey(KEY_PLACEHOLDER_PROBED)) {
+            // Determined previously
+            return folder;
+        }
+        final Versioning feature = session.getFeature(Versioning.class);
+        if(null == feature) {
+            return folder;
+        }
+        try {
+            if(!feature.getConfiguration(folder).isEnabled()) {
+                return folder;
+            }
+        }
+        catch(AccessDeniedException | InteroperabilityException e) {
+            log.warn(String.format("Ignore failure reading versioning configuration. %s", e));
+            return folder;
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Determine placeholder version for %s", folder));
+        }
+        return this.probe(folder);
+    }
+
+    /**
+     * List single version and object with prefix of folder
+     *
+     * @param folder Directory placeholder or common prefix
+     * @return Same folder with version attributes set
+     */
+    protected Path probe(final Path folder) throws BackgroundException {
+        final Path bucket = containerService.getContainer(folder);
+        String common = containerService.getKey(folder);
+        if(!common.endsWith(String.valueOf(Path.DELIMITER))) {
+            common += Path.DELIMITER;
+        }
+        final PathAttributes attr = folder.attributes();
+        try {
+            final VersionOrDeleteMarkersChunk versions = session.getClient().listVersionedObjectsChunked(
+                    bucket.isRoot() ? StringUtils.EMPTY : bucket.getName(), common, null, 1,
+                    null, null, false);
+            if(versions.getItems().length == 1) {
+                final BaseVersionOrDeleteMarker version = versions.getItems()[0];
+                if(URIEncoder.decode(version.getKey()).equals(common)) {
+                    attr.setVersionId(version.getVersionId());
+                    if(version.isDeleteMarker()) {
+                        attr.withCustom(KEY_DELETE_MARKER, Boolean.TRUE.toString());
+                    }
+                }
+                // no placeholder but objects inside - need to check if all of them are deleted
+                final StorageObjectsChunk unversioned = session.getClient().listObjectsChunked(
+                        bucket.isRoot() ? StringUtils.EMPTY : bucket.getName(), common,
+                        null, 1, null, false);
+                if(unversioned.getObjects().length == 0) {
+                    attr.setDuplicate(true);
+                }
+            }
+            attr.withCustom(KEY_PLACEHOLDER_PROBED, Boolean.TRUE.toString());
+            return folder;
+        }
+        catch(ServiceException e) {
+            throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, folder);
+        }
+    }
+}
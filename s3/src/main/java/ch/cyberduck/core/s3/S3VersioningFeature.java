@@ -184,11 +184,13 @@ public class S3VersioningFeature implements Versioning {
                 }
                 session.getClient().copyVersionedObject(file.attributes().getVersionId(),
                         containerService.getContainer(file).getName(), containerService.getKey(file), containerService.getContainer(file).getName(), destination, false);
-                if(file.getParent().attributes().getCustom().containsKey(S3VersionedObjectListService.KEY_DELETE_MARKER)) {
+                // Determine version of placeholder not read in listing
+                final Path parent = new S3VersionedPlaceholderFinder(session).find(file.getParent());
+                if(parent.attributes().getCustom().containsKey(S3VersionedObjectListService.KEY_DELETE_MARKER)) {
                     // revert placeholder
                     session.getClient().deleteVersionedObject(
-                            file.getParent().attributes().getVersionId(),
-                            containerService.getContainer(file).getName(), containerService.getKey(file.getParent()));
+                            parent.attributes().getVersionId(),
+                            containerService.getContainer(file).getName(), containerService.getKey(parent));
                 }
             }
             catch(ServiceException e) {
@@ -199,6 +201,15 @@ public class S3VersioningFeature implements Versioning {
 
     @Override
     public boolean isRevertable(final Path file) {
+        if(file.isDirectory()) {
+            try {
+                // Determine if all objects with prefix are deleted when not read in listing
+                return new S3VersionedPlaceholderFinder(session).find(file).attributes().isDuplicate();
+            }
+            catch(BackgroundException e) {
+                log.warn(String.format("Failure determining placeholder version for %s. %s", file, e));
+            }
+        }
         return file.attributes().isDuplicate();
     }
 
@@ -225,7 +236,7 @@ public class S3VersioningFeature implements Versioning {
 
     @Override
     public AttributedList<Path> list(final Path file, final ListProgressListener listener) throws BackgroundException {
-        return new S3VersionedObjectListService(session, acl).list(file, new ProxyListProgressListener(new IndexedListProgressListener() {
+        final AttributedList<Path> versions = new S3VersionedObjectListService(session, acl).list(file, new ProxyListProgressListener(new IndexedListProgressListener() {
             @Override
             public void message(final String message) {
                 listener.message(message);
@@ -241,7 +252,13 @@ public class S3VersioningFeature implements Versioning {
                     list.remove(index);
                 }
             }
-        }, listener)).filter(new NullFilter<Path>() {
+        }, listener));
+        final S3VersionedPlaceholderFinder placeholders = new S3VersionedPlaceholderFinder(session);
+        for(Path f : versions) {
+            // Determine version of placeholder not read in listing
+            placeholders.find(f);
+        }
+        return versions.filter(new NullFilter<Path>() {
             @Override
             public boolean accept(final Path f) {
                 return f.attributes().isDuplicate();
@@ -324,6 +324,8 @@ public class S3VersionedObjectListServiceTest extends AbstractS3Test {
         if(null == found) {
             fail(MessageFormat.format("Path {0} not found", file));
         }
+        // Version of placeholder is not determined in listing
+        new S3VersionedPlaceholderFinder(session).find(found);
         if(null == found.attributes().getVersionId()) {
             return found.attributes().isDuplicate();
         }
@@ -26,6 +26,7 @@ import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.exception.RetriableAccessDeniedException;
 import ch.cyberduck.core.features.Bulk;
 import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.features.Readiness;
 import ch.cyberduck.core.http.DefaultHttpResponseExceptionMappingService;
 import ch.cyberduck.core.preferences.HostPreferences;
 import ch.cyberduck.core.s3.RequestEntityRestStorageService;
@@ -50,6 +51,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -72,7 +74,7 @@ import com.spectralogic.ds3client.models.bulk.Ds3Object;
 import com.spectralogic.ds3client.networking.FailedRequestException;
 import com.spectralogic.ds3client.serializer.XmlProcessingException;
 
-public class SpectraBulkService implements Bulk<Set<UUID>> {
+public class SpectraBulkService implements Bulk<Set<UUID>>, Readiness {
     private static final Logger log = LogManager.getLogger(SpectraBulkService.class);
 
     private final SpectraSession session;
@@ -215,6 +217,84 @@ public class SpectraBulkService implements Bulk<Set<UUID>> {
         }
     }
 
+    /**
+     * Order files by job chunks ready for client processing. For PUT jobs this allocates a working window of job chunks
+     * to keep connections busy with objects that can be uploaded without retry. A file is ready when all its chunks
+     * are in the window.
+     *
+     * @param type  Transfer type
+     * @param files Files pending transfer with job id in status parameters
+     * @return Files in order of chunks ready
+     * @throws RetriableAccessDeniedException No chunks ready yet for any job
+     */
+    @Override
+    public List<TransferItem> ready(final Transfer.Type type, final Map<TransferItem, TransferStatus> files) throws BackgroundException {
+        final List<TransferItem> ready = new ArrayList<>();
+        // Files by job
+        final Map<String, List<TransferItem>> jobs = new LinkedHashMap<>();
+        for(Map.Entry<TransferItem, TransferStatus> item : files.entrySet()) {
+            final String job = item.getValue().getParameters().get(REQUEST_PARAMETER_JOBID_IDENTIFIER);
+            if(null == job) {
+                // Not part of bulk job
+                ready.add(item.getKey());
+                continue;
+            }
+            jobs.computeIfAbsent(job, k -> new ArrayList<>()).add(item.getKey());
+        }
+        Duration delay = null;
+        try {
+            final Ds3Client client = new SpectraClientBuilder().wrap(session.getClient(), session.getHost());
+            for(Map.Entry<String, List<TransferItem>> job : jobs.entrySet()) {
+                final GetJobChunksReadyForClientProcessingSpectraS3Response response = client.getJobChunksReadyForClientProcessingSpectraS3(
+                    new GetJobChunksReadyForClientProcessingSpectraS3Request(UUID.fromString(job.getKey())).withPreferredNumberOfChunks(Integer.MAX_VALUE));
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Job status %s for job %s", response.getStatus(), job.getKey()));
+                }
+                switch(response.getStatus()) {
+                    case RETRYLATER: {
+                        final Duration retry = Duration.ofSeconds(response.getRetryAfterSeconds());
+                        if(null == delay || retry.compareTo(delay) < 0) {
+                            delay = retry;
+                        }
+                        continue;
+                    }
+                }
+                final Map<String, TransferItem> keys = new HashMap<>();
+                for(TransferItem item : job.getValue()) {
+                    keys.put(containerService.getKey(item.remote), item);
+                }
+                // Number of chunks in window by object
+                final Map<String, Integer> counters = new HashMap<>();
+                for(Objects objects : response.getMasterObjectListResult().getObjects()) {
+                    for(BulkObject object : objects.getObjects()) {
+                        final TransferItem item = keys.get(object.getName());
+                        if(null == item) {
+                            continue;
+                        }
+                        final Integer chunks = files.get(item).getPart();
+                        if(null == chunks || counters.merge(object.getName(), 1, Integer::sum) >= chunks) {
+                            if(log.isDebugEnabled()) {
+                                log.debug(String.format("All chunks ready for %s in job %s", item, job.getKey()));
+                            }
+                            ready.add(keys.remove(object.getName()));
+                        }
+                    }
+                }
+            }
+        }
+        catch(FailedRequestException e) {
+            throw new SpectraExceptionMappingService().map(e);
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map(e);
+        }
+        if(ready.isEmpty()) {
+            throw new RetriableAccessDeniedException(String.format("No chunks ready for %d files", files.size()),
+                null == delay ? Duration.ofSeconds(new HostPreferences(session.getHost()).getInteger("spectra.retry.delay")) : delay);
+        }
+        return ready;
+    }
+
     /**
      * Get a list of all job chunks for a given job that are ready for client processing.
      * <p>
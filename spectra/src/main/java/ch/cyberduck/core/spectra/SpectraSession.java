@@ -63,6 +63,9 @@ public class SpectraSession extends S3Session {
         if(type == Bulk.class) {
             return (T) new SpectraBulkService(this);
         }
+        if(type == Readiness.class) {
+            return (T) new SpectraBulkService(this);
+        }
         if(type == Touch.class) {
             return (T) new SpectraTouchFeature(this);
         }
@@ -21,8 +21,8 @@ import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Read;
-import ch.cyberduck.core.preferences.HostPreferences;
-import ch.cyberduck.core.preferences.PreferencesReader;
+import ch.cyberduck.core.preferences.HostPreferencesSnapshot;
+import ch.cyberduck.core.preferences.PreferenceKey;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.logging.log4j.LogManager;
@@ -39,6 +39,9 @@ import net.schmizz.sshj.sftp.RemoteFile;
 public class SFTPReadFeature implements Read {
     private static final Logger log = LogManager.getLogger(SFTPReadFeature.class);
 
+    private static final PreferenceKey MAX_UNCONFIRMED_READS = PreferenceKey.integer("sftp.read.maxunconfirmed");
+    private static final PreferenceKey CHUNKSIZE = PreferenceKey.integer("connection.chunksize");
+
     private final SFTPSession session;
 
     public SFTPReadFeature(final SFTPSession session) {
@@ -78,11 +81,11 @@ public class SFTPReadFeature implements Read {
     }
 
     protected int getMaxUnconfirmedReads(final TransferStatus status) {
-        final PreferencesReader preferences = new HostPreferences(session.getHost());
+        final HostPreferencesSnapshot preferences = HostPreferencesSnapshot.get(session.getHost());
         if(TransferStatus.UNKNOWN_LENGTH == status.getLength()) {
-            return preferences.getInteger("sftp.read.maxunconfirmed");
+            return preferences.getInteger(MAX_UNCONFIRMED_READS);
         }
-        return Integer.min(((int) (status.getLength() / preferences.getInteger("connection.chunksize")) + 1),
-            preferences.getInteger("sftp.read.maxunconfirmed"));
+        return Integer.min(((int) (status.getLength() / preferences.getInteger(CHUNKSIZE)) + 1),
+            preferences.getInteger(MAX_UNCONFIRMED_READS));
     }
 }
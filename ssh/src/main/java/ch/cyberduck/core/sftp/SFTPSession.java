@@ -259,7 +259,7 @@ public class SFTPSession extends Session<SSHClient> {
     public void login(final Proxy proxy, final LoginCallback prompt, final CancelCallback cancel) throws BackgroundException {
         this.authenticate(client, host, prompt, cancel);
         try {
-            sftp = new LoggingSFTPEngine(client, this).init();
+            sftp = new LoggingSFTPEngine(client, this, this.getMetrics()).init();
             sftp.setTimeoutMs(ConnectionTimeoutFactory.get(preferences).getTimeout() * 1000);
         }
         catch(IOException e) {
@@ -516,15 +516,19 @@ public class SFTPSession extends Session<SSHClient> {
 
     private static final class LoggingSFTPEngine extends SFTPEngine {
         private final TranscriptListener transcript;
+        private final Metrics metrics;
 
-        public LoggingSFTPEngine(final SSHClient client, final TranscriptListener transcript) throws SSHException {
+        public LoggingSFTPEngine(final SSHClient client, final TranscriptListener transcript, final Metrics metrics) throws SSHException {
             super(client, String.valueOf(Path.DELIMITER));
             this.transcript = transcript;
+            this.metrics = metrics;
         }
 
         @Override
         public Promise<Response, SFTPException> request(final Request req) throws IOException {
             transcript.log(Type.request, String.format("%d %s", req.getRequestID(), req.getType()));
+            // Responses are matched asynchronously to promises and only counted
+            metrics.increment(String.format("sftp.%s", req.getType()));
             return super.request(req);
         }
     }
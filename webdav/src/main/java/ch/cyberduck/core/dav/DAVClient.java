@@ -18,6 +18,7 @@ package ch.cyberduck.core.dav;
  * feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.lang3.StringUtils;
@@ -30,12 +31,15 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.xml.namespace.QName;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import com.github.sardine.DavResource;
 import com.github.sardine.impl.SardineImpl;
@@ -78,11 +82,30 @@ public class DAVClient extends SardineImpl {
         return super.execute(request);
     }
 
+    /**
+     * Callback for streaming PROPFIND of current thread
+     */
+    private final ThreadLocal<DavResourceCallback> streaming = new ThreadLocal<>();
+
     @Override
     protected List<DavResource> propfind(final String url, final int depth, final Propfind body) throws IOException {
         HttpPropFind entity = new HttpPropFind(url);
         entity.setDepth(depth < 0 ? "infinity" : Integer.toString(depth));
         entity.setEntity(new StringEntity(SardineUtil.toXml(body), StandardCharsets.UTF_8));
+        final DavResourceCallback callback = streaming.get();
+        if(null != callback) {
+            if(PreferencesFactory.get().getBoolean("webdav.list.handler.sax")) {
+                this.execute(entity, new SaxPropFindResponseHandler(response -> this.resource(response, callback)));
+            }
+            else {
+                // Parse complete response
+                final Multistatus multistatus = this.execute(entity, new MultiStatusResponseHandler());
+                for(Response response : multistatus.getResponse()) {
+                    this.resource(response, callback);
+                }
+            }
+            return Collections.emptyList();
+        }
         Multistatus multistatus = this.execute(entity, PreferencesFactory.get().getBoolean("webdav.list.handler.sax") ? new SaxPropFindResponseHandler() : new MultiStatusResponseHandler());
         List<Response> responses = multistatus.getResponse();
         List<DavResource> resources = new ArrayList<DavResource>(responses.size());
@@ -97,6 +120,68 @@ public class DAVClient extends SardineImpl {
         return resources;
     }
 
+    /**
+     * Streaming PROPFIND notifying callback for every resource parsed without retaining the response
+     *
+     * @param url      Encoded path
+     * @param depth    Depth or negative number for infinity
+     * @param props    Custom properties to request in addition to default properties
+     * @param callback Notified for every resource in order of response
+     */
+    public void list(final String url, final int depth, final Set<QName> props, final DavResourceCallback callback) throws IOException {
+        streaming.set(callback);
+        try {
+            this.list(url, depth, props);
+        }
+        finally {
+            streaming.remove();
+        }
+    }
+
+    /**
+     * Streaming PROPFIND requesting all properties
+     *
+     * @param url      Encoded path
+     * @param depth    Depth or negative number for infinity
+     * @param callback Notified for every resource in order of response
+     */
+    public void list(final String url, final int depth, final DavResourceCallback callback) throws IOException {
+        streaming.set(callback);
+        try {
+            this.list(url, depth, true);
+        }
+        finally {
+            streaming.remove();
+        }
+    }
+
+    private void resource(final Response response, final DavResourceCallback callback) throws IOException {
+        try {
+            callback.resource(new DavResource(response));
+        }
+        catch(URISyntaxException e) {
+            log.warn(String.format("Ignore resource with invalid URI %s", response.getHref().get(0)));
+        }
+    }
+
+    public interface DavResourceCallback {
+        void resource(DavResource resource) throws IOException;
+    }
+
+    /**
+     * Failure in callback passed through parser
+     */
+    public static final class DavResourceCallbackException extends IOException {
+        public DavResourceCallbackException(final BackgroundException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized BackgroundException getCause() {
+            return (BackgroundException) super.getCause();
+        }
+    }
+
     public HttpClientContext context() {
         return context;
     }
@@ -24,19 +24,19 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathNormalizer;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.http.HttpExceptionMappingService;
+import ch.cyberduck.core.preferences.HostPreferences;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.util.EnumSet;
-import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import com.github.sardine.DavResource;
 import com.github.sardine.impl.SardineException;
 
 public class DAVListService implements ListService {
@@ -58,38 +58,56 @@ public class DAVListService implements ListService {
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
         try {
             final AttributedList<Path> children = new AttributedList<Path>();
-            for(final DavResource resource : this.list(directory)) {
+            final int chunksize = new HostPreferences(session.getHost()).getInteger("webdav.listing.chunksize");
+            // Paths are created as soon as each response element is parsed
+            this.list(directory, resource -> {
                 // Try to parse as RFC 2396
                 final String href = PathNormalizer.normalize(resource.getHref().getPath(), true);
                 if(href.equals(directory.getAbsolute())) {
                     log.warn(String.format("Ignore resource %s", href));
                     // Do not include self
                     if(resource.isDirectory()) {
-                        continue;
+                        return;
                     }
-                    throw new NotfoundException(directory.getAbsolute());
+                    throw new DAVClient.DavResourceCallbackException(new NotfoundException(directory.getAbsolute()));
                 }
                 final PathAttributes attr = attributes.toAttributes(resource);
                 final Path file = new Path(directory, PathNormalizer.name(href),
                     resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attr);
                 children.add(file);
-                listener.chunk(directory, children);
-            }
+                if(children.size() % chunksize == 0) {
+                    try {
+                        listener.chunk(directory, children);
+                    }
+                    catch(ConnectionCanceledException e) {
+                        throw new DAVClient.DavResourceCallbackException(e);
+                    }
+                }
+            });
+            listener.chunk(directory, children);
             return children;
         }
         catch(SardineException e) {
             throw new DAVExceptionMappingService().map("Listing directory {0} failed", e, directory);
         }
+        catch(DAVClient.DavResourceCallbackException e) {
+            // Failure from callback
+            throw e.getCause();
+        }
         catch(IOException e) {
             throw new HttpExceptionMappingService().map(e, directory);
         }
     }
 
-    protected List<DavResource> list(final Path directory) throws IOException {
-        return session.getClient().list(new DAVPathEncoder().encode(directory), 1,
+    /**
+     * @param directory Folder to list with depth 1
+     * @param callback  Notified for each resource including the folder itself as parsed from the response
+     */
+    protected void list(final Path directory, final DAVClient.DavResourceCallback callback) throws IOException {
+        session.getClient().list(new DAVPathEncoder().encode(directory), 1,
             Stream.of(
                 DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
                 DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
-                collect(Collectors.toSet()));
+                collect(Collectors.toSet()), callback);
     }
 }
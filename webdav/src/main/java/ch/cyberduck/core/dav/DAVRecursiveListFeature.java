@@ -0,0 +1,167 @@
+package ch.cyberduck.core.dav;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.RecursiveList;
+import ch.cyberduck.core.http.HttpExceptionMappingService;
+import ch.cyberduck.core.preferences.HostPreferences;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.github.sardine.impl.SardineException;
+
+/**
+ * Subtree listing with a single <code>PROPFIND</code> request with <code>Depth: infinity</code>. The multistatus
+ * response is parsed while streamed. Servers not allowing infinite depth are remembered for the lifetime of this
+ * instance.
+ */
+public class DAVRecursiveListFeature implements RecursiveList {
+    private static final Logger log = LogManager.getLogger(DAVRecursiveListFeature.class);
+
+    private final DAVSession session;
+    private final DAVAttributesFinderFeature attributes;
+
+    /**
+     * Cleared when server refuses request with infinite depth
+     */
+    private final AtomicBoolean supported = new AtomicBoolean(true);
+
+    public DAVRecursiveListFeature(final DAVSession session) {
+        this(session, new DAVAttributesFinderFeature(session));
+    }
+
+    public DAVRecursiveListFeature(final DAVSession session, final DAVAttributesFinderFeature attributes) {
+        this.session = session;
+        this.attributes = attributes;
+    }
+
+    @Override
+    public Map<Path, AttributedList<Path>> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        // Folders by absolute path
+        final Map<String, Path> folders = new HashMap<>();
+        folders.put(directory.getAbsolute(), directory);
+        final Map<String, AttributedList<Path>> listings = new LinkedHashMap<>();
+        listings.put(directory.getAbsolute(), new AttributedList<>());
+        final int chunksize = new HostPreferences(session.getHost()).getInteger("webdav.listing.chunksize");
+        final AtomicInteger count = new AtomicInteger();
+        try {
+            this.list(directory, resource -> {
+                final String href = PathNormalizer.normalize(resource.getHref().getPath(), true);
+                if(href.equals(directory.getAbsolute())) {
+                    if(resource.isDirectory()) {
+                        return;
+                    }
+                    throw new DAVClient.DavResourceCallbackException(new NotfoundException(directory.getAbsolute()));
+                }
+                if(!directory.isRoot() && !StringUtils.startsWith(href, directory.getAbsolute() + Path.DELIMITER)) {
+                    log.warn(String.format("Ignore resource %s outside of %s", href, directory));
+                    return;
+                }
+                final String parent = PathNormalizer.parent(href, Path.DELIMITER);
+                // Responses are not required to list parent folders first
+                final Path folder = folders.computeIfAbsent(parent, p -> new Path(p, EnumSet.of(Path.Type.directory)));
+                final PathAttributes attr = attributes.toAttributes(resource);
+                final Path file = new Path(folder, PathNormalizer.name(href),
+                    resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attr);
+                final AttributedList<Path> children = listings.computeIfAbsent(parent, p -> new AttributedList<>());
+                children.add(file);
+                if(file.isDirectory()) {
+                    folders.put(href, file);
+                    listings.putIfAbsent(href, new AttributedList<>());
+                }
+                if(count.incrementAndGet() % chunksize == 0) {
+                    try {
+                        listener.chunk(folder, children);
+                    }
+                    catch(ConnectionCanceledException e) {
+                        throw new DAVClient.DavResourceCallbackException(e);
+                    }
+                }
+            });
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Listed %d files in %d folders for %s", count.get(), listings.size(), directory));
+            }
+            final Map<Path, AttributedList<Path>> tree = new LinkedHashMap<>();
+            for(Map.Entry<String, AttributedList<Path>> entry : listings.entrySet()) {
+                tree.put(folders.get(entry.getKey()), entry.getValue());
+            }
+            return tree;
+        }
+        catch(SardineException e) {
+            switch(e.getStatusCode()) {
+                case HttpStatus.SC_BAD_REQUEST:
+                case HttpStatus.SC_FORBIDDEN:
+                case HttpStatus.SC_METHOD_NOT_ALLOWED:
+                case HttpStatus.SC_NOT_IMPLEMENTED:
+                    // Error propfind-finite-depth
+                    log.warn(String.format("Disable subtree listing after failure %s", e.getResponsePhrase()));
+                    supported.set(false);
+                    throw new UnsupportedException(e.getResponsePhrase(), e);
+            }
+            throw new DAVExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+        catch(DAVClient.DavResourceCallbackException e) {
+            // Failure from callback
+            throw e.getCause();
+        }
+        catch(IOException e) {
+            throw new HttpExceptionMappingService().map(e, directory);
+        }
+    }
+
+    protected void list(final Path directory, final DAVClient.DavResourceCallback callback) throws IOException {
+        session.getClient().list(new DAVPathEncoder().encode(directory), -1,
+            Stream.of(
+                DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
+                DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
+                collect(Collectors.toSet()), callback);
+    }
+
+    @Override
+    public boolean isSupported(final Path directory) {
+        return supported.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DAVRecursiveListFeature{");
+        sb.append("supported=").append(supported);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -96,6 +96,7 @@ public class DAVSession extends HttpSession<DAVClient> {
     private Timestamp timestamp = new DAVTimestampFeature(this);
     private AttributesFinder attributes = new DAVAttributesFinderFeature(this);
     private Find find = new DAVFindFeature(this);
+    private final RecursiveList recursive = new DAVRecursiveListFeature(this);
 
     public DAVSession(final Host host, final X509TrustManager trust, final X509KeyManager key) {
         this(host, trust, key, new PreferencesRedirectCallback());
@@ -294,6 +295,13 @@ public class DAVSession extends HttpSession<DAVClient> {
         return false;
     }
 
+    /**
+     * @return Recursive listing feature shared by subclasses
+     */
+    protected RecursiveList getRecursiveList() {
+        return recursive;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> T _getFeature(final Class<T> type) {
@@ -348,6 +356,12 @@ public class DAVSession extends HttpSession<DAVClient> {
         if(type == Touch.class) {
             return (T) new DAVTouchFeature(this);
         }
+        if(type == RecursiveList.class) {
+            if(preferences.getBoolean("webdav.listing.recursive.enable")) {
+                return (T) recursive;
+            }
+            return null;
+        }
         return super._getFeature(type);
     }
 
@@ -41,6 +41,22 @@ import com.github.sardine.util.SardineUtil;
 public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
     private static final Logger log = LogManager.getLogger(SaxPropFindResponseHandler.class);
 
+    /**
+     * Notified for every response element parsed or null to collect all responses in multistatus
+     */
+    private final ResponseCallback callback;
+
+    public SaxPropFindResponseHandler() {
+        this(null);
+    }
+
+    /**
+     * @param callback Notified for every response element when closed. Responses are not retained in returned multistatus.
+     */
+    public SaxPropFindResponseHandler(final ResponseCallback callback) {
+        this.callback = callback;
+    }
+
     @Override
     protected Multistatus getMultistatus(final InputStream stream) throws IOException {
         final SAXParserFactory spf = SAXParserFactory.newInstance();
@@ -48,18 +64,44 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         try {
             final SAXParser saxParser = spf.newSAXParser();
             final XMLReader xmlReader = saxParser.getXMLReader();
-            final SaxHandler handler = new SaxHandler();
+            final SaxHandler handler = new SaxHandler(callback);
             xmlReader.setContentHandler(handler);
             xmlReader.setErrorHandler(new LoggingErrorHandler());
             xmlReader.parse(new InputSource(stream));
             return handler.getMultistatus();
         }
+        catch(ResponseCallbackException e) {
+            throw e.getCause();
+        }
         catch(IOException | SAXException | ParserConfigurationException e) {
             throw new IOException("Not a valid DAV response", e);
         }
     }
 
+    public interface ResponseCallback {
+        /**
+         * @param response Single response parsed from multistatus
+         * @throws IOException Abort parsing
+         */
+        void response(Response response) throws IOException;
+    }
+
+    /**
+     * Failure in callback passed through parser
+     */
+    private static final class ResponseCallbackException extends SAXException {
+        public ResponseCallbackException(final IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
     private static final class SaxHandler extends DefaultHandler {
+        private final ResponseCallback callback;
 
         private Multistatus multistatus;
         private Response response;
@@ -73,6 +115,10 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         private final StringBuilder text = new StringBuilder();
         private final Element root = SardineUtil.createElement(SardineUtil.createQNameWithCustomNamespace("root"));
 
+        public SaxHandler(final ResponseCallback callback) {
+            this.callback = callback;
+        }
+
         @Override
         public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
             switch(localName) {
@@ -81,7 +127,7 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
                     break;
                 case "response":
                     response = new Response();
-                    if(multistatus != null) {
+                    if(multistatus != null && null == callback) {
                         multistatus.getResponse().add(response);
                     }
                     break;
@@ -135,7 +181,23 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         }
 
         @Override
-        public void endElement(final String uri, final String localName, final String qName) {
+        public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+            if(null != callback && null != response && "response".equals(localName)) {
+                try {
+                    callback.response(response);
+                }
+                catch(IOException e) {
+                    throw new ResponseCallbackException(e);
+                }
+                response = null;
+                propstat = null;
+                prop = null;
+                type = null;
+                lockdiscovery = null;
+                activelock = null;
+                locktoken = null;
+                return;
+            }
             if(StringUtils.isBlank(text.toString())) {
                 return;
             }
@@ -0,0 +1,66 @@
+package ch.cyberduck.core.dav;
+
+/*
+ * Copyright (c) 2002-2022 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.sardine.model.Multistatus;
+import com.github.sardine.model.Response;
+
+import static org.junit.Assert.*;
+
+public class SaxPropFindResponseHandlerTest {
+
+    private static final String MULTISTATUS = "<?xml version=\"1.0\" encoding=\"utf-8\"?>" +
+        "<d:multistatus xmlns:d=\"DAV:\">" +
+        "<d:response><d:href>/f/</d:href><d:propstat><d:prop><d:resourcetype><d:collection/></d:resourcetype></d:prop>" +
+        "<d:status>HTTP/1.1 200 OK</d:status></d:propstat></d:response>" +
+        "<d:response><d:href>/f/a</d:href><d:propstat><d:prop><d:getcontentlength>3</d:getcontentlength></d:prop>" +
+        "<d:status>HTTP/1.1 200 OK</d:status></d:propstat></d:response>" +
+        "</d:multistatus>";
+
+    @Test
+    public void testCollect() throws Exception {
+        final Multistatus multistatus = new SaxPropFindResponseHandler().getMultistatus(
+            new ByteArrayInputStream(MULTISTATUS.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, multistatus.getResponse().size());
+    }
+
+    @Test
+    public void testCallback() throws Exception {
+        final List<Response> responses = new ArrayList<>();
+        final Multistatus multistatus = new SaxPropFindResponseHandler(responses::add).getMultistatus(
+            new ByteArrayInputStream(MULTISTATUS.getBytes(StandardCharsets.UTF_8)));
+        assertTrue(multistatus.getResponse().isEmpty());
+        assertEquals(2, responses.size());
+        assertEquals("/f/", responses.get(0).getHref().get(0));
+        assertEquals("/f/a", responses.get(1).getHref().get(0));
+        assertEquals("3", responses.get(1).getPropstat().get(0).getProp().getGetcontentlength().getContent().get(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCallbackFailure() throws Exception {
+        new SaxPropFindResponseHandler(response -> {
+            throw new IOException("abort");
+        }).getMultistatus(new ByteArrayInputStream(MULTISTATUS.getBytes(StandardCharsets.UTF_8)));
+    }
+}